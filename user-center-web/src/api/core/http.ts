@@ -10,8 +10,29 @@ export const http = axios.create({
   timeout: 15000,
 })
 
+/* 函数级注释：令牌模式下保存后端下发的登录令牌（Session 模式后端不会下发，这里什么都不做）。
+   小白理解：后端给了“通行证”就存起来，以后每次请求都带上。 */
+const TOKEN_HEADER = 'x-auth-token'
+const TOKEN_STORAGE_KEY = 'user-center-auth-token'
+
+export function clearAuthToken() {
+  localStorage.removeItem(TOKEN_STORAGE_KEY)
+}
+
+http.interceptors.request.use((config) => {
+  const token = localStorage.getItem(TOKEN_STORAGE_KEY)
+  if (token) {
+    config.headers.set('X-Auth-Token', token)
+  }
+  return config
+})
+
 http.interceptors.response.use(
   (res) => {
+    const token = res.headers[TOKEN_HEADER]
+    if (typeof token === 'string' && token) {
+      localStorage.setItem(TOKEN_STORAGE_KEY, token)
+    }
     const payload = res.data as unknown
     if (isApiEnvelope(payload)) {
       const code = Number(payload.code)
@@ -13,6 +13,13 @@ export type UserDTO = {
   roleName?: string
   roleKey?: string
   createTime?: string
+  version?: number
+}
+
+export type UserPageDTO = {
+  records: UserDTO[]
+  nextCursor?: string | null
+  hasMore: boolean
 }
 
 export type UserUpdatePayload = {
@@ -25,6 +32,7 @@ export type UserUpdatePayload = {
   phone?: string
   userStatus?: number
   userRole?: number
+  version?: number
 }
 
 export type UserUpdateMyPayload = {
@@ -48,3 +56,14 @@ export type UserAssignRolesPayload = {
   roleIds: number[]
 }
 
+export type UserBulkAssignRolesPayload = {
+  assignments: { userId: number; roleId: number }[]
+}
+
+export type BulkAssignResultDTO = {
+  total: number
+  succeeded: number
+  failed: number
+  results: { userId: number; roleId: number; success: boolean; message?: string | null }[]
+}
+
@@ -1,7 +1,7 @@
 export { http } from './core/http'
 export type { ApiResponse } from './core/types'
-export type { RoleDTO, UserAssignRolesPayload, UserDTO, UserUpdateMyPayload, UserUpdatePayload } from './dto'
+export type { BulkAssignResultDTO, RoleDTO, UserAssignRolesPayload, UserBulkAssignRolesPayload, UserDTO, UserPageDTO, UserUpdateMyPayload, UserUpdatePayload } from './dto'
 export { login, getCurrentUser, logout, register } from './modules/auth'
 export { updateMyUser } from './modules/user'
-export { searchUsers, deleteUser, updateUser, getUserRoleIds, assignUserRoles } from './modules/adminUser'
+export { searchUsers, searchUsersPage, deleteUser, updateUser, getUserRoleIds, assignUserRoles, assignUserRolesBulk } from './modules/adminUser'
 export { listRoles } from './modules/role'
@@ -4,5 +4,5 @@ export * from './modules/auth'
 export * from './modules/user'
 export * from './modules/adminUser'
 export * from './modules/role'
-export type { RoleDTO, UserAssignRolesPayload, UserDTO, UserUpdateMyPayload, UserUpdatePayload } from './dto'
+export type { BulkAssignResultDTO, RoleDTO, UserAssignRolesPayload, UserBulkAssignRolesPayload, UserDTO, UserPageDTO, UserUpdateMyPayload, UserUpdatePayload } from './dto'
 
@@ -1,11 +1,17 @@
-import type { UserAssignRolesPayload, UserDTO, UserUpdatePayload } from '../dto'
+import type { BulkAssignResultDTO, UserAssignRolesPayload, UserBulkAssignRolesPayload, UserDTO, UserPageDTO, UserUpdatePayload } from '../dto'
 import { http } from '../core/http'
 
-/* 函数级注释：管理员搜索用户，向 /admin/user/search 传 username 关键字。
-   小白理解：输入搜索词，向后端问“有哪些人名字像这个”。 */
-export async function searchUsers(keyword: string) {
-  const res = await http.get('/admin/user/search', { params: { username: keyword } })
-  return res.data as Array<UserDTO>
+/* 函数级注释：管理员分页搜索用户（游标分页），第一页不传 cursor，之后传上一页的 nextCursor。
+   小白理解：一页一页往后翻，后端告诉你“下一页从哪开始”。 */
+export async function searchUsersPage(keyword: string, cursor?: string, pageSize = 20) {
+  const res = await http.get('/admin/user/search', { params: { username: keyword, cursor, pageSize } })
+  return res.data as UserPageDTO
+}
+
+/* 函数级注释：管理员搜索用户，每次取 100 条；还有更多时返回 hasMore 和 nextCursor，传回 cursor 接着取下一批。
+   小白理解：输入搜索词，向后端问“有哪些人名字像这个”，一次给 100 个，不够再要。 */
+export async function searchUsers(keyword: string, cursor?: string) {
+  return searchUsersPage(keyword, cursor, 100)
 }
 
 /* 函数级注释：管理员删除用户（按 id 删除）。
@@ -38,3 +44,10 @@ export async function assignUserRoles(payload: UserAssignRolesPayload) {
   return res.data as boolean
 }
 
+/* 函数级注释：批量给用户分配角色（每个用户一个角色），返回逐个用户的结果。
+   小白理解：一次把一大批“谁 -> 什么角色”发给后端，失败的会告诉你原因。 */
+export async function assignUserRolesBulk(payload: UserBulkAssignRolesPayload) {
+  const res = await http.post('/admin/user/roles/assign-bulk', payload)
+  return res.data as BulkAssignResultDTO
+}
+
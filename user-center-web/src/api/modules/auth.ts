@@ -1,7 +1,7 @@
 import axios from 'axios'
 import type { UserDTO } from '../dto'
 import { getErrorCode } from '../core/error'
-import { http } from '../core/http'
+import { clearAuthToken, http } from '../core/http'
 
 /* 函数级注释：用户登录接口，向后端 /user/login 发送账号密码。
    小白理解：把账号密码发给后端，浏览器自动保存“登录票”（Cookie）。 */
@@ -31,8 +31,12 @@ export async function getCurrentUser() {
 /* 函数级注释：用户退出登录接口，向后端 /user/logout 发送请求清除 Session。
    小白理解：告诉后端“我退出了”，后端把我的登录票作废。 */
 export async function logout() {
-  const res = await http.post('/user/logout')
-  return res.data as boolean
+  try {
+    const res = await http.post('/user/logout')
+    return res.data as boolean
+  } finally {
+    clearAuthToken()
+  }
 }
 
 /* 函数级注释：用户注册接口，向后端 /user/register 发送账号密码与确认密码。
@@ -0,0 +1,95 @@
+package com.yupi.user_center;
+
+import com.yupi.user_center.model.Role;
+import com.yupi.user_center.model.User;
+import com.yupi.user_center.model.UserRole;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 微基准用的假数据（字段长度贴近线上真实数据）。
+ *
+ * @author Ethan
+ */
+public final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * 构造一个字段全部填满的用户（含密码，模拟从库里查出的整行）。
+     *
+     * @param id 用户 id
+     * @return 用户
+     */
+    public static User user(long id) {
+        User u = new User();
+        u.setId(id);
+        u.setName("用户" + id);
+        u.setUserAccount("account" + id);
+        u.setUserPassword("pbkdf2$120000$3q2+7w8K9lM0nB1vC2xZ3A==$8fJ2kL0pQ9rS7tU6vW5xY4zA3bC2dE1fG0hI9jK8lM7=");
+        u.setAvatarUrl("https://cdn.example.com/avatar/" + id + ".png");
+        u.setGender((int) (id & 1));
+        u.setPhone("1380000" + String.format("%04d", id % 10000));
+        u.setEmail("user" + id + "@example.com");
+        u.setUserStatus(0);
+        u.setUserRole(0);
+        u.setCreateTime(LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(id));
+        u.setIsDelete(0);
+        return u;
+    }
+
+    /**
+     * 构造一批用户。
+     *
+     * @param n 数量
+     * @return 用户列表
+     */
+    public static List<User> users(int n) {
+        List<User> list = new ArrayList<>(n);
+        for (int i = 1; i <= n; i++) {
+            list.add(user(i));
+        }
+        return list;
+    }
+
+    /**
+     * 构造角色表（id 从 1 开始）。
+     *
+     * @param n 角色数
+     * @return 角色列表
+     */
+    public static List<Role> roles(int n) {
+        List<Role> list = new ArrayList<>(n);
+        for (long i = 1; i <= n; i++) {
+            Role r = new Role();
+            r.setId(i);
+            r.setRoleKey("role_" + i);
+            r.setRoleName("角色" + i);
+            r.setStatus(0);
+            r.setIsDelete(0);
+            list.add(r);
+        }
+        return list;
+    }
+
+    /**
+     * 给每个用户分配一个角色（按 id 取模）。
+     *
+     * @param users 用户
+     * @param roleCount 角色数
+     * @return 用户-角色关系
+     */
+    public static List<UserRole> userRoles(List<User> users, int roleCount) {
+        List<UserRole> list = new ArrayList<>(users.size());
+        for (User u : users) {
+            UserRole ur = new UserRole();
+            ur.setUserId(u.getId());
+            ur.setRoleId(u.getId() % roleCount + 1);
+            list.add(ur);
+        }
+        return list;
+    }
+}
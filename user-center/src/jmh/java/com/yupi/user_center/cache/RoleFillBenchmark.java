@@ -0,0 +1,98 @@
+package com.yupi.user_center.cache;
+
+import com.yupi.user_center.BenchmarkFixtures;
+import com.yupi.user_center.model.Role;
+import com.yupi.user_center.model.User;
+import com.yupi.user_center.model.UserRole;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 给一页用户补角色信息：旧版 fillRoleInfo 的“建 userId-&gt;roleId 表 + 建 roleId-&gt;Role 表”
+ * 与现在直接查 RoleCatalog 快照的对比（两者都不含查库时间，只看内存里的组装开销）。
+ *
+ * @author Ethan
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RoleFillBenchmark {
+
+    @Param({"20", "500"})
+    public int pageSize;
+
+    private List<User> users;
+
+    private List<UserRole> userRoles;
+
+    private List<Role> roles;
+
+    private RoleCatalog.Snapshot snapshot;
+
+    @Setup
+    public void setUp() {
+        users = BenchmarkFixtures.users(pageSize);
+        roles = BenchmarkFixtures.roles(8);
+        userRoles = BenchmarkFixtures.userRoles(users, roles.size());
+        snapshot = new RoleCatalog.Snapshot(roles, 1L);
+    }
+
+    /**
+     * 旧版 fillRoleInfo 的等价复刻（user_role / role 查询结果已在内存里）。
+     */
+    @Benchmark
+    public void legacyMapBuilding(Blackhole bh) {
+        List<Long> userIds = users.stream().map(User::getId).filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        bh.consume(userIds);
+        Map<Long, Long> userIdToRoleId = new HashMap<>();
+        for (UserRole ur : userRoles) {
+            userIdToRoleId.putIfAbsent(ur.getUserId(), ur.getRoleId());
+        }
+        Set<Long> roleIds = userIdToRoleId.values().stream().filter(Objects::nonNull).collect(Collectors.toSet());
+        bh.consume(roleIds);
+        Map<Long, Role> roleMap = roles.stream().collect(Collectors.toMap(Role::getId, r -> r, (a, b) -> a));
+        for (User u : users) {
+            Long roleId = userIdToRoleId.get(u.getId());
+            Role role = roleId == null ? null : roleMap.get(roleId);
+            if (role != null) {
+                u.setRoleId(roleId);
+                u.setRoleName(role.getRoleName());
+                u.setRoleKey(role.getRoleKey());
+            }
+        }
+        bh.consume(users);
+    }
+
+    /**
+     * 现在的做法：roleId 已随 JOIN 带回，角色名直接查快照。
+     */
+    @Benchmark
+    public void snapshotLookup(Blackhole bh) {
+        for (int i = 0; i < users.size(); i++) {
+            User u = users.get(i);
+            Role role = snapshot.getById(userRoles.get(i).getRoleId());
+            if (role != null) {
+                u.setRoleId(role.getId());
+                u.setRoleName(role.getRoleName());
+                u.setRoleKey(role.getRoleKey());
+            }
+        }
+        bh.consume(users);
+    }
+}
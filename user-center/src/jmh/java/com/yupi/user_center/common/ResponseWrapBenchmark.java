@@ -0,0 +1,205 @@
+package com.yupi.user_center.common;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yupi.user_center.BenchmarkFixtures;
+import com.yupi.user_center.model.vo.UserVO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.util.ReflectionUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 统一响应包装：GlobalResponseAdvice.beforeBodyWrite 包装 + Jackson 序列化成字节（即写出响应体的全部 CPU 开销），
+ * 以及 EnvelopeHttpMessageConverter 流式写信封与旧路径（包装 + Jackson 转换器 / String 转换器）的对比。
+ *
+ * <p>对比组都写进同一个复用的输出缓冲区，B/op 只反映包装与编码本身；
+ * 大列表用 {@code -p rows=1000} 之类调整（默认 20 和 1000 各跑一组）。</p>
+ *
+ * @author Ethan
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ResponseWrapBenchmark {
+
+    private GlobalResponseAdvice advice;
+
+    private ObjectMapper objectMapper;
+
+    private UserVO userVO;
+
+    private List<UserVO> page;
+
+    /**
+     * 对比组里列表的行数。
+     */
+    @Param({"20", "1000"})
+    public int rows;
+
+    private List<UserVO> rowsPage;
+
+    private final Type listType = new TypeReference<List<UserVO>>() { }.getType();
+
+    private EnvelopeHttpMessageConverter envelopeConverter;
+
+    private MappingJackson2HttpMessageConverter jacksonConverter;
+
+    private StringHttpMessageConverter stringConverter;
+
+    private ReusableOutputMessage out;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        advice = new GlobalResponseAdvice();
+        Field field = ReflectionUtils.findField(GlobalResponseAdvice.class, "objectMapper");
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, advice, objectMapper);
+
+        userVO = toVO(1L);
+        page = new ArrayList<>(20);
+        for (long i = 1; i <= 20; i++) {
+            page.add(toVO(i));
+        }
+        rowsPage = new ArrayList<>(rows);
+        for (long i = 1; i <= rows; i++) {
+            rowsPage.add(toVO(i));
+        }
+        envelopeConverter = new EnvelopeHttpMessageConverter(objectMapper, GlobalResponseAdvice.CONTROLLER_PACKAGE);
+        jacksonConverter = new MappingJackson2HttpMessageConverter(objectMapper);
+        stringConverter = new StringHttpMessageConverter(StandardCharsets.UTF_8);
+        out = new ReusableOutputMessage();
+    }
+
+    /**
+     * 旧路径：advice 包装成 ApiResponse，再由 MappingJackson2HttpMessageConverter 写出。
+     */
+    @Benchmark
+    public int legacyWriteList() throws Exception {
+        jacksonConverter.write(wrap(rowsPage), listType, MediaType.APPLICATION_JSON, out.reset());
+        return out.size();
+    }
+
+    /**
+     * 新路径：信封转换器直接流式写出 List&lt;UserVO&gt;。
+     */
+    @Benchmark
+    public int envelopeWriteList() throws Exception {
+        envelopeConverter.write(rowsPage, listType, MediaType.APPLICATION_JSON, out.reset());
+        return out.size();
+    }
+
+    /**
+     * 旧路径：String 返回值先在 advice 里序列化成字符串，再由 StringHttpMessageConverter 编码。
+     */
+    @Benchmark
+    public int legacyWriteString() throws Exception {
+        stringConverter.write((String) wrap("ok"), MediaType.APPLICATION_JSON, out.reset());
+        return out.size();
+    }
+
+    /**
+     * 新路径：String 返回值直接作为 data 写一次。
+     */
+    @Benchmark
+    public int envelopeWriteString() throws Exception {
+        envelopeConverter.write("ok", String.class, MediaType.APPLICATION_JSON, out.reset());
+        return out.size();
+    }
+
+    /**
+     * 单个 UserVO（/user/current）。
+     */
+    @Benchmark
+    public byte[] wrapAndWriteUser() throws Exception {
+        return objectMapper.writeValueAsBytes(wrap(userVO));
+    }
+
+    /**
+     * 一页 20 个 UserVO（管理端列表）。
+     */
+    @Benchmark
+    public byte[] wrapAndWritePage() throws Exception {
+        return objectMapper.writeValueAsBytes(wrap(page));
+    }
+
+    /**
+     * String 返回值：advice 内部先序列化成字符串，再由 StringHttpMessageConverter 编码。
+     */
+    @Benchmark
+    public Object wrapString() {
+        return wrap("ok");
+    }
+
+    private Object wrap(Object body) {
+        return advice.beforeBodyWrite(body, null, MediaType.APPLICATION_JSON, null, null, null);
+    }
+
+    private static UserVO toVO(long id) {
+        var u = BenchmarkFixtures.user(id);
+        UserVO vo = new UserVO();
+        vo.setId(u.getId());
+        vo.setName(u.getName());
+        vo.setUserAccount(u.getUserAccount());
+        vo.setEmail(u.getEmail());
+        vo.setAvatarUrl(u.getAvatarUrl());
+        vo.setGender(u.getGender());
+        vo.setPhone(u.getPhone());
+        vo.setUserStatus(u.getUserStatus());
+        vo.setUserRole(u.getUserRole());
+        vo.setRoleId(2L);
+        vo.setRoleKey("role_2");
+        vo.setRoleName("角色2");
+        vo.setCreateTime(u.getCreateTime());
+        return vo;
+    }
+
+    /**
+     * 复用缓冲区和响应头的输出消息（模拟 Servlet 响应，避免把测试桩本身的分配算进去）。
+     */
+    private static final class ReusableOutputMessage implements HttpOutputMessage {
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream(256 * 1024);
+        private final HttpHeaders headers = new HttpHeaders();
+
+        ReusableOutputMessage reset() {
+            body.reset();
+            headers.clear();
+            return this;
+        }
+
+        int size() {
+            return body.size();
+        }
+
+        @Override
+        public OutputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+}
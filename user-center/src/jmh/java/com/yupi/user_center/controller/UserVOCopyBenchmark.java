@@ -0,0 +1,60 @@
+package com.yupi.user_center.controller;
+
+import com.yupi.user_center.BenchmarkFixtures;
+import com.yupi.user_center.model.User;
+import com.yupi.user_center.model.vo.UserVO;
+import com.yupi.user_center.service.UserServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求热路径上的对象拷贝：脱敏拷贝、User -&gt; UserVO 拷贝，以及 /user/current 旧实现里两次拷贝串在一起的开销。
+ *
+ * @author Ethan
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UserVOCopyBenchmark {
+
+    private UserServiceImpl userService;
+
+    private User user;
+
+    @Setup
+    public void setUp() {
+        userService = new UserServiceImpl();
+        user = BenchmarkFixtures.user(10086L);
+    }
+
+    /**
+     * 脱敏拷贝（UserServiceImpl.getSafetyUser）。
+     */
+    @Benchmark
+    public User safetyUser() {
+        return userService.getSafetyUser(user);
+    }
+
+    /**
+     * User -&gt; UserVO（UserController.toUserVO）。
+     */
+    @Benchmark
+    public UserVO toUserVO() {
+        return UserController.toUserVO(user);
+    }
+
+    /**
+     * 先脱敏再转 VO（两次拷贝）。
+     */
+    @Benchmark
+    public UserVO safetyThenUserVO() {
+        return UserController.toUserVO(userService.getSafetyUser(user));
+    }
+}
@@ -0,0 +1,64 @@
+package com.yupi.user_center.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 密码哈希：旧版 MD5 与 PBKDF2（默认迭代次数）的单次耗时，用来给 password-hash 线程池定容量。
+ *
+ * @author Ethan
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PasswordHashBenchmark {
+
+    private static final String PASSWORD = "12345678abc";
+
+    private Md5PasswordHasher md5;
+
+    private Pbkdf2PasswordHasher pbkdf2;
+
+    private String md5Hash;
+
+    private String pbkdf2Hash;
+
+    @Setup
+    public void setUp() {
+        md5 = new Md5PasswordHasher();
+        pbkdf2 = new Pbkdf2PasswordHasher(120_000);
+        md5Hash = md5.hash(PASSWORD);
+        pbkdf2Hash = pbkdf2.hash(PASSWORD);
+    }
+
+    /**
+     * MD5 加密（注册）。
+     */
+    @Benchmark
+    public String md5Hash() {
+        return md5.hash(PASSWORD);
+    }
+
+    /**
+     * MD5 校验（登录）。
+     */
+    @Benchmark
+    public boolean md5Matches() {
+        return md5.matches(PASSWORD, md5Hash);
+    }
+
+    /**
+     * PBKDF2 校验（登录，120000 次迭代）。
+     */
+    @Benchmark
+    public boolean pbkdf2Matches() {
+        return pbkdf2.matches(PASSWORD, pbkdf2Hash);
+    }
+}
@@ -0,0 +1,67 @@
+package com.yupi.user_center.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 令牌桶限流器的多线程争用：64 个线程同时取令牌，对比分段数（1 = 全局一把锁）与 key 分布。
+ *
+ * <ul>
+ *     <li>spread：撞库流量，每次一个随机 IP（2 万个，都在 max-keys 以内，测稳定状态下的查找与加锁）；</li>
+ *     <li>hot：所有线程都打同一个账号（同一段同一个桶，分段帮不上忙，是最坏情况）。</li>
+ * </ul>
+ * 运行：{@code mvn -Pjmh test-compile exec:exec -Djmh.args="TokenBucketLimiter -t 128 -f 1 -wi 3 -i 5"}（-t 覆盖线程数）。
+ *
+ * @author Ethan
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(64)
+public class TokenBucketLimiterBenchmark {
+
+    private static final int KEY_POOL = 20_000;
+
+    @Param({"1", "64"})
+    private int stripes;
+
+    private TokenBucketLimiter limiter;
+
+    private String[] keys;
+
+    @Setup
+    public void setUp() {
+        // 速率设得很高，测的是取令牌本身的开销，而不是被拒绝的比例
+        limiter = new TokenBucketLimiter("bench", 1_000_000, 1e9, 100_000, stripes);
+        keys = new String[KEY_POOL];
+        for (int i = 0; i < KEY_POOL; i++) {
+            keys[i] = "10." + (i >>> 16) + "." + ((i >>> 8) & 0xff) + "." + (i & 0xff);
+        }
+    }
+
+    /**
+     * 随机 IP。
+     */
+    @Benchmark
+    public long spread() {
+        return limiter.tryAcquire(keys[ThreadLocalRandom.current().nextInt(KEY_POOL)]);
+    }
+
+    /**
+     * 同一个 key。
+     */
+    @Benchmark
+    public long hot() {
+        return limiter.tryAcquire(keys[0]);
+    }
+}
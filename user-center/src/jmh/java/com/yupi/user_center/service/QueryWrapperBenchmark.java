@@ -0,0 +1,58 @@
+package com.yupi.user_center.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.yupi.user_center.model.User;
+import com.yupi.user_center.model.UserRole;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * QueryWrapper 构造 + 生成 SQL 片段的开销（每次请求都会 new 一个，再由 MyBatis-Plus 拼成 WHERE）。
+ *
+ * @author Ethan
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class QueryWrapperBenchmark {
+
+    /**
+     * 登录：按账号查用户。
+     */
+    @Benchmark
+    public String loginByAccount() {
+        QueryWrapper<User> qw = new QueryWrapper<>();
+        qw.eq("userAccount", "account10086");
+        return qw.getCustomSqlSegment();
+    }
+
+    /**
+     * 登录态解析：按 id 查精简字段。
+     */
+    @Benchmark
+    public String principalById() {
+        QueryWrapper<User> qw = new QueryWrapper<>();
+        qw.select("id", "userRole", "userStatus");
+        qw.eq("id", 10086L);
+        return qw.getSqlSelect() + qw.getCustomSqlSegment();
+    }
+
+    /**
+     * 角色缓存回源：按 userId 取第一条角色。
+     */
+    @Benchmark
+    public String userRoleLookup() {
+        QueryWrapper<UserRole> qw = new QueryWrapper<>();
+        qw.select("role_id");
+        qw.eq("user_id", 10086L);
+        qw.orderByAsc("id");
+        qw.last("LIMIT 1");
+        return qw.getSqlSelect() + qw.getCustomSqlSegment();
+    }
+}
@@ -3,6 +3,7 @@ package com.yupi.user_center;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.mybatis.spring.annotation.MapperScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * 用户中心后端应用启动类。
@@ -11,6 +12,7 @@ import org.mybatis.spring.annotation.MapperScan;
  */
 @SpringBootApplication
 @MapperScan("com.yupi.user_center.mapper")
+@EnableScheduling
 public class UserCenterApplication {
 
     /**
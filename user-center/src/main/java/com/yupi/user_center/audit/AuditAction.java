@@ -0,0 +1,29 @@
+package com.yupi.user_center.audit;
+
+/**
+ * 需要留审计记录的管理员操作。
+ *
+ * @author Ethan
+ */
+public enum AuditAction {
+
+    /**
+     * 更新用户信息（含封禁、改 userRole）。
+     */
+    USER_UPDATE,
+
+    /**
+     * 删除用户。
+     */
+    USER_DELETE,
+
+    /**
+     * 给用户分配角色。
+     */
+    USER_ASSIGN_ROLES,
+
+    /**
+     * 创建角色。
+     */
+    ROLE_CREATE
+}
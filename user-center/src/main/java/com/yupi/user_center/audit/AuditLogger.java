@@ -0,0 +1,331 @@
+package com.yupi.user_center.audit;
+
+import com.yupi.user_center.common.KeysetCursor;
+import com.yupi.user_center.interceptor.AdminAuthInterceptor;
+import com.yupi.user_center.mapper.AuditLogMapper;
+import com.yupi.user_center.model.AuditLog;
+import com.yupi.user_center.security.LoginPrincipal;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 管理员操作审计日志：请求线程只把记录放进内存队列，由一个后台线程攒批写入 audit_log 表。
+ *
+ * <ul>
+ *     <li>队列：无锁的 ConcurrentLinkedQueue，用一个原子计数限制长度；满了直接丢弃并计数（audit.log.dropped），
+ *     数据库变慢时管理接口也不会被拖住或撑爆堆；</li>
+ *     <li>写入：积压达到 batch-size 时立即唤醒写线程，否则每 flush-interval-ms 写一次，每批一条多值 INSERT；</li>
+ *     <li>写库失败时按指数退避重试同一批（最多 max-retries 次，间隔从 retry-backoff-ms 翻倍），
+ *     数据库短暂抖动不丢记录；还失败才记日志丢弃（计入 audit.log.failed）。重试期间新记录照常入队，满了按上面的规则丢弃；</li>
+ *     <li>停机：等写线程把队列里剩下的全部写完，最多等 shutdown-timeout-ms。</li>
+ * </ul>
+ * 小白理解：前台只往收件箱里丢一张便条就走，后台有个人定时把一摞便条一次性录进系统。
+ *
+ * @author Ethan
+ */
+@Component
+@Slf4j
+public class AuditLogger {
+
+    private static final int MAX_DETAIL_LENGTH = 512;
+
+    @Resource
+    private AuditLogMapper auditLogMapper;
+
+    private final boolean enabled;
+    private final int capacity;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long shutdownTimeoutMillis;
+    private final int maxRetries;
+    private final long retryBackoffMillis;
+
+    private final ConcurrentLinkedQueue<AuditLog> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger backlog = new AtomicInteger();
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private volatile boolean running;
+    private volatile Thread writer;
+
+    /**
+     * 构造审计日志记录器。
+     *
+     * @param enabled 是否记录审计日志
+     * @param capacity 队列最多积压的记录数（超出即丢弃）
+     * @param batchSize 每条 INSERT 写入的记录数，积压达到该值立即写
+     * @param flushIntervalMillis 定时写入间隔（毫秒），即一条记录最晚多久落库
+     * @param shutdownTimeoutMillis 停机时等待写完剩余记录的最长时间（毫秒）
+     * @param maxRetries 一批写库失败后最多重试次数
+     * @param retryBackoffMillis 第一次重试前的等待时间（毫秒），之后每次翻倍
+     */
+    public AuditLogger(@Value("${user-center.audit.enabled:true}") boolean enabled,
+                       @Value("${user-center.audit.capacity:10000}") int capacity,
+                       @Value("${user-center.audit.batch-size:200}") int batchSize,
+                       @Value("${user-center.audit.flush-interval-ms:1000}") long flushIntervalMillis,
+                       @Value("${user-center.audit.shutdown-timeout-ms:5000}") long shutdownTimeoutMillis,
+                       @Value("${user-center.audit.max-retries:3}") int maxRetries,
+                       @Value("${user-center.audit.retry-backoff-ms:200}") long retryBackoffMillis) {
+        this.enabled = enabled;
+        this.capacity = Math.max(1, capacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushIntervalMillis));
+        this.shutdownTimeoutMillis = shutdownTimeoutMillis;
+        this.maxRetries = Math.max(0, maxRetries);
+        this.retryBackoffMillis = Math.max(1, retryBackoffMillis);
+    }
+
+    /**
+     * 启动后台写线程。
+     */
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writer = Thread.ofPlatform().name("audit-log-writer").daemon().start(this::runWriter);
+    }
+
+    /**
+     * 停机：通知写线程退出，并等它把队列里剩下的记录写完。
+     */
+    @PreDestroy
+    public void stop() {
+        Thread t = writer;
+        if (t == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(t);
+        try {
+            t.join(shutdownTimeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (t.isAlive()) {
+            log.warn("审计日志停机写入超时，仍有 {} 条未落库", backlog.get());
+        } else {
+            log.info("审计日志已停止：累计写入 {} 条，丢弃 {} 条，写库失败 {} 条", written.get(), dropped.get(), failed.get());
+        }
+    }
+
+    /**
+     * 记录一次管理员操作（只入队，不访问数据库）。
+     *
+     * <p>操作人取自 {@link AdminAuthInterceptor} 放在请求上的登录主体，所以只能在 /admin/** 接口里调用。</p>
+     *
+     * @param request 当前请求（读取操作人与客户端 IP）
+     * @param action 操作类型
+     * @param targetId 操作对象 id（用户 id 或角色 id）
+     * @param detail 补充说明（可为空，超过 512 字符截断）
+     */
+    public void record(HttpServletRequest request, AuditAction action, Long targetId, String detail) {
+        if (!enabled) {
+            return;
+        }
+        if (!(request.getAttribute(AdminAuthInterceptor.PRINCIPAL_ATTRIBUTE) instanceof LoginPrincipal principal)) {
+            log.warn("审计日志缺少操作人，已忽略：action={}, targetId={}", action, targetId);
+            return;
+        }
+        AuditLog entry = new AuditLog();
+        entry.setActorId(principal.userId());
+        entry.setAction(action.name());
+        entry.setTargetId(targetId);
+        entry.setDetail(detail == null || detail.length() <= MAX_DETAIL_LENGTH ? detail : detail.substring(0, MAX_DETAIL_LENGTH));
+        entry.setClientIp(request.getRemoteAddr());
+        // 与 DATETIME(3) 的精度一致，游标里的时间和库里的才能对上
+        entry.setCreateTime(LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+        if (!running) {
+            countDropped();
+            return;
+        }
+        offer(entry);
+    }
+
+    /**
+     * 按时间倒序游标分页查询审计日志。
+     *
+     * @param action 操作类型（为空不过滤）
+     * @param actorId 操作人（为空不过滤）
+     * @param targetId 操作对象（为空不过滤）
+     * @param after 上一页最后一条的位置（第一页为 null）
+     * @param limit 最多返回条数
+     * @return 审计日志列表
+     */
+    public List<AuditLog> listAfter(AuditAction action, Long actorId, Long targetId, KeysetCursor after, int limit) {
+        return auditLogMapper.selectPageAfter(action == null ? null : action.name(), actorId, targetId,
+                after == null ? null : after.getCreateTime(),
+                after == null ? null : after.getId(),
+                limit);
+    }
+
+    /**
+     * 入队；队列已满时丢弃。
+     *
+     * @param entry 审计记录
+     * @return 是否入队成功
+     */
+    boolean offer(AuditLog entry) {
+        int n = backlog.incrementAndGet();
+        if (n > capacity) {
+            backlog.decrementAndGet();
+            countDropped();
+            return false;
+        }
+        queue.offer(entry);
+        accepted.incrementAndGet();
+        if (n == batchSize) {
+            // 刚好攒够一批：提前叫醒写线程，不用等到下一个时间点
+            LockSupport.unpark(writer);
+        }
+        return true;
+    }
+
+    /**
+     * 从队头取出最多 max 条记录。
+     *
+     * @param into 接收记录的列表
+     * @param max 最多取出条数
+     * @return 实际取出条数
+     */
+    int drain(List<AuditLog> into, int max) {
+        int n = 0;
+        AuditLog entry;
+        while (n < max && (entry = queue.poll()) != null) {
+            into.add(entry);
+            n++;
+        }
+        if (n > 0) {
+            backlog.addAndGet(-n);
+        }
+        return n;
+    }
+
+    private void runWriter() {
+        List<AuditLog> batch = new ArrayList<>(batchSize);
+        while (running) {
+            LockSupport.parkNanos(this, flushIntervalNanos);
+            flushAll(batch);
+        }
+        flushAll(batch);
+    }
+
+    /**
+     * 把队列里的记录按批写完（写线程调用）。
+     *
+     * @param batch 复用的批次列表
+     */
+    void flushAll(List<AuditLog> batch) {
+        while (drain(batch, batchSize) > 0) {
+            writeWithRetry(batch);
+            batch.clear();
+        }
+    }
+
+    private void writeWithRetry(List<AuditLog> batch) {
+        long backoff = retryBackoffMillis;
+        for (int attempt = 0; ; attempt++) {
+            try {
+                auditLogMapper.insertBatch(batch);
+                written.addAndGet(batch.size());
+                return;
+            } catch (RuntimeException e) {
+                if (attempt >= maxRetries) {
+                    failed.addAndGet(batch.size());
+                    log.warn("审计日志写库失败（已重试 {} 次），丢弃 {} 条: {}", attempt, batch.size(), e.getMessage());
+                    return;
+                }
+                log.debug("审计日志写库失败，{} ms 后第 {} 次重试: {}", backoff, attempt + 1, e.getMessage());
+            }
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failed.addAndGet(batch.size());
+                log.warn("审计日志重试被中断，丢弃 {} 条", batch.size());
+                return;
+            }
+            backoff = Math.min(backoff * 2, TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    private void countDropped() {
+        long d = dropped.incrementAndGet();
+        // 只在第 1、2、4、8… 次丢弃时打日志，避免队列持续满时刷屏
+        if ((d & (d - 1)) == 0) {
+            log.warn("审计日志队列已满（容量 {}）或已停机，累计丢弃 {} 条", capacity, d);
+        }
+    }
+
+    /**
+     * 获取当前积压条数。
+     *
+     * @return 积压条数
+     */
+    public int getBacklog() {
+        return backlog.get();
+    }
+
+    /**
+     * 获取队列容量。
+     *
+     * @return 队列容量
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * 获取累计入队条数。
+     *
+     * @return 累计入队条数
+     */
+    public long getAcceptedCount() {
+        return accepted.get();
+    }
+
+    /**
+     * 获取累计丢弃条数（队列满或已停机）。
+     *
+     * @return 累计丢弃条数
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * 获取累计写库条数。
+     *
+     * @return 累计写库条数
+     */
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    /**
+     * 获取累计写库失败条数。
+     *
+     * @return 累计写库失败条数
+     */
+    public long getFailedCount() {
+        return failed.get();
+    }
+}
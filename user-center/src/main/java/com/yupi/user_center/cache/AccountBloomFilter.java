@@ -0,0 +1,250 @@
+package com.yupi.user_center.cache;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.yupi.user_center.mapper.UserMapper;
+import com.yupi.user_center.model.User;
+import com.yupi.user_center.model.vo.AccountBloomStatsVO;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 已存在账号（userAccount）的布隆过滤器，用于注册时跳过“账号是否已存在”的 COUNT 查询。
+ *
+ * <p>布隆过滤器说“不存在”就一定不存在，可以直接插入（万一并发撞号，由数据库唯一索引兜底）；
+ * 说“可能存在”时才回库 COUNT。启动后在后台线程流式扫描全部账号（含逻辑删除的，唯一索引同样覆盖它们）；
+ * 构建完成前一律返回“可能存在”，行为与原来完全一致。</p>
+ * 小白理解：一张只会说“肯定没有”或“也许有”的名单，“肯定没有”时就不用再去翻数据库了。
+ *
+ * @author Ethan
+ */
+@Component
+@Slf4j
+public class AccountBloomFilter {
+
+    @Resource
+    private UserMapper userMapper;
+
+    private final long configuredExpected;
+    private final double fpp;
+
+    /**
+     * 当前生效的位图（null 表示尚未构建完成）。
+     */
+    private volatile Bits current;
+
+    /**
+     * 重建中的位图：重建期间新增的账号同时写进去，避免切换后丢失。
+     */
+    private volatile Bits building;
+
+    private final LongAdder mightContainHits = new LongAdder();
+    private final LongAdder definitelyAbsent = new LongAdder();
+
+    /**
+     * 构造过滤器。
+     *
+     * @param expectedInsertions 预计账号数（重建时取它与实际账号数 1.5 倍中的较大者）
+     * @param fpp 目标误判率（0~1，越小占内存越多）
+     * @throws IllegalArgumentException 参数不合法时抛出
+     */
+    public AccountBloomFilter(@Value("${user-center.account-bloom.expected-insertions:1000000}") long expectedInsertions,
+                              @Value("${user-center.account-bloom.fpp:0.01}") double fpp) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("expected-insertions 必须大于 0");
+        }
+        if (!(fpp > 0 && fpp < 1)) {
+            throw new IllegalArgumentException("fpp 必须在 (0, 1) 之间");
+        }
+        this.configuredExpected = expectedInsertions;
+        this.fpp = fpp;
+    }
+
+    /**
+     * 账号是否可能已存在。
+     *
+     * @param userAccount 账号
+     * @return false 表示一定不存在；true 表示可能存在（或过滤器未就绪），需要回库确认
+     */
+    public boolean mightContain(String userAccount) {
+        Bits bits = current;
+        if (bits == null || userAccount == null) {
+            return true;
+        }
+        boolean maybe = bits.mightContain(userAccount);
+        if (maybe) {
+            mightContainHits.increment();
+        } else {
+            definitelyAbsent.increment();
+        }
+        return maybe;
+    }
+
+    /**
+     * 记录一个已存在的账号（注册成功、修改账号后调用）。
+     *
+     * @param userAccount 账号
+     */
+    public void put(String userAccount) {
+        if (userAccount == null) {
+            return;
+        }
+        Bits b = building;
+        if (b != null) {
+            b.put(userAccount);
+        }
+        Bits c = current;
+        if (c != null) {
+            c.put(userAccount);
+        }
+    }
+
+    /**
+     * 从数据库全量重建（按实际账号数重新估算位图大小），构建期间旧位图继续服务。
+     *
+     * @return 扫描到的账号数
+     */
+    public synchronized long rebuild() {
+        long total = userMapper.selectCount(new QueryWrapper<User>());
+        Bits fresh = new Bits(Math.max(configuredExpected, total + total / 2), fpp);
+        building = fresh;
+        try {
+            long[] scanned = new long[1];
+            userMapper.scanAllAccounts(ctx -> {
+                fresh.put(ctx.getResultObject());
+                scanned[0]++;
+            });
+            current = fresh;
+            log.info("账号布隆过滤器已构建：{} 个账号，{} 位，{} 个哈希函数", scanned[0], fresh.numBits, fresh.numHashes);
+            return scanned[0];
+        } finally {
+            building = null;
+        }
+    }
+
+    /**
+     * 当前统计快照。
+     *
+     * @return 统计信息
+     */
+    public AccountBloomStatsVO stats() {
+        AccountBloomStatsVO vo = new AccountBloomStatsVO();
+        Bits bits = current;
+        vo.setReady(bits != null);
+        vo.setTargetFpp(fpp);
+        if (bits != null) {
+            vo.setNumBits(bits.numBits);
+            vo.setNumHashes(bits.numHashes);
+            vo.setExpectedInsertions(bits.expected);
+            vo.setInsertions(bits.insertions.sum());
+            vo.setEstimatedFpp(bits.estimatedFpp());
+            vo.setMemoryBytes((long) bits.words.length() * Long.BYTES);
+        }
+        vo.setMightContainHits(mightContainHits.sum());
+        vo.setDefinitelyAbsent(definitelyAbsent.sum());
+        return vo;
+    }
+
+    /**
+     * 启动后在后台线程构建，不阻塞启动；失败时注册照常走 COUNT。
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        Thread t = new Thread(() -> {
+            try {
+                rebuild();
+            } catch (Exception e) {
+                log.warn("构建账号布隆过滤器失败，注册将继续回库校验账号: {}", e.getMessage());
+            }
+        }, "account-bloom-builder");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    /**
+     * 位图本体：AtomicLongArray 按位 CAS 置位，读写都不加锁。
+     */
+    static final class Bits {
+
+        final long expected;
+        final long numBits;
+        final int numHashes;
+        final AtomicLongArray words;
+        final LongAdder insertions = new LongAdder();
+
+        Bits(long expected, double fpp) {
+            // 标准公式：m = -n·ln(p) / (ln2)^2，k = m/n·ln2
+            long m = (long) Math.ceil(-expected * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+            m = Math.max(64, (m + 63) / 64 * 64);
+            this.expected = expected;
+            this.numBits = m;
+            this.numHashes = Math.max(1, (int) Math.round((double) m / expected * Math.log(2)));
+            this.words = new AtomicLongArray((int) (m / 64));
+        }
+
+        boolean mightContain(String key) {
+            long h = hash(key);
+            int h1 = (int) h;
+            int h2 = (int) (h >>> 32);
+            for (int i = 1; i <= numHashes; i++) {
+                long bit = indexOf(h1 + i * h2);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void put(String key) {
+            long h = hash(key);
+            int h1 = (int) h;
+            int h2 = (int) (h >>> 32);
+            for (int i = 1; i <= numHashes; i++) {
+                long bit = indexOf(h1 + i * h2);
+                int w = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long old;
+                do {
+                    old = words.get(w);
+                    if ((old & mask) != 0) {
+                        break;
+                    }
+                } while (!words.compareAndSet(w, old, old | mask));
+            }
+            insertions.increment();
+        }
+
+        double estimatedFpp() {
+            double n = insertions.sum();
+            return Math.pow(1 - Math.exp(-numHashes * n / numBits), numHashes);
+        }
+
+        private long indexOf(int combined) {
+            // 双重哈希：g_i = h1 + i·h2，取非负后对位数取模
+            return (combined & 0x7fffffffL) % numBits;
+        }
+
+        /**
+         * 64 位 FNV-1a + 混淆，低 32 位和高 32 位分别作 h1、h2。
+         */
+        private static long hash(String key) {
+            byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+            long h = 0xcbf29ce484222325L;
+            for (byte b : bytes) {
+                h ^= b & 0xff;
+                h *= 0x100000001b3L;
+            }
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+}
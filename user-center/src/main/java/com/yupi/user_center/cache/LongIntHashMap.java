@@ -0,0 +1,156 @@
+package com.yupi.user_center.cache;
+
+import java.util.Arrays;
+
+/**
+ * long -&gt; int 的开放寻址哈希表（非线程安全，由调用方加锁）。
+ *
+ * <p>key、value 都放在基本类型数组里，百万级条目也不会产生百万个 Long/Integer 对象。</p>
+ *
+ * @author Ethan
+ */
+public class LongIntHashMap {
+
+    /**
+     * 查不到时返回的值。
+     */
+    public static final int MISSING = -1;
+
+    private long[] keys;
+    private int[] values;
+    private boolean[] used;
+    private int mask;
+    private int size;
+
+    /**
+     * 构造哈希表。
+     *
+     * @param expectedSize 预计条目数
+     */
+    public LongIntHashMap(int expectedSize) {
+        int cap = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        allocate(cap);
+    }
+
+    /**
+     * 查询。
+     *
+     * @param key 键
+     * @return 值，不存在返回 {@link #MISSING}
+     */
+    public int get(long key) {
+        int i = indexOf(key);
+        return i < 0 ? MISSING : values[i];
+    }
+
+    /**
+     * 写入（覆盖旧值）。
+     *
+     * @param key 键
+     * @param value 值（不能为 {@link #MISSING}）
+     */
+    public void put(long key, int value) {
+        if ((size + 1) * 2 > keys.length) {
+            rehash(keys.length << 1);
+        }
+        int i = hash(key) & mask;
+        while (used[i]) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        used[i] = true;
+        keys[i] = key;
+        values[i] = value;
+        size++;
+    }
+
+    /**
+     * 删除。
+     *
+     * @param key 键
+     * @return 被删除的值，不存在返回 {@link #MISSING}
+     */
+    public int remove(long key) {
+        int i = indexOf(key);
+        if (i < 0) {
+            return MISSING;
+        }
+        int old = values[i];
+        size--;
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            if (!used[j]) {
+                break;
+            }
+            int k = hash(keys[j]) & mask;
+            boolean stay = i <= j ? (i < k && k <= j) : (i < k || k <= j);
+            if (stay) {
+                continue;
+            }
+            keys[i] = keys[j];
+            values[i] = values[j];
+            i = j;
+        }
+        used[i] = false;
+        return old;
+    }
+
+    /**
+     * 条目数。
+     *
+     * @return 条目数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 估算占用内存（字节，仅数组部分）。
+     *
+     * @return 字节数
+     */
+    public long memoryBytes() {
+        return (long) keys.length * (Long.BYTES + Integer.BYTES + 1);
+    }
+
+    private int indexOf(long key) {
+        int i = hash(key) & mask;
+        while (used[i]) {
+            if (keys[i] == key) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void rehash(int newCap) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(newCap);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate(int cap) {
+        keys = new long[cap];
+        values = new int[cap];
+        used = new boolean[cap];
+        Arrays.fill(values, MISSING);
+        mask = cap - 1;
+        size = 0;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
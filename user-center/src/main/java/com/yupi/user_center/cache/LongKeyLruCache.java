@@ -0,0 +1,343 @@
+package com.yupi.user_center.cache;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongFunction;
+
+/**
+ * long 主键的定长 LRU + TTL 缓存。
+ *
+ * <p>所有槽位在构造时一次性分配（key/过期时间用 long[]，链表指针用 int[]），容量固定，
+ * 不会因为缓存的 key 越来越多而膨胀，也不会为每个 key 装箱一个 Long。
+ * 访问通过对象锁串行化，临界区内只有数组读写，足够支撑每个请求一次的鉴权查询。</p>
+ * 小白理解：一个装满就把“最久没用的”踢掉、放久了自动作废的小抽屉。
+ *
+ * @param <V> 缓存值类型
+ * @author Ethan
+ */
+public class LongKeyLruCache<V> {
+
+    private static final int NIL = -1;
+
+    private final int capacity;
+    private final long ttlNanos;
+
+    private final long[] keys;
+    private final Object[] values;
+    private final long[] expireAt;
+    private final int[] prev;
+    private final int[] next;
+
+    /**
+     * 开放寻址哈希表：存 slot + 1，0 表示空位。
+     */
+    private final int[] table;
+    private final int mask;
+
+    private int head = NIL;
+    private int tail = NIL;
+    private int size;
+    private int freeTop;
+
+    /**
+     * 每次失效都递增，用于丢弃“失效前开始、失效后才返回”的加载结果。
+     */
+    private long epoch;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * 构造缓存。
+     *
+     * @param capacity 最大条目数
+     * @param ttlMillis 条目存活时间（毫秒，&lt;= 0 表示不过期）
+     */
+    public LongKeyLruCache(int capacity, long ttlMillis) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity 必须大于 0");
+        }
+        this.capacity = capacity;
+        this.ttlNanos = ttlMillis <= 0 ? 0 : ttlMillis * 1_000_000L;
+        this.keys = new long[capacity];
+        this.values = new Object[capacity];
+        this.expireAt = new long[capacity];
+        this.prev = new int[capacity];
+        this.next = new int[capacity];
+        int tableSize = Integer.highestOneBit(Math.max(2, capacity * 2 - 1)) << 1;
+        this.table = new int[tableSize];
+        this.mask = tableSize - 1;
+        resetFreeList();
+    }
+
+    /**
+     * 读取缓存（命中会移动到最近使用位置）。
+     *
+     * @param key 键
+     * @return 值（未命中或已过期返回 null）
+     */
+    public V get(long key) {
+        V v;
+        synchronized (this) {
+            v = lookup(key, System.nanoTime());
+        }
+        if (v == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return v;
+    }
+
+    /**
+     * 读取缓存，未命中时调用 loader 加载并写入（loader 在锁外执行，返回 null 不缓存）。
+     *
+     * @param key 键
+     * @param loader 加载函数
+     * @return 值
+     */
+    public V getOrLoad(long key, LongFunction<V> loader) {
+        long startEpoch;
+        synchronized (this) {
+            V v = lookup(key, System.nanoTime());
+            if (v != null) {
+                hits.increment();
+                return v;
+            }
+            startEpoch = epoch;
+        }
+        misses.increment();
+        V loaded = loader.apply(key);
+        if (loaded != null) {
+            synchronized (this) {
+                if (epoch == startEpoch) {
+                    store(key, loaded, System.nanoTime());
+                }
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * 写入缓存。
+     *
+     * @param key 键
+     * @param value 值（不能为 null）
+     */
+    public void put(long key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("value 不能为空");
+        }
+        synchronized (this) {
+            store(key, value, System.nanoTime());
+        }
+    }
+
+    /**
+     * 使单个键失效。
+     *
+     * @param key 键
+     */
+    public void invalidate(long key) {
+        synchronized (this) {
+            epoch++;
+            int idx = findIndex(key);
+            if (idx >= 0) {
+                removeAt(idx);
+            }
+        }
+    }
+
+    /**
+     * 清空缓存。
+     */
+    public void clear() {
+        synchronized (this) {
+            epoch++;
+            Arrays.fill(table, 0);
+            Arrays.fill(values, null);
+            head = NIL;
+            tail = NIL;
+            size = 0;
+            resetFreeList();
+        }
+    }
+
+    /**
+     * 当前条目数。
+     *
+     * @return 条目数
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * 最大条目数。
+     *
+     * @return 容量
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * 命中次数。
+     *
+     * @return 命中次数
+     */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * 未命中次数。
+     *
+     * @return 未命中次数
+     */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * 因容量不足被淘汰的次数（不含过期）。
+     *
+     * @return 淘汰次数
+     */
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    @SuppressWarnings("unchecked")
+    private V lookup(long key, long now) {
+        int idx = findIndex(key);
+        if (idx < 0) {
+            return null;
+        }
+        int slot = table[idx] - 1;
+        if (ttlNanos > 0 && now - expireAt[slot] > 0) {
+            removeAt(idx);
+            return null;
+        }
+        moveToHead(slot);
+        return (V) values[slot];
+    }
+
+    private void store(long key, Object value, long now) {
+        int idx = findIndex(key);
+        int slot;
+        if (idx >= 0) {
+            slot = table[idx] - 1;
+            moveToHead(slot);
+        } else {
+            if (size == capacity) {
+                removeAt(findIndex(keys[tail]));
+                evictions.increment();
+            }
+            slot = freeTop;
+            freeTop = next[slot];
+            keys[slot] = key;
+            linkHead(slot);
+            insertIndex(key, slot);
+            size++;
+        }
+        values[slot] = value;
+        expireAt[slot] = now + ttlNanos;
+    }
+
+    private int findIndex(long key) {
+        int i = hash(key) & mask;
+        while (table[i] != 0) {
+            if (keys[table[i] - 1] == key) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return NIL;
+    }
+
+    private void insertIndex(long key, int slot) {
+        int i = hash(key) & mask;
+        while (table[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        table[i] = slot + 1;
+    }
+
+    /**
+     * 删除哈希表位置 idx 上的条目（线性探测的回移删除，不留墓碑）。
+     */
+    private void removeAt(int idx) {
+        int slot = table[idx] - 1;
+        unlink(slot);
+        values[slot] = null;
+        next[slot] = freeTop;
+        freeTop = slot;
+        size--;
+
+        int i = idx;
+        int j = idx;
+        while (true) {
+            j = (j + 1) & mask;
+            if (table[j] == 0) {
+                break;
+            }
+            int k = hash(keys[table[j] - 1]) & mask;
+            boolean stay = i <= j ? (i < k && k <= j) : (i < k || k <= j);
+            if (stay) {
+                continue;
+            }
+            table[i] = table[j];
+            i = j;
+        }
+        table[i] = 0;
+    }
+
+    private void moveToHead(int slot) {
+        if (slot == head) {
+            return;
+        }
+        unlink(slot);
+        linkHead(slot);
+    }
+
+    private void linkHead(int slot) {
+        prev[slot] = NIL;
+        next[slot] = head;
+        if (head != NIL) {
+            prev[head] = slot;
+        }
+        head = slot;
+        if (tail == NIL) {
+            tail = slot;
+        }
+    }
+
+    private void unlink(int slot) {
+        int p = prev[slot];
+        int n = next[slot];
+        if (p != NIL) {
+            next[p] = n;
+        } else {
+            head = n;
+        }
+        if (n != NIL) {
+            prev[n] = p;
+        } else {
+            tail = p;
+        }
+    }
+
+    private void resetFreeList() {
+        for (int i = 0; i < capacity; i++) {
+            next[i] = i + 1 < capacity ? i + 1 : NIL;
+        }
+        freeTop = 0;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,254 @@
+package com.yupi.user_center.cache;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yupi.user_center.common.PrecomputedJson;
+import com.yupi.user_center.model.Role;
+import com.yupi.user_center.service.RoleService;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 角色字典内存缓存（启用且未删除的角色快照）。
+ *
+ * <p>role 表几乎不变，但每个 /admin/** 请求都要用到 ADMIN 角色。这里把整张表读成一个不可变快照，
+ * 同时按 id 和 roleKey 建索引；本进程新建角色时立即写入，其他工具直接改库的情况靠定时刷新兜底。
+ * 每个快照带版本号（内容不变时定时刷新不会换版本），角色列表接口按版本号做 ETag，
+ * 列表的 JSON 也按快照只序列化一次。</p>
+ * 小白理解：把角色表“抄一份放内存”，读的时候不用再查库。
+ *
+ * @author Ethan
+ */
+@Component
+@Slf4j
+public class RoleCatalog {
+
+    @Resource
+    private RoleService roleService;
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    private final AtomicLong versionSeq = new AtomicLong(System.currentTimeMillis());
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * 获取当前快照（首次访问时同步加载）。
+     *
+     * @return 角色快照
+     */
+    public Snapshot current() {
+        Snapshot s = snapshot;
+        if (s == null) {
+            synchronized (this) {
+                s = snapshot;
+                if (s == null) {
+                    s = load();
+                    snapshot = s;
+                }
+            }
+        }
+        return s;
+    }
+
+    /**
+     * 按 id 获取角色。
+     *
+     * @param roleId 角色 id
+     * @return 角色（不存在或已禁用返回 null）
+     */
+    public Role getById(Long roleId) {
+        return roleId == null ? null : current().byId.get(roleId);
+    }
+
+    /**
+     * 按 roleKey 获取角色。
+     *
+     * @param roleKey 角色标识（如 ADMIN）
+     * @return 角色（不存在或已禁用返回 null）
+     */
+    public Role getByKey(String roleKey) {
+        return roleKey == null ? null : current().byKey.get(roleKey);
+    }
+
+    /**
+     * 获取全部启用角色（按 id 升序，只读）。
+     *
+     * @return 角色列表
+     */
+    public List<Role> listAll() {
+        return current().roles;
+    }
+
+    /**
+     * 获取全部启用角色的 JSON（每个快照版本只序列化一次）。
+     *
+     * @param snapshot 角色快照（调用方先取好，保证 JSON 和 ETag 的版本一致）
+     * @return 预序列化的角色列表
+     */
+    public PrecomputedJson listAllJson(Snapshot snapshot) {
+        PrecomputedJson json = snapshot.json;
+        if (json == null) {
+            // 并发首次访问时可能重复序列化几次，结果相同，不加锁
+            json = PrecomputedJson.of(objectMapper, snapshot.roles);
+            snapshot.json = json;
+        }
+        return json;
+    }
+
+    /**
+     * 重新从数据库加载快照。
+     *
+     * <p>查库不持锁；查询期间本进程 {@link #put(Role)} 过的话，当前快照的版本号比这次加载的大，
+     * 查询结果可能不含刚写入的角色，保留当前快照，等下次刷新再对齐。</p>
+     *
+     * @return 新快照（或保留下来的当前快照）
+     */
+    public Snapshot refresh() {
+        Snapshot s = load();
+        synchronized (this) {
+            Snapshot old = snapshot;
+            if (old != null && old.version > s.version) {
+                return old;
+            }
+            if (old != null && old.roles.equals(s.roles)) {
+                // 内容没变就保留旧快照（版本号不变）
+                return old;
+            }
+            snapshot = s;
+        }
+        return s;
+    }
+
+    /**
+     * 本进程新建/修改角色后立即写入快照（写时复制，不影响正在读的请求）。
+     *
+     * @param role 已落库的角色
+     */
+    public void put(Role role) {
+        if (role == null || role.getId() == null) {
+            return;
+        }
+        synchronized (this) {
+            List<Role> roles = new ArrayList<>(current().roles);
+            roles.removeIf(r -> r.getId().equals(role.getId()));
+            boolean enabled = (role.getStatus() == null || role.getStatus() == 0)
+                    && (role.getIsDelete() == null || role.getIsDelete() == 0);
+            if (enabled) {
+                roles.add(role);
+                roles.sort((a, b) -> Long.compare(a.getId(), b.getId()));
+            }
+            snapshot = new Snapshot(roles, versionSeq.incrementAndGet());
+        }
+    }
+
+    /**
+     * 定时刷新（捕获其他工具直接写库的角色）。
+     */
+    @Scheduled(initialDelayString = "${user-center.role-catalog.refresh-interval-ms:60000}",
+            fixedDelayString = "${user-center.role-catalog.refresh-interval-ms:60000}")
+    public void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            log.warn("刷新角色缓存失败，继续使用旧快照: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 启动完成后预热（数据库不可用时不影响启动，首次访问时再加载）。
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            log.warn("预热角色缓存失败: {}", e.getMessage());
+        }
+    }
+
+    private Snapshot load() {
+        // 版本号在查库之前取，查询期间发生的 put 版本号一定更大
+        long version = versionSeq.incrementAndGet();
+        QueryWrapper<Role> qw = new QueryWrapper<>();
+        qw.eq("status", 0);
+        qw.eq("isDelete", 0);
+        qw.orderByAsc("id");
+        List<Role> roles = roleService.list(qw);
+        Snapshot s = new Snapshot(roles, version);
+        log.debug("角色缓存已加载，共 {} 个角色，version={}", s.roles.size(), s.version);
+        return s;
+    }
+
+    /**
+     * 角色快照（不可变）。
+     */
+    public static final class Snapshot {
+
+        private final List<Role> roles;
+        private final Map<Long, Role> byId;
+        private final Map<String, Role> byKey;
+        private final long version;
+        private volatile PrecomputedJson json;
+
+        Snapshot(List<Role> source, long version) {
+            List<Role> roles = new ArrayList<>(source.size());
+            Map<Long, Role> byId = new HashMap<>(source.size() * 2);
+            Map<String, Role> byKey = new HashMap<>(source.size() * 2);
+            for (Role r : source) {
+                if (r == null || r.getId() == null) {
+                    continue;
+                }
+                roles.add(r);
+                byId.put(r.getId(), r);
+                if (r.getRoleKey() != null) {
+                    byKey.put(r.getRoleKey(), r);
+                }
+            }
+            this.roles = Collections.unmodifiableList(roles);
+            this.byId = byId;
+            this.byKey = byKey;
+            this.version = version;
+        }
+
+        /**
+         * 获取快照版本号（每次变更递增）。
+         *
+         * @return 版本号
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * 按 id 查询快照中的角色。
+         *
+         * @param roleId 角色 id
+         * @return 角色，不存在返回 null
+         */
+        public Role getById(Long roleId) {
+            return roleId == null ? null : byId.get(roleId);
+        }
+
+        /**
+         * 获取角色列表（按 id 升序，只读）。
+         *
+         * @return 角色列表
+         */
+        public List<Role> getRoles() {
+            return roles;
+        }
+    }
+}
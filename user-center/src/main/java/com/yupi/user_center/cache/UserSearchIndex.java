@@ -0,0 +1,538 @@
+package com.yupi.user_center.cache;
+
+import com.yupi.user_center.mapper.UserMapper;
+import com.yupi.user_center.model.User;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 用户名 / 账号子串搜索的内存三元组（trigram）倒排索引。
+ *
+ * <p>{@code LIKE '%x%'} 用不上 B+ 树索引，每次搜索都是全表扫描。这里把每个用户的
+ * username、userAccount（小写）切成连续 3 个字符的片段，记录“哪些用户含有这个片段”；
+ * 查询时取关键词所有片段的倒排表求交集，再用原文逐个确认，得到候选用户 id。</p>
+ *
+ * <p>内存布局全部是基本类型数组：文档号 -&gt; 用户 id 用 long[]，文本拼在一个 char[] 里，
+ * 倒排表是 int[][]（按文档号递增），删除/修改只打墓碑位，墓碑过多时后台重建。</p>
+ * 小白理解：像书后面的“索引页”，先查“abc 出现在哪几页”，再翻到那几页核对。
+ *
+ * @author Ethan
+ */
+@Component
+@Slf4j
+public class UserSearchIndex {
+
+    /**
+     * 文本里分隔 username 与 userAccount 的字符（关键词里不会出现）。
+     */
+    private static final char FIELD_SEPARATOR = '\u0001';
+
+    private static final int GRAM = 3;
+
+    @Resource
+    private UserMapper userMapper;
+
+    @Value("${user-center.search-index.enabled:true}")
+    private boolean enabled;
+
+    @Value("${user-center.search-index.compact-dead-ratio:0.3}")
+    private double compactDeadRatio;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 当前生效的索引（null 表示尚未建好）。
+     */
+    private Segment segment;
+
+    /**
+     * 重建期间发生的增量修改，重建完成后回放到新索引上。
+     */
+    private List<PendingOp> pendingOps;
+    private boolean rebuilding;
+
+    /**
+     * 上次从数据库全量构建时见过的最大用户 id（未建好时为 Long.MAX_VALUE）。
+     *
+     * <p>索引只收到本节点的增量修改，其他节点或运维工具新增的用户 id 一定比它大，
+     * 查询时把 id &gt; watermark 的用户一起交给数据库判断，不会因为索引没收到而搜不到。</p>
+     */
+    private volatile long watermark = Long.MAX_VALUE;
+
+    /**
+     * 索引是否可用。
+     *
+     * @return 是否可用
+     */
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return segment != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 上次全量构建时见过的最大用户 id：比它大的用户索引里可能没有，需要到数据库里补查。
+     *
+     * @return 最大用户 id
+     */
+    public long getWatermark() {
+        return watermark;
+    }
+
+    /**
+     * 关键词是否能走索引（至少 3 个字符）。
+     *
+     * @param keyword 关键词
+     * @return 是否支持
+     */
+    public static boolean supports(String keyword) {
+        return keyword != null && keyword.length() >= GRAM;
+    }
+
+    /**
+     * 按子串查询候选用户 id（username 或 userAccount 包含关键词，忽略大小写）。
+     *
+     * @param keyword 关键词（至少 3 个字符）
+     * @param maxResults 最多返回多少个 id
+     * @return 用户 id 数组（按文档号顺序）；索引不可用时返回 null
+     */
+    public long[] search(String keyword, int maxResults) {
+        if (!supports(keyword)) {
+            return null;
+        }
+        String q = keyword.toLowerCase(Locale.ROOT);
+        lock.readLock().lock();
+        try {
+            return segment == null ? null : segment.search(q, maxResults);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 新增或整体替换一个用户的索引文本。
+     *
+     * @param userId 用户 id
+     * @param username 用户名
+     * @param userAccount 账号
+     */
+    public void upsert(Long userId, String username, String userAccount) {
+        if (userId == null) {
+            return;
+        }
+        apply(new PendingOp(userId, username == null ? "" : username, userAccount == null ? "" : userAccount, false));
+    }
+
+    /**
+     * 修改部分字段（为 null 的字段保持索引中的旧值）。
+     *
+     * @param userId 用户 id
+     * @param username 新用户名（不改传 null）
+     * @param userAccount 新账号（不改传 null）
+     */
+    public void update(Long userId, String username, String userAccount) {
+        if (userId == null || (username == null && userAccount == null)) {
+            return;
+        }
+        apply(new PendingOp(userId, username, userAccount, false));
+    }
+
+    /**
+     * 删除一个用户。
+     *
+     * @param userId 用户 id
+     */
+    public void remove(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        apply(new PendingOp(userId, null, null, true));
+    }
+
+    /**
+     * 从数据库流式扫描全表重建索引（重建期间旧索引照常服务）。
+     */
+    public void rebuild() {
+        if (!beginRebuild()) {
+            log.info("用户搜索索引正在重建，忽略本次请求");
+            return;
+        }
+        Segment fresh = null;
+        long[] maxId = {0};
+        try {
+            long start = System.currentTimeMillis();
+            Segment building = new Segment(1024);
+            userMapper.scanSearchFields(ctx -> {
+                User u = ctx.getResultObject();
+                if (u != null && u.getId() != null) {
+                    building.upsert(u.getId(), toText(u.getName(), u.getUserAccount()));
+                    maxId[0] = Math.max(maxId[0], u.getId());
+                }
+            });
+            fresh = building;
+            log.info("用户搜索索引构建完成：{} 个用户，{} 个三元组，约 {} KB，耗时 {} ms",
+                    fresh.liveCount(), fresh.gramCount(), fresh.memoryBytes() / 1024,
+                    System.currentTimeMillis() - start);
+        } finally {
+            finishRebuild(fresh, maxId[0]);
+        }
+    }
+
+    /**
+     * 定时从数据库全量重建：其他节点或运维工具的改名、删除只有重建才能看到，水位也随之前移。
+     */
+    @Scheduled(initialDelayString = "${user-center.search-index.rebuild-interval-ms:600000}",
+            fixedDelayString = "${user-center.search-index.rebuild-interval-ms:600000}")
+    public void rebuildPeriodically() {
+        if (!enabled || !isReady()) {
+            return;
+        }
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.warn("定时重建用户搜索索引失败，继续使用旧索引: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 墓碑过多时在内存里压缩（不查库）。
+     */
+    @Scheduled(fixedDelayString = "${user-center.search-index.compact-check-interval-ms:300000}")
+    public void compactIfNeeded() {
+        Segment source;
+        lock.readLock().lock();
+        try {
+            source = segment;
+            if (source == null || source.deadRatio() < compactDeadRatio) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        // 释放读锁后可能有一次全量重建已经换上了新索引：再压缩旧的 source 会把新索引换回去，
+        // 而水位还是新重建的，两次重建之间新增的用户就既不在索引里、也不在 id > watermark 的补查范围里
+        if (!beginRebuild(source)) {
+            return;
+        }
+        Segment fresh = null;
+        try {
+            lock.readLock().lock();
+            try {
+                fresh = source.compact();
+            } finally {
+                lock.readLock().unlock();
+            }
+        } finally {
+            finishRebuild(fresh, -1);
+        }
+    }
+
+    /**
+     * 启动后在后台线程建索引，不阻塞启动；失败时搜索自动回退到数据库。
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (!enabled) {
+            return;
+        }
+        Thread t = new Thread(() -> {
+            try {
+                rebuild();
+            } catch (Exception e) {
+                log.warn("构建用户搜索索引失败，搜索将回退到数据库: {}", e.getMessage());
+            }
+        }, "user-search-index-builder");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    private boolean beginRebuild() {
+        return beginRebuild(null);
+    }
+
+    /**
+     * @param expected 要求当前索引仍是它才开始（内存压缩用）；null 表示不检查
+     */
+    private boolean beginRebuild(Segment expected) {
+        lock.writeLock().lock();
+        try {
+            if (rebuilding || (expected != null && segment != expected)) {
+                return false;
+            }
+            rebuilding = true;
+            pendingOps = new ArrayList<>();
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param scannedMaxId 全量扫描见过的最大 id（内存压缩传 -1，水位不变）
+     */
+    private void finishRebuild(Segment fresh, long scannedMaxId) {
+        lock.writeLock().lock();
+        try {
+            if (fresh != null) {
+                for (PendingOp op : pendingOps) {
+                    op.applyTo(fresh);
+                }
+                segment = fresh;
+                if (scannedMaxId >= 0) {
+                    watermark = scannedMaxId;
+                }
+            }
+            rebuilding = false;
+            pendingOps = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void apply(PendingOp op) {
+        lock.writeLock().lock();
+        try {
+            if (segment != null) {
+                op.applyTo(segment);
+            }
+            if (rebuilding) {
+                pendingOps.add(op);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static String toText(String username, String userAccount) {
+        String name = username == null ? "" : username;
+        String account = userAccount == null ? "" : userAccount;
+        return (name + FIELD_SEPARATOR + account).toLowerCase(Locale.ROOT);
+    }
+
+    private static long gramKey(char a, char b, char c) {
+        return ((long) a << 32) | ((long) b << 16) | c;
+    }
+
+    /**
+     * 一次增量修改（name/account 为 null 表示沿用索引里的旧值）；重建期间会记下来回放到新索引。
+     */
+    private record PendingOp(long userId, String name, String account, boolean remove) {
+
+        void applyTo(Segment target) {
+            if (remove) {
+                target.remove(userId);
+                return;
+            }
+            String n = name;
+            String a = account;
+            if (n == null || a == null) {
+                String old = target.textOf(userId);
+                if (old == null) {
+                    // 索引里没有这个用户（例如建索引前就已漏掉），等下次重建补上
+                    return;
+                }
+                int sep = old.indexOf(FIELD_SEPARATOR);
+                n = n == null ? old.substring(0, sep) : n;
+                a = a == null ? old.substring(sep + 1) : a;
+            }
+            target.upsert(userId, toText(n, a));
+        }
+    }
+
+    /**
+     * 一份完整的索引数据（非线程安全，由外层读写锁保护）。
+     */
+    static final class Segment {
+
+        private long[] docIds;
+        private int[] textOffset;
+        private int[] textLength;
+        private char[] arena;
+        private int arenaSize;
+        private int docCount;
+        private final BitSet dead = new BitSet();
+        private int deadCount;
+
+        private final LongIntHashMap idToDoc;
+        private final LongIntHashMap gramToSlot;
+        private int[][] postings;
+        private int[] postingSize;
+        private int gramCount;
+
+        Segment(int expectedDocs) {
+            int cap = Math.max(16, expectedDocs);
+            docIds = new long[cap];
+            textOffset = new int[cap];
+            textLength = new int[cap];
+            arena = new char[cap * 16];
+            idToDoc = new LongIntHashMap(cap);
+            gramToSlot = new LongIntHashMap(cap);
+            postings = new int[cap][];
+            postingSize = new int[cap];
+        }
+
+        void upsert(long userId, String text) {
+            remove(userId);
+            int doc = docCount++;
+            if (doc == docIds.length) {
+                int cap = doc + (doc >> 1);
+                docIds = Arrays.copyOf(docIds, cap);
+                textOffset = Arrays.copyOf(textOffset, cap);
+                textLength = Arrays.copyOf(textLength, cap);
+            }
+            if (arenaSize + text.length() > arena.length) {
+                arena = Arrays.copyOf(arena, Math.max(arenaSize + text.length(), arena.length + (arena.length >> 1)));
+            }
+            text.getChars(0, text.length(), arena, arenaSize);
+            docIds[doc] = userId;
+            textOffset[doc] = arenaSize;
+            textLength[doc] = text.length();
+            arenaSize += text.length();
+            idToDoc.put(userId, doc);
+
+            for (int i = 0; i + GRAM <= text.length(); i++) {
+                addPosting(gramKey(text.charAt(i), text.charAt(i + 1), text.charAt(i + 2)), doc);
+            }
+        }
+
+        void remove(long userId) {
+            int doc = idToDoc.remove(userId);
+            if (doc != LongIntHashMap.MISSING) {
+                dead.set(doc);
+                deadCount++;
+            }
+        }
+
+        String textOf(long userId) {
+            int doc = idToDoc.get(userId);
+            return doc == LongIntHashMap.MISSING ? null : new String(arena, textOffset[doc], textLength[doc]);
+        }
+
+        long[] search(String q, int maxResults) {
+            int gramsInQuery = q.length() - GRAM + 1;
+            int[][] lists = new int[gramsInQuery][];
+            int[] sizes = new int[gramsInQuery];
+            for (int i = 0; i < gramsInQuery; i++) {
+                int slot = gramToSlot.get(gramKey(q.charAt(i), q.charAt(i + 1), q.charAt(i + 2)));
+                if (slot == LongIntHashMap.MISSING) {
+                    return new long[0];
+                }
+                lists[i] = postings[slot];
+                sizes[i] = postingSize[slot];
+            }
+            // 从最短的倒排表出发，逐个在其他表里二分确认
+            int shortest = 0;
+            for (int i = 1; i < gramsInQuery; i++) {
+                if (sizes[i] < sizes[shortest]) {
+                    shortest = i;
+                }
+            }
+            long[] out = new long[Math.min(maxResults, sizes[shortest])];
+            int n = 0;
+            int[] base = lists[shortest];
+            for (int p = 0; p < sizes[shortest] && n < out.length; p++) {
+                int doc = base[p];
+                if (dead.get(doc)) {
+                    continue;
+                }
+                boolean all = true;
+                for (int i = 0; i < gramsInQuery && all; i++) {
+                    all = i == shortest || Arrays.binarySearch(lists[i], 0, sizes[i], doc) >= 0;
+                }
+                if (all && contains(doc, q)) {
+                    out[n++] = docIds[doc];
+                }
+            }
+            return n == out.length ? out : Arrays.copyOf(out, n);
+        }
+
+        Segment compact() {
+            Segment fresh = new Segment(docCount - deadCount);
+            for (int doc = 0; doc < docCount; doc++) {
+                if (!dead.get(doc)) {
+                    fresh.upsert(docIds[doc], new String(arena, textOffset[doc], textLength[doc]));
+                }
+            }
+            return fresh;
+        }
+
+        int liveCount() {
+            return docCount - deadCount;
+        }
+
+        int gramCount() {
+            return gramCount;
+        }
+
+        double deadRatio() {
+            return docCount == 0 ? 0 : (double) deadCount / docCount;
+        }
+
+        long memoryBytes() {
+            long bytes = (long) docIds.length * (Long.BYTES + 2 * Integer.BYTES)
+                    + (long) arena.length * Character.BYTES
+                    + idToDoc.memoryBytes() + gramToSlot.memoryBytes()
+                    + (long) postingSize.length * Integer.BYTES;
+            for (int i = 0; i < gramCount; i++) {
+                bytes += (long) postings[i].length * Integer.BYTES;
+            }
+            return bytes;
+        }
+
+        private void addPosting(long gram, int doc) {
+            int slot = gramToSlot.get(gram);
+            if (slot == LongIntHashMap.MISSING) {
+                slot = gramCount++;
+                if (slot == postings.length) {
+                    int cap = slot + (slot >> 1);
+                    postings = Arrays.copyOf(postings, cap);
+                    postingSize = Arrays.copyOf(postingSize, cap);
+                }
+                postings[slot] = new int[4];
+                gramToSlot.put(gram, slot);
+            }
+            int size = postingSize[slot];
+            int[] list = postings[slot];
+            if (size > 0 && list[size - 1] == doc) {
+                // 同一个文本里重复出现的片段只记一次
+                return;
+            }
+            if (size == list.length) {
+                list = Arrays.copyOf(list, size + (size >> 1) + 1);
+                postings[slot] = list;
+            }
+            list[size] = doc;
+            postingSize[slot] = size + 1;
+        }
+
+        private boolean contains(int doc, String q) {
+            int start = textOffset[doc];
+            int end = start + textLength[doc] - q.length();
+            for (int i = start; i <= end; i++) {
+                int j = 0;
+                while (j < q.length() && arena[i + j] == q.charAt(j)) {
+                    j++;
+                }
+                if (j == q.length()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.yupi.user_center.common;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 事务提交后再执行的小工具（没有事务时立即执行；事务回滚则不执行）。
+ *
+ * <p>小白理解：事务没提交前别的请求还会读到旧数据，如果现在就删缓存，旧数据可能马上又被加载回来；
+ * 事务回滚了说明什么都没改，也就不该踢人、删缓存。</p>
+ *
+ * @author Ethan
+ */
+public final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    /**
+     * 在当前事务提交后执行；没有事务时立即执行，回滚时不执行。
+     *
+     * @param action 要执行的动作
+     */
+    public static void run(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,49 @@
+package com.yupi.user_center.common;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+
+/**
+ * 条件 GET 工具：按版本号生成强 ETag，客户端带着相同的 If-None-Match 来时直接回 304。
+ *
+ * <p>响应头带 {@code Cache-Control: private, no-cache}：浏览器可以存，但每次都要回来校验，
+ * 所以数据一变马上就能拿到新的；没变时只回一个空的 304，不查库也不序列化。</p>
+ * 小白理解：给数据贴个“版本号”标签，客户端说“我手里是这个版本”，没变就只回一句“没变”。
+ *
+ * @author Ethan
+ */
+public final class ConditionalRequests {
+
+    private static final String CACHE_CONTROL = "private, no-cache";
+
+    private ConditionalRequests() {
+    }
+
+    /**
+     * 由名字空间和版本号拼出强 ETag（如 "roles-1700000000001"）。
+     *
+     * @param namespace 名字空间（区分不同接口、不同用户）
+     * @param version 版本号
+     * @return 带双引号的强 ETag
+     */
+    public static String etag(String namespace, long version) {
+        return "\"" + namespace + "-" + Long.toHexString(version) + "\"";
+    }
+
+    /**
+     * 写 ETag 与 Cache-Control，并判断客户端手里的版本是否仍然有效。
+     *
+     * <p>返回 true 时状态码已设为 304，Controller 直接返回 null 即可（不会写响应体）。</p>
+     *
+     * @param request Http 请求对象
+     * @param response Http 响应对象
+     * @param etag 当前版本的 ETag
+     * @return 是否未修改
+     */
+    public static boolean checkNotModified(HttpServletRequest request, HttpServletResponse response, String etag) {
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        return new ServletWebRequest(request, response).checkNotModified(etag);
+    }
+}
@@ -0,0 +1,145 @@
+package com.yupi.user_center.common;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.yupi.user_center.constant.ErrorCode;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.TypeUtils;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 统一成功响应的流式写出器：直接用 JsonGenerator 写 {code, message, data, timestamp}，
+ * data 部分交给按返回类型缓存的 ObjectWriter。
+ *
+ * <p>只处理 controller 包下接口的 JSON 响应（和 {@link GlobalResponseAdvice} 的范围一致），
+ * 排在所有转换器最前面；选中它时 GlobalResponseAdvice 不再包装，
+ * 于是每次响应既不用 new ApiResponse，String 返回值也不会先序列化成字符串再编码一遍。
+ * 已经是 ApiResponse 的（异常处理器返回的）、二进制和 Resource 仍交给原来的转换器。</p>
+ * 小白理解：以前是先装进信封再整体复印一份寄出，现在是边写信封边把内容抄进去。
+ *
+ * @author Ethan
+ */
+public class EnvelopeHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    private static final SerializedString CODE = new SerializedString("code");
+    private static final SerializedString MESSAGE = new SerializedString("message");
+    private static final SerializedString DATA = new SerializedString("data");
+    private static final SerializedString TIMESTAMP = new SerializedString("timestamp");
+    private static final SerializedString SUCCESS_MESSAGE = new SerializedString(ErrorCode.SUCCESS.getMessage());
+
+    private final ObjectMapper objectMapper;
+    private final String basePackage;
+    private final Map<Type, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    /**
+     * 构造写出器。
+     *
+     * @param objectMapper Spring 配置好的 ObjectMapper（和默认 Jackson 转换器输出一致）
+     * @param basePackage 需要包装响应的 controller 包名
+     */
+    public EnvelopeHttpMessageConverter(ObjectMapper objectMapper, String basePackage) {
+        super(MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+        this.objectMapper = objectMapper;
+        this.basePackage = basePackage;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return !ApiResponse.class.isAssignableFrom(clazz)
+                && !Resource.class.isAssignableFrom(clazz)
+                && clazz != byte[].class
+                && isControllerRequest();
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("EnvelopeHttpMessageConverter 只负责写出", inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("EnvelopeHttpMessageConverter 只负责写出", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object body, Type type, HttpOutputMessage outputMessage) throws IOException {
+        try (JsonGenerator gen = objectMapper.getFactory()
+                .createGenerator(StreamUtils.nonClosing(outputMessage.getBody()), JsonEncoding.UTF8)) {
+            gen.writeStartObject();
+            gen.writeFieldName(CODE);
+            gen.writeNumber(ErrorCode.SUCCESS.getCode());
+            gen.writeFieldName(MESSAGE);
+            gen.writeString(SUCCESS_MESSAGE);
+            gen.writeFieldName(DATA);
+            if (body == null) {
+                gen.writeNull();
+            } else {
+                writerFor(body, type).writeValue(gen, body);
+            }
+            gen.writeFieldName(TIMESTAMP);
+            gen.writeNumber(System.currentTimeMillis());
+            gen.writeEndObject();
+        }
+    }
+
+    /**
+     * 取 data 的 ObjectWriter：和 MappingJackson2HttpMessageConverter 一样，
+     * 声明类型是集合/Map 时用声明的泛型类型（List&lt;UserVO&gt;），否则用实际类型。
+     */
+    private ObjectWriter writerFor(Object body, Type type) {
+        Type key = body.getClass();
+        if (type != null && !(type instanceof Class) && TypeUtils.isAssignable(type, body.getClass())) {
+            JavaType javaType = objectMapper.constructType(type);
+            if (javaType.isContainerType()) {
+                key = type;
+            }
+        }
+        ObjectWriter writer = writers.get(key);
+        if (writer == null) {
+            writer = writers.computeIfAbsent(key, t -> objectMapper.writerFor(objectMapper.constructType(t))
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE));
+        }
+        return writer;
+    }
+
+    private boolean isControllerRequest() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servlet)) {
+            return false;
+        }
+        HttpServletRequest request = servlet.getRequest();
+        return request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod handler
+                && handler.getBeanType().getPackageName().startsWith(basePackage);
+    }
+}
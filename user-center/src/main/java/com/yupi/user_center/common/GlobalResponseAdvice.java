@@ -13,16 +13,24 @@ import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
 /**
  * 统一成功响应包装器（将 Controller 返回值包装为 ApiResponse）。
  *
+ * <p>JSON 响应由 {@link EnvelopeHttpMessageConverter} 直接流式写出信封，这里不再包装；
+ * 只有协商到其他转换器时（如只接受 text/plain 的 String 返回值）才走下面的对象包装。</p>
+ *
  * @author Ethan
  */
-@RestControllerAdvice(basePackages = "com.yupi.user_center.controller")
+@RestControllerAdvice(basePackages = GlobalResponseAdvice.CONTROLLER_PACKAGE)
 public class GlobalResponseAdvice implements ResponseBodyAdvice<Object> {
 
+    /**
+     * 需要统一包装响应的 controller 包名。
+     */
+    public static final String CONTROLLER_PACKAGE = "com.yupi.user_center.controller";
+
     @Resource
     private ObjectMapper objectMapper;
 
     /**
-     * 是否启用响应包装。
+     * 是否启用响应包装（选中流式信封转换器时不包装）。
      *
      * @param returnType 返回类型信息
      * @param converterType 消息转换器类型
@@ -30,7 +38,7 @@ public class GlobalResponseAdvice implements ResponseBodyAdvice<Object> {
      */
     @Override
     public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
-        return true;
+        return !EnvelopeHttpMessageConverter.class.equals(converterType);
     }
 
     /**
@@ -0,0 +1,87 @@
+package com.yupi.user_center.common;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * 游标分页（keyset）的位置标记：(createTime, id)。
+ *
+ * <p>对外是一个不透明的 base64url 字符串，前端只需原样回传，不要自己拼。
+ * 取下一页时用 {@code (createTime, id) < (cursorTime, cursorId)} 定位，无论第几页代价都和第一页一样。</p>
+ * 小白理解：记住“上一页最后一条在哪”，下一页从那里接着往后翻，而不是从头数 N 条再跳过。
+ *
+ * @author Ethan
+ */
+public final class KeysetCursor {
+
+    private static final char SEPARATOR = '|';
+
+    private final LocalDateTime createTime;
+    private final long id;
+
+    /**
+     * 构造游标。
+     *
+     * @param createTime 上一页最后一条的创建时间
+     * @param id 上一页最后一条的 id
+     */
+    public KeysetCursor(LocalDateTime createTime, long id) {
+        this.createTime = createTime;
+        this.id = id;
+    }
+
+    /**
+     * 编码为不透明字符串。
+     *
+     * @return base64url 字符串
+     */
+    public String encode() {
+        String raw = createTime.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标字符串。
+     *
+     * @param cursor 游标字符串（为空表示第一页）
+     * @return 游标，第一页返回 null
+     * @throws IllegalArgumentException 游标格式不合法时抛出
+     */
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf(SEPARATOR);
+            if (sep <= 0) {
+                throw new IllegalArgumentException("cursor 不合法");
+            }
+            LocalDateTime createTime = LocalDateTime.parse(raw.substring(0, sep));
+            long id = Long.parseLong(raw.substring(sep + 1));
+            return new KeysetCursor(createTime, id);
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("cursor 不合法");
+        }
+    }
+
+    /**
+     * 获取创建时间。
+     *
+     * @return 创建时间
+     */
+    public LocalDateTime getCreateTime() {
+        return createTime;
+    }
+
+    /**
+     * 获取 id。
+     *
+     * @return id
+     */
+    public long getId() {
+        return id;
+    }
+}
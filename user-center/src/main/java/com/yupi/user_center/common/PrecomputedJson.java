@@ -0,0 +1,71 @@
+package com.yupi.user_center.common;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import java.io.IOException;
+
+/**
+ * 预先序列化好的 JSON 片段：作为 Controller 返回值时原样写进统一返回结构的 data 字段。
+ *
+ * <p>UTF-8 字节在构造时就编码好并缓存，写出时只是一次内存拷贝，不再走对象序列化。
+ * 适合内容很少变化、按版本号缓存的响应（如角色列表）。</p>
+ *
+ * @author Ethan
+ */
+public final class PrecomputedJson implements JsonSerializable {
+
+    private final SerializedString json;
+
+    private PrecomputedJson(String json) {
+        this.json = new SerializedString(json);
+        // 提前编码并缓存 UTF-8 字节，写出时直接拷贝
+        this.json.asUnquotedUTF8();
+    }
+
+    /**
+     * 把对象序列化成 JSON 片段。
+     *
+     * @param objectMapper 序列化用的 ObjectMapper（和接口输出保持一致）
+     * @param value 要序列化的对象
+     * @return 预序列化片段
+     * @throws IllegalStateException 序列化失败时抛出
+     */
+    public static PrecomputedJson of(ObjectMapper objectMapper, Object value) {
+        try {
+            return new PrecomputedJson(objectMapper.writeValueAsString(value));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("预序列化 JSON 失败", e);
+        }
+    }
+
+    /**
+     * 获取 UTF-8 编码后的字节数。
+     *
+     * @return 字节数
+     */
+    public int byteLength() {
+        return json.asUnquotedUTF8().length;
+    }
+
+    @Override
+    public void serialize(JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        gen.writeRawValue(json);
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer)
+            throws IOException {
+        serialize(gen, serializers);
+    }
+
+    @Override
+    public String toString() {
+        return json.getValue();
+    }
+}
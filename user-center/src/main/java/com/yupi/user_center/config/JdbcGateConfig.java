@@ -0,0 +1,75 @@
+package com.yupi.user_center.config;
+
+import com.yupi.user_center.datasource.GatedDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+/**
+ * 数据库并发闸门配置：开启后把连接池包一层 {@link GatedDataSource}。
+ *
+ * <p>默认跟随 {@code spring.threads.virtual.enabled}：平台线程模式下 Tomcat 线程数本身就限制了并发，不需要闸门；
+ * 虚拟线程模式下请求并发不再受线程数限制，才需要在连接池前面排队。</p>
+ *
+ * @author Ethan
+ */
+@Configuration
+@Slf4j
+public class JdbcGateConfig {
+
+    /**
+     * 注册数据源后置处理器（static：保证在数据源创建前就位，且不提前初始化本配置类）。
+     *
+     * @param env 环境配置
+     * @return 后置处理器
+     */
+    @Bean
+    public static JdbcGatePostProcessor jdbcGateBeanPostProcessor(Environment env) {
+        return new JdbcGatePostProcessor(env);
+    }
+
+    /**
+     * 把 Hikari 连接池包成 {@link GatedDataSource}。
+     *
+     * <p>最高优先级：直接包住连接池本身，其他数据源装饰器都套在闸门外面
+     * （返回类型要写成本类，Spring 按声明类型判断后置处理器的顺序）。</p>
+     */
+    public static class JdbcGatePostProcessor implements BeanPostProcessor, Ordered {
+
+        private final Environment env;
+
+        JdbcGatePostProcessor(Environment env) {
+            this.env = env;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof HikariDataSource hikari)) {
+                return bean;
+            }
+            boolean virtual = env.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+            if (!env.getProperty("user-center.jdbc-gate.enabled", Boolean.class, virtual)) {
+                return bean;
+            }
+            int permits = env.getProperty("user-center.jdbc-gate.permits", Integer.class, 0);
+            if (permits <= 0) {
+                permits = hikari.getMaximumPoolSize();
+            }
+            long timeout = env.getProperty("user-center.jdbc-gate.acquire-timeout-ms", Long.class, 0L);
+            if (timeout <= 0) {
+                timeout = hikari.getConnectionTimeout();
+            }
+            log.info("数据库并发闸门已开启：{} 个许可，排队超时 {}ms", permits, timeout);
+            return new GatedDataSource(hikari, permits, timeout);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.yupi.user_center.config;
+
+import com.yupi.user_center.security.Md5PasswordHasher;
+import com.yupi.user_center.security.PasswordHasher;
+import com.yupi.user_center.security.Pbkdf2PasswordHasher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 密码哈希配置（按 user-center.password.algorithm 选择实现）。
+ *
+ * @author Ethan
+ */
+@Configuration
+public class PasswordHasherConfig {
+
+    /**
+     * 创建密码哈希器。
+     *
+     * <p>md5（默认）：保持原有的加盐 MD5，已升级为 PBKDF2 的密码也能校验（切回 md5 即回滚）；
+     * pbkdf2（需显式开启）：新密码用 PBKDF2，旧的 MD5 密码仍能登录并在登录时升级。</p>
+     *
+     * @param algorithm 算法（pbkdf2 / md5）
+     * @param iterations PBKDF2 迭代次数
+     * @return 密码哈希器
+     * @throws IllegalArgumentException 算法不支持时抛出
+     */
+    @Bean
+    public PasswordHasher passwordHasher(@Value("${user-center.password.algorithm:md5}") String algorithm,
+                                         @Value("${user-center.password.pbkdf2-iterations:120000}") int iterations) {
+        if ("md5".equalsIgnoreCase(algorithm)) {
+            return new Md5PasswordHasher();
+        }
+        if ("pbkdf2".equalsIgnoreCase(algorithm)) {
+            return new Pbkdf2PasswordHasher(iterations);
+        }
+        throw new IllegalArgumentException("不支持的密码算法：" + algorithm);
+    }
+}
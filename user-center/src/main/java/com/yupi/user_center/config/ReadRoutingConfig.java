@@ -0,0 +1,115 @@
+package com.yupi.user_center.config;
+
+import com.yupi.user_center.datasource.ReadWriteRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 读写分离配置：配置了 {@code user-center.datasource.replicas} 时，把主数据源换成
+ * {@link LazyConnectionDataSourceProxy} + {@link ReadWriteRoutingDataSource}；没配置从库时原样返回，行为和以前完全一样。
+ *
+ * <p>从库连接池不注册成 Spring Bean（否则 MyBatis、事务管理器、建表脚本会分不清用哪个数据源），
+ * 由路由数据源持有，{@link com.yupi.user_center.datasource.ReplicaHealthProbe} 负责探测和关闭。
+ * 从库连接设为只读：万一有写语句被误路由过去，会直接报错而不是悄悄写进从库。</p>
+ *
+ * @author Ethan
+ */
+@Configuration
+@Slf4j
+public class ReadRoutingConfig {
+
+    private static final String PREFIX = "user-center.datasource.";
+
+    /**
+     * 注册数据源后置处理器（static：保证在数据源创建前就位，且不提前初始化本配置类）。
+     *
+     * @param env 环境配置
+     * @return 后置处理器
+     */
+    @Bean
+    public static ReadRoutingPostProcessor readRoutingBeanPostProcessor(Environment env) {
+        return new ReadRoutingPostProcessor(env);
+    }
+
+    /**
+     * 把主数据源包成读写分离数据源。
+     *
+     * <p>排在数据库并发闸门之后：闸门只管主库连接池，路由数据源套在闸门外面。</p>
+     */
+    public static class ReadRoutingPostProcessor implements BeanPostProcessor, Ordered {
+
+        private final Environment env;
+
+        ReadRoutingPostProcessor(Environment env) {
+            this.env = env;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE + 1;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!"dataSource".equals(beanName) || !(bean instanceof DataSource primary)
+                    || bean instanceof LazyConnectionDataSourceProxy) {
+                return bean;
+            }
+            List<ReadWriteRoutingDataSource.Replica> replicas = buildReplicas();
+            if (replicas.isEmpty()) {
+                return bean;
+            }
+            String lagQuery = env.getProperty(PREFIX + "lag-query", "SHOW REPLICA STATUS");
+            long maxLag = env.getProperty(PREFIX + "max-lag-ms", Long.class, 1000L);
+            int probeTimeout = env.getProperty(PREFIX + "probe-timeout-seconds", Integer.class, 2);
+            log.info("读写分离已开启：{} 个从库，最大复制延迟 {}ms，延迟探测 [{}]", replicas.size(), maxLag,
+                    lagQuery.isBlank() ? "仅连通性" : lagQuery);
+            return new LazyConnectionDataSourceProxy(
+                    new ReadWriteRoutingDataSource(primary, replicas, lagQuery, maxLag, probeTimeout));
+        }
+
+        /**
+         * 按 user-center.datasource.replicas[i].* 创建从库连接池，账号、密码、驱动、池大小默认和主库一致。
+         */
+        private List<ReadWriteRoutingDataSource.Replica> buildReplicas() {
+            List<ReadWriteRoutingDataSource.Replica> replicas = new ArrayList<>();
+            for (int i = 0; ; i++) {
+                String key = PREFIX + "replicas[" + i + "].";
+                String url = env.getProperty(key + "url");
+                if (url == null || url.isBlank()) {
+                    break;
+                }
+                String name = env.getProperty(key + "name", "replica-" + i);
+                HikariDataSource pool = new HikariDataSource();
+                pool.setPoolName(name);
+                pool.setJdbcUrl(url);
+                pool.setUsername(env.getProperty(key + "username", env.getProperty("spring.datasource.username", "")));
+                pool.setPassword(env.getProperty(key + "password", env.getProperty("spring.datasource.password", "")));
+                String driver = env.getProperty("spring.datasource.driver-class-name");
+                if (driver != null) {
+                    pool.setDriverClassName(driver);
+                }
+                pool.setMaximumPoolSize(env.getProperty(key + "maximum-pool-size", Integer.class,
+                        env.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10)));
+                pool.setMinimumIdle(env.getProperty("spring.datasource.hikari.minimum-idle", Integer.class, 2));
+                // 从库挂了要尽快回落主库，不能让读请求在这里等满 30 秒
+                pool.setConnectionTimeout(env.getProperty(PREFIX + "replica-connection-timeout-ms", Long.class, 1000L));
+                pool.setReadOnly(true);
+                // 从库启动时连不上不影响应用启动，由探测决定何时开始接流量
+                pool.setInitializationFailTimeout(-1);
+                replicas.add(new ReadWriteRoutingDataSource.Replica(name, pool));
+            }
+            return replicas;
+        }
+    }
+}
@@ -1,13 +1,20 @@
 package com.yupi.user_center.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yupi.user_center.common.EnvelopeHttpMessageConverter;
+import com.yupi.user_center.common.GlobalResponseAdvice;
 import com.yupi.user_center.interceptor.AdminAuthInterceptor;
+import com.yupi.user_center.interceptor.ReplicaReadInterceptor;
 import jakarta.annotation.Resource;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.List;
+
 /**
- * WebMVC 配置（注册拦截器等）。
+ * WebMVC 配置（注册拦截器、消息转换器等）。
  *
  * @author Ethan
  */
@@ -17,6 +24,12 @@ public class WebMvcConfig implements WebMvcConfigurer {
     @Resource
     private AdminAuthInterceptor adminAuthInterceptor;
 
+    @Resource
+    private ReplicaReadInterceptor replicaReadInterceptor;
+
+    @Resource
+    private ObjectMapper objectMapper;
+
     /**
      * 注册拦截器并指定拦截路径。
      *
@@ -26,5 +39,18 @@ public class WebMvcConfig implements WebMvcConfigurer {
     public void addInterceptors(InterceptorRegistry registry) {
         registry.addInterceptor(adminAuthInterceptor)
                 .addPathPatterns("/admin/**");
+        // 排在鉴权之后：要用鉴权放在请求上的管理员主体判断写后窗口
+        registry.addInterceptor(replicaReadInterceptor)
+                .addPathPatterns("/**");
+    }
+
+    /**
+     * 把流式信封转换器放到最前面，controller 的 JSON 响应优先由它写出。
+     *
+     * @param converters 消息转换器列表
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(0, new EnvelopeHttpMessageConverter(objectMapper, GlobalResponseAdvice.CONTROLLER_PACKAGE));
     }
 }
@@ -15,6 +15,8 @@ public enum ErrorCode {
     NOT_LOGIN(40100, "未登录", HttpStatus.UNAUTHORIZED),
     NO_AUTH(40300, "无权限", HttpStatus.FORBIDDEN),
     NOT_FOUND(40400, "资源不存在", HttpStatus.NOT_FOUND),
+    TOO_MANY_REQUESTS(42900, "系统繁忙，请稍后再试", HttpStatus.TOO_MANY_REQUESTS),
+    RATE_LIMITED(42901, "请求过于频繁，请稍后再试", HttpStatus.TOO_MANY_REQUESTS),
 
     OPERATION_ERROR(50001, "操作失败", HttpStatus.BAD_REQUEST),
     SYSTEM_ERROR(50000, "系统内部错误", HttpStatus.INTERNAL_SERVER_ERROR);
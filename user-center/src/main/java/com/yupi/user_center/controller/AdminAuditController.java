@@ -0,0 +1,89 @@
+package com.yupi.user_center.controller;
+
+import com.yupi.user_center.audit.AuditAction;
+import com.yupi.user_center.audit.AuditLogger;
+import com.yupi.user_center.common.KeysetCursor;
+import com.yupi.user_center.datasource.ReplicaRead;
+import com.yupi.user_center.model.AuditLog;
+import com.yupi.user_center.model.vo.CursorPageVO;
+import jakarta.annotation.Resource;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 管理员操作审计日志查询接口。
+ *
+ * @author Ethan
+ */
+@RestController
+@RequestMapping("/admin/audit")
+@Validated
+public class AdminAuditController {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    @Resource
+    private AuditLogger auditLogger;
+
+    /**
+     * 查询审计日志接口（游标分页，按时间倒序）。
+     *
+     * <p>用途：查看谁在什么时候改了、删了哪个用户，给谁分配了角色，建了哪些角色。
+     * 第一页不传 cursor，之后把上一页返回的 nextCursor 原样传回即可。
+     * 记录由后台线程批量落库，最新的操作最多晚 user-center.audit.flush-interval-ms 可见。</p>
+     *
+     * @param action 操作类型（USER_UPDATE / USER_DELETE / USER_ASSIGN_ROLES / ROLE_CREATE，可为空）
+     * @param actorId 操作人 userId（可为空）
+     * @param targetId 操作对象 id（可为空）
+     * @param cursor 上一页返回的游标（第一页为空）
+     * @param pageSize 每页条数（1~100，默认 20）
+     * @return 统一返回结构，data 为本页审计日志与下一页游标
+     * @throws IllegalArgumentException 操作类型或游标不合法时抛出
+     */
+    @GetMapping("/list")
+    @ReplicaRead
+    public CursorPageVO<AuditLog> listAuditLogs(String action,
+                                                Long actorId,
+                                                Long targetId,
+                                                String cursor,
+                                                @RequestParam(defaultValue = "20")
+                                                @Min(value = 1, message = "pageSize 不能小于 1")
+                                                @Max(value = MAX_PAGE_SIZE, message = "pageSize 不能超过 100") int pageSize) {
+        AuditAction auditAction = parseAction(action);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        // 多取一条用来判断是否还有下一页
+        List<AuditLog> records = auditLogger.listAfter(auditAction, actorId, targetId, after, pageSize + 1);
+        boolean hasMore = records.size() > pageSize;
+        if (hasMore) {
+            records = records.subList(0, pageSize);
+        }
+
+        CursorPageVO<AuditLog> page = new CursorPageVO<>();
+        page.setRecords(records);
+        page.setHasMore(hasMore);
+        if (hasMore) {
+            AuditLog last = records.get(records.size() - 1);
+            page.setNextCursor(new KeysetCursor(last.getCreateTime(), last.getId()).encode());
+        }
+        return page;
+    }
+
+    private static AuditAction parseAction(String action) {
+        if (action == null || action.isBlank()) {
+            return null;
+        }
+        try {
+            return AuditAction.valueOf(action.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("不支持的操作类型：" + action);
+        }
+    }
+}
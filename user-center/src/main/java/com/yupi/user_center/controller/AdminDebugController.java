@@ -0,0 +1,142 @@
+package com.yupi.user_center.controller;
+
+import com.yupi.user_center.cache.AccountBloomFilter;
+import com.yupi.user_center.datasource.GatedDataSource;
+import com.yupi.user_center.model.vo.AccountBloomStatsVO;
+import com.yupi.user_center.model.vo.PasswordHashStatsVO;
+import com.yupi.user_center.model.vo.SlowQueryVO;
+import com.yupi.user_center.monitor.SlowQueryLog;
+import com.yupi.user_center.monitor.VirtualThreadPinningMonitor;
+import com.yupi.user_center.security.PasswordHashExecutor;
+import jakarta.annotation.Resource;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 管理员运行状态查看接口（线程池、缓存等内部指标）。
+ *
+ * @author Ethan
+ */
+@RestController
+@RequestMapping("/admin/debug")
+public class AdminDebugController {
+
+    @Resource
+    private PasswordHashExecutor passwordHashExecutor;
+
+    @Resource
+    private AccountBloomFilter accountBloomFilter;
+
+    @Resource
+    private DataSource dataSource;
+
+    @Resource
+    private VirtualThreadPinningMonitor virtualThreadPinningMonitor;
+
+    @Resource
+    private SlowQueryLog slowQueryLog;
+
+    /**
+     * 查看密码哈希线程池统计接口。
+     *
+     * <p>用途：观察登录高峰时的排队深度、哈希耗时和被拒绝（429）的次数，用来调整线程数、队列长度和迭代次数。</p>
+     *
+     * @return 统一返回结构，data 为线程池统计
+     */
+    @GetMapping("/password-hasher")
+    public PasswordHashStatsVO passwordHasherStats() {
+        return passwordHashExecutor.stats();
+    }
+
+    /**
+     * 查看账号布隆过滤器统计接口。
+     *
+     * <p>用途：确认过滤器是否就绪、估算误判率是否已明显高于目标值（账号数远超预期时需要重建）。</p>
+     *
+     * @return 统一返回结构，data 为过滤器统计
+     */
+    @GetMapping("/account-bloom")
+    public AccountBloomStatsVO accountBloomStats() {
+        return accountBloomFilter.stats();
+    }
+
+    /**
+     * 重建账号布隆过滤器接口。
+     *
+     * <p>用途：账号数远超预期、或有人绕过接口直接往库里导了账号时，按实际账号数重新构建。
+     * 重建期间旧过滤器继续服务。</p>
+     *
+     * @return 统一返回结构，data 为重建后的过滤器统计
+     */
+    @PostMapping("/account-bloom/rebuild")
+    public AccountBloomStatsVO rebuildAccountBloom() {
+        accountBloomFilter.rebuild();
+        return accountBloomFilter.stats();
+    }
+
+    /**
+     * 查看数据库并发闸门统计接口。
+     *
+     * <p>用途：虚拟线程模式下观察排队线程数、平均/最长排队时间和排队超时次数；闸门未开启时只返回 enabled=false。</p>
+     *
+     * @return 统一返回结构，data 为闸门统计
+     * @throws SQLException 解包数据源失败时抛出
+     */
+    @GetMapping("/jdbc-gate")
+    public Map<String, Object> jdbcGateStats() throws SQLException {
+        Map<String, Object> result = new LinkedHashMap<>();
+        GatedDataSource gate = dataSource.isWrapperFor(GatedDataSource.class) ? dataSource.unwrap(GatedDataSource.class) : null;
+        result.put("virtualThreads", Thread.currentThread().isVirtual());
+        result.put("enabled", gate != null);
+        if (gate != null) {
+            result.put("permits", gate.getMaxPermits());
+            result.put("available", gate.getAvailablePermits());
+            result.put("queueLength", gate.getQueueLength());
+            result.put("acquired", gate.getAcquiredCount());
+            result.put("timeouts", gate.getTimeoutCount());
+            result.put("avgWaitMicros", gate.getAvgWaitMicros());
+            result.put("maxWaitMicros", gate.getMaxWaitMicros());
+        }
+        return result;
+    }
+
+    /**
+     * 查看虚拟线程钉住诊断接口。
+     *
+     * <p>用途：找出在 synchronized 里阻塞、钉住载体线程的调用点（MyBatis、MySQL 驱动、Hikari、本项目代码）。</p>
+     *
+     * @return 统一返回结构，data 为按调用点汇总的钉住次数
+     */
+    @GetMapping("/virtual-thread-pinning")
+    public Map<String, Object> virtualThreadPinning() {
+        return virtualThreadPinningMonitor.stats();
+    }
+
+    /**
+     * 查看最近的慢查询接口。
+     *
+     * <p>用途：线上排查哪个接口、哪条语句、什么参数慢（参数里的密码已打码），不用翻日志或开 MySQL 慢日志。</p>
+     *
+     * @param limit 最多返回条数（从新到旧）
+     * @return 统一返回结构，data 为阈值、累计条数和最近的慢查询
+     */
+    @GetMapping("/slow-queries")
+    public Map<String, Object> slowQueries(@RequestParam(defaultValue = "50") int limit) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("thresholdMillis", slowQueryLog.getThresholdMillis());
+        result.put("capacity", slowQueryLog.getCapacity());
+        result.put("totalRecorded", slowQueryLog.getTotalRecorded());
+        List<SlowQueryVO> entries = slowQueryLog.recent(Math.max(0, limit));
+        result.put("entries", entries);
+        return result;
+    }
+}
@@ -1,10 +1,17 @@
 package com.yupi.user_center.controller;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.yupi.user_center.audit.AuditAction;
+import com.yupi.user_center.audit.AuditLogger;
+import com.yupi.user_center.cache.RoleCatalog;
+import com.yupi.user_center.common.ConditionalRequests;
+import com.yupi.user_center.common.PrecomputedJson;
 import com.yupi.user_center.model.Role;
 import com.yupi.user_center.model.request.RoleCreateRequest;
 import com.yupi.user_center.service.RoleService;
 import jakarta.annotation.Resource;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -13,8 +20,6 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.List;
-
 /**
  * 管理员角色管理接口（角色列表查询与创建）。
  *
@@ -28,20 +33,29 @@ public class AdminRoleController {
     @Resource
     private RoleService roleService;
 
+    @Resource
+    private RoleCatalog roleCatalog;
+
+    @Resource
+    private AuditLogger auditLogger;
+
     /**
      * 查询角色列表接口（启用且未删除）。
      *
-     * <p>用途：前端下拉框/多选框加载可选角色时调用。</p>
+     * <p>用途：前端下拉框/多选框加载可选角色时调用。数据来自内存角色缓存，不查库；
+     * 响应体按角色快照版本预先序列化，带 ETag，客户端版本没变时直接回 304。</p>
      *
-     * @return 统一返回结构，data 为角色列表
+     * @param request Http 请求对象（读取 If-None-Match）
+     * @param response Http 响应对象（写 ETag）
+     * @return 统一返回结构，data 为角色列表；未修改时返回 null（304，无响应体）
      */
     @GetMapping("/list")
-    public List<Role> listRoles() {
-        QueryWrapper<Role> qw = new QueryWrapper<>();
-        qw.eq("status", 0);
-        qw.eq("isDelete", 0);
-        qw.orderByAsc("id");
-        return roleService.list(qw);
+    public PrecomputedJson listRoles(HttpServletRequest request, HttpServletResponse response) {
+        RoleCatalog.Snapshot snapshot = roleCatalog.current();
+        if (ConditionalRequests.checkNotModified(request, response, ConditionalRequests.etag("roles", snapshot.getVersion()))) {
+            return null;
+        }
+        return roleCatalog.listAllJson(snapshot);
     }
 
     /**
@@ -50,11 +64,12 @@ public class AdminRoleController {
      * <p>用途：新增一个角色（roleKey 唯一）。</p>
      *
      * @param req 创建角色请求体（包含 roleKey、roleName、description）
+     * @param request Http 请求对象（审计日志读取操作人）
      * @return 统一返回结构，data 为新创建的角色 id（失败返回 -1）
      * @throws IllegalArgumentException 角色参数不合法 / roleKey 已存在时抛出
      */
     @PostMapping("/create")
-    public Long createRole(@Valid @RequestBody RoleCreateRequest req) {
+    public Long createRole(@Valid @RequestBody RoleCreateRequest req, HttpServletRequest request) {
         String roleKey = req.getRoleKey();
         String roleName = req.getRoleName();
 
@@ -77,6 +92,11 @@ public class AdminRoleController {
         role.setDescription(req.getDescription());
         role.setStatus(0);
         boolean ok = roleService.save(role);
-        return ok ? role.getId() : -1L;
+        if (!ok) {
+            return -1L;
+        }
+        roleCatalog.put(role);
+        auditLogger.record(request, AuditAction.ROLE_CREATE, role.getId(), "roleKey=" + roleKey);
+        return role.getId();
     }
 }
@@ -1,42 +1,68 @@
 package com.yupi.user_center.controller;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
-import com.baomidou.mybatisplus.core.toolkit.StringUtils;
+import com.yupi.user_center.audit.AuditAction;
+import com.yupi.user_center.audit.AuditLogger;
+import com.yupi.user_center.cache.AccountBloomFilter;
+import com.yupi.user_center.cache.UserSearchIndex;
+import com.yupi.user_center.common.KeysetCursor;
+import com.yupi.user_center.datasource.ReplicaRead;
 import com.yupi.user_center.model.Role;
 import com.yupi.user_center.model.User;
-import com.yupi.user_center.model.UserRole;
 import com.yupi.user_center.model.request.UserAssignRolesRequest;
+import com.yupi.user_center.model.request.UserBulkAssignRolesRequest;
 import com.yupi.user_center.model.request.UserUpdateRequest;
+import com.yupi.user_center.model.vo.BulkAssignResultVO;
+import com.yupi.user_center.model.vo.CursorPageVO;
+import com.yupi.user_center.model.vo.UserImportResultVO;
 import com.yupi.user_center.model.vo.UserVO;
+import com.yupi.user_center.security.LoginPrincipalRegistry;
+import com.yupi.user_center.security.LoginStateStore;
 import com.yupi.user_center.service.RoleService;
+import com.yupi.user_center.service.UserExportService;
+import com.yupi.user_center.service.UserImportService;
 import com.yupi.user_center.service.UserService;
 import com.yupi.user_center.service.UserRoleService;
 import jakarta.annotation.Resource;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.util.Map;
-import java.util.Objects;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.Locale;
+import java.util.StringJoiner;
 
 /**
- * 管理员用户管理接口（用户查询、更新、删除与角色分配）。
+ * 管理员用户管理接口（用户查询、更新、删除、角色分配与批量导入导出）。
  *
  * @author Ethan
  */
+@Slf4j
 @RestController
 @RequestMapping("/admin/user")
 @Validated
 public class AdminUserController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private static final DateTimeFormatter EXPORT_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
     @Resource
     private UserService userService;
 
@@ -46,24 +72,62 @@ public class AdminUserController {
     @Resource
     private UserRoleService userRoleService;
 
+    @Resource
+    private LoginPrincipalRegistry loginPrincipalRegistry;
+
+    @Resource
+    private LoginStateStore loginStateStore;
+
+    @Resource
+    private UserSearchIndex userSearchIndex;
+
+    @Resource
+    private UserExportService userExportService;
+
+    @Resource
+    private UserImportService userImportService;
+
+    @Resource
+    private AccountBloomFilter accountBloomFilter;
+
+    @Resource
+    private AuditLogger auditLogger;
+
     /**
-     * 管理员查询用户列表接口。
+     * 管理员查询用户列表接口（游标分页）。
      *
-     * <p>用途：按用户名关键词模糊搜索用户，并返回脱敏后的用户信息列表。</p>
+     * <p>用途：按关键词模糊搜索用户（匹配用户名或账号），按创建时间倒序分页返回脱敏后的用户信息。
+     * 第一页不传 cursor，之后把上一页返回的 nextCursor 原样传回即可。</p>
      *
-     * @param username 用户名关键词（可为空）
-     * @return 统一返回结构，data 为脱敏后的用户列表
+     * @param username 关键词（可为空，匹配用户名或账号）
+     * @param cursor 上一页返回的游标（第一页为空）
+     * @param pageSize 每页条数（1~100，默认 20）
+     * @return 统一返回结构，data 为本页用户列表与下一页游标
+     * @throws IllegalArgumentException 游标不合法时抛出
      */
     @GetMapping("/search")
-    public List<UserVO> searchUsers(String username) {
-        QueryWrapper<User> queryWrapper = new QueryWrapper<>();
-        if (StringUtils.isNotBlank(username)) {
-            queryWrapper.like("username", username);
-        }
-        List<User> userList = userService.list(queryWrapper);
-        List<User> safetyList = userList.stream().map(userService::getSafetyUser).collect(Collectors.toList());
-        fillRoleInfo(safetyList);
-        return safetyList.stream().map(AdminUserController::toUserVO).collect(Collectors.toList());
+    @ReplicaRead
+    public CursorPageVO<UserVO> searchUsers(String username,
+                                            String cursor,
+                                            @RequestParam(defaultValue = "20")
+                                            @Min(value = 1, message = "pageSize 不能小于 1")
+                                            @Max(value = MAX_PAGE_SIZE, message = "pageSize 不能超过 100") int pageSize) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        // 多取一条用来判断是否还有下一页
+        List<UserVO> records = userService.listUserVOsAfter(username, after, pageSize + 1);
+        boolean hasMore = records.size() > pageSize;
+        if (hasMore) {
+            records = records.subList(0, pageSize);
+        }
+
+        CursorPageVO<UserVO> page = new CursorPageVO<>();
+        page.setRecords(records);
+        page.setHasMore(hasMore);
+        if (hasMore) {
+            UserVO last = records.get(records.size() - 1);
+            page.setNextCursor(new KeysetCursor(last.getCreateTime(), last.getId()).encode());
+        }
+        return page;
     }
 
     /**
@@ -72,33 +136,39 @@ public class AdminUserController {
      * <p>用途：按用户 id 删除用户（逻辑删除）。</p>
      *
      * @param id 用户 id
+     * @param request Http 请求对象（审计日志读取操作人）
      * @return 统一返回结构，data 为是否删除成功
      * @throws IllegalArgumentException id 为空或不合法时抛出
      */
     @PostMapping("/delete")
-    public boolean deleteUser(@RequestBody Long id) {
+    public boolean deleteUser(@RequestBody Long id, HttpServletRequest request) {
         if (id == null || id <= 0) {
             throw new IllegalArgumentException("请求参数不能为空");
         }
-        return userService.removeById(id);
+        boolean removed = userService.removeById(id);
+        loginStateStore.revokeUser(id);
+        userSearchIndex.remove(id);
+        if (removed) {
+            auditLogger.record(request, AuditAction.USER_DELETE, id, null);
+        }
+        return removed;
     }
 
     /**
      * 管理员更新用户信息接口。
      *
-     * <p>用途：更新用户可编辑字段（账号、邮箱、手机、角色、状态等）。</p>
+     * <p>用途：更新用户可编辑字段（账号、邮箱、手机、角色、状态等）。
+     * 一条带版本号的条件 UPDATE 完成：请求带上读取时的 version，期间被别人改过则更新失败，需刷新后重试；
+     * 账号唯一性由唯一索引保证。传了 userStatus / userRole 时，先按“这两个值没变”更新，
+     * 不中再更新一次并作废该用户的登录态，所以只改普通字段时也只有一条语句。</p>
      *
-     * @param req 更新请求体（包含用户 id 与待更新字段）
+     * @param req 更新请求体（包含用户 id、待更新字段与版本号）
+     * @param request Http 请求对象（审计日志读取操作人）
      * @return 统一返回结构，data 为是否更新成功
-     * @throws IllegalArgumentException 用户不存在 / 账号已存在等校验失败时抛出
+     * @throws IllegalArgumentException 用户不存在或已被修改 / 账号已存在时抛出
      */
     @PostMapping("/update")
-    public boolean updateUser(@Valid @RequestBody UserUpdateRequest req) {
-        User exist = userService.getById(req.getId());
-        if (exist == null) {
-            throw new IllegalArgumentException("用户不存在");
-        }
-
+    public boolean updateUser(@Valid @RequestBody UserUpdateRequest req, HttpServletRequest request) {
         User toUpdate = new User();
         toUpdate.setId(req.getId());
 
@@ -107,14 +177,7 @@ public class AdminUserController {
         }
 
         if (req.getUserAccount() != null) {
-            String userAccount = req.getUserAccount();
-            QueryWrapper<User> qw = new QueryWrapper<>();
-            qw.eq("userAccount", userAccount);
-            qw.ne("id", req.getId());
-            if (userService.count(qw) > 0) {
-                throw new IllegalArgumentException("账号已存在");
-            }
-            toUpdate.setUserAccount(userAccount);
+            toUpdate.setUserAccount(req.getUserAccount());
         }
 
         if (req.getEmail() != null) {
@@ -141,7 +204,35 @@ public class AdminUserController {
             toUpdate.setUserStatus(req.getUserStatus());
         }
 
-        return userService.updateById(toUpdate);
+        boolean touchesAuth = toUpdate.getUserStatus() != null || toUpdate.getUserRole() != null;
+        boolean updated;
+        boolean authChanged = false;
+        try {
+            updated = userService.updateByVersion(toUpdate, req.getVersion(), touchesAuth);
+            if (!updated && touchesAuth) {
+                // 状态或角色确实变了（或用户不存在 / 版本冲突，此时这一条同样影响 0 行）
+                updated = userService.updateByVersion(toUpdate, req.getVersion(), false);
+                authChanged = updated;
+            }
+        } catch (DuplicateKeyException e) {
+            throw new IllegalArgumentException("账号已存在");
+        }
+        if (!updated) {
+            throw new IllegalArgumentException("用户不存在或已被他人修改，请刷新后重试");
+        }
+
+        if (toUpdate.getUserAccount() != null) {
+            accountBloomFilter.put(toUpdate.getUserAccount());
+        }
+        if (authChanged) {
+            // 封禁 / 改角色：已发出的登录态作废（令牌模式需要重新登录）
+            loginStateStore.revokeUser(req.getId());
+        } else {
+            loginPrincipalRegistry.invalidate(req.getId());
+        }
+        userSearchIndex.update(req.getId(), toUpdate.getName(), toUpdate.getUserAccount());
+        auditLogger.record(request, AuditAction.USER_UPDATE, req.getId(), describeUpdate(toUpdate, authChanged));
+        return true;
     }
 
     /**
@@ -153,6 +244,7 @@ public class AdminUserController {
      * @return 统一返回结构，data 为角色 id 列表
      */
     @GetMapping("/roles")
+    @ReplicaRead
     public List<Long> getUserRoleIds(Long userId) {
         return userRoleService.listRoleIdsByUserId(userId);
     }
@@ -163,11 +255,12 @@ public class AdminUserController {
      * <p>用途：把用户原有的角色解绑，再按请求体中的 roleIds 重新绑定。</p>
      *
      * @param req 分配角色请求体（包含 userId 与 roleIds）
+     * @param request Http 请求对象（审计日志读取操作人）
      * @return 统一返回结构，data 为是否分配成功
      * @throws IllegalArgumentException 用户不存在 / 角色不存在或禁用 / 违反单角色约束时抛出
      */
     @PostMapping("/roles/assign")
-    public boolean assignRoles(@Valid @RequestBody UserAssignRolesRequest req) {
+    public boolean assignRoles(@Valid @RequestBody UserAssignRolesRequest req, HttpServletRequest request) {
         User exist = userService.getById(req.getUserId());
         if (exist == null) {
             throw new IllegalArgumentException("用户不存在");
@@ -189,90 +282,126 @@ public class AdminUserController {
             }
         }
 
-        return userRoleService.assignRoles(req.getUserId(), roleIds);
+        boolean assigned = userRoleService.assignRoles(req.getUserId(), roleIds);
+        if (assigned) {
+            auditLogger.record(request, AuditAction.USER_ASSIGN_ROLES, req.getUserId(), "roleIds=" + roleIds);
+        }
+        return assigned;
     }
 
     /**
-     * 给用户列表补充“单角色”信息（roleId / roleName / roleKey）
-     * 小白理解：用户表里没有角色名字，所以要去 user_role + role 里查出来再塞回去。
+     * 批量给用户分配角色接口（每个用户一个角色）。
+     *
+     * <p>用途：新承运商车队入驻等场景，一次请求给成百上千个用户分配角色；已有角色的用户直接改成新角色。
+     * 单个用户校验失败（用户不存在、角色不存在或禁用、重复出现）不影响其他用户，结果逐个返回。</p>
+     *
+     * @param req 批量分配请求体（userId -> roleId 列表）
+     * @param request Http 请求对象（审计日志读取操作人）
+     * @return 统一返回结构，data 为逐个用户的分配结果
+     * @throws IllegalArgumentException assignments 为空时抛出
      */
-    private void fillRoleInfo(List<User> safetyUsers) {
-        if (safetyUsers == null || safetyUsers.isEmpty()) {
-            return;
-        }
-        List<Long> userIds = safetyUsers.stream()
-                .map(User::getId)
-                .filter(Objects::nonNull)
-                .distinct()
-                .collect(Collectors.toList());
-        if (userIds.isEmpty()) {
-            return;
-        }
-
-        QueryWrapper<UserRole> urQw = new QueryWrapper<>();
-        urQw.in("user_id", userIds);
-        urQw.orderByAsc("id");
-        List<UserRole> relations = userRoleService.list(urQw);
-
-        Map<Long, Long> userIdToRoleId = new HashMap<>();
-        for (UserRole ur : relations) {
-            if (ur == null || ur.getUserId() == null || ur.getRoleId() == null) {
-                continue;
+    @PostMapping("/roles/assign-bulk")
+    public BulkAssignResultVO assignRolesBulk(@Valid @RequestBody UserBulkAssignRolesRequest req, HttpServletRequest request) {
+        BulkAssignResultVO result = userRoleService.assignRolesBulk(req.getAssignments());
+        // 和单个分配一样，每个分配成功的用户记一条，按 targetId 能查到他的每次角色变更
+        for (BulkAssignResultVO.Item item : result.getResults()) {
+            if (item.isSuccess()) {
+                auditLogger.record(request, AuditAction.USER_ASSIGN_ROLES, item.getUserId(), "roleIds=[" + item.getRoleId() + "], bulk");
             }
-            userIdToRoleId.putIfAbsent(ur.getUserId(), ur.getRoleId());
         }
+        return result;
+    }
 
-        Set<Long> roleIds = userIdToRoleId.values().stream().filter(Objects::nonNull).collect(Collectors.toSet());
-        if (roleIds.isEmpty()) {
-            return;
+    /**
+     * 管理员导出全部用户接口（流式下载）。
+     *
+     * <p>用途：把所有未删除用户（含角色信息）导出为 NDJSON（每行一个 JSON）或 CSV 文件。
+     * 边查边写，不分页也不在内存里攒整张表，几十万用户也不会撑爆堆。</p>
+     * 小白理解：返回值是 void，直接往 response 里写文件，不走统一返回结构。
+     *
+     * @param format 导出格式：ndjson（默认）或 csv
+     * @param response HTTP 响应
+     * @throws IllegalArgumentException 格式不支持时抛出
+     */
+    @GetMapping("/export")
+    @ReplicaRead
+    public void exportUsers(@RequestParam(defaultValue = UserExportService.FORMAT_NDJSON) String format,
+                            HttpServletResponse response) {
+        String ext = format == null ? "" : format.trim().toLowerCase(Locale.ROOT);
+        String contentType;
+        if (UserExportService.FORMAT_NDJSON.equals(ext)) {
+            contentType = "application/x-ndjson";
+        } else if (UserExportService.FORMAT_CSV.equals(ext)) {
+            contentType = "text/csv";
+        } else {
+            throw new IllegalArgumentException("不支持的导出格式：" + format);
         }
-
-        QueryWrapper<Role> roleQw = new QueryWrapper<>();
-        roleQw.in("id", roleIds);
-        roleQw.eq("isDelete", 0);
-        roleQw.eq("status", 0);
-        List<Role> roleList = roleService.list(roleQw);
-        Map<Long, Role> roleMap = roleList.stream()
-                .filter(r -> r != null && r.getId() != null)
-                .collect(Collectors.toMap(Role::getId, r -> r, (a, b) -> a));
-
-        for (User u : safetyUsers) {
-            if (u == null || u.getId() == null) {
-                continue;
-            }
-            Long roleId = userIdToRoleId.get(u.getId());
-            if (roleId == null) {
-                continue;
-            }
-            Role role = roleMap.get(roleId);
-            if (role == null) {
-                continue;
-            }
-            u.setRoleId(roleId);
-            u.setRoleName(role.getRoleName());
-            u.setRoleKey(role.getRoleKey());
+        String filename = "users-" + LocalDateTime.now().format(EXPORT_TIME_FORMAT) + "." + ext;
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setContentType(contentType);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"");
+        try {
+            long rows = userExportService.exportUsers(ext, response.getOutputStream());
+            log.info("用户导出完成：format={}, rows={}", ext, rows);
+        } catch (IOException e) {
+            // 客户端中途断开等写出失败：响应头已发出，无法再返回错误结构，记录即可
+            log.warn("用户导出写出失败：{}", e.getMessage());
         }
     }
 
-    private static UserVO toUserVO(User user) {
-        if (user == null) {
-            return null;
-        }
-        UserVO vo = new UserVO();
-        vo.setId(user.getId());
-        vo.setName(user.getName());
-        vo.setUserAccount(user.getUserAccount());
-        vo.setEmail(user.getEmail());
-        vo.setAvatarUrl(user.getAvatarUrl());
-        vo.setGender(user.getGender());
-        vo.setPhone(user.getPhone());
-        vo.setUserStatus(user.getUserStatus());
-        vo.setUserRole(user.getUserRole());
-        vo.setRoleId(user.getRoleId());
-        vo.setRoleName(user.getRoleName());
-        vo.setRoleKey(user.getRoleKey());
-        vo.setCreateTime(user.getCreateTime());
-        return vo;
+    /**
+     * 管理员批量导入用户接口（流式上传）。
+     *
+     * <p>用途：从合作方系统迁移司机、门岗等账号，一次请求导入几万个。请求体直接是文件内容：
+     * NDJSON（每行一个 JSON 对象）或带表头的 CSV，字段为 userAccount、userPassword，
+     * 可选 name、email、phone、gender 以及 roleKey / roleId（导入后直接分配角色）。
+     * 单行校验失败、账号已存在不影响其他行，结果逐行返回。</p>
+     *
+     * @param format 导入格式：ndjson（默认）或 csv
+     * @param request HTTP 请求（读取请求体）
+     * @return 统一返回结构，data 为逐行的导入结果
+     * @throws IOException 读取请求体失败时抛出
+     * @throws IllegalArgumentException 格式不支持、CSV 缺少表头时抛出
+     */
+    @PostMapping("/import")
+    public UserImportResultVO importUsers(@RequestParam(defaultValue = UserImportService.FORMAT_NDJSON) String format,
+                                          HttpServletRequest request) throws IOException {
+        return userImportService.importUsers(format, request.getInputStream());
+    }
+
+    /**
+     * 审计日志里的更新说明：改了哪些字段；状态和 userRole 额外记下新值以及是否作废了登录态（其余字段不记值，避免把个人信息写进日志）。
+     */
+    private static String describeUpdate(User toUpdate, boolean authChanged) {
+        StringJoiner fields = new StringJoiner(",");
+        if (toUpdate.getName() != null) {
+            fields.add("name");
+        }
+        if (toUpdate.getUserAccount() != null) {
+            fields.add("userAccount");
+        }
+        if (toUpdate.getEmail() != null) {
+            fields.add("email");
+        }
+        if (toUpdate.getPhone() != null) {
+            fields.add("phone");
+        }
+        if (toUpdate.getAvatarUrl() != null) {
+            fields.add("avatarUrl");
+        }
+        if (toUpdate.getGender() != null) {
+            fields.add("gender");
+        }
+        if (toUpdate.getUserRole() != null) {
+            fields.add("userRole=" + toUpdate.getUserRole());
+        }
+        if (toUpdate.getUserStatus() != null) {
+            fields.add("userStatus=" + toUpdate.getUserStatus());
+        }
+        if (authChanged) {
+            fields.add("sessionsRevoked");
+        }
+        return fields.toString();
     }
 
 }
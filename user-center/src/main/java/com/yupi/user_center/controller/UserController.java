@@ -1,15 +1,24 @@
 package com.yupi.user_center.controller;
 
-import com.yupi.user_center.constant.UserConstant;
+import com.yupi.user_center.cache.UserSearchIndex;
+import com.yupi.user_center.common.ConditionalRequests;
+import com.yupi.user_center.constant.ErrorCode;
+import com.yupi.user_center.datasource.ReplicaRead;
+import com.yupi.user_center.exception.BusinessException;
 import com.yupi.user_center.model.User;
 import com.yupi.user_center.model.request.UserLoginRequest;
 import com.yupi.user_center.model.request.UserRegisterRequest;
 import com.yupi.user_center.model.request.UserUpdateMyRequest;
 import com.yupi.user_center.model.vo.UserVO;
+import com.yupi.user_center.monitor.LoginMetrics;
+import com.yupi.user_center.security.LoginPrincipal;
+import com.yupi.user_center.security.LoginPrincipalRegistry;
+import com.yupi.user_center.security.LoginRateLimiter;
+import com.yupi.user_center.security.LoginStateStore;
 import com.yupi.user_center.service.UserService;
 import jakarta.annotation.Resource;
 import jakarta.servlet.http.HttpServletRequest;
-import jakarta.servlet.http.HttpSession;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -31,71 +40,108 @@ public class UserController {
     @Resource
     private UserService userService;
 
+    @Resource
+    private UserSearchIndex userSearchIndex;
+
+    @Resource
+    private LoginPrincipalRegistry loginPrincipalRegistry;
+
+    @Resource
+    private LoginStateStore loginStateStore;
+
+    @Resource
+    private LoginMetrics loginMetrics;
+
+    @Resource
+    private LoginRateLimiter loginRateLimiter;
+
     /**
      * 用户注册接口。
      *
-     * <p>用途：前端提交注册信息，后端完成校验、落库，并返回新用户 id。</p>
+     * <p>用途：前端提交注册信息，后端完成校验、落库，并返回新用户 id。同一 IP 注册过于频繁时直接返回 429。</p>
      *
      * @param req 注册请求体（包含账号、密码、确认密码）
+     * @param request Http 请求对象（按客户端 IP 限流）
      * @return 统一返回结构，data 为新用户 id
      */
     @PostMapping("/register")
-    public Long userRegister(@Valid @RequestBody UserRegisterRequest req) {
+    public Long userRegister(@Valid @RequestBody UserRegisterRequest req, HttpServletRequest request) {
+        loginRateLimiter.checkRegister(request);
         return userService.userRegister(req.getUserAccount(), req.getUserPassword(), req.getCheckPassword());
     }
 
     /**
      * 用户登录接口。
      *
-     * <p>用途：前端提交账号密码，后端校验成功后写入 Session 登录态，并返回脱敏用户信息。</p>
+     * <p>用途：前端提交账号密码，后端校验成功后写入登录态（Session，或令牌模式下的 X-Auth-Token 响应头），并返回脱敏用户信息。
+     * 同一 IP 尝试过于频繁，或同一账号失败过于频繁时不查库，直接返回 429（带 Retry-After）。</p>
      *
      * @param req 登录请求体（包含账号、密码）
      * @param request Http 请求对象（用于写入 Session）
+     * @param response Http 响应对象（令牌模式写入令牌响应头）
      * @return 统一返回结构，data 为脱敏后的用户信息
      */
     @PostMapping("/login")
-    public UserVO userLogin(@Valid @RequestBody UserLoginRequest req, HttpServletRequest request) {
-        User user = userService.userLogin(req.getUserAccount(), req.getUserPassword(), request);
+    public UserVO userLogin(@Valid @RequestBody UserLoginRequest req, HttpServletRequest request,
+                            HttpServletResponse response) {
+        User user;
+        try {
+            loginRateLimiter.checkLogin(request, req.getUserAccount());
+            user = userService.userLogin(req.getUserAccount(), req.getUserPassword(), request, response);
+            loginRateLimiter.loginSucceeded(req.getUserAccount());
+        } catch (BusinessException e) {
+            loginMetrics.failure(e.getErrorCode());
+            throw e;
+        } catch (IllegalArgumentException e) {
+            loginMetrics.failure(ErrorCode.PARAMS_ERROR);
+            throw e;
+        } catch (RuntimeException e) {
+            loginMetrics.failure(ErrorCode.SYSTEM_ERROR);
+            throw e;
+        }
+        loginMetrics.success();
         return toUserVO(user);
     }
 
     /**
      * 获取当前登录用户接口。
      *
-     * <p>用途：从 Session 读取登录态用户，返回脱敏后的用户信息。</p>
+     * <p>用途：按 Session 里的 userId 读取最新的脱敏用户信息（管理员修改后立即可见）。
+     * 带按用户资料版本生成的 ETag，资料没变时回 304，不查库也不序列化。</p>
      *
-     * @param request Http 请求对象（用于读取 Session）
-     * @return 统一返回结构，data 为脱敏后的用户信息
+     * @param request Http 请求对象（用于读取 Session 和 If-None-Match）
+     * @param response Http 响应对象（写 ETag）
+     * @return 统一返回结构，data 为脱敏后的用户信息；未修改时返回 null（304，无响应体）
      * @throws ResponseStatusException 未登录时抛出（401）
      */
     @GetMapping("/current")
-    public UserVO getCurrentUser(HttpServletRequest request) {
-        Object userObject = request.getSession().getAttribute(UserConstant.USER_LOGIN_STATE);
-        User user = (User) userObject;
-        if (user == null) {
+    @ReplicaRead
+    public UserVO getCurrentUser(HttpServletRequest request, HttpServletResponse response) {
+        LoginPrincipal principal = loginStateStore.requireLogin(request);
+        LoginPrincipalRegistry.VersionedProfile profile = loginPrincipalRegistry.getVersionedProfile(principal.userId());
+        if (profile == null) {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "NOT_LOGIN");
         }
-        return toUserVO(userService.getSafetyUser(user));
+        // ETag 带上 userId：同一浏览器换账号登录后旧 ETag 不会误命中
+        String etag = ConditionalRequests.etag("user-" + principal.userId(), profile.version());
+        if (ConditionalRequests.checkNotModified(request, response, etag)) {
+            return null;
+        }
+        return profile.profile();
     }
 
     /**
      * 用户退出登录接口。
      *
-     * <p>用途：清除 Session 中的登录态。</p>
+     * <p>用途：清除当前登录态（Session 模式销毁 Session，令牌模式把当前令牌加入作废名单，共享 Session 模式删库里的记录并让浏览器删掉 Cookie）。</p>
      *
      * @param request Http 请求对象（用于获取 Session）
+     * @param response Http 响应对象（共享 Session 模式用来清掉 Cookie）
      * @return 统一返回结构，data 为是否退出成功
      */
     @PostMapping("/logout")
-    public Boolean userLogout(HttpServletRequest request) {
-        try {
-            HttpSession session = request.getSession(false);
-            if (session != null) {
-                session.removeAttribute(UserConstant.USER_LOGIN_STATE);
-                session.invalidate();
-            }
-        } catch (IllegalStateException ignored) {
-        }
+    public Boolean userLogout(HttpServletRequest request, HttpServletResponse response) {
+        loginStateStore.logout(request, response);
         return true;
     }
 
@@ -112,12 +158,8 @@ public class UserController {
      */
     @PostMapping("/update")
     public UserVO updateMyUser(@Valid @RequestBody UserUpdateMyRequest req, HttpServletRequest request) {
-        Object userObject = request.getSession().getAttribute(UserConstant.USER_LOGIN_STATE);
-        User loginUser = (User) userObject;
-        if (loginUser == null) {
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "NOT_LOGIN");
-        }
-        if (loginUser.getUserStatus() != null && loginUser.getUserStatus() == 1) {
+        LoginPrincipal principal = loginStateStore.requireLogin(request);
+        if (principal.isBanned()) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "USER_BANNED");
         }
         if (req == null) {
@@ -125,7 +167,7 @@ public class UserController {
         }
 
         User toUpdate = new User();
-        toUpdate.setId(loginUser.getId());
+        toUpdate.setId(principal.userId());
 
         if (req.getName() != null) {
             toUpdate.setName(req.getName());
@@ -143,15 +185,13 @@ public class UserController {
             toUpdate.setGender(req.getGender());
         }
 
-        boolean ok = userService.updateById(toUpdate);
+        boolean ok = userService.updateByVersion(toUpdate, null, false);
         if (!ok) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "UPDATE_FAILED");
         }
-
-        User fresh = userService.getById(loginUser.getId());
-        User safetyUser = userService.getSafetyUser(fresh);
-        request.getSession().setAttribute(UserConstant.USER_LOGIN_STATE, safetyUser);
-        return toUserVO(safetyUser);
+        userSearchIndex.update(principal.userId(), toUpdate.getName(), null);
+        loginPrincipalRegistry.invalidate(principal.userId());
+        return loginPrincipalRegistry.getProfile(principal.userId());
     }
 
     /**
@@ -167,7 +207,7 @@ public class UserController {
         return request.getSession().getMaxInactiveInterval();
     }
 
-    private static UserVO toUserVO(User user) {
+    static UserVO toUserVO(User user) {
         if (user == null) {
             return null;
         }
@@ -185,6 +225,7 @@ public class UserController {
         vo.setRoleName(user.getRoleName());
         vo.setRoleKey(user.getRoleKey());
         vo.setCreateTime(user.getCreateTime());
+        vo.setVersion(user.getVersion());
         return vo;
     }
 
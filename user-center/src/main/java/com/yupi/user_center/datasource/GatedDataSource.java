@@ -0,0 +1,186 @@
+package com.yupi.user_center.datasource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 数据库并发闸门：在连接池外面套一个公平信号量，许可数 = 连接池大小。
+ *
+ * <p>虚拟线程模式下几千个请求可能同时要连接，全部挤进 Hikari 的等待逻辑里既不公平，
+ * 还会在 connection-timeout 到点时成片失败。这里先按到达顺序在信号量上排队（虚拟线程在
+ * j.u.c 锁上等待不会钉住载体线程），拿到许可的才去连接池取连接，连接 close 时归还许可。</p>
+ * 小白理解：连接池只有 10 个窗口，那就在门口发 10 个号，按先来后到叫号，别一窝蜂挤到窗口前。
+ *
+ * @author Ethan
+ */
+public class GatedDataSource extends DelegatingDataSource {
+
+    private final Semaphore permits;
+    private final int maxPermits;
+    private final long acquireTimeoutMillis;
+
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    /**
+     * 构造闸门。
+     *
+     * @param target 真实数据源（连接池）
+     * @param maxPermits 最大并发连接数（一般等于连接池大小）
+     * @param acquireTimeoutMillis 排队最长等待时间（毫秒）
+     */
+    public GatedDataSource(DataSource target, int maxPermits, long acquireTimeoutMillis) {
+        super(target);
+        this.maxPermits = maxPermits;
+        this.permits = new Semaphore(maxPermits, true);
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return gate(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return gate(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * 最大许可数。
+     *
+     * @return 许可数
+     */
+    public int getMaxPermits() {
+        return maxPermits;
+    }
+
+    /**
+     * 当前可用许可数。
+     *
+     * @return 可用许可数
+     */
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    /**
+     * 正在排队的线程数（估算值）。
+     *
+     * @return 排队数
+     */
+    public int getQueueLength() {
+        return permits.getQueueLength();
+    }
+
+    /**
+     * 累计成功获取次数。
+     *
+     * @return 次数
+     */
+    public long getAcquiredCount() {
+        return acquired.sum();
+    }
+
+    /**
+     * 累计排队超时次数。
+     *
+     * @return 次数
+     */
+    public long getTimeoutCount() {
+        return timeouts.sum();
+    }
+
+    /**
+     * 平均排队时间（微秒）。
+     *
+     * @return 微秒
+     */
+    public long getAvgWaitMicros() {
+        long n = acquired.sum();
+        return n == 0 ? 0 : waitNanos.sum() / n / 1000;
+    }
+
+    /**
+     * 最长排队时间（微秒）。
+     *
+     * @return 微秒
+     */
+    public long getMaxWaitMicros() {
+        return maxWaitNanos.get() / 1000;
+    }
+
+    private void acquire() throws SQLException {
+        long start = System.nanoTime();
+        boolean ok;
+        try {
+            ok = permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("等待数据库连接许可时被中断", e);
+        }
+        if (!ok) {
+            timeouts.increment();
+            throw new SQLTransientConnectionException("数据库繁忙：排队 " + acquireTimeoutMillis + "ms 仍未拿到连接");
+        }
+        long waited = System.nanoTime() - start;
+        acquired.increment();
+        waitNanos.add(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+    }
+
+    /**
+     * 包一层代理：连接第一次 close 时归还许可（重复 close 不会多还）。
+     */
+    private Connection gate(Connection target) {
+        AtomicBoolean released = new AtomicBoolean();
+        InvocationHandler handler = (proxy, method, args) -> {
+            if ("close".equals(method.getName()) && method.getParameterCount() == 0) {
+                try {
+                    return invoke(target, method, args);
+                } finally {
+                    if (released.compareAndSet(false, true)) {
+                        permits.release();
+                    }
+                }
+            }
+            return invoke(target, method, args);
+        };
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
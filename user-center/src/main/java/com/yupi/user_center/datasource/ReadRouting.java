@@ -0,0 +1,82 @@
+package com.yupi.user_center.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * 当前线程的读库路由意图（配合 {@link ReadWriteRoutingDataSource} 使用）。
+ *
+ * <p>只表达“想去哪”，最终由路由数据源在真正取连接时决定：读写事务里一律走主库，
+ * 只读事务（{@code @Transactional(readOnly = true)}）默认走从库，事务外按这里的意图走。
+ * 没配置从库时没人读它，设置了也没有任何效果。</p>
+ * 小白理解：在请求上贴一张“这趟只是来看看”的便签，前台据此把人领到从库窗口。
+ *
+ * @author Ethan
+ */
+public final class ReadRouting {
+
+    /**
+     * 路由意图。
+     */
+    public enum Route {
+        /**
+         * 未指定：事务外走主库，只读事务走从库。
+         */
+        DEFAULT,
+        /**
+         * 优先从库（没有可用从库时回落主库）。
+         */
+        REPLICA,
+        /**
+         * 强制主库（刚写过、必须读到最新数据的场景）。
+         */
+        PRIMARY
+    }
+
+    private static final ThreadLocal<Route> CURRENT = new ThreadLocal<>();
+
+    private ReadRouting() {
+    }
+
+    /**
+     * 当前线程的路由意图。
+     *
+     * @return 路由意图（未设置返回 DEFAULT）
+     */
+    public static Route current() {
+        Route route = CURRENT.get();
+        return route == null ? Route.DEFAULT : route;
+    }
+
+    /**
+     * 设置当前线程的路由意图。
+     *
+     * @param route 路由意图（DEFAULT 等同于清除）
+     * @return 设置前的路由意图（用于恢复）
+     */
+    public static Route set(Route route) {
+        Route previous = current();
+        if (route == null || route == Route.DEFAULT) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(route);
+        }
+        return previous;
+    }
+
+    /**
+     * 在指定路由意图下执行一段逻辑，执行完恢复原来的意图。
+     *
+     * @param route 路由意图
+     * @param action 要执行的逻辑
+     * @param <T> 返回值类型
+     * @return action 的返回值
+     */
+    public static <T> T call(Route route, Supplier<T> action) {
+        Route previous = set(route);
+        try {
+            return action.get();
+        } finally {
+            set(previous);
+        }
+    }
+}
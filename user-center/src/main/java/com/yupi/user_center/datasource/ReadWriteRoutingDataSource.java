@@ -0,0 +1,382 @@
+package com.yupi.user_center.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 读写分离路由数据源：写和普通查询走主库（被代理的目标数据源），只读查询走从库。
+ *
+ * <p>每次取连接时决定去向：
+ * <ul>
+ *     <li>在事务里：只读事务（{@code @Transactional(readOnly = true)}）走从库，读写事务一律走主库；</li>
+ *     <li>不在事务里：按 {@link ReadRouting} 上的意图，REPLICA 走从库，其余走主库。</li>
+ * </ul>
+ * 从库按“进行中的连接最少”挑选，并列时从轮转起点往后取第一个（空闲时就是轮询）。
+ * 延迟超过上限、探测失败或取连接失败的从库暂时摘掉，全部不可用时回落主库，读请求不会因为从库出问题而失败。</p>
+ *
+ * <p>事务开始时连接管理器就会取连接，那时事务的只读标记还没设置，所以外面要再套一层
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}，把真正取连接推迟到第一条 SQL。
+ * 主库仍是被代理的目标，连接池指标和数据库并发闸门照常能 unwrap 到。</p>
+ * 小白理解：办事大厅分“办理”和“查询”两类窗口，只是来查询的领到人最少的查询窗口，
+ * 查询窗口信息更新太慢就先关掉，全关了就去办理窗口查。
+ *
+ * @author Ethan
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends DelegatingDataSource {
+
+    private final Replica[] replicas;
+    private final String lagQuery;
+    private final long maxLagMillis;
+    private final int probeTimeoutSeconds;
+
+    private final AtomicInteger cursor = new AtomicInteger();
+    private final LongAdder primaryConnections = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    /**
+     * 构造路由数据源。
+     *
+     * @param primary 主库数据源
+     * @param replicas 从库列表（不能为空）
+     * @param lagQuery 查询复制延迟的 SQL（返回秒数；为空表示只检查连通性）
+     * @param maxLagMillis 允许的最大复制延迟（毫秒）
+     * @param probeTimeoutSeconds 单次探测超时（秒）
+     */
+    public ReadWriteRoutingDataSource(DataSource primary, List<Replica> replicas, String lagQuery,
+                                      long maxLagMillis, int probeTimeoutSeconds) {
+        super(primary);
+        if (replicas == null || replicas.isEmpty()) {
+            throw new IllegalArgumentException("至少需要一个从库");
+        }
+        this.replicas = replicas.toArray(new Replica[0]);
+        this.lagQuery = lagQuery == null ? "" : lagQuery.trim();
+        this.maxLagMillis = maxLagMillis;
+        this.probeTimeoutSeconds = probeTimeoutSeconds;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (wantsReplica()) {
+            Replica replica = select();
+            if (replica != null) {
+                try {
+                    return replica.borrow();
+                } catch (SQLException e) {
+                    replica.markDown(e);
+                }
+            }
+            fallbacks.increment();
+        }
+        primaryConnections.increment();
+        return super.getConnection();
+    }
+
+    /**
+     * 指定账号密码取连接的场景很少见，一律走主库。
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        primaryConnections.increment();
+        return super.getConnection(username, password);
+    }
+
+    /**
+     * 探测所有从库的连通性和复制延迟，更新可用状态（定时调用）。
+     */
+    public void probe() {
+        for (Replica replica : replicas) {
+            replica.update(replica.measureLag(lagQuery, probeTimeoutSeconds), maxLagMillis);
+        }
+    }
+
+    /**
+     * 关闭从库连接池（主库连接池由 Spring 管理，不在这里关）。
+     */
+    public void closeReplicas() {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("关闭从库 {} 连接池失败: {}", replica.name, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * 从库列表。
+     *
+     * @return 从库（只读视图）
+     */
+    public List<Replica> getReplicas() {
+        return List.of(replicas);
+    }
+
+    /**
+     * 累计走主库的连接数（含回落）。
+     *
+     * @return 次数
+     */
+    public long getPrimaryConnectionCount() {
+        return primaryConnections.sum();
+    }
+
+    /**
+     * 累计“想走从库但没有可用从库、回落主库”的次数。
+     *
+     * @return 次数
+     */
+    public long getFallbackCount() {
+        return fallbacks.sum();
+    }
+
+    /**
+     * 当前这次取连接是否应该走从库。
+     */
+    static boolean wantsReplica() {
+        ReadRouting.Route route = ReadRouting.current();
+        if (route == ReadRouting.Route.PRIMARY) {
+            return false;
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        }
+        return route == ReadRouting.Route.REPLICA;
+    }
+
+    /**
+     * 挑选从库：可用的里面进行中连接最少的，并列时取轮转起点之后的第一个。
+     *
+     * @return 从库，没有可用从库返回 null
+     */
+    Replica select() {
+        int n = replicas.length;
+        int start = Math.floorMod(cursor.getAndIncrement(), n);
+        Replica best = null;
+        int bestPending = Integer.MAX_VALUE;
+        for (int i = 0; i < n; i++) {
+            Replica replica = replicas[(start + i) % n];
+            if (!replica.available) {
+                continue;
+            }
+            int pending = replica.pending.get();
+            if (pending < bestPending) {
+                best = replica;
+                bestPending = pending;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 一个从库：连接池 + 进行中连接数 + 探测得到的可用状态和复制延迟。
+     *
+     * <p>刚创建时不可用，第一次探测通过后才开始接读流量。</p>
+     */
+    public static class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+
+        private final AtomicInteger pending = new AtomicInteger();
+        private final LongAdder routed = new LongAdder();
+        private final LongAdder probeFailures = new LongAdder();
+
+        private volatile boolean available;
+        private volatile long lagMillis = -1;
+
+        /**
+         * 构造从库。
+         *
+         * @param name 名称（日志和指标标签）
+         * @param dataSource 从库连接池
+         */
+        public Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        /**
+         * 从库名称。
+         *
+         * @return 名称
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * 是否可用（最近一次探测通过且期间没有取连接失败）。
+         *
+         * @return 是否可用
+         */
+        public boolean isAvailable() {
+            return available;
+        }
+
+        /**
+         * 最近一次探测得到的复制延迟（毫秒，探测失败为 -1）。
+         *
+         * @return 毫秒
+         */
+        public long getLagMillis() {
+            return lagMillis;
+        }
+
+        /**
+         * 当前进行中（已借出未归还）的连接数。
+         *
+         * @return 连接数
+         */
+        public int getPending() {
+            return pending.get();
+        }
+
+        /**
+         * 累计路由到该从库的连接数。
+         *
+         * @return 次数
+         */
+        public long getRoutedCount() {
+            return routed.sum();
+        }
+
+        /**
+         * 累计探测失败次数（连不上、不是从库或复制线程停止）。
+         *
+         * @return 次数
+         */
+        public long getProbeFailureCount() {
+            return probeFailures.sum();
+        }
+
+        /**
+         * 按探测结果更新可用状态：探测成功且延迟不超过上限才可用，状态变化时打日志。
+         *
+         * @param lagMillis 复制延迟（毫秒，&lt; 0 表示探测失败）
+         * @param maxLagMillis 允许的最大延迟（毫秒）
+         */
+        void update(long lagMillis, long maxLagMillis) {
+            if (lagMillis < 0) {
+                probeFailures.increment();
+            }
+            boolean ok = lagMillis >= 0 && lagMillis <= maxLagMillis;
+            this.lagMillis = lagMillis;
+            if (ok != available) {
+                if (ok) {
+                    log.info("从库 {} 恢复可用（延迟 {}ms）", name, lagMillis);
+                } else if (lagMillis < 0) {
+                    log.warn("从库 {} 探测失败，暂停读流量", name);
+                } else {
+                    log.warn("从库 {} 复制延迟 {}ms 超过上限 {}ms，暂停读流量", name, lagMillis, maxLagMillis);
+                }
+            }
+            available = ok;
+        }
+
+        /**
+         * 取连接失败：立即摘掉，等下次探测再决定是否恢复。
+         */
+        void markDown(SQLException e) {
+            if (available) {
+                log.warn("从库 {} 取连接失败，暂停读流量直到下次探测通过: {}", name, e.getMessage());
+            }
+            available = false;
+        }
+
+        /**
+         * 借一个连接，close 时把进行中计数减回来（重复 close 只减一次）。
+         */
+        Connection borrow() throws SQLException {
+            pending.incrementAndGet();
+            Connection target;
+            try {
+                target = dataSource.getConnection();
+            } catch (SQLException | RuntimeException e) {
+                pending.decrementAndGet();
+                throw e;
+            }
+            routed.increment();
+            AtomicBoolean returned = new AtomicBoolean();
+            InvocationHandler handler = (proxy, method, args) -> {
+                if ("close".equals(method.getName()) && method.getParameterCount() == 0) {
+                    try {
+                        return invoke(target, method, args);
+                    } finally {
+                        if (returned.compareAndSet(false, true)) {
+                            pending.decrementAndGet();
+                        }
+                    }
+                }
+                return invoke(target, method, args);
+            };
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, handler);
+        }
+
+        /**
+         * 测一次复制延迟。
+         *
+         * <p>lagQuery 为空时只检查连通性（延迟按 0 算，适合两个独立实例的本地联调）；
+         * 否则执行 lagQuery，取 Seconds_Behind_Source / Seconds_Behind_Master 列（没有这两列取第一列）的秒数。
+         * 查不到行（不是从库）或值为 NULL（复制线程停了）都算探测失败。</p>
+         *
+         * @return 延迟（毫秒），探测失败返回 -1
+         */
+        long measureLag(String lagQuery, int timeoutSeconds) {
+            try (Connection connection = dataSource.getConnection()) {
+                if (lagQuery.isEmpty()) {
+                    return connection.isValid(timeoutSeconds) ? 0 : -1;
+                }
+                try (Statement stmt = connection.createStatement()) {
+                    stmt.setQueryTimeout(timeoutSeconds);
+                    try (ResultSet rs = stmt.executeQuery(lagQuery)) {
+                        if (!rs.next()) {
+                            return -1;
+                        }
+                        long seconds = rs.getLong(lagColumn(rs.getMetaData()));
+                        return rs.wasNull() ? -1 : seconds * 1000;
+                    }
+                }
+            } catch (SQLException e) {
+                log.debug("从库 {} 探测异常: {}", name, e.getMessage());
+                return -1;
+            }
+        }
+
+        private static int lagColumn(ResultSetMetaData meta) throws SQLException {
+            for (int i = 1; i <= meta.getColumnCount(); i++) {
+                String label = meta.getColumnLabel(i);
+                if ("Seconds_Behind_Source".equalsIgnoreCase(label) || "Seconds_Behind_Master".equalsIgnoreCase(label)) {
+                    return i;
+                }
+            }
+            return 1;
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
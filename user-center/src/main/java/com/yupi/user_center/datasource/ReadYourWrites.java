@@ -0,0 +1,61 @@
+package com.yupi.user_center.datasource;
+
+import com.yupi.user_center.cache.LongKeyLruCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 读己之写：记录最近几秒内数据被修改过（或自己提交过写操作）的用户，这段时间内和他们相关的读取走主库。
+ *
+ * <p>从库有复制延迟，用户改完资料马上刷新，或者管理员封禁后马上查列表，都可能从从库读到旧数据，
+ * 更糟的是旧数据会被登录主体缓存住。窗口（{@code user-center.datasource.read-your-writes-ms}）
+ * 要大于允许的最大延迟加一次探测间隔，过了窗口从库一定已经追上。</p>
+ * 小白理解：刚改过东西的人，几秒内都领到主库窗口去办，省得看到“还没改”的样子。
+ *
+ * @author Ethan
+ */
+@Component
+public class ReadYourWrites {
+
+    private final LongKeyLruCache<Boolean> recent;
+
+    /**
+     * 构造记录表。
+     *
+     * @param windowMillis 写后走主库的窗口（毫秒）
+     * @param capacity 最多同时记录的用户数
+     */
+    public ReadYourWrites(@Value("${user-center.datasource.read-your-writes-ms:3000}") long windowMillis,
+                          @Value("${user-center.datasource.read-your-writes-capacity:100000}") int capacity) {
+        this.recent = new LongKeyLruCache<>(capacity, Math.max(1, windowMillis));
+    }
+
+    /**
+     * 记录用户的数据刚被修改（或该用户刚提交了写操作）。
+     *
+     * @param userId 用户 id
+     */
+    public void markWritten(long userId) {
+        recent.put(userId, Boolean.TRUE);
+    }
+
+    /**
+     * 用户是否还在写后窗口内。
+     *
+     * @param userId 用户 id
+     * @return 是否在窗口内
+     */
+    public boolean recentlyWritten(long userId) {
+        return recent.get(userId) != null;
+    }
+
+    /**
+     * 读取该用户相关数据时应走的路由：窗口内走主库，否则优先从库。
+     *
+     * @param userId 用户 id
+     * @return 路由意图
+     */
+    public ReadRouting.Route routeFor(long userId) {
+        return recentlyWritten(userId) ? ReadRouting.Route.PRIMARY : ReadRouting.Route.REPLICA;
+    }
+}
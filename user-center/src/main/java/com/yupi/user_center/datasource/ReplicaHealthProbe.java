@@ -0,0 +1,60 @@
+package com.yupi.user_center.datasource;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * 从库健康探测：定时测每个从库的连通性和复制延迟，超过上限的暂时摘掉（没配置从库时什么都不做）。
+ *
+ * <p>启动时先同步探测一次，第一批只读请求就能用上从库；应用关闭时顺带关掉从库连接池。</p>
+ *
+ * @author Ethan
+ */
+@Component
+@Slf4j
+public class ReplicaHealthProbe {
+
+    @Resource
+    private DataSource dataSource;
+
+    private ReadWriteRoutingDataSource routing;
+
+    @PostConstruct
+    public void init() {
+        try {
+            if (dataSource.isWrapperFor(ReadWriteRoutingDataSource.class)) {
+                routing = dataSource.unwrap(ReadWriteRoutingDataSource.class);
+            }
+        } catch (SQLException e) {
+            log.warn("读取读写分离数据源失败，跳过从库探测: {}", e.getMessage());
+        }
+        probe();
+    }
+
+    /**
+     * 探测一轮（间隔：user-center.datasource.lag-probe-interval-ms）。
+     */
+    @Scheduled(fixedDelayString = "${user-center.datasource.lag-probe-interval-ms:1000}")
+    public void probe() {
+        if (routing != null) {
+            routing.probe();
+        }
+    }
+
+    /**
+     * 应用关闭时关闭从库连接池。
+     */
+    @PreDestroy
+    public void close() {
+        if (routing != null) {
+            routing.closeReplicas();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.yupi.user_center.datasource;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 标在只读接口（Controller 方法）上：该请求里事务外的查询优先走从库。
+ *
+ * <p>由 {@link com.yupi.user_center.interceptor.ReplicaReadInterceptor} 在进入 Controller 前设置
+ * {@link ReadRouting.Route#REPLICA}，请求结束清除。当前管理员刚提交过写操作时（见 {@link ReadYourWrites}）改走主库，
+ * 保证自己改完马上能查到。</p>
+ *
+ * @author Ethan
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ReplicaRead {
+}
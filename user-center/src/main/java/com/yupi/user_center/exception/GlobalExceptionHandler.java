@@ -2,7 +2,9 @@ package com.yupi.user_center.exception;
 
 import com.yupi.user_center.common.ApiResponse;
 import com.yupi.user_center.constant.ErrorCode;
+import com.yupi.user_center.monitor.ErrorCodeObservationConvention;
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -10,11 +12,15 @@ import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.server.ResponseStatusException;
 
 /**
  * 全局异常处理器（将异常统一转换为 ApiResponse）。
  *
+ * <p>返回前把错误码记到 request 属性上，http.server.requests 指标据此打 error_code 标签。</p>
+ *
  * @author Ethan
  */
 @RestControllerAdvice(basePackages = "com.yupi.user_center.controller")
@@ -30,7 +36,21 @@ public class GlobalExceptionHandler {
     public ResponseEntity<ApiResponse<Object>> handleBusinessException(BusinessException e) {
         ErrorCode errorCode = e.getErrorCode() == null ? ErrorCode.SYSTEM_ERROR : e.getErrorCode();
         HttpStatus status = errorCode.getHttpStatus() == null ? HttpStatus.INTERNAL_SERVER_ERROR : errorCode.getHttpStatus();
-        return ResponseEntity.status(status).body(ApiResponse.error(errorCode, e.getMessage()));
+        return error(status, errorCode, e.getMessage());
+    }
+
+    /**
+     * 处理限流异常 RateLimitedException（429，并带 Retry-After 响应头）。
+     *
+     * @param e 限流异常
+     * @return 统一返回结构
+     */
+    @ExceptionHandler(RateLimitedException.class)
+    public ResponseEntity<ApiResponse<Object>> handleRateLimitedException(RateLimitedException e) {
+        ResponseEntity<ApiResponse<Object>> response = handleBusinessException(e);
+        return ResponseEntity.status(response.getStatusCode())
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(e.getRetryAfterSeconds()))
+                .body(response.getBody());
     }
 
     /**
@@ -41,7 +61,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<ApiResponse<Object>> handleIllegalArgumentException(IllegalArgumentException e) {
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ApiResponse.error(ErrorCode.PARAMS_ERROR, e.getMessage()));
+        return error(HttpStatus.BAD_REQUEST, ErrorCode.PARAMS_ERROR, e.getMessage());
     }
 
     /**
@@ -59,7 +79,7 @@ public class GlobalExceptionHandler {
                 message = fieldError.getDefaultMessage();
             }
         }
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ApiResponse.error(ErrorCode.PARAMS_ERROR, message));
+        return error(HttpStatus.BAD_REQUEST, ErrorCode.PARAMS_ERROR, message);
     }
 
     /**
@@ -77,7 +97,7 @@ public class GlobalExceptionHandler {
                 message = first;
             }
         }
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ApiResponse.error(ErrorCode.PARAMS_ERROR, message));
+        return error(HttpStatus.BAD_REQUEST, ErrorCode.PARAMS_ERROR, message);
     }
 
     /**
@@ -88,7 +108,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(HttpMessageNotReadableException.class)
     public ResponseEntity<ApiResponse<Object>> handleHttpMessageNotReadableException(HttpMessageNotReadableException e) {
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ApiResponse.error(ErrorCode.PARAMS_ERROR, "请求体解析失败"));
+        return error(HttpStatus.BAD_REQUEST, ErrorCode.PARAMS_ERROR, "请求体解析失败");
     }
 
     /**
@@ -121,7 +141,7 @@ public class GlobalExceptionHandler {
         if (message == null || message.isBlank()) {
             message = errorCode.getMessage();
         }
-        return ResponseEntity.status(status).body(ApiResponse.error(errorCode, message));
+        return error(status, errorCode, message);
     }
 
     /**
@@ -132,6 +152,14 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiResponse<Object>> handleException(Exception e) {
-        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(ApiResponse.error(ErrorCode.SYSTEM_ERROR));
+        return error(HttpStatus.INTERNAL_SERVER_ERROR, ErrorCode.SYSTEM_ERROR, null);
+    }
+
+    private static ResponseEntity<ApiResponse<Object>> error(HttpStatus status, ErrorCode errorCode, String message) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(ErrorCodeObservationConvention.ERROR_CODE_ATTRIBUTE, errorCode, RequestAttributes.SCOPE_REQUEST);
+        }
+        return ResponseEntity.status(status).body(ApiResponse.error(errorCode, message));
     }
 }
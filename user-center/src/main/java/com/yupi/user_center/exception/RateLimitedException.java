@@ -0,0 +1,34 @@
+package com.yupi.user_center.exception;
+
+import com.yupi.user_center.constant.ErrorCode;
+
+/**
+ * 触发限流时抛出的业务异常（错误码 {@link ErrorCode#RATE_LIMITED}），带上建议的重试等待秒数，
+ * 由全局异常处理器写到 Retry-After 响应头。
+ *
+ * @author Ethan
+ */
+public class RateLimitedException extends BusinessException {
+
+    private final long retryAfterSeconds;
+
+    /**
+     * 构造限流异常。
+     *
+     * @param message 提示信息
+     * @param retryAfterSeconds 建议多少秒后再试（至少 1）
+     */
+    public RateLimitedException(String message, long retryAfterSeconds) {
+        super(ErrorCode.RATE_LIMITED, message);
+        this.retryAfterSeconds = Math.max(1, retryAfterSeconds);
+    }
+
+    /**
+     * 获取建议的重试等待秒数。
+     *
+     * @return 秒数
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -1,12 +1,9 @@
 package com.yupi.user_center.interceptor;
 
-import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
-import com.yupi.user_center.constant.UserConstant;
+import com.yupi.user_center.cache.RoleCatalog;
 import com.yupi.user_center.model.Role;
-import com.yupi.user_center.model.User;
-import com.yupi.user_center.model.UserRole;
-import com.yupi.user_center.service.RoleService;
-import com.yupi.user_center.service.UserRoleService;
+import com.yupi.user_center.security.LoginPrincipal;
+import com.yupi.user_center.security.LoginStateStore;
 import jakarta.annotation.Resource;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -23,13 +20,18 @@ import org.springframework.web.servlet.HandlerInterceptor;
 @Component
 public class AdminAuthInterceptor implements HandlerInterceptor {
 
+    /**
+     * 鉴权通过后，当前管理员的登录主体存放在请求的这个属性上（审计日志据此记录操作人）。
+     */
+    public static final String PRINCIPAL_ATTRIBUTE = AdminAuthInterceptor.class.getName() + ".PRINCIPAL";
+
     private static final String ROLE_KEY_ADMIN = "ADMIN";
 
     @Resource
-    private RoleService roleService;
+    private RoleCatalog roleCatalog;
 
     @Resource
-    private UserRoleService userRoleService;
+    private LoginStateStore loginStateStore;
 
     /**
      * 请求进入 Controller 前执行鉴权。
@@ -42,32 +44,26 @@ public class AdminAuthInterceptor implements HandlerInterceptor {
      */
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
-        Object userObject = request.getSession().getAttribute(UserConstant.USER_LOGIN_STATE);
-        User user = (User) userObject;
-        if (user == null) {
+        LoginPrincipal principal = loginStateStore.current(request);
+        if (principal == null) {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "未登录");
         }
 
-        if (user.getUserRole() != null && user.getUserRole() == UserConstant.ADMIN_ROLE) {
+        if (principal.isLegacyAdmin()) {
+            request.setAttribute(PRINCIPAL_ATTRIBUTE, principal);
             return true;
         }
 
-        QueryWrapper<Role> roleQw = new QueryWrapper<>();
-        roleQw.eq("role_key", ROLE_KEY_ADMIN);
-        roleQw.eq("isDelete", 0);
-        roleQw.eq("status", 0);
-        Role adminRole = roleService.getOne(roleQw);
+        Role adminRole = roleCatalog.getByKey(ROLE_KEY_ADMIN);
         if (adminRole == null || adminRole.getId() == null) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "无权限");
         }
 
-        QueryWrapper<UserRole> urQw = new QueryWrapper<>();
-        urQw.eq("user_id", user.getId());
-        urQw.eq("role_id", adminRole.getId());
-        boolean isAdmin = userRoleService.count(urQw) > 0;
+        boolean isAdmin = principal.roleId() == adminRole.getId();
         if (!isAdmin) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "无权限");
         }
+        request.setAttribute(PRINCIPAL_ATTRIBUTE, principal);
         return true;
     }
 }
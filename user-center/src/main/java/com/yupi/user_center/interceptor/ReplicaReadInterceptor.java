@@ -0,0 +1,78 @@
+package com.yupi.user_center.interceptor;
+
+import com.yupi.user_center.datasource.ReadRouting;
+import com.yupi.user_center.datasource.ReadYourWrites;
+import com.yupi.user_center.datasource.ReplicaRead;
+import com.yupi.user_center.security.LoginPrincipal;
+import jakarta.annotation.Resource;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * 读库路由拦截器（拦截所有请求，注册在管理员鉴权之后）。
+ *
+ * <ul>
+ *     <li>标了 {@link ReplicaRead} 的接口：请求期间优先走从库；当前管理员还在写后窗口内时走主库；</li>
+ *     <li>管理员的写请求（非 GET/HEAD/OPTIONS）：开始和结束时都记一次写后窗口，之后几秒他的只读接口走主库。</li>
+ * </ul>
+ * 普通用户改自己资料时由 {@link com.yupi.user_center.security.LoginPrincipalRegistry#invalidate(Long)} 记录，不在这里处理。
+ * 意图在 Controller 校验登录之前就设好了，所以登录态存储自己的查询要显式走主库（见 {@link com.yupi.user_center.security.DbLoginStateStore}）。
+ *
+ * @author Ethan
+ */
+@Component
+public class ReplicaReadInterceptor implements HandlerInterceptor {
+
+    @Resource
+    private ReadYourWrites readYourWrites;
+
+    /**
+     * 进入 Controller 前设置路由意图 / 记录写操作。
+     *
+     * @param request Http 请求对象
+     * @param response Http 响应对象
+     * @param handler 处理器对象
+     * @return 总是放行
+     */
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        LoginPrincipal actor = adminOf(request);
+        if (!isSafeMethod(request)) {
+            if (actor != null) {
+                readYourWrites.markWritten(actor.userId());
+            }
+            return true;
+        }
+        if (handler instanceof HandlerMethod method && method.hasMethodAnnotation(ReplicaRead.class)) {
+            boolean sticky = actor != null && readYourWrites.recentlyWritten(actor.userId());
+            ReadRouting.set(sticky ? ReadRouting.Route.PRIMARY : ReadRouting.Route.REPLICA);
+        }
+        return true;
+    }
+
+    /**
+     * 请求结束：清除路由意图；写请求从结束时刻重新计算写后窗口（长时间的导入也能覆盖到）。
+     */
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        ReadRouting.set(ReadRouting.Route.DEFAULT);
+        if (!isSafeMethod(request)) {
+            LoginPrincipal actor = adminOf(request);
+            if (actor != null) {
+                readYourWrites.markWritten(actor.userId());
+            }
+        }
+    }
+
+    private static LoginPrincipal adminOf(HttpServletRequest request) {
+        return request.getAttribute(AdminAuthInterceptor.PRINCIPAL_ATTRIBUTE) instanceof LoginPrincipal p ? p : null;
+    }
+
+    private static boolean isSafeMethod(HttpServletRequest request) {
+        String method = request.getMethod();
+        return "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method);
+    }
+}
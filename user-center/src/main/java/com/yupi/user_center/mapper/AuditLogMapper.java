@@ -0,0 +1,42 @@
+package com.yupi.user_center.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.yupi.user_center.model.AuditLog;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 审计日志表 Mapper。
+ *
+ * @author Ethan
+ */
+public interface AuditLogMapper extends BaseMapper<AuditLog> {
+
+    /**
+     * 一条多值 INSERT 写入一批审计日志。
+     *
+     * @param list 待写入的日志（不回填 id）
+     * @return 写入行数
+     */
+    int insertBatch(@Param("list") List<AuditLog> list);
+
+    /**
+     * 按时间倒序游标分页查询审计日志。
+     *
+     * @param action 操作类型（为空不过滤）
+     * @param actorId 操作人（为空不过滤）
+     * @param targetId 操作对象（为空不过滤）
+     * @param cursorTime 上一页最后一条的时间（第一页为 null）
+     * @param cursorId 上一页最后一条的 id（第一页为 null）
+     * @param limit 最多返回条数
+     * @return 审计日志列表
+     */
+    List<AuditLog> selectPageAfter(@Param("action") String action,
+                                   @Param("actorId") Long actorId,
+                                   @Param("targetId") Long targetId,
+                                   @Param("cursorTime") LocalDateTime cursorTime,
+                                   @Param("cursorId") Long cursorId,
+                                   @Param("limit") int limit);
+}
@@ -2,6 +2,13 @@ package com.yupi.user_center.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.yupi.user_center.model.User;
+import com.yupi.user_center.model.vo.UserVO;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * 用户表 Mapper。
@@ -9,4 +16,85 @@ import com.yupi.user_center.model.User;
  * @author Ethan
  */
 public interface UserMapper extends BaseMapper<User> {
+
+    /**
+     * 游标分页查询管理端用户视图（按 createTime、id 倒序）。
+     *
+     * <p>一次 LEFT JOIN user_role、role 带出角色信息，直接映射为 UserVO，不查密码列；
+     * 配合联合索引 (createTime, id) 使用，每页都是一次带 LIMIT 的索引范围扫描。</p>
+     *
+     * @param username 关键词（可为空，匹配用户名或账号）
+     * @param cursorTime 上一页最后一条的创建时间（第一页传 null）
+     * @param cursorId 上一页最后一条的 id（第一页传 null）
+     * @param limit 本次最多返回条数
+     * @return 用户视图列表
+     */
+    List<UserVO> selectUserVOPageAfter(@Param("username") String username,
+                                       @Param("cursorTime") LocalDateTime cursorTime,
+                                       @Param("cursorId") Long cursorId,
+                                       @Param("limit") int limit);
+
+    /**
+     * 搜索索引命中后的游标分页：只在候选 id 和 id &gt; minNewId（索引构建后其他节点新增的用户）里找，
+     * 用 LIKE 复核后按 createTime、id 倒序取一页。
+     *
+     * @param ids 索引给出的候选 id（可为空）
+     * @param minNewId 索引上次全量构建时见过的最大 id，比它大的用户索引里可能没有
+     * @param username 关键词
+     * @param cursorTime 上一页最后一条的创建时间（第一页传 null）
+     * @param cursorId 上一页最后一条的 id（第一页传 null）
+     * @param limit 本次最多返回条数
+     * @return 用户视图列表
+     */
+    List<UserVO> selectUserVOPageByIds(@Param("ids") Collection<Long> ids,
+                                       @Param("minNewId") long minNewId,
+                                       @Param("username") String username,
+                                       @Param("cursorTime") LocalDateTime cursorTime,
+                                       @Param("cursorId") Long cursorId,
+                                       @Param("limit") int limit);
+
+    /**
+     * 按主键批量查询管理端用户视图（含角色信息，未删除）。
+     *
+     * @param ids 用户 id 列表（不能为空）
+     * @return 用户视图列表（顺序不保证）
+     */
+    List<UserVO> selectUserVOsByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 按主键查询鉴权用的字段：id、userRole、userStatus，以及 user_role 里绑定的第一个角色 id（roleId，未绑定为 null）。
+     *
+     * @param id 用户 id
+     * @return 只填了上述字段的用户视图，用户不存在或已删除返回 null
+     */
+    UserVO selectPrincipalRow(@Param("id") long id);
+
+    /**
+     * 流式扫描全部未删除用户的 id、用户名、账号（逐行回调，不在内存里攒整张表）。
+     *
+     * @param handler 逐行处理器
+     */
+    void scanSearchFields(ResultHandler<User> handler);
+
+    /**
+     * 流式扫描全部账号（含逻辑删除的用户，唯一索引同样覆盖它们）。
+     *
+     * @param handler 逐行处理器
+     */
+    void scanAllAccounts(ResultHandler<String> handler);
+
+    /**
+     * 流式导出全部未删除用户（含 user_role 里的角色 id，不含密码），逐行回调。
+     *
+     * @param handler 逐行处理器
+     */
+    void streamExportRows(ResultHandler<UserVO> handler);
+
+    /**
+     * 查询已被占用的账号（含逻辑删除的用户，唯一索引同样覆盖它们）。
+     *
+     * @param accounts 待检查的账号（不能为空）
+     * @return 已存在的账号
+     */
+    List<String> selectExistingAccounts(@Param("accounts") Collection<String> accounts);
 }
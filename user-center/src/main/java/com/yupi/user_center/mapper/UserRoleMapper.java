@@ -2,6 +2,9 @@ package com.yupi.user_center.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.yupi.user_center.model.UserRole;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
 
 /**
  * 用户-角色关联表 Mapper。
@@ -9,4 +12,12 @@ import com.yupi.user_center.model.UserRole;
  * @author Ethan
  */
 public interface UserRoleMapper extends BaseMapper<UserRole> {
+
+    /**
+     * 多行 upsert：依赖 uk_user_role_user_id，用户已有角色时直接改成新角色。
+     *
+     * @param list 待写入的关联（userId、roleId 必填）
+     * @return 受影响行数（MySQL 语义：新插入计 1，更新计 2，未变化计 0）
+     */
+    int upsertBatch(@Param("list") List<UserRole> list);
 }
@@ -0,0 +1,32 @@
+package com.yupi.user_center.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.yupi.user_center.model.UserSession;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 共享 Session 表 Mapper。
+ *
+ * @author Ethan
+ */
+public interface UserSessionMapper extends BaseMapper<UserSession> {
+
+    /**
+     * 一条 UPDATE 批量刷新多个 Session 的最后访问时间（只会往后推，不会被旧值覆盖）。
+     *
+     * @param list 待刷新的 Session（sessionId、lastAccessAt 必填）
+     * @return 受影响行数
+     */
+    int touchBatch(@Param("list") List<UserSession> list);
+
+    /**
+     * 删除一批已过期的 Session。
+     *
+     * @param before 最后访问时间早于它（毫秒时间戳）即视为过期
+     * @param limit 本批最多删除条数
+     * @return 删除条数
+     */
+    int deleteExpired(@Param("before") long before, @Param("limit") int limit);
+}
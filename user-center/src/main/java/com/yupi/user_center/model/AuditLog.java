@@ -0,0 +1,50 @@
+package com.yupi.user_center.model;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 管理员操作审计日志实体。
+ *
+ * @author Ethan
+ */
+@Data
+@TableName("audit_log")
+public class AuditLog {
+
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 操作人（管理员 userId）。
+     */
+    @TableField("actor_id")
+    private Long actorId;
+
+    /**
+     * 操作类型（{@link com.yupi.user_center.audit.AuditAction} 的名字）。
+     */
+    private String action;
+
+    /**
+     * 操作对象 id（用户 id 或角色 id）。
+     */
+    @TableField("target_id")
+    private Long targetId;
+
+    private String detail;
+
+    @TableField("client_ip")
+    private String clientIp;
+
+    /**
+     * 操作发生时间（请求线程记录，不是落库时间）。
+     */
+    @TableField("createTime")
+    private LocalDateTime createTime;
+}
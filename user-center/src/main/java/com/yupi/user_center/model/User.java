@@ -42,6 +42,11 @@ public class User {
     private Integer userRole;
     @TableField("createTime")
     private java.time.LocalDateTime createTime;
+    /**
+     * 乐观锁版本号：每次更新资料都 + 1，管理员保存时带上读到的版本号，被别人先改过就更新失败。
+     */
+    @TableField("version")
+    private Integer version;
     @TableLogic(value = "0", delval = "1")
     @TableField("isDelete")
     private Integer isDelete;
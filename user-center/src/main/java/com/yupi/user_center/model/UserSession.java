@@ -0,0 +1,34 @@
+package com.yupi.user_center.model;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 共享 Session 实体（多节点共用的登录态）。
+ *
+ * @author Ethan
+ */
+@Data
+@TableName("user_session")
+public class UserSession {
+
+    @TableId(value = "session_id", type = IdType.INPUT)
+    private String sessionId;
+
+    @TableField("user_id")
+    private Long userId;
+
+    /**
+     * 最后访问时间（毫秒时间戳）。
+     */
+    @TableField("last_access_at")
+    private Long lastAccessAt;
+
+    @TableField("createTime")
+    private LocalDateTime createTime;
+}
@@ -0,0 +1,36 @@
+package com.yupi.user_center.model.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 批量给用户分配角色请求体（每个用户一个角色）。
+ *
+ * @author Ethan
+ */
+@Data
+public class UserBulkAssignRolesRequest implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    @NotEmpty(message = "assignments 不能为空")
+    @Size(max = 10000, message = "单次最多分配 10000 个用户")
+    private List<Assignment> assignments;
+
+    /**
+     * 单条分配：userId -> roleId。
+     *
+     * <p>这里不加校验注解：某一条不合法只记在这一条的结果里（“userId / roleId 不合法”），不让整批 400。</p>
+     */
+    @Data
+    public static class Assignment implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private Long userId;
+
+        private Long roleId;
+    }
+}
@@ -0,0 +1,59 @@
+package com.yupi.user_center.model.request;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 批量导入的一行用户数据（NDJSON 的一行对象 / CSV 的一条记录）。
+ *
+ * <p>账号、密码规则和注册接口一致；角色可选，roleKey 和 roleId 二选一（都填时以 roleKey 为准）。</p>
+ *
+ * @author Ethan
+ */
+@Data
+public class UserImportRow implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    @NotBlank(message = "账号不能为空")
+    @Size(min = 4, max = 64, message = "账号长度必须在 4~64 位")
+    @Pattern(regexp = "^[A-Za-z0-9_]+$", message = "账号只能包含字母、数字、下划线")
+    private String userAccount;
+
+    @NotBlank(message = "密码不能为空")
+    @Size(min = 8, max = 64, message = "密码长度必须在 8~64 位")
+    private String userPassword;
+
+    /**
+     * 用户名（为空时取账号）。
+     */
+    @Pattern(regexp = "^(?!\\s*$).+", message = "用户名不能为空")
+    private String name;
+
+    @Pattern(regexp = "^$|^[^\\s@]+@[^\\s@]+\\.[^\\s@]+$", message = "邮箱格式不正确")
+    private String email;
+
+    @Pattern(regexp = "^$|^[0-9]{7,20}$", message = "手机号格式不正确")
+    private String phone;
+
+    @Min(value = 0, message = "性别参数不正确")
+    @Max(value = 1, message = "性别参数不正确")
+    private Integer gender;
+
+    /**
+     * 角色标识（如 CARRIER，可选）。
+     */
+    private String roleKey;
+
+    /**
+     * 角色 id（可选）。
+     */
+    @Positive(message = "roleId 必须大于 0")
+    private Long roleId;
+}
@@ -48,5 +48,11 @@ public class UserUpdateRequest implements Serializable {
     @Min(value = 0, message = "角色参数不正确")
     @Max(value = 1, message = "角色参数不正确")
     private Integer userRole;
+
+    /**
+     * 读取用户时拿到的版本号（乐观锁）：带上时只有版本没变才更新成功，不带则直接覆盖。
+     */
+    @Min(value = 0, message = "版本号参数不正确")
+    private Integer version;
 }
 
@@ -0,0 +1,38 @@
+package com.yupi.user_center.model.vo;
+
+import lombok.Data;
+
+/**
+ * 账号布隆过滤器统计。
+ *
+ * @author Ethan
+ */
+@Data
+public class AccountBloomStatsVO {
+
+    /**
+     * 是否已构建完成（未完成时注册一律回库校验）。
+     */
+    private boolean ready;
+    private double targetFpp;
+
+    /**
+     * 按当前已插入数量估算的实际误判率。
+     */
+    private double estimatedFpp;
+    private long expectedInsertions;
+    private long insertions;
+    private long numBits;
+    private int numHashes;
+    private long memoryBytes;
+
+    /**
+     * 判定“可能存在”（需要回库 COUNT）的次数。
+     */
+    private long mightContainHits;
+
+    /**
+     * 判定“一定不存在”（跳过 COUNT）的次数。
+     */
+    private long definitelyAbsent;
+}
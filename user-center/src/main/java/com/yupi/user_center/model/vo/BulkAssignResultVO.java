@@ -0,0 +1,34 @@
+package com.yupi.user_center.model.vo;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量分配角色结果（逐个用户汇报）。
+ *
+ * @author Ethan
+ */
+@Data
+public class BulkAssignResultVO {
+    private int total;
+    private int succeeded;
+    private int failed;
+    private List<Item> results = new ArrayList<>();
+
+    /**
+     * 单个用户的分配结果。
+     */
+    @Data
+    public static class Item {
+        private Long userId;
+        private Long roleId;
+        private boolean success;
+
+        /**
+         * 失败原因（成功时为 null）。
+         */
+        private String message;
+    }
+}
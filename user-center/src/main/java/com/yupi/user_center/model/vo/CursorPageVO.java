@@ -0,0 +1,22 @@
+package com.yupi.user_center.model.vo;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 游标分页结果。
+ *
+ * @param <T> 记录类型
+ * @author Ethan
+ */
+@Data
+public class CursorPageVO<T> {
+    private List<T> records;
+
+    /**
+     * 下一页游标（没有更多数据时为 null）。
+     */
+    private String nextCursor;
+    private boolean hasMore;
+}
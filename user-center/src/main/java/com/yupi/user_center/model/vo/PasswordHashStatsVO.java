@@ -0,0 +1,30 @@
+package com.yupi.user_center.model.vo;
+
+import lombok.Data;
+
+/**
+ * 密码哈希线程池统计。
+ *
+ * @author Ethan
+ */
+@Data
+public class PasswordHashStatsVO {
+
+    /**
+     * 当前使用的哈希实现。
+     */
+    private String hasher;
+    private int poolSize;
+    private int activeCount;
+    private int queueDepth;
+    private int queueCapacity;
+    private long completed;
+
+    /**
+     * 因排队已满或等待超时被拒绝的次数（返回 429）。
+     */
+    private long rejected;
+    private long avgHashMicros;
+    private long maxHashMicros;
+    private long avgQueueWaitMicros;
+}
@@ -0,0 +1,40 @@
+package com.yupi.user_center.model.vo;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 一条慢查询记录。
+ *
+ * @author Ethan
+ */
+@Data
+public class SlowQueryVO {
+
+    /**
+     * 执行结束时间（毫秒时间戳）。
+     */
+    private long timestamp;
+
+    /**
+     * Mapper 语句 id（如 com.yupi.user_center.mapper.UserMapper.selectUserVOPageAfter）。
+     */
+    private String statementId;
+
+    /**
+     * 实际执行的 SQL（空白已压缩，过长截断）。
+     */
+    private String sql;
+
+    /**
+     * 绑定参数（按占位符顺序；密码列显示为 ******）。
+     */
+    private List<String> params;
+    private long durationMillis;
+
+    /**
+     * 发起查询的接口（如 GET /admin/user/search），不在请求里时为线程名。
+     */
+    private String endpoint;
+}
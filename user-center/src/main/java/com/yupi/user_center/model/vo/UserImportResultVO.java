@@ -0,0 +1,46 @@
+package com.yupi.user_center.model.vo;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量导入用户结果（逐行汇报）。
+ *
+ * @author Ethan
+ */
+@Data
+public class UserImportResultVO {
+    private int total;
+    private int succeeded;
+    private int failed;
+
+    /**
+     * 超出单次导入行数上限、后面的行没有读取时为 true。
+     */
+    private boolean truncated;
+    private long elapsedMillis;
+    private List<Item> results = new ArrayList<>();
+
+    /**
+     * 单行的导入结果。
+     */
+    @Data
+    public static class Item {
+
+        /**
+         * 行号（从 1 开始，CSV 含表头行）。
+         */
+        private long line;
+        private String userAccount;
+        private Long userId;
+        private Long roleId;
+        private boolean success;
+
+        /**
+         * 失败原因（成功时为 null）。
+         */
+        private String message;
+    }
+}
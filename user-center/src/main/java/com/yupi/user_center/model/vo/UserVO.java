@@ -1,5 +1,6 @@
 package com.yupi.user_center.model.vo;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 
 import java.time.LocalDateTime;
@@ -24,5 +25,11 @@ public class UserVO {
     private String roleName;
     private String roleKey;
     private LocalDateTime createTime;
+
+    /**
+     * 乐观锁版本号（管理员更新用户时原样带回；导出等不查版本号的场景不输出）。
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer version;
 }
 
@@ -0,0 +1,39 @@
+package com.yupi.user_center.monitor;
+
+import com.yupi.user_center.audit.AuditLogger;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.Resource;
+import org.springframework.stereotype.Component;
+
+/**
+ * 审计日志指标：队列积压 / 容量、累计入队、丢弃、写库与写库失败条数。
+ *
+ * <p>audit.log.dropped 或 audit.log.failed 在涨说明有审计记录没落库，需要查数据库或调大队列。</p>
+ *
+ * @author Ethan
+ */
+@Component
+public class AuditLogMetrics implements MeterBinder {
+
+    @Resource
+    private AuditLogger auditLogger;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("audit.log.backlog", auditLogger, AuditLogger::getBacklog)
+                .description("等待写库的审计记录数").register(registry);
+        Gauge.builder("audit.log.capacity", auditLogger, AuditLogger::getCapacity)
+                .description("审计队列容量").register(registry);
+        FunctionCounter.builder("audit.log.accepted", auditLogger, AuditLogger::getAcceptedCount)
+                .description("累计入队的审计记录数").register(registry);
+        FunctionCounter.builder("audit.log.dropped", auditLogger, AuditLogger::getDroppedCount)
+                .description("累计因队列已满或已停机丢弃的审计记录数").register(registry);
+        FunctionCounter.builder("audit.log.written", auditLogger, AuditLogger::getWrittenCount)
+                .description("累计写库的审计记录数").register(registry);
+        FunctionCounter.builder("audit.log.failed", auditLogger, AuditLogger::getFailedCount)
+                .description("累计写库失败（已丢弃）的审计记录数").register(registry);
+    }
+}
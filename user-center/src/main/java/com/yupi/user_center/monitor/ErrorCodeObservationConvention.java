@@ -0,0 +1,49 @@
+package com.yupi.user_center.monitor;
+
+import com.yupi.user_center.constant.ErrorCode;
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * http.server.requests 指标的命名约定：在默认标签（method / uri / status / outcome / exception）之外
+ * 再加一个 error_code 标签，取值是 GlobalExceptionHandler 最终返回的 {@link ErrorCode} 名称。
+ *
+ * <p>同一个 400 可能是参数错误也可能是操作失败，按 error_code 拆开才能看出是哪类问题在涨。
+ * 取值只有 ErrorCode 的十来个枚举，不会撑爆时间序列；每个请求只多一次 request 属性读取。</p>
+ *
+ * @author Ethan
+ */
+@Component
+public class ErrorCodeObservationConvention extends DefaultServerRequestObservationConvention {
+
+    /**
+     * GlobalExceptionHandler 写入错误码的 request 属性名。
+     */
+    public static final String ERROR_CODE_ATTRIBUTE = ErrorCodeObservationConvention.class.getName() + ".errorCode";
+
+    private static final KeyValue SUCCESS = KeyValue.of("error_code", ErrorCode.SUCCESS.name());
+    private static final KeyValue UNKNOWN = KeyValue.of("error_code", "UNKNOWN");
+    private static final KeyValue[] BY_ERROR_CODE = new KeyValue[ErrorCode.values().length];
+
+    static {
+        for (ErrorCode code : ErrorCode.values()) {
+            BY_ERROR_CODE[code.ordinal()] = KeyValue.of("error_code", code.name());
+        }
+    }
+
+    @Override
+    public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+        return super.getLowCardinalityKeyValues(context).and(errorCode(context));
+    }
+
+    private static KeyValue errorCode(ServerRequestObservationContext context) {
+        if (context.getCarrier() != null && context.getCarrier().getAttribute(ERROR_CODE_ATTRIBUTE) instanceof ErrorCode code) {
+            return BY_ERROR_CODE[code.ordinal()];
+        }
+        // 没经过异常处理器：2xx/3xx 视为成功；4xx/5xx（如未匹配到接口的 404）记为 UNKNOWN
+        return context.getResponse() == null || context.getResponse().getStatus() < 400 ? SUCCESS : UNKNOWN;
+    }
+}
@@ -0,0 +1,56 @@
+package com.yupi.user_center.monitor;
+
+import com.yupi.user_center.datasource.GatedDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * 数据库并发闸门指标（闸门未开启时不注册）：可用许可、排队数、累计获取 / 超时次数、平均与最大等待时间。
+ *
+ * <p>连接池本身的活跃 / 空闲 / 等待 / 获取耗时由 Spring Boot 自动注册为 hikaricp.connections.*。</p>
+ *
+ * @author Ethan
+ */
+@Component
+@Slf4j
+public class JdbcGateMetrics implements MeterBinder {
+
+    @Resource
+    private DataSource dataSource;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        GatedDataSource gate;
+        try {
+            if (!dataSource.isWrapperFor(GatedDataSource.class)) {
+                return;
+            }
+            gate = dataSource.unwrap(GatedDataSource.class);
+        } catch (SQLException e) {
+            log.warn("读取数据库并发闸门失败，跳过指标注册: {}", e.getMessage());
+            return;
+        }
+        Gauge.builder("jdbc.gate.permits.max", gate, GatedDataSource::getMaxPermits)
+                .description("闸门许可总数").register(registry);
+        Gauge.builder("jdbc.gate.permits.available", gate, GatedDataSource::getAvailablePermits)
+                .description("当前可用许可").register(registry);
+        Gauge.builder("jdbc.gate.queue.length", gate, GatedDataSource::getQueueLength)
+                .description("正在排队等许可的线程数").register(registry);
+        Gauge.builder("jdbc.gate.wait.avg", gate, g -> g.getAvgWaitMicros() / 1e6)
+                .description("平均排队时间").baseUnit("seconds").register(registry);
+        Gauge.builder("jdbc.gate.wait.max", gate, g -> g.getMaxWaitMicros() / 1e6)
+                .description("最大排队时间").baseUnit("seconds").register(registry);
+        FunctionCounter.builder("jdbc.gate.acquired", gate, GatedDataSource::getAcquiredCount)
+                .description("累计获取许可次数").register(registry);
+        FunctionCounter.builder("jdbc.gate.timeouts", gate, GatedDataSource::getTimeoutCount)
+                .description("累计排队超时次数").register(registry);
+    }
+}
@@ -0,0 +1,63 @@
+package com.yupi.user_center.monitor;
+
+import com.yupi.user_center.constant.ErrorCode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 登录结果计数：user.login{result=success|failure, error_code=...}。
+ *
+ * <p>所有计数器在启动时按 ErrorCode 建好，登录时只做一次 EnumMap 查找 + 原子自增，不查注册表。</p>
+ *
+ * @author Ethan
+ */
+@Component
+public class LoginMetrics {
+
+    private final Counter success;
+    private final Map<ErrorCode, Counter> failures = new EnumMap<>(ErrorCode.class);
+
+    /**
+     * 构造并注册计数器。
+     *
+     * @param registry 指标注册表
+     */
+    public LoginMetrics(MeterRegistry registry) {
+        this.success = Counter.builder("user.login")
+                .description("登录次数（按结果与错误码）")
+                .tag("result", "success")
+                .tag("error_code", ErrorCode.SUCCESS.name())
+                .register(registry);
+        for (ErrorCode code : ErrorCode.values()) {
+            if (code == ErrorCode.SUCCESS) {
+                continue;
+            }
+            failures.put(code, Counter.builder("user.login")
+                    .description("登录次数（按结果与错误码）")
+                    .tag("result", "failure")
+                    .tag("error_code", code.name())
+                    .register(registry));
+        }
+    }
+
+    /**
+     * 记一次登录成功。
+     */
+    public void success() {
+        success.increment();
+    }
+
+    /**
+     * 记一次登录失败。
+     *
+     * @param errorCode 失败原因（为空按系统错误计）
+     */
+    public void failure(ErrorCode errorCode) {
+        Counter counter = failures.get(errorCode);
+        (counter == null ? failures.get(ErrorCode.SYSTEM_ERROR) : counter).increment();
+    }
+}
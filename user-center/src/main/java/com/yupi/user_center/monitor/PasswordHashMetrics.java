@@ -0,0 +1,47 @@
+package com.yupi.user_center.monitor;
+
+import com.yupi.user_center.model.vo.PasswordHashStatsVO;
+import com.yupi.user_center.security.PasswordHashExecutor;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.Resource;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 密码哈希线程池指标：活跃线程、排队深度 / 上限、累计完成与拒绝（429）次数、平均哈希与排队耗时。
+ *
+ * <p>指标只在被抓取时读一次统计快照，登录请求本身不多做任何事。</p>
+ *
+ * @author Ethan
+ */
+@Component
+public class PasswordHashMetrics implements MeterBinder {
+
+    @Resource
+    private PasswordHashExecutor passwordHashExecutor;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        gauge(registry, "password.hash.pool.size", "线程数", PasswordHashStatsVO::getPoolSize);
+        gauge(registry, "password.hash.active", "正在计算的线程数", PasswordHashStatsVO::getActiveCount);
+        gauge(registry, "password.hash.queue.depth", "排队中的哈希任务数", PasswordHashStatsVO::getQueueDepth);
+        gauge(registry, "password.hash.queue.capacity", "排队上限", PasswordHashStatsVO::getQueueCapacity);
+        Gauge.builder("password.hash.duration.avg", passwordHashExecutor, e -> e.stats().getAvgHashMicros() / 1e6)
+                .description("平均单次哈希耗时").baseUnit("seconds").register(registry);
+        Gauge.builder("password.hash.wait.avg", passwordHashExecutor, e -> e.stats().getAvgQueueWaitMicros() / 1e6)
+                .description("平均排队时间").baseUnit("seconds").register(registry);
+        FunctionCounter.builder("password.hash.completed", passwordHashExecutor, e -> e.stats().getCompleted())
+                .description("累计完成的哈希次数").register(registry);
+        FunctionCounter.builder("password.hash.rejected", passwordHashExecutor, e -> e.stats().getRejected())
+                .description("累计因繁忙拒绝（429）的次数").register(registry);
+    }
+
+    private void gauge(MeterRegistry registry, String name, String description, ToDoubleFunction<PasswordHashStatsVO> f) {
+        Gauge.builder(name, passwordHashExecutor, e -> f.applyAsDouble(e.stats()))
+                .description(description).register(registry);
+    }
+}
@@ -0,0 +1,39 @@
+package com.yupi.user_center.monitor;
+
+import com.yupi.user_center.security.LoginRateLimiter;
+import com.yupi.user_center.security.TokenBucketLimiter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.Resource;
+import org.springframework.stereotype.Component;
+
+/**
+ * 登录 / 注册限流指标（按 limiter 标签区分 login-ip、login-account、register-ip）：
+ * 放行与拒绝次数、当前记录的 key 数、因 key 数达到上限被淘汰的桶数。
+ *
+ * <p>rate.limit.evicted 持续增长说明 max-keys 不够，被淘汰的 key 会重新拿到满桶。</p>
+ *
+ * @author Ethan
+ */
+@Component
+public class RateLimitMetrics implements MeterBinder {
+
+    @Resource
+    private LoginRateLimiter loginRateLimiter;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (TokenBucketLimiter limiter : loginRateLimiter.limiters()) {
+            FunctionCounter.builder("rate.limit.allowed", limiter, TokenBucketLimiter::getAllowedCount)
+                    .description("限流放行次数").tag("limiter", limiter.getName()).register(registry);
+            FunctionCounter.builder("rate.limit.rejected", limiter, TokenBucketLimiter::getRejectedCount)
+                    .description("限流拒绝（429）次数").tag("limiter", limiter.getName()).register(registry);
+            FunctionCounter.builder("rate.limit.evicted", limiter, TokenBucketLimiter::getEvictedCount)
+                    .description("key 数达到上限时淘汰的桶数").tag("limiter", limiter.getName()).register(registry);
+            Gauge.builder("rate.limit.keys", limiter, TokenBucketLimiter::size)
+                    .description("当前记录的 key 数").tag("limiter", limiter.getName()).register(registry);
+        }
+    }
+}
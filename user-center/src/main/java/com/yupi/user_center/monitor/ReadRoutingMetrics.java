@@ -0,0 +1,59 @@
+package com.yupi.user_center.monitor;
+
+import com.yupi.user_center.datasource.ReadWriteRoutingDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * 读写分离指标（没配置从库时不注册）：走主库 / 回落主库的连接数，每个从库的可用状态、复制延迟、进行中连接和路由次数。
+ *
+ * <p>从库连接池不是 Spring Bean，不会自动出现在 hikaricp.connections.* 里，看从库压力用这里的 pending。</p>
+ *
+ * @author Ethan
+ */
+@Component
+@Slf4j
+public class ReadRoutingMetrics implements MeterBinder {
+
+    @Resource
+    private DataSource dataSource;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        ReadWriteRoutingDataSource routing;
+        try {
+            if (!dataSource.isWrapperFor(ReadWriteRoutingDataSource.class)) {
+                return;
+            }
+            routing = dataSource.unwrap(ReadWriteRoutingDataSource.class);
+        } catch (SQLException e) {
+            log.warn("读取读写分离数据源失败，跳过指标注册: {}", e.getMessage());
+            return;
+        }
+        FunctionCounter.builder("db.routing.primary", routing, ReadWriteRoutingDataSource::getPrimaryConnectionCount)
+                .description("累计走主库的连接数（含回落）").register(registry);
+        FunctionCounter.builder("db.routing.fallback", routing, ReadWriteRoutingDataSource::getFallbackCount)
+                .description("想走从库但没有可用从库、回落主库的次数").register(registry);
+        for (ReadWriteRoutingDataSource.Replica replica : routing.getReplicas()) {
+            String name = replica.getName();
+            FunctionCounter.builder("db.routing.replica", replica, ReadWriteRoutingDataSource.Replica::getRoutedCount)
+                    .tag("replica", name).description("累计路由到该从库的连接数").register(registry);
+            Gauge.builder("db.replica.available", replica, r -> r.isAvailable() ? 1 : 0)
+                    .tag("replica", name).description("从库是否在接读流量（1 是 0 否）").register(registry);
+            Gauge.builder("db.replica.lag", replica, r -> r.getLagMillis() / 1e3)
+                    .tag("replica", name).description("最近一次探测的复制延迟（探测失败为负数）").baseUnit("seconds").register(registry);
+            Gauge.builder("db.replica.pending", replica, ReadWriteRoutingDataSource.Replica::getPending)
+                    .tag("replica", name).description("从库进行中的连接数").register(registry);
+            FunctionCounter.builder("db.replica.probe.failures", replica, ReadWriteRoutingDataSource.Replica::getProbeFailureCount)
+                    .tag("replica", name).description("累计探测失败次数").register(registry);
+        }
+    }
+}
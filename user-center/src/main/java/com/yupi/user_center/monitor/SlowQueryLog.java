@@ -0,0 +1,301 @@
+package com.yupi.user_center.monitor;
+
+import com.yupi.user_center.model.vo.SlowQueryVO;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 慢查询记录：超过阈值的语句连同 SQL、绑定参数、耗时和发起接口写进固定大小的环形缓冲区，
+ * 通过 {@code /admin/debug/slow-queries} 查看。
+ *
+ * <p>写入无锁：序号 getAndIncrement 后直接覆盖对应槽位，写满后覆盖最旧的记录；
+ * 读取时按序号从新到旧取一份快照。只有真的慢了才去组装参数，正常查询只多一次耗时比较。
+ * 参数里的凭证（属性名或对应的列名含 password、session_id / sessionId、token）一律打码。</p>
+ * 小白理解：一个只装最近 N 条“慢记录”的转盘，新的进来就把最老的挤掉。
+ *
+ * @author Ethan
+ */
+@Component
+@Slf4j
+public class SlowQueryLog {
+
+    private static final String MASK = "******";
+    private static final int MAX_SQL_LENGTH = 2000;
+    private static final int MAX_PARAM_LENGTH = 100;
+
+    private final boolean enabled;
+    private final long thresholdNanos;
+    private final AtomicReferenceArray<SlowQueryVO> ring;
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * 构造记录器。
+     *
+     * @param enabled 是否开启
+     * @param thresholdMillis 慢查询阈值（毫秒）
+     * @param capacity 最多保留的记录数
+     */
+    public SlowQueryLog(@Value("${user-center.slow-query.enabled:true}") boolean enabled,
+                        @Value("${user-center.slow-query.threshold-ms:200}") long thresholdMillis,
+                        @Value("${user-center.slow-query.capacity:256}") int capacity) {
+        this.enabled = enabled;
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, thresholdMillis));
+        this.ring = new AtomicReferenceArray<>(Math.max(1, capacity));
+    }
+
+    /**
+     * 耗时是否达到慢查询阈值。
+     *
+     * @param nanos 耗时（纳秒）
+     * @return 是否需要记录
+     */
+    public boolean isSlow(long nanos) {
+        return enabled && nanos >= thresholdNanos;
+    }
+
+    /**
+     * 记录一条慢查询（调用方先用 {@link #isSlow} 判断）。
+     *
+     * @param configuration MyBatis 配置（用于按属性取参数值）
+     * @param statementId 语句 id
+     * @param parameter 参数对象
+     * @param boundSql 绑定后的 SQL
+     * @param nanos 耗时（纳秒）
+     */
+    public void record(Configuration configuration, String statementId, Object parameter, BoundSql boundSql, long nanos) {
+        SlowQueryVO entry = new SlowQueryVO();
+        entry.setTimestamp(System.currentTimeMillis());
+        entry.setStatementId(statementId);
+        entry.setSql(truncate(boundSql.getSql().replaceAll("\\s+", " ").trim(), MAX_SQL_LENGTH));
+        entry.setParams(maskedParams(configuration, parameter, boundSql));
+        entry.setDurationMillis(TimeUnit.NANOSECONDS.toMillis(nanos));
+        entry.setEndpoint(currentEndpoint());
+        long seq = sequence.getAndIncrement();
+        ring.set((int) (seq % ring.length()), entry);
+        log.warn("慢查询 {} ms：{}（{}）", entry.getDurationMillis(), statementId, entry.getEndpoint());
+    }
+
+    /**
+     * 最近的慢查询（从新到旧）。
+     *
+     * @param limit 最多返回条数
+     * @return 慢查询列表
+     */
+    public List<SlowQueryVO> recent(int limit) {
+        long end = sequence.get();
+        int n = (int) Math.min(Math.min(limit, ring.length()), end);
+        List<SlowQueryVO> result = new ArrayList<>(Math.max(0, n));
+        for (long seq = end - 1; seq >= end - n; seq--) {
+            SlowQueryVO entry = ring.get((int) (seq % ring.length()));
+            if (entry != null) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 累计记录过的慢查询条数（含已被覆盖的）。
+     *
+     * @return 条数
+     */
+    public long getTotalRecorded() {
+        return sequence.get();
+    }
+
+    /**
+     * 慢查询阈值（毫秒）。
+     *
+     * @return 毫秒
+     */
+    public long getThresholdMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(thresholdNanos);
+    }
+
+    /**
+     * 环形缓冲区容量。
+     *
+     * @return 条数
+     */
+    public int getCapacity() {
+        return ring.length();
+    }
+
+    static List<String> maskedParams(Configuration configuration, Object parameter, BoundSql boundSql) {
+        List<ParameterMapping> mappings = boundSql.getParameterMappings();
+        List<String> columns = placeholderColumns(boundSql.getSql(), mappings.size());
+        List<String> result = new ArrayList<>(mappings.size());
+        MetaObject meta = null;
+        for (int i = 0; i < mappings.size(); i++) {
+            String property = mappings.get(i).getProperty();
+            if (isSensitive(property) || isSensitive(columns.get(i))) {
+                result.add(MASK);
+                continue;
+            }
+            Object value;
+            if (boundSql.hasAdditionalParameter(property)) {
+                value = boundSql.getAdditionalParameter(property);
+            } else if (parameter == null) {
+                value = null;
+            } else if (configuration.getTypeHandlerRegistry().hasTypeHandler(parameter.getClass())) {
+                value = parameter;
+            } else {
+                if (meta == null) {
+                    meta = configuration.newMetaObject(parameter);
+                }
+                value = meta.hasGetter(property) ? meta.getValue(property) : null;
+            }
+            result.add(value == null ? "null" : truncate(String.valueOf(value), MAX_PARAM_LENGTH));
+        }
+        return result;
+    }
+
+    /**
+     * 按顺序找出每个 ? 对应的列名（如 "userPassword = ?" 得到 userPassword；
+     * INSERT 的 VALUES 按列清单位置对应；"CASE col WHEN ? THEN ?" 里 WHEN 对应 col，THEN / ELSE 对应 CASE 前面的列），
+     * 找不到时为空串。
+     */
+    static List<String> placeholderColumns(String sql, int expected) {
+        List<String> columns = new ArrayList<>(expected);
+        List<String> insertColumns = insertColumns(sql);
+        int valuesAt = insertColumns.isEmpty() ? -1 : sql.toUpperCase(Locale.ROOT).indexOf("VALUES");
+        int valueIndex = 0;
+        boolean inLiteral = false;
+        for (int i = 0; i < sql.length() && columns.size() < expected; i++) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                inLiteral = !inLiteral;
+            }
+            if (c != '?' || inLiteral) {
+                continue;
+            }
+            if (valuesAt >= 0 && i > valuesAt) {
+                columns.add(insertColumns.get(valueIndex++ % insertColumns.size()));
+            } else {
+                columns.add(columnBefore(sql, i));
+            }
+        }
+        while (columns.size() < expected) {
+            columns.add("");
+        }
+        return columns;
+    }
+
+    private static List<String> insertColumns(String sql) {
+        String trimmed = sql.stripLeading();
+        if (!trimmed.regionMatches(true, 0, "INSERT", 0, 6)) {
+            return List.of();
+        }
+        int open = trimmed.indexOf('(');
+        int close = open < 0 ? -1 : trimmed.indexOf(')', open);
+        if (close < 0) {
+            return List.of();
+        }
+        List<String> columns = new ArrayList<>();
+        for (String col : trimmed.substring(open + 1, close).split(",")) {
+            columns.add(col.trim().replace("`", ""));
+        }
+        return columns;
+    }
+
+    private static String columnBefore(String sql, int placeholder) {
+        int i = placeholder - 1;
+        // 跳过空白、比较符和 IN (?, ? 里前面的占位符
+        while (i >= 0 && (Character.isWhitespace(sql.charAt(i)) || "=<>!(,?".indexOf(sql.charAt(i)) >= 0)) {
+            i--;
+        }
+        int end = i + 1;
+        while (i >= 0 && isIdentifierChar(sql.charAt(i))) {
+            i--;
+        }
+        String word = sql.substring(i + 1, end).replace("`", "");
+        if (word.equalsIgnoreCase("LIKE") || word.equalsIgnoreCase("IN")) {
+            return columnBefore(sql, i + 1);
+        }
+        if (word.equalsIgnoreCase("WHEN") || word.equalsIgnoreCase("THEN") || word.equalsIgnoreCase("ELSE")) {
+            int caseAt = lastCaseBefore(sql, i + 1);
+            if (caseAt < 0) {
+                return "";
+            }
+            return word.equalsIgnoreCase("WHEN") ? caseSubject(sql, caseAt + 4) : columnBefore(sql, caseAt);
+        }
+        return word;
+    }
+
+    /**
+     * 往前找最近的 CASE 关键字，返回它的起始位置（找不到为 -1）。
+     */
+    private static int lastCaseBefore(String sql, int from) {
+        String upper = sql.toUpperCase(Locale.ROOT);
+        for (int at = upper.lastIndexOf("CASE", from); at >= 0; at = upper.lastIndexOf("CASE", at - 1)) {
+            boolean startOk = at == 0 || !isIdentifierChar(sql.charAt(at - 1));
+            boolean endOk = at + 4 >= sql.length() || !isIdentifierChar(sql.charAt(at + 4));
+            if (startOk && endOk) {
+                return at;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * "CASE col WHEN ..." 里的 col；"CASE WHEN col = ?" 这种写法没有主体，WHEN 前面的列已经由 columnBefore 找到，这里返回空串。
+     */
+    private static String caseSubject(String sql, int from) {
+        int i = from;
+        while (i < sql.length() && Character.isWhitespace(sql.charAt(i))) {
+            i++;
+        }
+        int start = i;
+        while (i < sql.length() && isIdentifierChar(sql.charAt(i))) {
+            i++;
+        }
+        String word = sql.substring(start, i).replace("`", "");
+        return word.equalsIgnoreCase("WHEN") ? "" : word;
+    }
+
+    private static boolean isIdentifierChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '`' || c == '.';
+    }
+
+    /**
+     * 属性名或列名是否是凭证：忽略大小写和下划线后含 password、sessionid 或 token。
+     */
+    private static boolean isSensitive(String name) {
+        if (name == null || name.isEmpty()) {
+            return false;
+        }
+        String normalized = name.toLowerCase(Locale.ROOT).replace("_", "");
+        return normalized.contains("password") || normalized.contains("sessionid") || normalized.contains("token");
+    }
+
+    private static String currentEndpoint() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servlet) {
+            HttpServletRequest request = servlet.getRequest();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            return request.getMethod() + " " + (pattern == null ? request.getRequestURI() : pattern);
+        }
+        return "thread:" + Thread.currentThread().getName();
+    }
+
+    private static String truncate(String s, int max) {
+        return s.length() <= max ? s : s.substring(0, max) + "...";
+    }
+}
@@ -0,0 +1,210 @@
+package com.yupi.user_center.monitor;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 每个请求的 SQL 预算：统计条数与数据库耗时，超预算或疑似 N+1 时打警告日志。
+ *
+ * <ul>
+ *     <li>生产：按接口（uri 模板）记指标 sql.request.statements / sql.request.time，
+ *     超预算与疑似 N+1 分别记 sql.budget.exceeded / sql.repeated.statements</li>
+ *     <li>开发：打开 response-headers 后在响应头里带 X-Sql-Count / X-Sql-Time-Ms</li>
+ *     <li>测试：打开 fail-on-exceed 后超预算直接抛异常，MockMvc 用例会失败</li>
+ * </ul>
+ * 小白理解：给每个接口定个“最多查几次库”的额度，谁悄悄多查了就报出来。
+ *
+ * @author Ethan
+ */
+@Component
+@Slf4j
+public class SqlBudgetFilter extends OncePerRequestFilter {
+
+    /**
+     * 本请求执行的语句条数（响应头）。
+     */
+    public static final String HEADER_COUNT = "X-Sql-Count";
+
+    /**
+     * 本请求的数据库耗时，毫秒（响应头）。
+     */
+    public static final String HEADER_TIME = "X-Sql-Time-Ms";
+
+    private static final String UNKNOWN_URI = "UNKNOWN";
+
+    private final MeterRegistry registry;
+    private final boolean enabled;
+    private final boolean responseHeaders;
+    private final boolean failOnExceed;
+    private final int repeatThreshold;
+    private final int defaultLimit;
+    private final Map<String, Integer> limits;
+
+    private final Map<String, UriMeters> meters = new ConcurrentHashMap<>();
+
+    /**
+     * 构造过滤器。
+     *
+     * @param env 环境配置（user-center.sql-budget.*）
+     * @param registry 指标注册表
+     */
+    public SqlBudgetFilter(Environment env, MeterRegistry registry) {
+        this.registry = registry;
+        this.enabled = env.getProperty("user-center.sql-budget.enabled", Boolean.class, true);
+        this.responseHeaders = env.getProperty("user-center.sql-budget.response-headers", Boolean.class, false);
+        this.failOnExceed = env.getProperty("user-center.sql-budget.fail-on-exceed", Boolean.class, false);
+        this.repeatThreshold = env.getProperty("user-center.sql-budget.repeat-threshold", Integer.class, 5);
+        this.defaultLimit = env.getProperty("user-center.sql-budget.default-limit", Integer.class, 0);
+        this.limits = Binder.get(env)
+                .bind("user-center.sql-budget.limits", Bindable.mapOf(String.class, Integer.class))
+                .orElse(Map.of());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!enabled) {
+            chain.doFilter(request, response);
+            return;
+        }
+        SqlRequestStats stats = SqlRequestStats.begin(repeatThreshold);
+        try {
+            chain.doFilter(request, responseHeaders ? new StampingResponse(response, stats) : response);
+        } finally {
+            SqlRequestStats.end();
+        }
+        report(request, stats);
+    }
+
+    /**
+     * 获取某个接口的预算。
+     *
+     * @param uri 接口 uri 模板
+     * @return 预算条数，0 表示不限
+     */
+    int limitOf(String uri) {
+        return limits.getOrDefault(uri, defaultLimit);
+    }
+
+    private void report(HttpServletRequest request, SqlRequestStats stats) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? UNKNOWN_URI : pattern.toString();
+        UriMeters m = meters.computeIfAbsent(uri, UriMeters::new);
+        int count = stats.getStatementCount();
+        m.statements.record(count);
+        m.time.record(stats.getElapsedNanos(), TimeUnit.NANOSECONDS);
+
+        for (String statementId : stats.getRepeatedStatements()) {
+            m.repeated(statementId).increment();
+            log.warn("疑似 N+1：{} {} 中 {} 用至少 {} 组不同参数执行了 {} 次",
+                    request.getMethod(), uri, statementId, repeatThreshold, stats.getExecutions(statementId));
+        }
+
+        int limit = limitOf(uri);
+        if (limit > 0 && count > limit) {
+            m.exceeded.increment();
+            String message = String.format("SQL 超出预算：%s %s 执行了 %d 条（预算 %d），数据库耗时 %d ms",
+                    request.getMethod(), uri, count, limit, TimeUnit.NANOSECONDS.toMillis(stats.getElapsedNanos()));
+            if (failOnExceed) {
+                throw new IllegalStateException(message);
+            }
+            log.warn(message);
+        }
+    }
+
+    /**
+     * 单个接口的指标（按 uri 缓存，请求结束时不再查注册表）。
+     */
+    private final class UriMeters {
+        private final String uri;
+        private final DistributionSummary statements;
+        private final Timer time;
+        private final Counter exceeded;
+        private final Map<String, Counter> repeated = new ConcurrentHashMap<>();
+
+        UriMeters(String uri) {
+            this.uri = uri;
+            this.statements = DistributionSummary.builder("sql.request.statements")
+                    .description("单个请求执行的 SQL 条数")
+                    .tag("uri", uri)
+                    .register(registry);
+            this.time = Timer.builder("sql.request.time")
+                    .description("单个请求的数据库耗时（含结果映射）")
+                    .tag("uri", uri)
+                    .register(registry);
+            this.exceeded = Counter.builder("sql.budget.exceeded")
+                    .description("SQL 条数超出预算的请求数")
+                    .tag("uri", uri)
+                    .register(registry);
+        }
+
+        Counter repeated(String statementId) {
+            return repeated.computeIfAbsent(statementId, id -> Counter.builder("sql.repeated.statements")
+                    .description("同一语句在一个请求里换参数反复执行（疑似 N+1）的次数")
+                    .tag("uri", uri)
+                    .tag("statement", id)
+                    .register(registry));
+        }
+    }
+
+    /**
+     * 在响应体第一次写出前补上 SQL 统计响应头（此时 Controller 已经返回，查询都已执行完）。
+     */
+    private static final class StampingResponse extends HttpServletResponseWrapper {
+        private final SqlRequestStats stats;
+        private boolean stamped;
+
+        StampingResponse(HttpServletResponse response, SqlRequestStats stats) {
+            super(response);
+            this.stats = stats;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            stamp();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            stamp();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            stamp();
+            super.flushBuffer();
+        }
+
+        private void stamp() {
+            if (stamped || isCommitted()) {
+                return;
+            }
+            stamped = true;
+            setHeader(HEADER_COUNT, Integer.toString(stats.getStatementCount()));
+            setHeader(HEADER_TIME, Long.toString(TimeUnit.NANOSECONDS.toMillis(stats.getElapsedNanos())));
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.yupi.user_center.monitor;
+
+import jakarta.annotation.Resource;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+
+/**
+ * MyBatis 插件：把每条语句的执行次数与耗时记到当前请求的 {@link SqlRequestStats} 上，
+ * 超过阈值的语句交给 {@link SlowQueryLog}。
+ *
+ * <p>拦截 Executor 层（能拿到 MappedStatement id），耗时包含 JDBC 执行和结果映射；
+ * 不在请求里时（定时任务、启动预热）只计时判断是否慢查询。N+1 检测需要参数指纹，
+ * 按 BoundSql 的参数映射逐个取值算哈希（和 MyBatis 绑定参数的取值方式一致），相比一次数据库往返可以忽略；
+ * 慢查询的 SQL 与参数只在真的慢了以后才组装。</p>
+ *
+ * @author Ethan
+ */
+@Component
+@Intercepts({
+        @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "queryCursor", args = {MappedStatement.class, Object.class, RowBounds.class})
+})
+public class SqlBudgetInterceptor implements Interceptor {
+
+    @Resource
+    private SlowQueryLog slowQueryLog;
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        SqlRequestStats stats = SqlRequestStats.current();
+        if (stats != null && stats.depth > 0) {
+            return invocation.proceed();
+        }
+        Object[] args = invocation.getArgs();
+        MappedStatement ms = (MappedStatement) args[0];
+        BoundSql boundSql = args.length == 6 ? (BoundSql) args[5] : null;
+        int fingerprint = 0;
+        if (stats != null && stats.detectsRepeats()) {
+            boundSql = boundSql != null ? boundSql : ms.getBoundSql(args[1]);
+            fingerprint = fingerprint(ms.getConfiguration(), args[1], boundSql);
+        }
+        if (stats != null) {
+            stats.depth++;
+        }
+        long start = System.nanoTime();
+        try {
+            return invocation.proceed();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            if (stats != null) {
+                stats.depth--;
+                stats.record(ms.getId(), elapsed, fingerprint);
+            }
+            if (slowQueryLog.isSlow(elapsed)) {
+                slowQueryLog.record(ms.getConfiguration(), ms.getId(), args[1],
+                        boundSql != null ? boundSql : ms.getBoundSql(args[1]), elapsed);
+            }
+        }
+    }
+
+    private static int fingerprint(Configuration configuration, Object parameter, BoundSql boundSql) {
+        int h = boundSql.getSql().hashCode();
+        MetaObject meta = null;
+        for (ParameterMapping mapping : boundSql.getParameterMappings()) {
+            String property = mapping.getProperty();
+            Object value;
+            if (boundSql.hasAdditionalParameter(property)) {
+                value = boundSql.getAdditionalParameter(property);
+            } else if (parameter == null) {
+                value = null;
+            } else if (configuration.getTypeHandlerRegistry().hasTypeHandler(parameter.getClass())) {
+                value = parameter;
+            } else {
+                if (meta == null) {
+                    meta = configuration.newMetaObject(parameter);
+                }
+                value = meta.getValue(property);
+            }
+            h = 31 * h + Objects.hashCode(value);
+        }
+        return h;
+    }
+}
@@ -0,0 +1,172 @@
+package com.yupi.user_center.monitor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 单个 HTTP 请求内的 SQL 统计：执行条数、数据库耗时，以及“同一条语句换着参数反复执行”的疑似 N+1。
+ *
+ * <p>由 {@link SqlBudgetFilter} 在请求开始时绑定到当前线程、结束时解绑；
+ * {@link SqlBudgetInterceptor} 每执行一条语句调用一次 {@link #record}。
+ * 只在请求线程里读写，不需要加锁；没有请求上下文的 SQL（启动预热、后台任务）不统计。</p>
+ *
+ * @author Ethan
+ */
+public final class SqlRequestStats {
+
+    private static final ThreadLocal<SqlRequestStats> CURRENT = new ThreadLocal<>();
+
+    private final int repeatThreshold;
+
+    private int statementCount;
+    private long elapsedNanos;
+    private Map<String, StatementUsage> usages;
+    private List<String> repeatedStatements;
+
+    /**
+     * 嵌套调用深度：Executor 的四参 query 内部会再调六参 query，只在最外层计数。
+     */
+    int depth;
+
+    /**
+     * 构造统计对象。
+     *
+     * @param repeatThreshold 同一语句的不同参数组数达到该值时判为疑似 N+1（小于等于 1 表示不检测）
+     */
+    public SqlRequestStats(int repeatThreshold) {
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    /**
+     * 开始统计当前线程上的请求。
+     *
+     * @param repeatThreshold N+1 判定阈值
+     * @return 统计对象
+     */
+    public static SqlRequestStats begin(int repeatThreshold) {
+        SqlRequestStats stats = new SqlRequestStats(repeatThreshold);
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    /**
+     * 当前线程上的统计对象。
+     *
+     * @return 统计对象，不在请求里时为 null
+     */
+    public static SqlRequestStats current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 结束统计（解绑当前线程）。
+     */
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * 是否需要为 N+1 检测计算参数指纹。
+     *
+     * @return 是否检测
+     */
+    public boolean detectsRepeats() {
+        return repeatThreshold > 1;
+    }
+
+    /**
+     * 记录一条执行完的语句。
+     *
+     * @param statementId Mapper 语句 id
+     * @param nanos 耗时（纳秒）
+     * @param paramFingerprint 参数指纹（不检测 N+1 时传 0）
+     */
+    public void record(String statementId, long nanos, int paramFingerprint) {
+        statementCount++;
+        elapsedNanos += nanos;
+        if (!detectsRepeats()) {
+            return;
+        }
+        if (usages == null) {
+            usages = new HashMap<>();
+        }
+        StatementUsage usage = usages.computeIfAbsent(statementId, k -> new StatementUsage(repeatThreshold));
+        if (usage.add(paramFingerprint) && usage.distinct == repeatThreshold) {
+            if (repeatedStatements == null) {
+                repeatedStatements = new ArrayList<>(2);
+            }
+            repeatedStatements.add(statementId);
+        }
+    }
+
+    /**
+     * 本请求执行的语句条数。
+     *
+     * @return 条数
+     */
+    public int getStatementCount() {
+        return statementCount;
+    }
+
+    /**
+     * 本请求的数据库耗时（含结果映射）。
+     *
+     * @return 纳秒
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * 疑似 N+1 的语句 id（按首次达到阈值的顺序）。
+     *
+     * @return 语句 id 列表
+     */
+    public List<String> getRepeatedStatements() {
+        return repeatedStatements == null ? Collections.emptyList() : repeatedStatements;
+    }
+
+    /**
+     * 某条语句在本请求中的执行次数。
+     *
+     * @param statementId 语句 id
+     * @return 次数
+     */
+    public int getExecutions(String statementId) {
+        StatementUsage usage = usages == null ? null : usages.get(statementId);
+        return usage == null ? 0 : usage.executions;
+    }
+
+    /**
+     * 单条语句的执行情况：次数 + 不同参数指纹（最多记阈值个，够判定就不再多记）。
+     */
+    private static final class StatementUsage {
+        private final int[] fingerprints;
+        private int distinct;
+        private int executions;
+
+        StatementUsage(int threshold) {
+            this.fingerprints = new int[threshold];
+        }
+
+        /**
+         * @return 是否是新的参数指纹
+         */
+        boolean add(int fingerprint) {
+            executions++;
+            if (distinct == fingerprints.length) {
+                return false;
+            }
+            for (int i = 0; i < distinct; i++) {
+                if (fingerprints[i] == fingerprint) {
+                    return false;
+                }
+            }
+            fingerprints[distinct++] = fingerprint;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.yupi.user_center.monitor;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 虚拟线程钉住（pinning）诊断：用 JFR 监听 {@code jdk.VirtualThreadPinned} 事件，
+ * 按“第一个 MyBatis / MySQL 驱动 / Hikari / 本项目栈帧”归类计数。
+ *
+ * <p>Java 21 里虚拟线程在 synchronized 块内阻塞会钉住载体线程，载体线程数只有 CPU 核数，
+ * 钉住多了虚拟线程就退化成了小线程池。默认只在开启虚拟线程时启动，开销是一个 JFR 流。</p>
+ * 小白理解：看看是谁霸占着“真线程”不放，好对症下药（升级驱动、把 synchronized 换成锁等）。
+ *
+ * @author Ethan
+ */
+@Component
+@Slf4j
+public class VirtualThreadPinningMonitor {
+
+    private static final String EVENT = "jdk.VirtualThreadPinned";
+    private static final List<String> INTERESTING_PREFIXES = List.of(
+            "org.apache.ibatis.", "com.baomidou.", "com.mysql.", "com.zaxxer.hikari.", "com.yupi.user_center.");
+
+    private final boolean enabled;
+    private final Duration threshold;
+
+    /**
+     * 栈帧 -> 次数。
+     */
+    private final Map<String, LongAdder> pinnedBySite = new ConcurrentHashMap<>();
+    private final LongAdder totalEvents = new LongAdder();
+    private final LongAdder totalPinnedNanos = new LongAdder();
+
+    private volatile RecordingStream stream;
+
+    /**
+     * 构造诊断器。
+     *
+     * @param virtualThreads 是否开启了虚拟线程
+     * @param enabled 是否开启诊断（为空时跟随虚拟线程开关）
+     * @param thresholdMillis 只记录钉住超过该时长的事件（毫秒）
+     */
+    public VirtualThreadPinningMonitor(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                                       @Value("${user-center.virtual-threads.pinning-diagnostics.enabled:}") Boolean enabled,
+                                       @Value("${user-center.virtual-threads.pinning-diagnostics.threshold-ms:20}") long thresholdMillis) {
+        this.enabled = enabled == null ? virtualThreads : enabled;
+        this.threshold = Duration.ofMillis(thresholdMillis);
+    }
+
+    /**
+     * 启动后开始监听（失败只记日志，不影响启动）。
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            RecordingStream rs = new RecordingStream();
+            rs.enable(EVENT).withThreshold(threshold).withStackTrace();
+            rs.onEvent(EVENT, this::record);
+            rs.startAsync();
+            stream = rs;
+            log.info("虚拟线程钉住诊断已开启（阈值 {}ms）", threshold.toMillis());
+        } catch (Exception e) {
+            log.warn("无法开启虚拟线程钉住诊断: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 当前统计（按次数倒序）。
+     *
+     * @return 统计信息
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", stream != null);
+        result.put("thresholdMs", threshold.toMillis());
+        result.put("totalEvents", totalEvents.sum());
+        result.put("totalPinnedMs", totalPinnedNanos.sum() / 1_000_000);
+        Map<String, Long> sites = new LinkedHashMap<>();
+        pinnedBySite.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue().sum(), a.getValue().sum()))
+                .limit(20)
+                .forEach(e -> sites.put(e.getKey(), e.getValue().sum()));
+        result.put("sites", sites);
+        return result;
+    }
+
+    /**
+     * 应用关闭时停止 JFR 流。
+     */
+    @PreDestroy
+    public void stop() {
+        RecordingStream rs = stream;
+        if (rs != null) {
+            rs.close();
+        }
+    }
+
+    private void record(RecordedEvent event) {
+        totalEvents.increment();
+        totalPinnedNanos.add(event.getDuration().toNanos());
+        String site = siteOf(event.getStackTrace());
+        LongAdder counter = pinnedBySite.computeIfAbsent(site, k -> new LongAdder());
+        counter.increment();
+        if (counter.sum() == 1) {
+            log.warn("检测到虚拟线程钉住 {}ms：{}", event.getDuration().toMillis(), site);
+        }
+    }
+
+    private static String siteOf(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "unknown";
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (!frame.isJavaFrame()) {
+                continue;
+            }
+            String type = frame.getMethod().getType().getName();
+            for (String prefix : INTERESTING_PREFIXES) {
+                if (type.startsWith(prefix)) {
+                    return type + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+                }
+            }
+        }
+        RecordedFrame top = stackTrace.getFrames().get(0);
+        return top.getMethod().getType().getName() + "." + top.getMethod().getName() + ":" + top.getLineNumber();
+    }
+}
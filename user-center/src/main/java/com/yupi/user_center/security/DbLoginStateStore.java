@@ -0,0 +1,333 @@
+package com.yupi.user_center.security;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.yupi.user_center.cache.LongKeyLruCache;
+import com.yupi.user_center.datasource.ReadRouting;
+import com.yupi.user_center.mapper.UserSessionMapper;
+import com.yupi.user_center.model.UserSession;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 数据库共享 Session 登录态：Session 存在 MySQL 的 user_session 表里，任意节点都能识别同一个 Cookie。
+ *
+ * <ul>
+ *     <li>读：每个节点有一层定长 LRU 近缓存，条目最多信任 near-cache-ttl-ms，过期后回库确认（别的节点可能已退出/续期）；</li>
+ *     <li>续期：最后访问时间不是每个请求都写库，而是先在内存里按 Session 合并，定时用一条 UPDATE 批量刷新；</li>
+ *     <li>过期：后台任务分批删除超过 {@code server.servlet.session.timeout} 没有访问的 Session。</li>
+ * </ul>
+ * 配置了从库时，请求线程上的 Session 读写一律走主库（{@code @ReplicaRead} 接口里也一样）：
+ * 从库上可能还没有刚登录的 Session，或者还留着刚退出 / 作废的，读到了就是误判 401 或把作废的登录态重新缓存。
+ * 小白理解：登记簿放在大家都能看的数据库里，每个节点手边抄一份小抄，隔一会儿再去对一下。
+ *
+ * @author Ethan
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "user-center.auth.mode", havingValue = "db")
+public class DbLoginStateStore implements LoginStateStore {
+
+    /**
+     * 共享 Session 的 Cookie 名。
+     */
+    public static final String COOKIE_NAME = "UC_SESSION";
+
+    private static final int SWEEP_BATCH = 1000;
+
+    /**
+     * 本节点最近作废过的用户数上限（超出后最早的记录被挤掉，那些用户的近缓存条目最晚 near-cache-ttl-ms 后自然过期）。
+     */
+    private static final int REVOKED_CAPACITY = 10000;
+
+    @Resource
+    private UserSessionMapper userSessionMapper;
+
+    @Resource
+    private LoginPrincipalRegistry loginPrincipalRegistry;
+
+    private final long timeoutMillis;
+    private final long touchIntervalMillis;
+    private final int flushBatchSize;
+    private final boolean secureCookie;
+
+    /**
+     * 近缓存：按 Session id 的 64 位哈希存，条目里带完整 id，哈希撞上时按未命中处理。
+     */
+    private final LongKeyLruCache<CachedSession> nearCache;
+
+    /**
+     * userId -> 本节点最近一次作废该用户登录态的时间：早于这个时间加载的近缓存条目不再信任。
+     */
+    private final LongKeyLruCache<Long> revokedAt;
+
+    /**
+     * 待写库的续期：sessionId -> 最后访问时间（同一个 Session 多次访问只保留最新一次）。
+     */
+    private final ConcurrentHashMap<String, Long> pendingTouches = new ConcurrentHashMap<>();
+
+    private final SecureRandom random = new SecureRandom();
+
+    /**
+     * 构造数据库 Session 存储。
+     *
+     * @param timeout 会话超时时间（沿用 server.servlet.session.timeout）
+     * @param secureCookie Cookie 是否只在 HTTPS 下发送（沿用 server.servlet.session.cookie.secure）
+     * @param nearCacheTtlMillis 近缓存条目最长信任时间（毫秒）
+     * @param nearCacheCapacity 近缓存最大条目数
+     * @param touchIntervalMillis 同一 Session 两次续期的最小间隔（毫秒）
+     * @param flushBatchSize 每条批量 UPDATE 刷新的 Session 数
+     */
+    public DbLoginStateStore(@Value("${server.servlet.session.timeout:30m}") Duration timeout,
+                             @Value("${server.servlet.session.cookie.secure:false}") boolean secureCookie,
+                             @Value("${user-center.auth.db-session.near-cache-ttl-ms:10000}") long nearCacheTtlMillis,
+                             @Value("${user-center.auth.db-session.near-cache-capacity:100000}") int nearCacheCapacity,
+                             @Value("${user-center.auth.db-session.touch-interval-ms:60000}") long touchIntervalMillis,
+                             @Value("${user-center.auth.db-session.flush-batch-size:500}") int flushBatchSize) {
+        this.timeoutMillis = timeout.toMillis();
+        this.secureCookie = secureCookie;
+        this.nearCache = new LongKeyLruCache<>(nearCacheCapacity, Math.max(1, nearCacheTtlMillis));
+        this.revokedAt = new LongKeyLruCache<>(REVOKED_CAPACITY, Math.max(1, nearCacheTtlMillis));
+        this.touchIntervalMillis = touchIntervalMillis;
+        this.flushBatchSize = Math.max(1, flushBatchSize);
+    }
+
+    @Override
+    public LoginPrincipal login(HttpServletRequest request, HttpServletResponse response, long userId) {
+        long now = System.currentTimeMillis();
+        UserSession session = new UserSession();
+        session.setSessionId(newSessionId());
+        session.setUserId(userId);
+        session.setLastAccessAt(now);
+        ReadRouting.call(ReadRouting.Route.PRIMARY, () -> userSessionMapper.insert(session));
+        nearCache.put(keyOf(session.getSessionId()), new CachedSession(session.getSessionId(), userId, now, now));
+        writeCookie(response, session.getSessionId(), null);
+
+        loginPrincipalRegistry.invalidate(userId);
+        return loginPrincipalRegistry.getPrincipal(userId);
+    }
+
+    @Override
+    public LoginPrincipal current(HttpServletRequest request) {
+        String sessionId = sessionIdOf(request);
+        if (sessionId == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        CachedSession session = lookup(sessionId, now);
+        if (session == null) {
+            return null;
+        }
+        if (now - session.lastAccessAt >= touchIntervalMillis) {
+            session.lastAccessAt = now;
+            pendingTouches.put(sessionId, now);
+        }
+        return loginPrincipalRegistry.getPrincipal(session.userId);
+    }
+
+    /**
+     * 删除库里的 Session，并下发一个立即过期的同名 Cookie，让浏览器也删掉它。
+     */
+    @Override
+    public void logout(HttpServletRequest request, HttpServletResponse response) {
+        writeCookie(response, "", Duration.ZERO);
+        String sessionId = sessionIdOf(request);
+        if (sessionId == null) {
+            return;
+        }
+        nearCache.invalidate(keyOf(sessionId));
+        pendingTouches.remove(sessionId);
+        ReadRouting.call(ReadRouting.Route.PRIMARY, () -> userSessionMapper.deleteById(sessionId));
+    }
+
+    /**
+     * 删除该用户在所有节点上的 Session（其他节点的近缓存最晚 near-cache-ttl-ms 后回库发现）。
+     */
+    @Override
+    public void revokeUser(long userId) {
+        QueryWrapper<UserSession> qw = new QueryWrapper<>();
+        qw.eq("user_id", userId);
+        ReadRouting.call(ReadRouting.Route.PRIMARY, () -> userSessionMapper.delete(qw));
+        revokedAt.put(userId, System.currentTimeMillis());
+        loginPrincipalRegistry.invalidate(userId);
+    }
+
+    /**
+     * 定时把合并后的续期批量写库。
+     */
+    @Scheduled(fixedDelayString = "${user-center.auth.db-session.flush-interval-ms:5000}")
+    public void flushTouches() {
+        if (pendingTouches.isEmpty()) {
+            return;
+        }
+        List<UserSession> batch = new ArrayList<>(Math.min(pendingTouches.size(), flushBatchSize));
+        for (Map.Entry<String, Long> e : pendingTouches.entrySet()) {
+            if (!pendingTouches.remove(e.getKey(), e.getValue())) {
+                // 刚被更新过，留到下一轮
+                continue;
+            }
+            UserSession s = new UserSession();
+            s.setSessionId(e.getKey());
+            s.setLastAccessAt(e.getValue());
+            batch.add(s);
+            if (batch.size() == flushBatchSize) {
+                writeTouches(batch);
+                batch = new ArrayList<>(flushBatchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeTouches(batch);
+        }
+    }
+
+    /**
+     * 定时分批删除过期 Session（近缓存条目按 TTL 自行过期，满了按 LRU 淘汰，不用扫）。
+     */
+    @Scheduled(fixedDelayString = "${user-center.auth.db-session.sweep-interval-ms:60000}")
+    public void sweepExpired() {
+        long now = System.currentTimeMillis();
+        try {
+            long before = now - timeoutMillis;
+            int deleted;
+            int total = 0;
+            do {
+                deleted = userSessionMapper.deleteExpired(before, SWEEP_BATCH);
+                total += deleted;
+            } while (deleted == SWEEP_BATCH);
+            if (total > 0) {
+                log.debug("已清理 {} 个过期 Session", total);
+            }
+        } catch (Exception e) {
+            log.warn("清理过期 Session 失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 关闭前把还没写库的续期刷掉。
+     */
+    @PreDestroy
+    public void shutdown() {
+        flushTouches();
+    }
+
+    private CachedSession lookup(String sessionId, long now) {
+        long key = keyOf(sessionId);
+        CachedSession cached = nearCache.get(key);
+        if (cached != null && !cached.sessionId.equals(sessionId)) {
+            cached = null;
+        }
+        if (cached != null && cached.lastAccessAt + timeoutMillis > now && !revokedSince(cached)) {
+            return cached;
+        }
+        UserSession row = ReadRouting.call(ReadRouting.Route.PRIMARY, () -> userSessionMapper.selectById(sessionId));
+        if (row == null || row.getLastAccessAt() == null) {
+            nearCache.invalidate(key);
+            return null;
+        }
+        long lastAccess = Math.max(row.getLastAccessAt(), cached == null ? 0 : cached.lastAccessAt);
+        Long pending = pendingTouches.get(sessionId);
+        if (pending != null) {
+            lastAccess = Math.max(lastAccess, pending);
+        }
+        if (lastAccess + timeoutMillis <= now) {
+            nearCache.invalidate(key);
+            return null;
+        }
+        CachedSession fresh = new CachedSession(sessionId, row.getUserId(), lastAccess, now);
+        nearCache.put(key, fresh);
+        return fresh;
+    }
+
+    private boolean revokedSince(CachedSession session) {
+        Long at = revokedAt.get(session.userId);
+        return at != null && session.loadedAt <= at;
+    }
+
+    private void writeCookie(HttpServletResponse response, String value, Duration maxAge) {
+        ResponseCookie.ResponseCookieBuilder cookie = ResponseCookie.from(COOKIE_NAME, value)
+                .httpOnly(true)
+                .secure(secureCookie)
+                .sameSite("Lax")
+                .path("/");
+        if (maxAge != null) {
+            cookie.maxAge(maxAge);
+        }
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie.build().toString());
+    }
+
+    private void writeTouches(List<UserSession> batch) {
+        try {
+            userSessionMapper.touchBatch(batch);
+        } catch (Exception e) {
+            // 写库失败就放回去下轮重试（已有更新的时间则保留更新的）
+            for (UserSession s : batch) {
+                pendingTouches.merge(s.getSessionId(), s.getLastAccessAt(), Math::max);
+            }
+            log.warn("批量刷新 Session 访问时间失败（{} 个）: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    private String newSessionId() {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * Session id 的 64 位哈希（id 本身是 32 字节随机数，分布足够均匀），用作近缓存的 long 键。
+     */
+    static long keyOf(String sessionId) {
+        long h = 1125899906842597L;
+        for (int i = 0; i < sessionId.length(); i++) {
+            h = 31 * h + sessionId.charAt(i);
+        }
+        return h;
+    }
+
+    private static String sessionIdOf(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return null;
+        }
+        for (Cookie c : cookies) {
+            if (COOKIE_NAME.equals(c.getName()) && c.getValue() != null && c.getValue().length() == 43) {
+                return c.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 近缓存条目。
+     */
+    private static final class CachedSession {
+        final String sessionId;
+        final long userId;
+        final long loadedAt;
+        volatile long lastAccessAt;
+
+        CachedSession(String sessionId, long userId, long lastAccessAt, long loadedAt) {
+            this.sessionId = sessionId;
+            this.userId = userId;
+            this.lastAccessAt = lastAccessAt;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
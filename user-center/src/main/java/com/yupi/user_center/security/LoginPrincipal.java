@@ -0,0 +1,44 @@
+package com.yupi.user_center.security;
+
+import com.yupi.user_center.constant.UserConstant;
+
+import java.io.Serializable;
+
+/**
+ * 登录主体（紧凑的登录态：只保留鉴权需要的几个基本类型字段）。
+ *
+ * <p>version 在用户资料、状态或角色每次变化后都会变大，可用来判断客户端手里的数据是否过期。</p>
+ *
+ * @param userId 用户 id
+ * @param userRole 旧版角色字段（1 为管理员）
+ * @param roleId 绑定的角色 id（未绑定为 0）
+ * @param userStatus 用户状态（1 为封禁）
+ * @param version 版本号
+ * @author Ethan
+ */
+public record LoginPrincipal(long userId, int userRole, long roleId, int userStatus, long version)
+        implements Serializable {
+
+    /**
+     * 封禁状态值。
+     */
+    public static final int STATUS_BANNED = 1;
+
+    /**
+     * 是否被封禁。
+     *
+     * @return 是否被封禁
+     */
+    public boolean isBanned() {
+        return userStatus == STATUS_BANNED;
+    }
+
+    /**
+     * 旧版 userRole 字段是否为管理员。
+     *
+     * @return 是否管理员
+     */
+    public boolean isLegacyAdmin() {
+        return userRole == UserConstant.ADMIN_ROLE;
+    }
+}
@@ -0,0 +1,166 @@
+package com.yupi.user_center.security;
+
+import com.yupi.user_center.cache.LongKeyLruCache;
+import com.yupi.user_center.constant.UserConstant;
+import com.yupi.user_center.datasource.ReadRouting;
+import com.yupi.user_center.datasource.ReadYourWrites;
+import com.yupi.user_center.mapper.UserMapper;
+import com.yupi.user_center.model.vo.UserVO;
+import jakarta.annotation.Resource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 登录主体登记处：鉴权用的紧凑主体和完整资料都按 userId 放在进程内缓存里（登录态本身由 {@link LoginStateStore} 负责）。
+ *
+ * <p>原来每个 Session 里都放一整个 User（十几个字符串 + 时间），几十万个 30 分钟的 Session 很占堆，
+ * 而且管理员改了用户后 Session 里的还是旧数据。现在：
+ * <ul>
+ *     <li>Session 只存一个 Long；</li>
+ *     <li>{@link LoginPrincipal}（userId、角色、状态、版本号）放在 long 主键的 LRU 缓存里，未命中按主键回库，
+ *     绑定的角色 id 在同一条 SQL 里查出，不再单独缓存；</li>
+ *     <li>完整资料（{@link UserVO}）只有 /user/current 这类接口需要时才加载，单独缓存，每次加载带一个新版本号（用作 ETag）；</li>
+ *     <li>用户资料、状态、角色变化时调用 {@link #invalidate(Long)}（封禁、改角色还要走 {@link LoginStateStore#revokeUser(long)}），下次请求拿到的就是新数据和新版本号。</li>
+ * </ul>
+ * 失效只发生在本节点，所以多节点部署（session / db 模式）时，别的节点靠过期兜底：登录主体（鉴权用的角色、状态）
+ * 只缓存几秒（principal-ttl-ms），封禁、降权最多这么久后在其他节点生效；完整资料只用于展示，缓存时间可以长一些。
+ * token 模式不经过这里：请求直接使用令牌里的主体，其他节点上的权限变化要等令牌过期（见 {@link TokenLoginStateStore}）。
+ * 配置了从库时，回库加载优先走从库；刚失效过的用户在写后窗口（{@link ReadYourWrites}）内走主库，
+ * 免得把从库上还没同步的旧数据缓存起来。</p>
+ * 小白理解：手环上只写“你是几号”，其他信息都到前台按号去查，前台的信息一改所有人立刻看到新的。
+ *
+ * @author Ethan
+ */
+@Component
+public class LoginPrincipalRegistry {
+
+    @Resource
+    private UserMapper userMapper;
+
+    @Resource
+    private ReadYourWrites readYourWrites;
+
+    private final LongKeyLruCache<LoginPrincipal> principals;
+    private final LongKeyLruCache<VersionedProfile> profiles;
+
+    /**
+     * 全局版本号：每次（重新）加载主体或资料都取一个新值，所以同一用户的版本号只增不减，重启后也不会回退。
+     */
+    private final AtomicLong versionSeq = new AtomicLong(System.currentTimeMillis() * 1000);
+
+    /**
+     * 构造登记处。
+     *
+     * @param principalCapacity 登录主体缓存容量
+     * @param profileCapacity 完整资料缓存容量
+     * @param principalTtlMillis 登录主体存活时间（毫秒，也是其他节点上权限变化的最长生效延迟）
+     * @param profileTtlMillis 完整资料存活时间（毫秒）
+     */
+    public LoginPrincipalRegistry(@Value("${user-center.login-principal.capacity:200000}") int principalCapacity,
+                                  @Value("${user-center.login-principal.profile-capacity:20000}") int profileCapacity,
+                                  @Value("${user-center.login-principal.principal-ttl-ms:5000}") long principalTtlMillis,
+                                  @Value("${user-center.login-principal.ttl-ms:1800000}") long profileTtlMillis) {
+        this.principals = new LongKeyLruCache<>(principalCapacity, principalTtlMillis);
+        this.profiles = new LongKeyLruCache<>(profileCapacity, profileTtlMillis);
+    }
+
+    /**
+     * 按 userId 获取登录主体（未命中时回库）。
+     *
+     * @param userId 用户 id
+     * @return 登录主体，用户不存在返回 null
+     */
+    public LoginPrincipal getPrincipal(long userId) {
+        return principals.getOrLoad(userId, this::loadPrincipal);
+    }
+
+    /**
+     * 按 userId 获取完整资料（脱敏，含角色信息；未命中时回库）。
+     *
+     * @param userId 用户 id
+     * @return 用户资料，用户不存在返回 null
+     */
+    public UserVO getProfile(long userId) {
+        VersionedProfile p = getVersionedProfile(userId);
+        return p == null ? null : p.profile();
+    }
+
+    /**
+     * 按 userId 获取完整资料及其版本号（未命中时回库）。
+     *
+     * <p>资料内容只会在重新加载时变化，而每次加载都换新版本号，所以版本号相同就代表内容没变。</p>
+     *
+     * @param userId 用户 id
+     * @return 带版本号的用户资料，用户不存在返回 null
+     */
+    public VersionedProfile getVersionedProfile(long userId) {
+        return profiles.getOrLoad(userId, this::loadProfile);
+    }
+
+    /**
+     * 用户资料、状态或角色变化后立即失效，并记入写后窗口。
+     *
+     * @param userId 用户 id
+     */
+    public void invalidate(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        readYourWrites.markWritten(userId);
+        principals.invalidate(userId);
+        profiles.invalidate(userId);
+    }
+
+    /**
+     * 获取登录主体缓存（用于读取命中/未命中统计）。
+     *
+     * @return 登录主体缓存
+     */
+    public LongKeyLruCache<LoginPrincipal> getPrincipalCache() {
+        return principals;
+    }
+
+    /**
+     * 获取完整资料缓存（用于读取命中/未命中统计）。
+     *
+     * @return 完整资料缓存
+     */
+    public LongKeyLruCache<VersionedProfile> getProfileCache() {
+        return profiles;
+    }
+
+    private LoginPrincipal loadPrincipal(long userId) {
+        return ReadRouting.call(readYourWrites.routeFor(userId), () -> queryPrincipal(userId));
+    }
+
+    private LoginPrincipal queryPrincipal(long userId) {
+        UserVO row = userMapper.selectPrincipalRow(userId);
+        if (row == null) {
+            return null;
+        }
+        return new LoginPrincipal(userId,
+                row.getUserRole() == null ? UserConstant.DEFAULT_ROLE : row.getUserRole(),
+                row.getRoleId() == null ? 0L : row.getRoleId(),
+                row.getUserStatus() == null ? 0 : row.getUserStatus(),
+                versionSeq.incrementAndGet());
+    }
+
+    private VersionedProfile loadProfile(long userId) {
+        List<UserVO> list = ReadRouting.call(readYourWrites.routeFor(userId),
+                () -> userMapper.selectUserVOsByIds(Collections.singletonList(userId)));
+        return list.isEmpty() ? null : new VersionedProfile(list.get(0), versionSeq.incrementAndGet());
+    }
+
+    /**
+     * 缓存里的完整资料（资料本身 + 加载时分配的版本号）。
+     *
+     * @param profile 脱敏后的用户资料
+     * @param version 版本号
+     */
+    public record VersionedProfile(UserVO profile, long version) {
+    }
+}
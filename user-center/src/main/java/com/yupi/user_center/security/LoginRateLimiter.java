@@ -0,0 +1,137 @@
+package com.yupi.user_center.security;
+
+import com.yupi.user_center.exception.RateLimitedException;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 登录 / 注册限流：在查库之前按客户端 IP 和账号各过一道令牌桶，超出直接返回 429（RATE_LIMITED）并带 Retry-After。
+ *
+ * <ul>
+ *     <li>登录按 IP：挡住同一来源轮换账号撞库；</li>
+ *     <li>登录按账号：挡住分布式地对同一个账号猜密码；只算失败的尝试（检查时先扣，登录成功后退还），
+ *     正常用户反复登录不会把自己锁在外面；先扣后退是为了让并发的猜测在算哈希前就被挡住；</li>
+ *     <li>注册按 IP：挡住批量注册。</li>
+ * </ul>
+ * 只在本进程内计数，多节点时每个节点各自限流（总量约为单节点的 N 倍）。
+ * 部署在反向代理后面时需要配 {@code server.forward-headers-strategy=native}，否则所有请求的 IP 都是代理的。
+ * 小白理解：门口的保安记着“这个人 / 这个门牌号刚才来过几次”，来得太勤就先请在门外等一会儿，不放进去翻档案。
+ *
+ * @author Ethan
+ */
+@Component
+@Slf4j
+public class LoginRateLimiter {
+
+    private static final String PREFIX = "user-center.rate-limit.";
+
+    private final boolean enabled;
+    private final TokenBucketLimiter loginByIp;
+    private final TokenBucketLimiter loginByAccount;
+    private final TokenBucketLimiter registerByIp;
+
+    /**
+     * 构造限流器。
+     *
+     * @param env 环境配置（user-center.rate-limit.*）
+     */
+    public LoginRateLimiter(Environment env) {
+        this.enabled = env.getProperty(PREFIX + "enabled", Boolean.class, true);
+        int maxKeys = env.getProperty(PREFIX + "max-keys", Integer.class, 100000);
+        int stripes = env.getProperty(PREFIX + "stripes", Integer.class, 64);
+        this.loginByIp = limiter(env, "login-ip", 30, 60, maxKeys, stripes);
+        this.loginByAccount = limiter(env, "login-account", 5, 5, maxKeys, stripes);
+        this.registerByIp = limiter(env, "register-ip", 10, 10, maxKeys, stripes);
+    }
+
+    private static TokenBucketLimiter limiter(Environment env, String name, int defaultCapacity,
+                                              double defaultPerMinute, int maxKeys, int stripes) {
+        int capacity = env.getProperty(PREFIX + name + ".capacity", Integer.class, defaultCapacity);
+        double perMinute = env.getProperty(PREFIX + name + ".refill-per-minute", Double.class, defaultPerMinute);
+        return new TokenBucketLimiter(name, capacity, perMinute / 60, maxKeys, stripes);
+    }
+
+    /**
+     * 登录前检查：先按 IP，再按账号（账号不区分大小写，和唯一索引的排序规则一致）。
+     *
+     * @param request 当前请求（读取客户端 IP）
+     * @param userAccount 登录账号
+     * @throws RateLimitedException 超出频率限制时抛出（429）
+     */
+    public void checkLogin(HttpServletRequest request, String userAccount) {
+        if (!enabled) {
+            return;
+        }
+        acquire(loginByIp, request.getRemoteAddr(), "登录");
+        if (userAccount != null) {
+            acquire(loginByAccount, accountKey(userAccount), "该账号登录");
+        }
+    }
+
+    /**
+     * 登录成功后调用：退还 {@link #checkLogin} 按账号扣的令牌（按 IP 扣的不退）。
+     *
+     * @param userAccount 登录账号
+     */
+    public void loginSucceeded(String userAccount) {
+        if (!enabled || userAccount == null) {
+            return;
+        }
+        loginByAccount.refund(accountKey(userAccount));
+    }
+
+    /**
+     * 注册前检查（按 IP）。
+     *
+     * @param request 当前请求（读取客户端 IP）
+     * @throws RateLimitedException 超出频率限制时抛出（429）
+     */
+    public void checkRegister(HttpServletRequest request) {
+        if (!enabled) {
+            return;
+        }
+        acquire(registerByIp, request.getRemoteAddr(), "注册");
+    }
+
+    /**
+     * 定时删除已经补满的桶，释放长时间不再出现的 IP / 账号占的内存。
+     */
+    @Scheduled(fixedDelayString = "${user-center.rate-limit.sweep-interval-ms:60000}")
+    public void evictIdle() {
+        int removed = 0;
+        for (TokenBucketLimiter limiter : limiters()) {
+            removed += limiter.evictIdle();
+        }
+        if (removed > 0) {
+            log.debug("限流器清理空闲桶 {} 个", removed);
+        }
+    }
+
+    /**
+     * 获取全部限流器（用于注册指标）。
+     *
+     * @return 限流器列表
+     */
+    public List<TokenBucketLimiter> limiters() {
+        return List.of(loginByIp, loginByAccount, registerByIp);
+    }
+
+    private static String accountKey(String userAccount) {
+        return userAccount.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static void acquire(TokenBucketLimiter limiter, String key, String what) {
+        long waitNanos = limiter.tryAcquire(key == null ? "" : key);
+        if (waitNanos > 0) {
+            long seconds = (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+            throw new RateLimitedException(what + "过于频繁，请 " + Math.max(1, seconds) + " 秒后再试", seconds);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.yupi.user_center.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * 登录态存储策略（按 user-center.auth.mode 三选一）。
+ *
+ * <ul>
+ *     <li>session（默认）：{@link SessionLoginStateStore}，登录态放在容器的 HttpSession 里，多实例部署需要粘性会话；</li>
+ *     <li>token：{@link TokenLoginStateStore}，登录时下发 HMAC 签名令牌，校验只算签名，不查 Session 也不查库；</li>
+ *     <li>db：{@link DbLoginStateStore}，Cookie 会话存在 MySQL 的 user_session 表里，多节点共享，无需粘性会话。</li>
+ * </ul>
+ *
+ * @author Ethan
+ */
+public interface LoginStateStore {
+
+    /**
+     * 登录成功后写入登录态。
+     *
+     * @param request Http 请求对象
+     * @param response Http 响应对象（令牌模式把令牌写到响应头）
+     * @param userId 用户 id
+     * @return 登录主体
+     */
+    LoginPrincipal login(HttpServletRequest request, HttpServletResponse response, long userId);
+
+    /**
+     * 读取当前请求的登录主体。
+     *
+     * @param request Http 请求对象
+     * @return 登录主体，未登录 / 已失效返回 null
+     */
+    LoginPrincipal current(HttpServletRequest request);
+
+    /**
+     * 读取当前请求的登录主体，未登录时抛 401。
+     *
+     * @param request Http 请求对象
+     * @return 登录主体
+     * @throws ResponseStatusException 未登录时抛出（401）
+     */
+    default LoginPrincipal requireLogin(HttpServletRequest request) {
+        LoginPrincipal principal = current(request);
+        if (principal == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "NOT_LOGIN");
+        }
+        return principal;
+    }
+
+    /**
+     * 退出当前请求的登录态。
+     *
+     * @param request Http 请求对象
+     * @param response Http 响应对象（Cookie 会话模式要下发过期 Cookie）
+     */
+    void logout(HttpServletRequest request, HttpServletResponse response);
+
+    /**
+     * 作废某个用户已发出的全部登录态（封禁、改角色、删除后调用）。
+     *
+     * @param userId 用户 id
+     */
+    void revokeUser(long userId);
+}
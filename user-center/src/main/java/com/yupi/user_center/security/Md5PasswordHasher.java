@@ -0,0 +1,41 @@
+package com.yupi.user_center.security;
+
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * 旧版密码哈希：md5(明文 + 固定盐)，输出 32 位小写十六进制。
+ *
+ * <p>默认算法（和历史数据保持一致）；开启 {@link Pbkdf2PasswordHasher} 后可随时切回本实现回滚：
+ * 新注册的密码重新用 MD5，已经升级成 {@code pbkdf2$} 的密码照样能校验，不会把这些用户锁在门外。</p>
+ *
+ * @author Ethan
+ */
+public class Md5PasswordHasher implements PasswordHasher {
+
+    /**
+     * 加密用盐常量
+     * 作用：用于密码加密的固定附加字符串，保证同样的密码生成一致指纹
+     * 小白理解：每次给密码“加点固定调料”，提升安全性
+     */
+    private static final String SALT = "yupi";
+
+    @Override
+    public String hash(String rawPassword) {
+        return DigestUtils.md5DigestAsHex((rawPassword + SALT).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public boolean matches(String rawPassword, String encodedPassword) {
+        if (rawPassword == null || encodedPassword == null) {
+            return false;
+        }
+        if (encodedPassword.startsWith(Pbkdf2PasswordHasher.PREFIX)) {
+            return Pbkdf2PasswordHasher.matchesEncoded(rawPassword, encodedPassword);
+        }
+        return MessageDigest.isEqual(hash(rawPassword).getBytes(StandardCharsets.US_ASCII),
+                encodedPassword.getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,195 @@
+package com.yupi.user_center.security;
+
+import com.yupi.user_center.constant.ErrorCode;
+import com.yupi.user_center.exception.BusinessException;
+import com.yupi.user_center.model.vo.PasswordHashStatsVO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 密码哈希专用线程池（线程数 = CPU 核数，队列有界，满了立即拒绝）。
+ *
+ * <p>登录/注册的哈希计算都在这里跑，Tomcat 请求线程只是等结果。哈希再慢、登录再集中，
+ * 最多也只占满这几个线程，{@code /user/current} 等其他接口不受影响；
+ * 排队已满时直接抛 {@link ErrorCode#TOO_MANY_REQUESTS}（HTTP 429），不让请求越积越多。</p>
+ * 小白理解：算密码的活单独开个小窗口办，窗口前排满了就请后来的人稍后再来。
+ *
+ * @author Ethan
+ */
+@Component
+@Slf4j
+public class PasswordHashExecutor {
+
+    @Resource
+    private PasswordHasher passwordHasher;
+
+    private final ThreadPoolExecutor executor;
+    private final int queueCapacity;
+    private final long timeoutMillis;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final AtomicLong maxHashNanos = new AtomicLong();
+
+    /**
+     * 用当前算法和参数哈希的一个随机口令：账号不存在时拿它校验一次，让响应时间和账号存在时一样。
+     */
+    private String dummyHash;
+
+    /**
+     * 构造线程池。
+     *
+     * @param threads 线程数（小于等于 0 时取 CPU 核数）
+     * @param queueCapacity 排队上限
+     * @param timeoutMillis 请求线程最长等待时间（毫秒）
+     */
+    public PasswordHashExecutor(@Value("${user-center.password.executor.threads:0}") int threads,
+                                @Value("${user-center.password.executor.queue-capacity:64}") int queueCapacity,
+                                @Value("${user-center.password.executor.timeout-ms:5000}") long timeoutMillis) {
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.timeoutMillis = timeoutMillis;
+        AtomicInteger seq = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(this.queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "password-hash-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PostConstruct
+    public void init() {
+        dummyHash = passwordHasher.hash(UUID.randomUUID().toString());
+    }
+
+    /**
+     * 在专用线程池里计算存库用的哈希。
+     *
+     * @param rawPassword 明文密码
+     * @return 编码串
+     * @throws BusinessException 线程池繁忙（429）或计算失败时抛出
+     */
+    public String hash(String rawPassword) {
+        return submit(() -> passwordHasher.hash(rawPassword));
+    }
+
+    /**
+     * 在专用线程池里校验密码。
+     *
+     * @param rawPassword 明文密码
+     * @param encodedPassword 库里的编码串
+     * @return 是否匹配
+     * @throws BusinessException 线程池繁忙（429）或计算失败时抛出
+     */
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return submit(() -> passwordHasher.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * 账号不存在时调用：对固定的假哈希做一次同等成本的校验（结果必然不匹配），
+     * 防止通过响应时间判断账号是否存在。
+     *
+     * @param rawPassword 明文密码
+     * @throws BusinessException 线程池繁忙（429）或计算失败时抛出
+     */
+    public void matchesDummy(String rawPassword) {
+        submit(() -> passwordHasher.matches(rawPassword, dummyHash));
+    }
+
+    /**
+     * 库里的编码串是否需要按当前参数重新哈希（只解析前缀，不耗 CPU，直接在调用线程执行）。
+     *
+     * @param encodedPassword 库里的编码串
+     * @return 是否需要重新哈希
+     */
+    public boolean needsRehash(String encodedPassword) {
+        return passwordHasher.needsRehash(encodedPassword);
+    }
+
+    /**
+     * 当前统计快照。
+     *
+     * @return 统计信息
+     */
+    public PasswordHashStatsVO stats() {
+        PasswordHashStatsVO vo = new PasswordHashStatsVO();
+        vo.setHasher(passwordHasher.getClass().getSimpleName());
+        vo.setPoolSize(executor.getPoolSize());
+        vo.setActiveCount(executor.getActiveCount());
+        vo.setQueueDepth(executor.getQueue().size());
+        vo.setQueueCapacity(queueCapacity);
+        long done = completed.sum();
+        vo.setCompleted(done);
+        vo.setRejected(rejected.sum());
+        vo.setAvgHashMicros(done == 0 ? 0 : hashNanos.sum() / done / 1000);
+        vo.setAvgQueueWaitMicros(done == 0 ? 0 : waitNanos.sum() / done / 1000);
+        vo.setMaxHashMicros(maxHashNanos.get() / 1000);
+        return vo;
+    }
+
+    /**
+     * 应用关闭时停止线程池。
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T submit(Callable<T> task) {
+        long enqueuedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long start = System.nanoTime();
+                waitNanos.add(start - enqueuedAt);
+                try {
+                    return task.call();
+                } finally {
+                    long cost = System.nanoTime() - start;
+                    hashNanos.add(cost);
+                    maxHashNanos.accumulateAndGet(cost, Math::max);
+                    completed.increment();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new BusinessException(ErrorCode.TOO_MANY_REQUESTS, "登录人数过多，请稍后再试");
+        }
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw new BusinessException(ErrorCode.TOO_MANY_REQUESTS, "登录人数过多，请稍后再试");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR);
+        } catch (ExecutionException e) {
+            log.error("密码哈希计算失败", e.getCause());
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.yupi.user_center.security;
+
+/**
+ * 密码哈希策略接口（可插拔：旧的加盐 MD5、PBKDF2 等）。
+ *
+ * <p>实现类只负责算法本身，必须是线程安全的；调度到专用线程池由 {@link PasswordHashExecutor} 负责。</p>
+ *
+ * @author Ethan
+ */
+public interface PasswordHasher {
+
+    /**
+     * 计算要存库的密码哈希。
+     *
+     * @param rawPassword 明文密码
+     * @return 存库用的编码串
+     */
+    String hash(String rawPassword);
+
+    /**
+     * 校验明文密码与库里的编码串是否匹配。
+     *
+     * @param rawPassword 明文密码
+     * @param encodedPassword 库里的编码串
+     * @return 是否匹配
+     */
+    boolean matches(String rawPassword, String encodedPassword);
+
+    /**
+     * 库里的编码串是否需要按当前算法/参数重新哈希（登录成功后顺手升级）。
+     *
+     * @param encodedPassword 库里的编码串
+     * @return 是否需要重新哈希
+     */
+    default boolean needsRehash(String encodedPassword) {
+        return false;
+    }
+}
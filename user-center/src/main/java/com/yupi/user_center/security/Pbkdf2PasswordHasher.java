@@ -0,0 +1,120 @@
+package com.yupi.user_center.security;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * PBKDF2-HMAC-SHA256 密码哈希（每个密码随机盐，迭代次数可调）。
+ *
+ * <p>编码格式：{@code pbkdf2$<迭代次数>$<盐 base64>$<哈希 base64>}，迭代次数随编码串保存，
+ * 调大配置后旧哈希仍能校验，并在下次登录时升级。不是这个前缀的编码串按旧版加盐 MD5 校验
+ * （同时补一次 PBKDF2 推导，校验耗时和新密码一致）。</p>
+ * 小白理解：迭代次数越大，暴力破解越慢，但每次登录也越费 CPU。
+ *
+ * @author Ethan
+ */
+public class Pbkdf2PasswordHasher implements PasswordHasher {
+
+    /**
+     * 编码串前缀。
+     */
+    public static final String PREFIX = "pbkdf2$";
+
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+    private static final byte[] DUMMY_SALT = new byte[SALT_BYTES];
+
+    private final int iterations;
+    private final SecureRandom random = new SecureRandom();
+    private final PasswordHasher legacy = new Md5PasswordHasher();
+
+    /**
+     * 构造哈希器。
+     *
+     * @param iterations 迭代次数（成本参数）
+     * @throws IllegalArgumentException 迭代次数小于 1 时抛出
+     */
+    public Pbkdf2PasswordHasher(int iterations) {
+        if (iterations < 1) {
+            throw new IllegalArgumentException("iterations 必须大于 0");
+        }
+        this.iterations = iterations;
+    }
+
+    @Override
+    public String hash(String rawPassword) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        byte[] hash = derive(rawPassword, salt, iterations);
+        Base64.Encoder b64 = Base64.getEncoder().withoutPadding();
+        return PREFIX + iterations + "$" + b64.encodeToString(salt) + "$" + b64.encodeToString(hash);
+    }
+
+    @Override
+    public boolean matches(String rawPassword, String encodedPassword) {
+        if (rawPassword == null || encodedPassword == null) {
+            return false;
+        }
+        if (!encodedPassword.startsWith(PREFIX)) {
+            // 旧 MD5 校验本身很快，补一次同等成本的推导，免得响应时间暴露“这个账号还是旧密码”
+            boolean ok = legacy.matches(rawPassword, encodedPassword);
+            derive(rawPassword, DUMMY_SALT, iterations);
+            return ok;
+        }
+        return matchesEncoded(rawPassword, encodedPassword);
+    }
+
+    /**
+     * 按编码串自带的盐和迭代次数校验 PBKDF2 密码（{@link Md5PasswordHasher} 回滚时也靠它校验已升级的密码）。
+     *
+     * @param rawPassword 明文密码
+     * @param encodedPassword {@code pbkdf2$} 开头的编码串
+     * @return 是否匹配
+     */
+    static boolean matchesEncoded(String rawPassword, String encodedPassword) {
+        String[] parts = encodedPassword.split("\\$");
+        if (parts.length != 4) {
+            return false;
+        }
+        try {
+            int iter = Integer.parseInt(parts[1]);
+            byte[] salt = Base64.getDecoder().decode(parts[2]);
+            byte[] expected = Base64.getDecoder().decode(parts[3]);
+            return iter > 0 && MessageDigest.isEqual(expected, derive(rawPassword, salt, iter));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean needsRehash(String encodedPassword) {
+        if (encodedPassword == null || !encodedPassword.startsWith(PREFIX)) {
+            return true;
+        }
+        int end = encodedPassword.indexOf('$', PREFIX.length());
+        if (end < 0) {
+            return true;
+        }
+        try {
+            return Integer.parseInt(encodedPassword.substring(PREFIX.length(), end)) < iterations;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    private static byte[] derive(String rawPassword, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(rawPassword.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("PBKDF2 不可用", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
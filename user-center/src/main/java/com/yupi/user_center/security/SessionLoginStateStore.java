@@ -0,0 +1,73 @@
+package com.yupi.user_center.security;
+
+import com.yupi.user_center.constant.UserConstant;
+import com.yupi.user_center.model.User;
+import jakarta.annotation.Resource;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Session 登录态：Session 里只存 userId，登录主体按 userId 从 {@link LoginPrincipalRegistry} 取。
+ *
+ * @author Ethan
+ */
+@Component
+@ConditionalOnProperty(name = "user-center.auth.mode", havingValue = "session", matchIfMissing = true)
+public class SessionLoginStateStore implements LoginStateStore {
+
+    @Resource
+    private LoginPrincipalRegistry loginPrincipalRegistry;
+
+    @Override
+    public LoginPrincipal login(HttpServletRequest request, HttpServletResponse response, long userId) {
+        loginPrincipalRegistry.invalidate(userId);
+        request.getSession().setAttribute(UserConstant.USER_LOGIN_STATE, userId);
+        return loginPrincipalRegistry.getPrincipal(userId);
+    }
+
+    @Override
+    public LoginPrincipal current(HttpServletRequest request) {
+        HttpSession session = request.getSession(false);
+        if (session == null) {
+            return null;
+        }
+        Long userId = userIdOf(session.getAttribute(UserConstant.USER_LOGIN_STATE));
+        return userId == null ? null : loginPrincipalRegistry.getPrincipal(userId);
+    }
+
+    @Override
+    public void logout(HttpServletRequest request, HttpServletResponse response) {
+        try {
+            HttpSession session = request.getSession(false);
+            if (session != null) {
+                session.removeAttribute(UserConstant.USER_LOGIN_STATE);
+                session.invalidate();
+            }
+        } catch (IllegalStateException ignored) {
+        }
+    }
+
+    /**
+     * Session 模式每次请求都按 userId 取最新主体，失效缓存即可，无需额外作废。
+     */
+    @Override
+    public void revokeUser(long userId) {
+        loginPrincipalRegistry.invalidate(userId);
+    }
+
+    /**
+     * 兼容升级前的 Session（里面放的是整个 User）。
+     */
+    private static Long userIdOf(Object attribute) {
+        if (attribute instanceof Long id) {
+            return id;
+        }
+        if (attribute instanceof User user) {
+            return user.getId();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,248 @@
+package com.yupi.user_center.security;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按 key 的令牌桶限流器：每个 key 一个桶，最多攒 capacity 个令牌，按固定速率补充，每次请求取一个。
+ *
+ * <p>桶按 key 的哈希分到若干分段，每段一把锁、一个按访问顺序排列的 LinkedHashMap，
+ * 不同 key 的请求基本不会互相等锁，临界区里只有一次哈希查找和几次浮点运算。
+ * 内存有上限：每段最多 maxKeys / stripes 个桶，满了淘汰最久没访问的；
+ * 已经补满的桶和“没有桶”效果一样，定时清理时直接删掉。
+ * 注意：有人用海量不同 key（比如伪造的 IP）把段挤满时，被淘汰的桶会被重置成满的，
+ * 所以 maxKeys 要按正常峰值的活跃 key 数留足余量。</p>
+ * 小白理解：每个人一个存钱罐，每秒往里投几个硬币，进门要交一个，罐子空了就请稍后再来。
+ *
+ * @author Ethan
+ */
+public class TokenBucketLimiter {
+
+    private final String name;
+    private final double capacity;
+    private final double tokensPerNano;
+
+    /**
+     * 桶从空补到满需要的时间：超过这么久没访问的桶一定已经满了。
+     */
+    private final long refillNanos;
+
+    private final Stripe[] stripes;
+    private final int mask;
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+
+    /**
+     * 构造限流器。
+     *
+     * @param name 名称（日志与指标标签）
+     * @param capacity 桶容量，即允许的突发请求数
+     * @param refillPerSecond 每秒补充的令牌数，即长期平均允许的速率
+     * @param maxKeys 最多同时记录的 key 数（内存上限）
+     * @param stripes 分段数（向上取 2 的幂）
+     */
+    public TokenBucketLimiter(String name, int capacity, double refillPerSecond, int maxKeys, int stripes) {
+        if (capacity <= 0 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("capacity 与 refillPerSecond 必须大于 0");
+        }
+        this.name = name;
+        this.capacity = capacity;
+        this.tokensPerNano = refillPerSecond / 1e9;
+        this.refillNanos = (long) Math.ceil(capacity / tokensPerNano);
+        int n = stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        int perStripe = Math.max(1, maxKeys / n);
+        this.stripes = new Stripe[n];
+        for (int i = 0; i < n; i++) {
+            this.stripes[i] = new Stripe(perStripe, evicted);
+        }
+        this.mask = n - 1;
+    }
+
+    /**
+     * 为 key 取一个令牌。
+     *
+     * @param key 限流维度（IP、账号等）
+     * @return 0 表示放行；否则为还需等待的纳秒数（被拒绝）
+     */
+    public long tryAcquire(String key) {
+        return tryAcquire(key, System.nanoTime());
+    }
+
+    /**
+     * 为 key 取一个令牌（指定当前时间，便于测试）。
+     *
+     * @param key 限流维度
+     * @param now 当前时间（System.nanoTime 口径）
+     * @return 0 表示放行；否则为还需等待的纳秒数
+     */
+    long tryAcquire(String key, long now) {
+        Stripe stripe = stripes[spread(key.hashCode()) & mask];
+        synchronized (stripe) {
+            Bucket bucket = stripe.get(key);
+            if (bucket == null) {
+                bucket = new Bucket(capacity, now);
+                stripe.put(key, bucket);
+            } else {
+                bucket.refill(now, capacity, tokensPerNano);
+            }
+            if (bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+                allowed.increment();
+                return 0;
+            }
+            rejected.increment();
+            return Math.max(1, (long) Math.ceil((1 - bucket.tokens) / tokensPerNano));
+        }
+    }
+
+    /**
+     * 退还 key 之前取走的一个令牌（最多补到 capacity；桶已被淘汰或清理时什么都不做）。
+     *
+     * @param key 限流维度
+     */
+    public void refund(String key) {
+        Stripe stripe = stripes[spread(key.hashCode()) & mask];
+        synchronized (stripe) {
+            Bucket bucket = stripe.get(key);
+            if (bucket != null) {
+                bucket.tokens = Math.min(capacity, bucket.tokens + 1);
+            }
+        }
+    }
+
+    /**
+     * 删除已经补满的桶（补满的桶和不存在等价，删掉不影响限流结果）。
+     *
+     * @return 删除的桶数
+     */
+    public int evictIdle() {
+        return evictIdle(System.nanoTime());
+    }
+
+    /**
+     * 删除已经补满的桶（指定当前时间，便于测试）。
+     *
+     * @param now 当前时间（System.nanoTime 口径）
+     * @return 删除的桶数
+     */
+    int evictIdle(long now) {
+        int removed = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                // 按访问顺序从最久没用的开始，遇到第一个还没补满的就可以停了
+                Iterator<Bucket> it = stripe.values().iterator();
+                while (it.hasNext()) {
+                    if (now - it.next().updatedAt < refillNanos) {
+                        break;
+                    }
+                    it.remove();
+                    removed++;
+                }
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * 获取当前记录的 key 数。
+     *
+     * @return key 数
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * 获取名称。
+     *
+     * @return 名称
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 获取累计放行次数。
+     *
+     * @return 放行次数
+     */
+    public long getAllowedCount() {
+        return allowed.sum();
+    }
+
+    /**
+     * 获取累计拒绝次数。
+     *
+     * @return 拒绝次数
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * 获取因 key 数达到上限而淘汰的桶数。
+     *
+     * @return 淘汰数
+     */
+    public long getEvictedCount() {
+        return evicted.sum();
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * 单个令牌桶（只在所属分段的锁内读写）。
+     */
+    private static final class Bucket {
+        private double tokens;
+        private long updatedAt;
+
+        Bucket(double tokens, long now) {
+            this.tokens = tokens;
+            this.updatedAt = now;
+        }
+
+        void refill(long now, double capacity, double tokensPerNano) {
+            long elapsed = now - updatedAt;
+            if (elapsed > 0) {
+                tokens = Math.min(capacity, tokens + elapsed * tokensPerNano);
+                updatedAt = now;
+            }
+        }
+    }
+
+    /**
+     * 一个分段：按访问顺序排列，超过上限时淘汰最久没访问的桶。
+     */
+    private static final class Stripe extends LinkedHashMap<String, Bucket> {
+        private final int maxKeys;
+        private final LongAdder evicted;
+
+        Stripe(int maxKeys, LongAdder evicted) {
+            super(16, 0.75f, true);
+            this.maxKeys = maxKeys;
+            this.evicted = evicted;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+            if (size() > maxKeys) {
+                evicted.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.yupi.user_center.security;
+
+import jakarta.annotation.Resource;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 令牌登录态：登录时签发 HMAC 令牌，之后每个请求只验签名、查作废名单，不查 Session 也不查库。
+ *
+ * <p>令牌通过响应头 {@code X-Auth-Token} 下发，请求时放在 {@code X-Auth-Token} 或
+ * {@code Authorization: Bearer ...} 里。任何节点只要有同一组密钥就能校验，不再需要粘性会话，节点重启也不会踢人下线。</p>
+ * <p>注意：作废名单只在本进程内，多节点部署时退出/封禁只在处理该请求的节点立即生效，
+ * 其他节点最晚在令牌过期（ttl-ms）后失效，所以令牌有效期不宜设太长。</p>
+ *
+ * @author Ethan
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "user-center.auth.mode", havingValue = "token")
+public class TokenLoginStateStore implements LoginStateStore {
+
+    /**
+     * 令牌请求头 / 响应头。
+     */
+    public static final String TOKEN_HEADER = "X-Auth-Token";
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    @Resource
+    private LoginPrincipalRegistry loginPrincipalRegistry;
+
+    @Resource
+    private TokenRevocationList tokenRevocationList;
+
+    private final LoginTokenCodec codec;
+    private final long ttlMillis;
+    private final SecureRandom random = new SecureRandom();
+
+    /**
+     * 构造令牌登录态存储。
+     *
+     * @param keys 密钥列表，格式 {@code kid:base64密钥,kid2:base64密钥2}（为空时生成随机密钥，仅适合单节点）
+     * @param activeKid 签发新令牌用的 kid（为空时取列表第一个）
+     * @param ttlMillis 令牌有效期（毫秒）
+     * @throws IllegalArgumentException 密钥格式不合法时抛出
+     */
+    public TokenLoginStateStore(@Value("${user-center.auth.token.keys:}") String keys,
+                                @Value("${user-center.auth.token.active-kid:}") String activeKid,
+                                @Value("${user-center.auth.token.ttl-ms:1800000}") long ttlMillis) {
+        Map<String, byte[]> parsed = parseKeys(keys);
+        if (parsed.isEmpty()) {
+            byte[] key = new byte[32];
+            new SecureRandom().nextBytes(key);
+            parsed.put("local", key);
+            log.warn("未配置 user-center.auth.token.keys，已生成随机密钥：重启后旧令牌失效，且多节点之间互不认可");
+        }
+        String kid = activeKid == null || activeKid.isBlank() ? parsed.keySet().iterator().next() : activeKid.trim();
+        this.codec = new LoginTokenCodec(parsed, kid);
+        this.ttlMillis = ttlMillis;
+    }
+
+    @Override
+    public LoginPrincipal login(HttpServletRequest request, HttpServletResponse response, long userId) {
+        loginPrincipalRegistry.invalidate(userId);
+        LoginPrincipal principal = loginPrincipalRegistry.getPrincipal(userId);
+        if (principal == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        String token = codec.encode(new LoginTokenCodec.Claims(principal, now, now + ttlMillis, random.nextLong()));
+        response.setHeader(TOKEN_HEADER, token);
+        return principal;
+    }
+
+    @Override
+    public LoginPrincipal current(HttpServletRequest request) {
+        LoginTokenCodec.Claims claims = claimsOf(request);
+        return claims == null ? null : claims.principal();
+    }
+
+    @Override
+    public void logout(HttpServletRequest request, HttpServletResponse response) {
+        LoginTokenCodec.Claims claims = claimsOf(request);
+        if (claims != null) {
+            tokenRevocationList.revokeToken(claims.jti(), claims.expiresAt());
+        }
+    }
+
+    @Override
+    public void revokeUser(long userId) {
+        tokenRevocationList.revokeUser(userId, System.currentTimeMillis());
+        loginPrincipalRegistry.invalidate(userId);
+    }
+
+    private LoginTokenCodec.Claims claimsOf(HttpServletRequest request) {
+        String token = request.getHeader(TOKEN_HEADER);
+        if (token == null) {
+            String auth = request.getHeader(HttpHeaders.AUTHORIZATION);
+            if (auth != null && auth.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+                token = auth.substring(BEARER_PREFIX.length()).trim();
+            }
+        }
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        LoginTokenCodec.Claims claims = codec.decode(token, System.currentTimeMillis());
+        if (claims == null || tokenRevocationList.isRevoked(claims)) {
+            return null;
+        }
+        return claims;
+    }
+
+    private static Map<String, byte[]> parseKeys(String keys) {
+        Map<String, byte[]> parsed = new LinkedHashMap<>();
+        if (keys == null || keys.isBlank()) {
+            return parsed;
+        }
+        for (String entry : keys.split(",")) {
+            String trimmed = entry.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int colon = trimmed.indexOf(':');
+            if (colon <= 0) {
+                throw new IllegalArgumentException("令牌密钥格式应为 kid:base64密钥");
+            }
+            String kid = trimmed.substring(0, colon).trim();
+            try {
+                parsed.put(kid, Base64.getDecoder().decode(trimmed.substring(colon + 1).trim()));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("令牌密钥不是合法的 base64：" + kid);
+            }
+        }
+        return parsed;
+    }
+}
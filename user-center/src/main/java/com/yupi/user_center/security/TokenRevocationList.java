@@ -0,0 +1,99 @@
+package com.yupi.user_center.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 令牌作废名单（进程内，只记“还没过期但已作废”的那一小部分）。
+ *
+ * <ul>
+ *     <li>退出登录：按 jti 作废单个令牌，记到它本来的过期时间为止；</li>
+ *     <li>封禁 / 改角色 / 删除：记录用户的 notBefore，早于这个时间签发的令牌全部作废，记满一个令牌有效期为止。</li>
+ * </ul>
+ * 两张表都会定时清理过期条目，大小只和“有效期内的作废次数”有关，和在线人数无关。
+ *
+ * @author Ethan
+ */
+@Component
+public class TokenRevocationList {
+
+    private final long tokenTtlMillis;
+
+    /**
+     * jti -> 令牌过期时间。
+     */
+    private final ConcurrentHashMap<Long, Long> revokedTokens = new ConcurrentHashMap<>();
+
+    /**
+     * userId -> notBefore（早于它签发的令牌无效）。
+     */
+    private final ConcurrentHashMap<Long, Long> userNotBefore = new ConcurrentHashMap<>();
+
+    /**
+     * 构造作废名单。
+     *
+     * @param tokenTtlMillis 令牌有效期（毫秒），用于清理 notBefore
+     */
+    public TokenRevocationList(@Value("${user-center.auth.token.ttl-ms:1800000}") long tokenTtlMillis) {
+        this.tokenTtlMillis = tokenTtlMillis;
+    }
+
+    /**
+     * 作废单个令牌。
+     *
+     * @param jti 令牌 id
+     * @param expiresAt 令牌过期时间（毫秒）
+     */
+    public void revokeToken(long jti, long expiresAt) {
+        revokedTokens.put(jti, expiresAt);
+    }
+
+    /**
+     * 作废某个用户在此刻之前签发的全部令牌。
+     *
+     * @param userId 用户 id
+     * @param nowMillis 当前时间（毫秒）
+     */
+    public void revokeUser(long userId, long nowMillis) {
+        userNotBefore.merge(userId, nowMillis, Math::max);
+    }
+
+    /**
+     * 令牌是否已被作废。
+     *
+     * @param claims 令牌内容
+     * @return 是否已作废
+     */
+    public boolean isRevoked(LoginTokenCodec.Claims claims) {
+        if (!revokedTokens.isEmpty() && revokedTokens.containsKey(claims.jti())) {
+            return true;
+        }
+        if (userNotBefore.isEmpty()) {
+            return false;
+        }
+        Long notBefore = userNotBefore.get(claims.principal().userId());
+        return notBefore != null && claims.issuedAt() < notBefore;
+    }
+
+    /**
+     * 当前名单大小（jti 数 + 用户数）。
+     *
+     * @return 条目数
+     */
+    public int size() {
+        return revokedTokens.size() + userNotBefore.size();
+    }
+
+    /**
+     * 定时清理已过期的条目。
+     */
+    @Scheduled(fixedDelay = 60_000L)
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        revokedTokens.values().removeIf(exp -> exp <= now);
+        userNotBefore.values().removeIf(nb -> nb + tokenTtlMillis <= now);
+    }
+}
@@ -0,0 +1,33 @@
+package com.yupi.user_center.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 用户全量导出服务接口（合规审计用的全表导出）。
+ *
+ * @author Ethan
+ */
+public interface UserExportService {
+
+    /**
+     * NDJSON 格式（每行一个 JSON 对象）。
+     */
+    String FORMAT_NDJSON = "ndjson";
+
+    /**
+     * CSV 格式（首行为表头）。
+     */
+    String FORMAT_CSV = "csv";
+
+    /**
+     * 把全部未删除用户流式写到输出流（边查边写，内存占用与用户数无关）。
+     *
+     * @param format 导出格式（ndjson / csv）
+     * @param out 输出流（调用方负责关闭）
+     * @return 导出的行数
+     * @throws IOException 写出失败（如客户端断开）时抛出
+     * @throws IllegalArgumentException 格式不支持时抛出
+     */
+    long exportUsers(String format, OutputStream out) throws IOException;
+}
@@ -0,0 +1,190 @@
+package com.yupi.user_center.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.yupi.user_center.cache.RoleCatalog;
+import com.yupi.user_center.mapper.UserMapper;
+import com.yupi.user_center.model.Role;
+import com.yupi.user_center.model.vo.UserVO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.session.ResultContext;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 用户全量导出服务实现类。
+ *
+ * <p>用 MyBatis ResultHandler + MySQL 流式结果集逐行读取，每读一行就直接写到输出流，
+ * 堆上任何时刻只有一行数据和写出缓冲区；角色名从内存角色缓存补齐，不额外查库。</p>
+ * 小白理解：像水管一样边读边倒出去，而不是先把一整桶水装满再倒。
+ *
+ * @author Ethan
+ */
+@Service
+@Slf4j
+public class UserExportServiceImpl implements UserExportService {
+
+    private static final String[] CSV_HEADER = {
+            "id", "name", "userAccount", "email", "phone", "gender", "avatarUrl",
+            "userStatus", "userRole", "roleId", "roleKey", "roleName", "createTime"
+    };
+
+    @Resource
+    private UserMapper userMapper;
+
+    @Resource
+    private RoleCatalog roleCatalog;
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    /**
+     * UserVO 的 ObjectWriter（线程安全，启动时建好，每次导出复用）。
+     * 关掉每写一个值就 flush：否则每行都把生成器缓冲推到 Servlet 输出流，十万行就是十万次小块写出。
+     */
+    private ObjectWriter rowWriter;
+
+    @PostConstruct
+    public void init() {
+        rowWriter = objectMapper.writerFor(UserVO.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * 把全部未删除用户流式写到输出流。
+     *
+     * @param format 导出格式（ndjson / csv）
+     * @param out 输出流（调用方负责关闭）
+     * @return 导出的行数
+     * @throws IOException 写出失败（如客户端断开）时抛出
+     * @throws IllegalArgumentException 格式不支持时抛出
+     */
+    @Override
+    public long exportUsers(String format, OutputStream out) throws IOException {
+        if (FORMAT_NDJSON.equalsIgnoreCase(format)) {
+            return exportNdjson(out);
+        }
+        if (FORMAT_CSV.equalsIgnoreCase(format)) {
+            return exportCsv(out);
+        }
+        throw new IllegalArgumentException("不支持的导出格式：" + format);
+    }
+
+    private long exportNdjson(OutputStream out) throws IOException {
+        try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out)) {
+            gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            gen.setRootValueSeparator(null);
+            RowSink sink = vo -> {
+                rowWriter.writeValue(gen, vo);
+                gen.writeRaw('\n');
+            };
+            long rows = stream(sink);
+            gen.flush();
+            return rows;
+        }
+    }
+
+    private long exportCsv(OutputStream out) throws IOException {
+        Writer w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 16 * 1024);
+        writeCsvLine(w, (Object[]) CSV_HEADER);
+        RowSink sink = vo -> writeCsvLine(w,
+                vo.getId(), vo.getName(), vo.getUserAccount(), vo.getEmail(), vo.getPhone(), vo.getGender(),
+                vo.getAvatarUrl(), vo.getUserStatus(), vo.getUserRole(), vo.getRoleId(), vo.getRoleKey(),
+                vo.getRoleName(), vo.getCreateTime());
+        long rows = stream(sink);
+        w.flush();
+        return rows;
+    }
+
+    /**
+     * 逐行读取并交给 sink 写出；写出失败时停止读取并把 IOException 抛给调用方。
+     */
+    private long stream(RowSink sink) throws IOException {
+        RoleCatalog.Snapshot snapshot = roleCatalog.current();
+        IOException[] failure = new IOException[1];
+        long[] count = new long[1];
+        userMapper.streamExportRows((ResultContext<? extends UserVO> ctx) -> {
+            UserVO vo = ctx.getResultObject();
+            Role role = vo.getRoleId() == null ? null : snapshot.getById(vo.getRoleId());
+            if (role == null) {
+                // 角色已禁用/删除时和列表接口保持一致：视为未分配
+                vo.setRoleId(null);
+            } else {
+                vo.setRoleKey(role.getRoleKey());
+                vo.setRoleName(role.getRoleName());
+            }
+            try {
+                sink.write(vo);
+                count[0]++;
+            } catch (IOException e) {
+                failure[0] = e;
+                ctx.stop();
+            }
+        });
+        if (failure[0] != null) {
+            log.info("用户导出中断（已写出 {} 行）: {}", count[0], failure[0].getMessage());
+            throw failure[0];
+        }
+        return count[0];
+    }
+
+    /**
+     * 写一行 CSV：含逗号、引号、换行的字段加引号（RFC 4180）；
+     * 以 = + - @ 或制表符、回车开头的文本字段前面加一个单引号，防止在 Excel 里被当成公式执行（CSV 注入）。
+     */
+    static void writeCsvLine(Writer w, Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                w.write(',');
+            }
+            Object v = values[i];
+            if (v == null) {
+                continue;
+            }
+            String s = v.toString();
+            if (v instanceof CharSequence && isFormulaLike(s)) {
+                s = "'" + s;
+            }
+            boolean quote = s.indexOf(',') >= 0 || s.indexOf('"') >= 0 || s.indexOf('\n') >= 0 || s.indexOf('\r') >= 0;
+            if (!quote) {
+                w.write(s);
+                continue;
+            }
+            w.write('"');
+            for (int j = 0; j < s.length(); j++) {
+                char c = s.charAt(j);
+                if (c == '"') {
+                    w.write('"');
+                }
+                w.write(c);
+            }
+            w.write('"');
+        }
+        w.write('\n');
+    }
+
+    private static boolean isFormulaLike(String s) {
+        if (s.isEmpty()) {
+            return false;
+        }
+        char c = s.charAt(0);
+        return c == '=' || c == '+' || c == '-' || c == '@' || c == '\t' || c == '\r';
+    }
+
+    /**
+     * 单行写出回调。
+     */
+    @FunctionalInterface
+    private interface RowSink {
+        void write(UserVO vo) throws IOException;
+    }
+}
@@ -0,0 +1,35 @@
+package com.yupi.user_center.service;
+
+import com.yupi.user_center.model.vo.UserImportResultVO;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 用户批量导入服务接口（合作方系统迁移司机、门岗等账号）。
+ *
+ * @author Ethan
+ */
+public interface UserImportService {
+
+    /**
+     * NDJSON 格式（每行一个 JSON 对象）。
+     */
+    String FORMAT_NDJSON = "ndjson";
+
+    /**
+     * CSV 格式（首行为表头，列名与字段名一致）。
+     */
+    String FORMAT_CSV = "csv";
+
+    /**
+     * 从输入流逐行读取并导入用户（边读边分批入库，单行失败不影响其他行）。
+     *
+     * @param format 导入格式（ndjson / csv）
+     * @param in 输入流（调用方负责关闭）
+     * @return 逐行的导入结果
+     * @throws IOException 读取失败时抛出
+     * @throws IllegalArgumentException 格式不支持、CSV 缺少表头时抛出
+     */
+    UserImportResultVO importUsers(String format, InputStream in) throws IOException;
+}
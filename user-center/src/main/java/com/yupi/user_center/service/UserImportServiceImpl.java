@@ -0,0 +1,495 @@
+package com.yupi.user_center.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.yupi.user_center.cache.AccountBloomFilter;
+import com.yupi.user_center.cache.RoleCatalog;
+import com.yupi.user_center.cache.UserSearchIndex;
+import com.yupi.user_center.mapper.UserMapper;
+import com.yupi.user_center.mapper.UserRoleMapper;
+import com.yupi.user_center.model.Role;
+import com.yupi.user_center.model.User;
+import com.yupi.user_center.model.UserRole;
+import com.yupi.user_center.model.request.UserImportRow;
+import com.yupi.user_center.model.vo.UserImportResultVO;
+import com.yupi.user_center.security.PasswordHasher;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 用户批量导入服务实现类。
+ *
+ * <p>边读边处理，每 chunkSize 行为一批：
+ * <ol>
+ *     <li>逐行解析、校验（规则同注册接口），文件内重复账号直接判失败；</li>
+ *     <li>布隆过滤器说“可能存在”的账号用一条 IN 查询查重（含逻辑删除的账号）；</li>
+ *     <li>在专用 ForkJoinPool 上并行算密码哈希（不占登录用的哈希线程池）；</li>
+ *     <li>一个事务里 JDBC 批量插入用户（MySQL 连接串开 rewriteBatchedStatements 后驱动改写成多值 INSERT），
+ *     再多行 upsert user_role；</li>
+ *     <li>并发导入撞了唯一索引，或者某一行写库出错（如字段超长）时，这一批回滚后逐行重插，
+ *     出错的行记下原因，其余行照常导入。</li>
+ * </ol>
+ * 原来走 /user/register 每个账号要一次 COUNT、一次哈希、一条单行 INSERT 和一次 HTTP 往返。</p>
+ * 小白理解：把几万个账号分成几百人一组，一组人的密码同时算、一次性录进系统。
+ *
+ * @author Ethan
+ */
+@Service
+@Slf4j
+public class UserImportServiceImpl implements UserImportService {
+
+    @Resource
+    private UserService userService;
+
+    @Resource
+    private UserMapper userMapper;
+
+    @Resource
+    private UserRoleMapper userRoleMapper;
+
+    @Resource
+    private PasswordHasher passwordHasher;
+
+    @Resource
+    private RoleCatalog roleCatalog;
+
+    @Resource
+    private AccountBloomFilter accountBloomFilter;
+
+    @Resource
+    private UserSearchIndex userSearchIndex;
+
+    @Resource
+    private TransactionTemplate transactionTemplate;
+
+    @Resource
+    private Validator validator;
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    private final int chunkSize;
+    private final int maxRows;
+    private final ForkJoinPool hashPool;
+
+    /**
+     * 构造导入服务。
+     *
+     * @param chunkSize 每批行数（一次查重、一次批量插入）
+     * @param maxRows 单次导入最多行数
+     * @param hashParallelism 并行哈希线程数（小于等于 0 时取 CPU 核数）
+     */
+    public UserImportServiceImpl(@Value("${user-center.user-import.chunk-size:500}") int chunkSize,
+                                 @Value("${user-center.user-import.max-rows:100000}") int maxRows,
+                                 @Value("${user-center.user-import.hash-parallelism:0}") int hashParallelism) {
+        this.chunkSize = Math.max(1, chunkSize);
+        this.maxRows = Math.max(1, maxRows);
+        int parallelism = hashParallelism > 0 ? hashParallelism : Runtime.getRuntime().availableProcessors();
+        this.hashPool = new ForkJoinPool(parallelism, pool -> {
+            var t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            t.setName("user-import-hash-" + t.getPoolIndex());
+            t.setDaemon(true);
+            return t;
+        }, null, false);
+    }
+
+    /**
+     * 从输入流逐行读取并导入用户。
+     *
+     * @param format 导入格式（ndjson / csv）
+     * @param in 输入流（调用方负责关闭）
+     * @return 逐行的导入结果
+     * @throws IOException 读取失败时抛出
+     * @throws IllegalArgumentException 格式不支持、CSV 缺少表头时抛出
+     */
+    @Override
+    public UserImportResultVO importUsers(String format, InputStream in) throws IOException {
+        boolean csv;
+        if (FORMAT_NDJSON.equalsIgnoreCase(format)) {
+            csv = false;
+        } else if (FORMAT_CSV.equalsIgnoreCase(format)) {
+            csv = true;
+        } else {
+            throw new IllegalArgumentException("不支持的导入格式：" + format);
+        }
+        long start = System.nanoTime();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+        ImportContext ctx = new ImportContext();
+        if (csv) {
+            readCsv(reader, ctx);
+        } else {
+            readNdjson(reader, ctx);
+        }
+        flush(ctx);
+
+        UserImportResultVO result = ctx.result;
+        result.setTotal(result.getResults().size());
+        result.setFailed(result.getTotal() - result.getSucceeded());
+        result.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        log.info("用户批量导入完成：format={}, total={}, succeeded={}, elapsed={} ms",
+                format, result.getTotal(), result.getSucceeded(), result.getElapsedMillis());
+        return result;
+    }
+
+    /**
+     * 应用关闭时停止哈希线程池。
+     */
+    @PreDestroy
+    public void shutdown() {
+        hashPool.shutdownNow();
+    }
+
+    private void readNdjson(BufferedReader reader, ImportContext ctx) throws IOException {
+        ObjectReader rowReader = objectMapper.readerFor(UserImportRow.class);
+        String line;
+        long lineNo = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNo++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (!ctx.hasRoom()) {
+                ctx.result.setTruncated(true);
+                return;
+            }
+            UserImportRow row;
+            try {
+                row = rowReader.readValue(line);
+            } catch (IOException e) {
+                ctx.fail(lineNo, null, "JSON 格式不正确");
+                continue;
+            }
+            accept(ctx, lineNo, row);
+        }
+    }
+
+    private void readCsv(BufferedReader reader, ImportContext ctx) throws IOException {
+        long[] lineNo = {0};
+        List<String> header = readCsvRecord(reader, lineNo);
+        if (header == null || !header.contains("userAccount")) {
+            throw new IllegalArgumentException("CSV 首行必须是表头（至少包含 userAccount、userPassword）");
+        }
+        List<String> fields;
+        while (true) {
+            long recordLine = lineNo[0] + 1;
+            fields = readCsvRecord(reader, lineNo);
+            if (fields == null) {
+                return;
+            }
+            if (fields.size() == 1 && fields.get(0).isEmpty()) {
+                continue;
+            }
+            if (!ctx.hasRoom()) {
+                ctx.result.setTruncated(true);
+                return;
+            }
+            Map<String, String> values = new HashMap<>(header.size() * 2);
+            for (int i = 0; i < header.size() && i < fields.size(); i++) {
+                if (!fields.get(i).isEmpty()) {
+                    values.put(header.get(i), fields.get(i));
+                }
+            }
+            UserImportRow row;
+            try {
+                row = objectMapper.convertValue(values, UserImportRow.class);
+            } catch (IllegalArgumentException e) {
+                ctx.fail(recordLine, values.get("userAccount"), "字段格式不正确");
+                continue;
+            }
+            accept(ctx, recordLine, row);
+        }
+    }
+
+    /**
+     * 校验一行并放进当前批次，批次满了就入库。
+     */
+    private void accept(ImportContext ctx, long lineNo, UserImportRow row) {
+        String account = row.getUserAccount() == null ? null : row.getUserAccount().trim();
+        row.setUserAccount(account);
+        Set<ConstraintViolation<UserImportRow>> violations = validator.validate(row);
+        if (!violations.isEmpty()) {
+            ctx.fail(lineNo, account, violations.iterator().next().getMessage());
+            return;
+        }
+        if (!ctx.seenAccounts.add(account)) {
+            ctx.fail(lineNo, account, "账号在导入文件中重复");
+            return;
+        }
+        Long roleId = null;
+        if ((row.getRoleKey() != null && !row.getRoleKey().isBlank()) || row.getRoleId() != null) {
+            Role role = resolveRole(ctx, row);
+            if (role == null) {
+                ctx.fail(lineNo, account, "角色不存在或已禁用");
+                return;
+            }
+            roleId = role.getId();
+        }
+        UserImportResultVO.Item item = ctx.item(lineNo, account);
+        item.setRoleId(roleId);
+        ctx.pending.add(new PendingRow(item, row));
+        if (ctx.pending.size() >= chunkSize) {
+            flush(ctx);
+        }
+    }
+
+    private Role resolveRole(ImportContext ctx, UserImportRow row) {
+        Role role = lookupRole(row);
+        if (role == null && !ctx.catalogRefreshed) {
+            // 可能是其他实例刚建的角色，整次导入只回源刷新一次
+            roleCatalog.refresh();
+            ctx.catalogRefreshed = true;
+            role = lookupRole(row);
+        }
+        return role;
+    }
+
+    private Role lookupRole(UserImportRow row) {
+        if (row.getRoleKey() != null && !row.getRoleKey().isBlank()) {
+            return roleCatalog.getByKey(row.getRoleKey().trim());
+        }
+        return roleCatalog.getById(row.getRoleId());
+    }
+
+    /**
+     * 当前批次入库：IN 查重 -> 并行哈希 -> 批量插入。
+     */
+    private void flush(ImportContext ctx) {
+        if (ctx.pending.isEmpty()) {
+            return;
+        }
+        List<PendingRow> batch = excludeExistingAccounts(ctx.pending);
+        ctx.pending = new ArrayList<>(chunkSize);
+        if (batch.isEmpty()) {
+            return;
+        }
+        hashPool.submit(() -> batch.parallelStream()
+                .forEach(p -> p.user = toUser(p.row, passwordHasher.hash(p.row.getUserPassword())))).join();
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> insertBatch(batch));
+        } catch (DuplicateKeyException e) {
+            // 查重之后又被别人注册了：整批已回滚，逐行重插找出是哪几行
+            log.info("批量导入有账号被并发注册，本批 {} 行改为逐行插入", batch.size());
+            insertOneByOne(batch);
+        } catch (DataAccessException e) {
+            log.warn("批量导入写库失败，本批 {} 行改为逐行插入: {}", batch.size(), e.getMessage());
+            insertOneByOne(batch);
+        }
+        for (PendingRow p : batch) {
+            if (!p.item.isSuccess()) {
+                continue;
+            }
+            ctx.result.setSucceeded(ctx.result.getSucceeded() + 1);
+            accountBloomFilter.put(p.user.getUserAccount());
+            userSearchIndex.upsert(p.user.getId(), p.user.getName(), p.user.getUserAccount());
+        }
+    }
+
+    private List<PendingRow> excludeExistingAccounts(List<PendingRow> pending) {
+        List<String> maybeExisting = new ArrayList<>();
+        for (PendingRow p : pending) {
+            // 布隆过滤器说“一定不存在”的账号不用查
+            if (accountBloomFilter.mightContain(p.row.getUserAccount())) {
+                maybeExisting.add(p.row.getUserAccount());
+            }
+        }
+        Set<String> existing = maybeExisting.isEmpty()
+                ? Set.of()
+                : new HashSet<>(userMapper.selectExistingAccounts(maybeExisting));
+        List<PendingRow> fresh = new ArrayList<>(pending.size());
+        for (PendingRow p : pending) {
+            if (existing.contains(p.row.getUserAccount())) {
+                p.item.setMessage("账号已存在");
+            } else {
+                fresh.add(p);
+            }
+        }
+        return fresh;
+    }
+
+    private void insertBatch(List<PendingRow> batch) {
+        List<User> users = new ArrayList<>(batch.size());
+        for (PendingRow p : batch) {
+            users.add(p.user);
+        }
+        userService.saveBatch(users, batch.size());
+        List<UserRole> roles = new ArrayList<>();
+        for (PendingRow p : batch) {
+            if (p.item.getRoleId() != null) {
+                roles.add(toUserRole(p.user.getId(), p.item.getRoleId()));
+            }
+        }
+        if (!roles.isEmpty()) {
+            userRoleMapper.upsertBatch(roles);
+        }
+        for (PendingRow p : batch) {
+            p.item.setUserId(p.user.getId());
+            p.item.setSuccess(true);
+        }
+    }
+
+    private void insertOneByOne(List<PendingRow> batch) {
+        for (PendingRow p : batch) {
+            p.user.setId(null);
+            p.item.setUserId(null);
+            p.item.setSuccess(false);
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    userMapper.insert(p.user);
+                    if (p.item.getRoleId() != null) {
+                        userRoleMapper.upsertBatch(List.of(toUserRole(p.user.getId(), p.item.getRoleId())));
+                    }
+                });
+                p.item.setUserId(p.user.getId());
+                p.item.setSuccess(true);
+            } catch (DuplicateKeyException e) {
+                accountBloomFilter.put(p.user.getUserAccount());
+                p.item.setMessage("账号已存在");
+            } catch (RuntimeException e) {
+                // 只记在这一行上，后面的行继续导入
+                log.warn("导入第 {} 行（{}）写库失败: {}", p.item.getLine(), p.user.getUserAccount(), e.getMessage());
+                p.user.setId(null);
+                p.item.setMessage("写入数据库失败");
+            }
+        }
+    }
+
+    private static User toUser(UserImportRow row, String encryptPassword) {
+        User user = new User();
+        user.setUserAccount(row.getUserAccount());
+        user.setUserPassword(encryptPassword);
+        user.setName(row.getName() == null ? row.getUserAccount() : row.getName());
+        user.setEmail(row.getEmail());
+        user.setPhone(row.getPhone());
+        user.setGender(row.getGender());
+        return user;
+    }
+
+    private static UserRole toUserRole(Long userId, Long roleId) {
+        UserRole ur = new UserRole();
+        ur.setUserId(userId);
+        ur.setRoleId(roleId);
+        return ur;
+    }
+
+    /**
+     * 读一条 CSV 记录（支持双引号包裹、"" 转义和引号内换行），读到末尾返回 null。
+     *
+     * @param reader 输入
+     * @param lineNo 已读行数（会随读取递增）
+     * @return 字段列表
+     */
+    static List<String> readCsvRecord(BufferedReader reader, long[] lineNo) throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            return null;
+        }
+        lineNo[0]++;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int i = 0;
+        while (true) {
+            if (i >= line.length()) {
+                if (!quoted) {
+                    break;
+                }
+                // 引号里的换行：接着读下一行
+                String next = reader.readLine();
+                if (next == null) {
+                    break;
+                }
+                lineNo[0]++;
+                field.append('\n');
+                line = next;
+                i = 0;
+                continue;
+            }
+            char c = line.charAt(i++);
+            if (quoted) {
+                if (c == '"') {
+                    if (i < line.length() && line.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+
+    /**
+     * 一次导入的状态（结果、文件内已出现的账号、当前批次）。
+     */
+    private final class ImportContext {
+        private final UserImportResultVO result = new UserImportResultVO();
+        private final Set<String> seenAccounts = new HashSet<>();
+        private List<PendingRow> pending = new ArrayList<>(chunkSize);
+        private boolean catalogRefreshed;
+
+        boolean hasRoom() {
+            return result.getResults().size() < maxRows;
+        }
+
+        UserImportResultVO.Item item(long lineNo, String account) {
+            UserImportResultVO.Item item = new UserImportResultVO.Item();
+            item.setLine(lineNo);
+            item.setUserAccount(account);
+            result.getResults().add(item);
+            return item;
+        }
+
+        void fail(long lineNo, String account, String message) {
+            item(lineNo, account).setMessage(message);
+        }
+    }
+
+    /**
+     * 待入库的一行。
+     */
+    private static final class PendingRow {
+        private final UserImportResultVO.Item item;
+        private final UserImportRow row;
+        private User user;
+
+        PendingRow(UserImportResultVO.Item item, UserImportRow row) {
+            this.item = item;
+            this.row = row;
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.yupi.user_center.service;
 
 import com.baomidou.mybatisplus.extension.service.IService;
 import com.yupi.user_center.model.UserRole;
+import com.yupi.user_center.model.request.UserBulkAssignRolesRequest;
+import com.yupi.user_center.model.vo.BulkAssignResultVO;
 
 import java.util.List;
 
@@ -22,6 +24,18 @@ public interface UserRoleService extends IService<UserRole> {
      */
     boolean assignRoles(Long userId, List<Long> roleIds);
 
+    /**
+     * 批量给用户分配角色（每个用户一个角色，已有角色的直接改成新角色）。
+     *
+     * <p>角色按内存角色缓存校验，用户按块 IN 查询校验，通过校验的按块多行 upsert；
+     * 校验失败的条目不影响其他用户，在结果里逐个说明原因。</p>
+     *
+     * @param assignments 分配列表（userId -> roleId）
+     * @return 逐个用户的分配结果
+     * @throws IllegalArgumentException assignments 为空时抛出
+     */
+    BulkAssignResultVO assignRolesBulk(List<UserBulkAssignRolesRequest.Assignment> assignments);
+
     /**
      * 查询用户拥有的角色 id 列表。
      *
@@ -2,13 +2,27 @@ package com.yupi.user_center.service;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.yupi.user_center.cache.RoleCatalog;
+import com.yupi.user_center.common.AfterCommit;
+import com.yupi.user_center.mapper.UserMapper;
 import com.yupi.user_center.mapper.UserRoleMapper;
+import com.yupi.user_center.model.User;
 import com.yupi.user_center.model.UserRole;
+import com.yupi.user_center.model.request.UserBulkAssignRolesRequest;
+import com.yupi.user_center.model.vo.BulkAssignResultVO;
+import com.yupi.user_center.security.LoginStateStore;
+import jakarta.annotation.Resource;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -19,6 +33,21 @@ import java.util.stream.Collectors;
 @Service
 public class UserRoleServiceImpl extends ServiceImpl<UserRoleMapper, UserRole> implements UserRoleService {
 
+    @Resource
+    private LoginStateStore loginStateStore;
+
+    @Resource
+    private RoleCatalog roleCatalog;
+
+    @Resource
+    private UserMapper userMapper;
+
+    /**
+     * 批量分配时每条 SQL 处理的用户数。
+     */
+    @Value("${user-center.bulk-assign.chunk-size:500}")
+    private int bulkChunkSize;
+
     /**
      * 给用户重新分配角色（先删后插，保证最终结果和勾选一致）。
      *
@@ -33,26 +62,24 @@ public class UserRoleServiceImpl extends ServiceImpl<UserRoleMapper, UserRole> i
         if (userId == null || userId <= 0) {
             throw new IllegalArgumentException("userId 不能为空");
         }
+        List<Long> uniqueRoleIds = roleIds == null ? List.of() : roleIds.stream()
+                .filter(Objects::nonNull)
+                .filter(id -> id > 0)
+                .distinct()
+                .collect(Collectors.toList());
+        if (uniqueRoleIds.size() > 1) {
+            throw new IllegalArgumentException("一个用户只能分配一个角色");
+        }
+        // 校验都通过了才登记；事务回滚（被拒绝的分配）不会把用户踢下线
+        AfterCommit.run(() -> loginStateStore.revokeUser(userId));
 
         QueryWrapper<UserRole> removeQw = new QueryWrapper<>();
         removeQw.eq("user_id", userId);
         this.remove(removeQw);
 
-        if (roleIds == null || roleIds.isEmpty()) {
-            return true;
-        }
-
-        List<Long> uniqueRoleIds = roleIds.stream()
-                .filter(Objects::nonNull)
-                .filter(id -> id > 0)
-                .distinct()
-                .collect(Collectors.toList());
         if (uniqueRoleIds.isEmpty()) {
             return true;
         }
-        if (uniqueRoleIds.size() > 1) {
-            throw new IllegalArgumentException("一个用户只能分配一个角色");
-        }
 
         Long roleId = uniqueRoleIds.get(0);
         UserRole ur = new UserRole();
@@ -61,6 +88,99 @@ public class UserRoleServiceImpl extends ServiceImpl<UserRoleMapper, UserRole> i
         return this.save(ur);
     }
 
+    /**
+     * 批量给用户分配角色（每个用户一个角色，已有角色的直接改成新角色）。
+     *
+     * <p>每 chunkSize 个用户只需两条 SQL：一次 IN 查用户是否存在，一次多行 upsert；
+     * 原来的做法是每个用户 getById + 角色 count + DELETE + INSERT。</p>
+     * 小白理解：同一个用户在请求里出现多次时只认第一次，后面的标记为失败。
+     *
+     * @param assignments 分配列表（userId -> roleId）
+     * @return 逐个用户的分配结果
+     * @throws IllegalArgumentException assignments 为空时抛出
+     */
+    @Override
+    @Transactional
+    public BulkAssignResultVO assignRolesBulk(List<UserBulkAssignRolesRequest.Assignment> assignments) {
+        if (assignments == null || assignments.isEmpty()) {
+            throw new IllegalArgumentException("assignments 不能为空");
+        }
+        BulkAssignResultVO result = new BulkAssignResultVO();
+        result.setTotal(assignments.size());
+        // userId -> 结果条目（保持请求顺序，重复的 userId 单独记失败）
+        Map<Long, BulkAssignResultVO.Item> pending = new LinkedHashMap<>(assignments.size() * 2);
+        boolean catalogRefreshed = false;
+        for (UserBulkAssignRolesRequest.Assignment a : assignments) {
+            BulkAssignResultVO.Item item = new BulkAssignResultVO.Item();
+            item.setUserId(a == null ? null : a.getUserId());
+            item.setRoleId(a == null ? null : a.getRoleId());
+            result.getResults().add(item);
+            if (item.getUserId() == null || item.getUserId() <= 0 || item.getRoleId() == null || item.getRoleId() <= 0) {
+                item.setMessage("userId / roleId 不合法");
+                continue;
+            }
+            if (pending.containsKey(item.getUserId())) {
+                item.setMessage("同一用户在请求中重复出现");
+                continue;
+            }
+            if (roleCatalog.getById(item.getRoleId()) == null && !catalogRefreshed) {
+                // 可能是其他实例刚建的角色，整批只回源刷新一次
+                roleCatalog.refresh();
+                catalogRefreshed = true;
+            }
+            if (roleCatalog.getById(item.getRoleId()) == null) {
+                item.setMessage("角色不存在或已禁用");
+                continue;
+            }
+            pending.put(item.getUserId(), item);
+        }
+
+        List<Long> userIds = new ArrayList<>(pending.keySet());
+        List<Long> applied = new ArrayList<>(userIds.size());
+        for (int from = 0; from < userIds.size(); from += bulkChunkSize) {
+            List<Long> chunk = userIds.subList(from, Math.min(from + bulkChunkSize, userIds.size()));
+            Set<Long> existing = listExistingUserIds(chunk);
+            List<UserRole> rows = new ArrayList<>(chunk.size());
+            for (Long userId : chunk) {
+                BulkAssignResultVO.Item item = pending.get(userId);
+                if (!existing.contains(userId)) {
+                    item.setMessage("用户不存在");
+                    continue;
+                }
+                UserRole ur = new UserRole();
+                ur.setUserId(userId);
+                ur.setRoleId(item.getRoleId());
+                rows.add(ur);
+            }
+            if (rows.isEmpty()) {
+                continue;
+            }
+            this.baseMapper.upsertBatch(rows);
+            for (UserRole ur : rows) {
+                pending.get(ur.getUserId()).setSuccess(true);
+                applied.add(ur.getUserId());
+            }
+        }
+        AfterCommit.run(() -> applied.forEach(loginStateStore::revokeUser));
+
+        result.setSucceeded(applied.size());
+        result.setFailed(result.getTotal() - applied.size());
+        return result;
+    }
+
+    private Set<Long> listExistingUserIds(List<Long> userIds) {
+        QueryWrapper<User> qw = new QueryWrapper<>();
+        qw.select("id");
+        qw.in("id", userIds);
+        Set<Long> ids = new HashSet<>(userIds.size() * 2);
+        for (Object id : userMapper.selectObjs(qw)) {
+            if (id != null) {
+                ids.add(((Number) id).longValue());
+            }
+        }
+        return ids;
+    }
+
     /**
      * 查询用户拥有的角色 id 列表。
      *
@@ -2,8 +2,13 @@ package com.yupi.user_center.service;
 
 
 import com.baomidou.mybatisplus.extension.service.IService;
+import com.yupi.user_center.common.KeysetCursor;
 import com.yupi.user_center.model.User;
+import com.yupi.user_center.model.vo.UserVO;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.util.List;
 
 /**
  * 用户服务接口（用户注册、登录与脱敏）。
@@ -28,9 +33,10 @@ public interface UserService extends IService<User> {
      * @param userAccount  用户账户
      * @param userPassword 用户密码
      * @param request      HttpServletRequest对象，用于记录登录状态
+     * @param response     HttpServletResponse对象，令牌模式下用于下发令牌
      * @return 脱敏后的用户信息
      */
-    User userLogin(String userAccount, String userPassword, HttpServletRequest request);
+    User userLogin(String userAccount, String userPassword, HttpServletRequest request, HttpServletResponse response);
 
 
     /**
@@ -40,4 +46,27 @@ public interface UserService extends IService<User> {
      * @return 脱敏后的用户对象
      */
     User getSafetyUser(User originUser);
+
+    /**
+     * 按版本号条件更新用户（一条 UPDATE，同时 version + 1）。
+     *
+     * <p>影响行数为 0 表示用户不存在、已删除，或版本号已被别人改过（乐观锁冲突）。
+     * 账号唯一性交给唯一索引，撞号时抛 DuplicateKeyException。</p>
+     *
+     * @param user 待更新字段（id 必填，为 null 的字段不更新）
+     * @param expectedVersion 期望的当前版本号（null 表示不校验版本，只递增）
+     * @param authUnchanged 为 true 时额外要求 userStatus / userRole 的当前值已经等于新值（用来一条语句判断登录态是否需要作废）
+     * @return 是否更新成功
+     */
+    boolean updateByVersion(User user, Integer expectedVersion, boolean authUnchanged);
+
+    /**
+     * 游标分页查询管理端用户视图（按创建时间倒序，含角色信息，不含密码）。
+     *
+     * @param username 关键词（可为空，匹配用户名或账号）
+     * @param cursor 上一页游标（第一页传 null）
+     * @param limit 本次最多返回条数
+     * @return 用户视图列表
+     */
+    List<UserVO> listUserVOsAfter(String username, KeysetCursor cursor, int limit);
 }
@@ -1,17 +1,28 @@
 package com.yupi.user_center.service;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.yupi.user_center.cache.AccountBloomFilter;
+import com.yupi.user_center.cache.UserSearchIndex;
+import com.yupi.user_center.common.KeysetCursor;
 import com.yupi.user_center.constant.ErrorCode;
-import com.yupi.user_center.constant.UserConstant;
 import com.yupi.user_center.exception.BusinessException;
 import com.yupi.user_center.mapper.UserMapper;
 import com.yupi.user_center.model.User;
+import com.yupi.user_center.model.vo.UserVO;
+import com.yupi.user_center.security.LoginStateStore;
+import com.yupi.user_center.security.PasswordHashExecutor;
+import jakarta.annotation.Resource;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 
-import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 
 
 
@@ -23,12 +34,23 @@ import java.nio.charset.StandardCharsets;
 @Service
 @Slf4j
 public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements UserService {
+    @Resource
+    private UserSearchIndex userSearchIndex;
+
+    @Resource
+    private PasswordHashExecutor passwordHashExecutor;
+
+    @Resource
+    private AccountBloomFilter accountBloomFilter;
+
+    @Resource
+    private LoginStateStore loginStateStore;
+
     /**
-     * 加密用盐常量
-     * 作用：用于密码加密的固定附加字符串，保证同样的密码生成一致指纹
-     * 小白理解：每次给密码“加点固定调料”，提升安全性
+     * 子串搜索命中的候选超过这个数就不走内存索引（宽泛关键词直接走数据库的 LIMIT 扫描更快）。
      */
-    private static final String SALT = "yupi";
+    @Value("${user-center.search-index.max-candidates:2000}")
+    private int maxIndexCandidates;
     
     /**
      * 用户注册。
@@ -37,7 +59,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
      * @param userPassword 用户密码
      * @param checkPassword 校验密码
      * @return 新用户 id
-     * @throws BusinessException 参数错误 / 账号已存在 / 系统错误时抛出
+     * @throws BusinessException 参数错误 / 账号已存在 / 系统繁忙 / 系统错误时抛出
      */
     @Override
     public long userRegister(String userAccount, String userPassword, String checkPassword) {
@@ -51,24 +73,34 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         if (!userPassword.equals(checkPassword)) {
             throw new BusinessException(ErrorCode.PARAMS_ERROR, "两次密码不一致");
         }
-        //账户不能重复
-        QueryWrapper<User> queryWrapper = new QueryWrapper<>();
-        queryWrapper.eq("userAccount", userAccount);
-        long count = this.count(queryWrapper);
-        if (count > 0) {
-            throw new BusinessException(ErrorCode.PARAMS_ERROR, "账号已存在");
+        //账户不能重复：布隆过滤器说“一定不存在”时跳过 COUNT，并发撞号由唯一索引兜底
+        if (accountBloomFilter.mightContain(userAccount)) {
+            QueryWrapper<User> queryWrapper = new QueryWrapper<>();
+            queryWrapper.eq("userAccount", userAccount);
+            long count = this.count(queryWrapper);
+            if (count > 0) {
+                throw new BusinessException(ErrorCode.PARAMS_ERROR, "账号已存在");
+            }
         }
-        //2. 密码加密
-        String encryptPassword = org.springframework.util.DigestUtils.md5DigestAsHex((userPassword + SALT).getBytes(StandardCharsets.UTF_8));
+        //2. 密码加密（在专用线程池里算，繁忙时抛 429）
+        String encryptPassword = passwordHashExecutor.hash(userPassword);
        //3. 插入数据
        User user = new User();
        user.setName(userAccount);
        user.setUserAccount(userAccount);
        user.setUserPassword(encryptPassword);
-       boolean save = this.save(user);
+       boolean save;
+       try {
+           save = this.save(user);
+       } catch (DuplicateKeyException e) {
+           accountBloomFilter.put(userAccount);
+           throw new BusinessException(ErrorCode.PARAMS_ERROR, "账号已存在");
+       }
        if (!save) {
            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "注册失败，请稍后再试");
        }
+        accountBloomFilter.put(userAccount);
+        userSearchIndex.upsert(user.getId(), user.getName(), user.getUserAccount());
         return user.getId();
     }
 
@@ -78,33 +110,55 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
      * @param userAccount 用户账户
      * @param userPassword 用户密码
      * @param request Http 请求对象（用于写入 Session 登录态）
+     * @param response Http 响应对象（令牌模式下用于下发令牌）
      * @return 脱敏后的用户信息
-     * @throws BusinessException 参数错误 / 账号或密码错误时抛出
+     * @throws BusinessException 参数错误 / 账号或密码错误 / 系统繁忙（429）时抛出
      */
     @Override
-    public User userLogin(String userAccount, String userPassword, HttpServletRequest request) {
+    public User userLogin(String userAccount, String userPassword, HttpServletRequest request,
+                          HttpServletResponse response) {
         if (userAccount == null || userPassword == null) {
             throw new BusinessException(ErrorCode.PARAMS_ERROR, "请求参数不能为空");
         }
         if (userAccount.isBlank() || userPassword.isBlank()) {
             throw new BusinessException(ErrorCode.PARAMS_ERROR, "请求参数不能为空");
         }
-        //2. 密码加密
-        String encryptPassword = org.springframework.util.DigestUtils.md5DigestAsHex((userPassword + SALT).getBytes(StandardCharsets.UTF_8));
-        //查询用户是否存在
+        //2. 按账号查用户，再校验密码（PBKDF2 每个密码的盐不同，没法直接拿密文去查）
         QueryWrapper<User> queryWrapper = new QueryWrapper<>();
         queryWrapper.eq("userAccount", userAccount);
-        queryWrapper.eq("userPassword", encryptPassword);
         User user = this.getOne(queryWrapper);
         if (user == null) {
+            // 账号不存在也付出同样的哈希成本，否则响应快慢就能说明账号是否存在
+            passwordHashExecutor.matchesDummy(userPassword);
+            throw new BusinessException(ErrorCode.OPERATION_ERROR, "账号或密码错误");
+        }
+        if (!passwordHashExecutor.matches(userPassword, user.getUserPassword())) {
             throw new BusinessException(ErrorCode.OPERATION_ERROR, "账号或密码错误");
         }
+        upgradePasswordHash(user, userPassword);
         //3.用户脱敏
         User safetyUser = getSafetyUser(user);
-        //4.记录用户登录状态（session等）
-        request.getSession().setAttribute(UserConstant.USER_LOGIN_STATE, safetyUser);
+        //4.记录用户登录状态（Session 只存 userId，或签发令牌）
+        loginStateStore.login(request, response, user.getId());
         return safetyUser;
     }
+    /**
+     * 旧算法或旧成本参数的密码在登录成功后顺手升级（失败只记日志，不影响本次登录）。
+     */
+    private void upgradePasswordHash(User user, String rawPassword) {
+        if (!passwordHashExecutor.needsRehash(user.getUserPassword())) {
+            return;
+        }
+        try {
+            User update = new User();
+            update.setId(user.getId());
+            update.setUserPassword(passwordHashExecutor.hash(rawPassword));
+            this.updateById(update);
+        } catch (BusinessException e) {
+            log.debug("密码哈希升级跳过 userId={}: {}", user.getId(), e.getMessage());
+        }
+    }
+
     /**
      * 用户脱敏（移除敏感字段）。
      *
@@ -130,6 +184,69 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         safetyUser.setRoleId(originUser.getRoleId());
         safetyUser.setRoleName(originUser.getRoleName());
         safetyUser.setRoleKey(originUser.getRoleKey());
+        safetyUser.setVersion(originUser.getVersion());
         return safetyUser;
     }
+
+    /**
+     * 按版本号条件更新用户：UPDATE user SET ..., version = version + 1 WHERE id = ? [AND version = ?] AND isDelete = 0。
+     *
+     * @param user 待更新字段（id 必填，为 null 的字段不更新）
+     * @param expectedVersion 期望的当前版本号（null 表示不校验版本，只递增）
+     * @param authUnchanged 为 true 时额外要求 userStatus / userRole 的当前值已经等于新值
+     * @return 是否更新成功（影响 1 行）
+     */
+    @Override
+    public boolean updateByVersion(User user, Integer expectedVersion, boolean authUnchanged) {
+        UpdateWrapper<User> uw = new UpdateWrapper<>();
+        uw.eq("id", user.getId());
+        if (expectedVersion != null) {
+            uw.eq("version", expectedVersion);
+        }
+        if (authUnchanged) {
+            uw.eq(user.getUserStatus() != null, "userStatus", user.getUserStatus());
+            uw.eq(user.getUserRole() != null, "userRole", user.getUserRole());
+        }
+        uw.setSql("version = version + 1");
+        return this.update(user, uw);
+    }
+
+    /**
+     * 游标分页查询管理端用户视图（按创建时间倒序，含角色信息，不含密码）。
+     *
+     * <p>关键词不少于 3 个字符且内存索引已就绪时，先用索引拿到候选 id，再在“候选 id + 索引构建后新增的 id”里
+     * 用 SQL 完成 LIKE 复核、游标和 LIMIT（每页只回表一页数据）；
+     * 否则（短关键词、索引未就绪、候选过多）走数据库的游标分页。</p>
+     *
+     * @param username 关键词（可为空，匹配用户名或账号）
+     * @param cursor 上一页游标（第一页传 null）
+     * @param limit 本次最多返回条数
+     * @return 用户视图列表
+     */
+    @Override
+    public List<UserVO> listUserVOsAfter(String username, KeysetCursor cursor, int limit) {
+        String keyword = username == null || username.isBlank() ? null : username.trim();
+        if (UserSearchIndex.supports(keyword)) {
+            // 先读水位再查候选：两者之间正好完成一次重建时，旧水位只会让新增范围更大，不会漏人
+            long watermark = userSearchIndex.getWatermark();
+            long[] candidateIds = userSearchIndex.search(keyword, maxIndexCandidates + 1);
+            if (candidateIds != null && candidateIds.length <= maxIndexCandidates) {
+                return pageOfCandidates(candidateIds, watermark, keyword, cursor, limit);
+            }
+        }
+        if (cursor == null) {
+            return this.baseMapper.selectUserVOPageAfter(keyword, null, null, limit);
+        }
+        return this.baseMapper.selectUserVOPageAfter(keyword, cursor.getCreateTime(), cursor.getId(), limit);
+    }
+
+    private List<UserVO> pageOfCandidates(long[] candidateIds, long watermark, String keyword,
+                                          KeysetCursor cursor, int limit) {
+        List<Long> ids = new ArrayList<>(candidateIds.length);
+        for (long id : candidateIds) {
+            ids.add(id);
+        }
+        return this.baseMapper.selectUserVOPageByIds(ids, watermark, keyword,
+                cursor == null ? null : cursor.getCreateTime(), cursor == null ? null : cursor.getId(), limit);
+    }
 }
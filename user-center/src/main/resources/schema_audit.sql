@@ -0,0 +1,18 @@
+-- 管理员操作审计日志（改用户、删用户、分配角色、建角色），由后台线程批量写入
+CREATE TABLE IF NOT EXISTS `audit_log` (
+  `id` BIGINT NOT NULL AUTO_INCREMENT,
+  -- 操作人（管理员 userId）
+  `actor_id` BIGINT NOT NULL,
+  -- 操作类型：USER_UPDATE / USER_DELETE / USER_ASSIGN_ROLES / ROLE_CREATE
+  `action` VARCHAR(32) NOT NULL,
+  -- 操作对象 id（用户 id 或角色 id）
+  `target_id` BIGINT NULL,
+  `detail` VARCHAR(512) NULL,
+  `client_ip` VARCHAR(64) NULL,
+  -- 操作发生时间（请求线程记录，不是落库时间）
+  `createTime` DATETIME(3) NOT NULL,
+  PRIMARY KEY (`id`),
+  KEY `idx_audit_log_createTime_id` (`createTime`, `id`),
+  KEY `idx_audit_log_actor_id` (`actor_id`, `createTime`),
+  KEY `idx_audit_log_target_id` (`target_id`, `createTime`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
@@ -0,0 +1,11 @@
+-- 共享 Session 表（user-center.auth.mode=db 时使用）
+CREATE TABLE IF NOT EXISTS `user_session` (
+  `session_id` CHAR(43) NOT NULL,
+  `user_id` BIGINT NOT NULL,
+  -- 最后访问时间（毫秒时间戳），由各节点合并后批量刷新
+  `last_access_at` BIGINT NOT NULL,
+  `createTime` TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (`session_id`),
+  KEY `idx_user_session_user_id` (`user_id`),
+  KEY `idx_user_session_last_access_at` (`last_access_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
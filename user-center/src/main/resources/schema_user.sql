@@ -0,0 +1,22 @@
+-- 用户表（先于 schema_role.sql 执行：user_role 的外键引用了它）
+CREATE TABLE IF NOT EXISTS `user` (
+  `id` BIGINT NOT NULL AUTO_INCREMENT,
+  `username` VARCHAR(256) DEFAULT NULL,
+  `userAccount` VARCHAR(256) NOT NULL,
+  `avatarUrl` VARCHAR(1024) DEFAULT NULL,
+  `gender` TINYINT DEFAULT NULL,
+  `userPassword` VARCHAR(512) NOT NULL,
+  `phone` VARCHAR(128) DEFAULT NULL,
+  `email` VARCHAR(512) DEFAULT NULL,
+  `userStatus` INT NOT NULL DEFAULT 0,
+  `createTime` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  `updateTime` TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  `isDelete` TINYINT(1) NOT NULL DEFAULT 0,
+  `userRole` TINYINT(1) NOT NULL DEFAULT 0,
+  -- 乐观锁版本号：每次更新资料 + 1（已有的表：ALTER TABLE `user` ADD COLUMN `version` INT NOT NULL DEFAULT 0）
+  `version` INT NOT NULL DEFAULT 0,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_user_account` (`userAccount`),
+  -- 管理端游标分页：ORDER BY createTime DESC, id DESC
+  KEY `idx_user_createTime_id` (`createTime`, `id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
@@ -0,0 +1,142 @@
+package com.yupi.user_center.audit;
+
+import com.yupi.user_center.mapper.AuditLogMapper;
+import com.yupi.user_center.model.AuditLog;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 审计日志队列测试类（不启动写线程，不依赖数据库；写库用假 Mapper）。
+ *
+ * @author Ethan
+ */
+public class AuditLoggerTest {
+
+    /**
+     * 测试：队列满了丢弃并计数；按批从队头取出，顺序与入队一致
+     */
+    @Test
+    void offer_shouldDropWhenFullAndDrainInOrder() {
+        AuditLogger logger = new AuditLogger(true, 3, 2, 1000, 0, 0, 1);
+        for (long i = 1; i <= 5; i++) {
+            boolean ok = logger.offer(entry(i));
+            Assertions.assertEquals(i <= 3, ok);
+        }
+        Assertions.assertEquals(3, logger.getBacklog());
+        Assertions.assertEquals(3, logger.getAcceptedCount());
+        Assertions.assertEquals(2, logger.getDroppedCount());
+
+        List<AuditLog> batch = new ArrayList<>();
+        Assertions.assertEquals(2, logger.drain(batch, 2));
+        Assertions.assertEquals(List.of(1L, 2L), batch.stream().map(AuditLog::getTargetId).toList());
+        Assertions.assertEquals(1, logger.getBacklog());
+
+        // 腾出位置后又能入队
+        Assertions.assertTrue(logger.offer(entry(6)));
+        batch.clear();
+        Assertions.assertEquals(2, logger.drain(batch, 10));
+        Assertions.assertEquals(List.of(3L, 6L), batch.stream().map(AuditLog::getTargetId).toList());
+        Assertions.assertEquals(0, logger.drain(batch, 10));
+        Assertions.assertEquals(0, logger.getBacklog());
+    }
+
+    /**
+     * 测试：多线程并发入队时积压不会超过容量，入队 + 丢弃 = 提交总数
+     */
+    @Test
+    void offer_shouldNeverExceedCapacityUnderContention() throws InterruptedException {
+        int capacity = 5000;
+        int threads = 8;
+        int perThread = 2000;
+        AuditLogger logger = new AuditLogger(true, capacity, 100, 1000, 0, 0, 1);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    logger.offer(entry(i));
+                }
+            }));
+        }
+        start.countDown();
+        for (Thread w : workers) {
+            w.join();
+        }
+
+        Assertions.assertEquals(capacity, logger.getBacklog());
+        Assertions.assertEquals(capacity, logger.getAcceptedCount());
+        Assertions.assertEquals((long) threads * perThread - capacity, logger.getDroppedCount());
+        List<AuditLog> all = new ArrayList<>();
+        Assertions.assertEquals(capacity, logger.drain(all, Integer.MAX_VALUE));
+    }
+
+    /**
+     * 测试：写库失败后退避重试同一批，成功就不算失败；重试次数用完才丢弃并计入失败
+     */
+    @Test
+    void flushAll_shouldRetryBeforeCountingFailure() {
+        AuditLogger logger = new AuditLogger(true, 10, 2, 1000, 0, 2, 1);
+        AtomicInteger calls = new AtomicInteger();
+        AtomicInteger failuresLeft = new AtomicInteger(2);
+        List<Long> stored = new ArrayList<>();
+        ReflectionTestUtils.setField(logger, "auditLogMapper", mapper(calls, failuresLeft, stored));
+
+        for (long i = 1; i <= 3; i++) {
+            logger.offer(entry(i));
+        }
+        logger.flushAll(new ArrayList<>());
+        Assertions.assertEquals(List.of(1L, 2L, 3L), stored);
+        Assertions.assertEquals(4, calls.get());
+        Assertions.assertEquals(3, logger.getWrittenCount());
+        Assertions.assertEquals(0, logger.getFailedCount());
+
+        failuresLeft.set(Integer.MAX_VALUE);
+        calls.set(0);
+        logger.offer(entry(4));
+        logger.flushAll(new ArrayList<>());
+        Assertions.assertEquals(3, calls.get());
+        Assertions.assertEquals(1, logger.getFailedCount());
+        Assertions.assertEquals(0, logger.getBacklog());
+    }
+
+    /**
+     * 假 Mapper：insertBatch 先失败 failuresLeft 次，之后把写入的 targetId 记到 stored。
+     */
+    private static AuditLogMapper mapper(AtomicInteger calls, AtomicInteger failuresLeft, List<Long> stored) {
+        return (AuditLogMapper) Proxy.newProxyInstance(AuditLogMapper.class.getClassLoader(), new Class<?>[]{AuditLogMapper.class},
+                (proxy, method, args) -> {
+                    if (!"insertBatch".equals(method.getName())) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    calls.incrementAndGet();
+                    if (failuresLeft.getAndDecrement() > 0) {
+                        throw new TransientDataAccessResourceException("db down");
+                    }
+                    @SuppressWarnings("unchecked")
+                    List<AuditLog> batch = (List<AuditLog>) args[0];
+                    batch.forEach(e -> stored.add(e.getTargetId()));
+                    return batch.size();
+                });
+    }
+
+    private static AuditLog entry(long targetId) {
+        AuditLog log = new AuditLog();
+        log.setActorId(1L);
+        log.setAction(AuditAction.USER_UPDATE.name());
+        log.setTargetId(targetId);
+        return log;
+    }
+}
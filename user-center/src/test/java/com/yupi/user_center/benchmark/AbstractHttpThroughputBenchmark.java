@@ -0,0 +1,140 @@
+package com.yupi.user_center.benchmark;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * HTTP 吞吐 / 延迟基准的公共部分：管理员登录后，多个并发客户端在固定时长内反复请求
+ * {@code /admin/user/search}（短关键词，必走数据库），统计吞吐、p50、p99 和失败数。
+ *
+ * <p>运行：{@code mvn test -Pbenchmark -Dtest='*ThreadHttpBenchmarkTests' -Dbenchmark.admin.account=xxx -Dbenchmark.admin.password=xxx}，
+ * 平台线程和虚拟线程两个子类各启动一个应用，对比同样并发下的结果。</p>
+ *
+ * @author Ethan
+ */
+abstract class AbstractHttpThroughputBenchmark {
+
+    private static final String ADMIN_ACCOUNT = System.getProperty("benchmark.admin.account");
+    private static final String ADMIN_PASSWORD = System.getProperty("benchmark.admin.password");
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 400);
+    private static final int WARMUP_SECONDS = Integer.getInteger("benchmark.warmup-seconds", 5);
+    private static final int SECONDS = Integer.getInteger("benchmark.seconds", 20);
+
+    @LocalServerPort
+    private int port;
+
+    /**
+     * 基准名称（打印用）。
+     *
+     * @return 名称
+     */
+    abstract String mode();
+
+    /**
+     * 基准：固定并发下的吞吐与延迟分布
+     */
+    @Test
+    void searchThroughput() throws Exception {
+        Assumptions.assumeTrue(ADMIN_ACCOUNT != null && ADMIN_PASSWORD != null,
+                "未提供 benchmark.admin.account / benchmark.admin.password，跳过基准测试");
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        String cookie = login(client);
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/admin/user/search?username=a&pageSize=20"))
+                .header("Cookie", cookie)
+                .timeout(Duration.ofSeconds(60))
+                .GET()
+                .build();
+
+        run(client, request, WARMUP_SECONDS);
+        long[] result = run(client, request, SECONDS);
+        long ok = result[0];
+        long failed = result[1];
+        System.out.printf("%n[benchmark] %s concurrency=%d seconds=%d%n", mode(), CONCURRENCY, SECONDS);
+        System.out.printf("%-18s %10s %10s %10s %10s%n", "mode", "req/s", "p50 ms", "p99 ms", "failed");
+        System.out.printf("%-18s %10.1f %10.2f %10.2f %10d%n", mode(), ok / (double) SECONDS,
+                result[2] / 1e6, result[3] / 1e6, failed);
+        Assertions.assertTrue(ok > 0);
+    }
+
+    /**
+     * 压测一段时间，返回 {成功数, 失败数, p50 纳秒, p99 纳秒}。
+     */
+    private long[] run(HttpClient client, HttpRequest request, int seconds) throws Exception {
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        AtomicLong failed = new AtomicLong();
+        List<Future<long[]>> futures = new ArrayList<>(CONCURRENCY);
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CONCURRENCY; i++) {
+                futures.add(workers.submit(() -> {
+                    long[] samples = new long[1024];
+                    int n = 0;
+                    while (System.nanoTime() < deadline) {
+                        long t0 = System.nanoTime();
+                        try {
+                            HttpResponse<Void> resp = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (resp.statusCode() != 200) {
+                                failed.incrementAndGet();
+                                continue;
+                            }
+                        } catch (Exception e) {
+                            failed.incrementAndGet();
+                            continue;
+                        }
+                        if (n == samples.length) {
+                            samples = Arrays.copyOf(samples, n * 2);
+                        }
+                        samples[n++] = System.nanoTime() - t0;
+                    }
+                    return Arrays.copyOf(samples, n);
+                }));
+            }
+        }
+        long total = 0;
+        for (Future<long[]> f : futures) {
+            total += f.get().length;
+        }
+        long[] all = new long[(int) total];
+        int pos = 0;
+        for (Future<long[]> f : futures) {
+            long[] part = f.get();
+            System.arraycopy(part, 0, all, pos, part.length);
+            pos += part.length;
+        }
+        Arrays.sort(all);
+        long p50 = all.length == 0 ? 0 : all[(int) (all.length * 0.50)];
+        long p99 = all.length == 0 ? 0 : all[Math.min(all.length - 1, (int) (all.length * 0.99))];
+        return new long[]{all.length, failed.get(), p50, p99};
+    }
+
+    private String login(HttpClient client) throws Exception {
+        String body = "{\"userAccount\":\"" + ADMIN_ACCOUNT + "\",\"userPassword\":\"" + ADMIN_PASSWORD + "\"}";
+        HttpRequest req = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/user/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        HttpResponse<String> resp = client.send(req, HttpResponse.BodyHandlers.ofString());
+        Assertions.assertEquals(200, resp.statusCode(), "管理员登录失败：" + resp.body());
+        return resp.headers().allValues("Set-Cookie").stream()
+                .map(c -> c.split(";", 2)[0])
+                .reduce((a, b) -> a + "; " + b)
+                .orElseThrow(() -> new IllegalStateException("登录响应没有 Set-Cookie"));
+    }
+}
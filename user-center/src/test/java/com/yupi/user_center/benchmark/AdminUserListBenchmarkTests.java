@@ -0,0 +1,158 @@
+package com.yupi.user_center.benchmark;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.yupi.user_center.mapper.UserMapper;
+import com.yupi.user_center.model.Role;
+import com.yupi.user_center.model.User;
+import com.yupi.user_center.model.UserRole;
+import com.yupi.user_center.model.vo.UserVO;
+import com.yupi.user_center.service.RoleService;
+import com.yupi.user_center.service.UserRoleService;
+import com.yupi.user_center.service.UserService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * 管理端用户列表基准测试：旧的“三次查询 + 两次拷贝”与单条 JOIN 映射 UserVO 对比。
+ *
+ * <p>运行：{@code mvn test -Pbenchmark -Dbenchmark.rows=5000}，测试库里至少要有 rows 个用户。
+ * 输出每次调用的平均耗时与当前线程分配的字节数（JDBC 读取也在当前线程，一并计入）。</p>
+ *
+ * @author Ethan
+ */
+@SpringBootTest
+@Tag("benchmark")
+public class AdminUserListBenchmarkTests {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 5000);
+    private static final int WARMUP = Integer.getInteger("benchmark.warmup", 10);
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 30);
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRoleService userRoleService;
+
+    @Autowired
+    private RoleService roleService;
+
+    @Autowired
+    private UserMapper userMapper;
+
+    /**
+     * 基准：同一批用户，两种取数方式的耗时与内存分配
+     */
+    @Test
+    void compareLegacyThreeQueriesWithSingleJoin() {
+        Assumptions.assumeTrue(userService.count() >= ROWS, "测试库用户数不足 " + ROWS + "，跳过基准测试");
+
+        List<UserVO> legacy = legacyList();
+        List<UserVO> joined = joinedList();
+        Assertions.assertEquals(legacy.size(), joined.size());
+        for (int i = 0; i < legacy.size(); i++) {
+            Assertions.assertEquals(legacy.get(i).getId(), joined.get(i).getId());
+            Assertions.assertEquals(legacy.get(i).getRoleKey(), joined.get(i).getRoleKey());
+        }
+
+        long[] legacyResult = measure(this::legacyList);
+        long[] joinedResult = measure(this::joinedList);
+        System.out.printf("%n[benchmark] rows=%d iterations=%d%n", ROWS, ITERATIONS);
+        System.out.printf("%-28s %12s %16s%n", "path", "avg ms/op", "avg KB alloc/op");
+        System.out.printf("%-28s %12.2f %16d%n", "legacy 3 queries + copies", legacyResult[0] / 1e6, legacyResult[1] / 1024);
+        System.out.printf("%-28s %12.2f %16d%n", "single LEFT JOIN -> UserVO", joinedResult[0] / 1e6, joinedResult[1] / 1024);
+    }
+
+    private List<UserVO> joinedList() {
+        return userMapper.selectUserVOPageAfter(null, null, null, ROWS);
+    }
+
+    /**
+     * 旧实现的等价复刻：查用户 -> 脱敏拷贝 -> user_role IN -> role IN -> 拷贝成 UserVO。
+     */
+    private List<UserVO> legacyList() {
+        QueryWrapper<User> qw = new QueryWrapper<>();
+        qw.orderByDesc("createTime", "id");
+        qw.last("LIMIT " + ROWS);
+        List<User> safetyUsers = userService.list(qw).stream()
+                .map(userService::getSafetyUser)
+                .collect(Collectors.toList());
+
+        List<Long> userIds = safetyUsers.stream().map(User::getId).filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        QueryWrapper<UserRole> urQw = new QueryWrapper<>();
+        urQw.in("user_id", userIds);
+        urQw.orderByAsc("id");
+        Map<Long, Long> userIdToRoleId = new HashMap<>();
+        for (UserRole ur : userRoleService.list(urQw)) {
+            userIdToRoleId.putIfAbsent(ur.getUserId(), ur.getRoleId());
+        }
+        Set<Long> roleIds = userIdToRoleId.values().stream().filter(Objects::nonNull).collect(Collectors.toSet());
+        Map<Long, Role> roleMap = new HashMap<>();
+        if (!roleIds.isEmpty()) {
+            QueryWrapper<Role> roleQw = new QueryWrapper<>();
+            roleQw.in("id", roleIds);
+            roleQw.eq("isDelete", 0);
+            roleQw.eq("status", 0);
+            roleMap = roleService.list(roleQw).stream().collect(Collectors.toMap(Role::getId, r -> r, (a, b) -> a));
+        }
+        for (User u : safetyUsers) {
+            Long roleId = userIdToRoleId.get(u.getId());
+            Role role = roleId == null ? null : roleMap.get(roleId);
+            if (role != null) {
+                u.setRoleId(roleId);
+                u.setRoleName(role.getRoleName());
+                u.setRoleKey(role.getRoleKey());
+            }
+        }
+        return safetyUsers.stream().map(AdminUserListBenchmarkTests::toUserVO).collect(Collectors.toList());
+    }
+
+    private static UserVO toUserVO(User user) {
+        UserVO vo = new UserVO();
+        vo.setId(user.getId());
+        vo.setName(user.getName());
+        vo.setUserAccount(user.getUserAccount());
+        vo.setEmail(user.getEmail());
+        vo.setAvatarUrl(user.getAvatarUrl());
+        vo.setGender(user.getGender());
+        vo.setPhone(user.getPhone());
+        vo.setUserStatus(user.getUserStatus());
+        vo.setUserRole(user.getUserRole());
+        vo.setRoleId(user.getRoleId());
+        vo.setRoleName(user.getRoleName());
+        vo.setRoleKey(user.getRoleKey());
+        vo.setCreateTime(user.getCreateTime());
+        return vo;
+    }
+
+    /**
+     * 预热后测量：返回 {平均纳秒, 平均分配字节}。
+     */
+    private static long[] measure(Supplier<?> op) {
+        com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < WARMUP; i++) {
+            op.get();
+        }
+        long bytes0 = mx.getCurrentThreadAllocatedBytes();
+        long t0 = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            op.get();
+        }
+        long elapsed = System.nanoTime() - t0;
+        long allocated = mx.getCurrentThreadAllocatedBytes() - bytes0;
+        return new long[]{elapsed / ITERATIONS, allocated / ITERATIONS};
+    }
+}
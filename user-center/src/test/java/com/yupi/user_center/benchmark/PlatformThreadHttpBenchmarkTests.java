@@ -0,0 +1,20 @@
+package com.yupi.user_center.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * HTTP 基准：平台线程模式（Tomcat 线程池，默认 200 线程）。
+ *
+ * @author Ethan
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.threads.virtual.enabled=false", "user-center.auth.mode=session"})
+@Tag("benchmark")
+public class PlatformThreadHttpBenchmarkTests extends AbstractHttpThroughputBenchmark {
+
+    @Override
+    String mode() {
+        return "platform-threads";
+    }
+}
@@ -0,0 +1,81 @@
+package com.yupi.user_center.benchmark;
+
+import com.yupi.user_center.model.vo.UserImportResultVO;
+import com.yupi.user_center.service.UserImportService;
+import com.yupi.user_center.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 批量导入基准测试：逐个调用注册逻辑 与 批量导入接口 的吞吐（行/秒）对比。
+ *
+ * <p>运行：{@code mvn test -Pbenchmark -Dtest=UserImportBenchmarkTests -Dbenchmark.import.rows=10000}，
+ * 连接串需带 rewriteBatchedStatements=true。默认用 PBKDF2（和线上一致，哈希占大头）；
+ * 加 {@code -Dbenchmark.import.algorithm=md5} 可以把哈希成本压到几乎为零，单看查重和写库的差距。
+ * 导入的账号带本次运行的前缀，结束后物理删除。</p>
+ *
+ * @author Ethan
+ */
+@SpringBootTest(properties = "user-center.password.algorithm=${benchmark.import.algorithm:pbkdf2}")
+@Tag("benchmark")
+public class UserImportBenchmarkTests {
+
+    private static final int IMPORT_ROWS = Integer.getInteger("benchmark.import.rows", 5000);
+    private static final int REGISTER_ROWS = Integer.getInteger("benchmark.import.register-rows", 500);
+
+    private final String prefix = "bim" + Long.toString(System.currentTimeMillis(), 36) + "_";
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM user_role WHERE user_id IN (SELECT id FROM (SELECT id FROM `user` WHERE userAccount LIKE ?) t)",
+                prefix + "%");
+        jdbcTemplate.update("DELETE FROM `user` WHERE userAccount LIKE ?", prefix + "%");
+    }
+
+    /**
+     * 基准：逐个注册与批量导入的行/秒
+     */
+    @Test
+    void compareRegisterLoopWithBulkImport() throws Exception {
+        long t0 = System.nanoTime();
+        for (int i = 0; i < REGISTER_ROWS; i++) {
+            String account = prefix + "r" + i;
+            userService.userRegister(account, "12345678", "12345678");
+        }
+        double registerSeconds = (System.nanoTime() - t0) / 1e9;
+
+        StringBuilder body = new StringBuilder(IMPORT_ROWS * 64);
+        for (int i = 0; i < IMPORT_ROWS; i++) {
+            body.append("{\"userAccount\":\"").append(prefix).append('i').append(i)
+                    .append("\",\"userPassword\":\"12345678\"}\n");
+        }
+        byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        long t1 = System.nanoTime();
+        UserImportResultVO result = userImportService.importUsers(UserImportService.FORMAT_NDJSON, new ByteArrayInputStream(bytes));
+        double importSeconds = (System.nanoTime() - t1) / 1e9;
+        Assertions.assertEquals(IMPORT_ROWS, result.getSucceeded());
+
+        System.out.printf("%n[benchmark] hash=%s cpus=%d%n", System.getProperty("benchmark.import.algorithm", "pbkdf2"),
+                Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-24s %8s %10s %12s%n", "path", "rows", "seconds", "rows/s");
+        System.out.printf("%-24s %8d %10.2f %12.1f%n", "register one by one", REGISTER_ROWS, registerSeconds, REGISTER_ROWS / registerSeconds);
+        System.out.printf("%-24s %8d %10.2f %12.1f%n", "bulk import", IMPORT_ROWS, importSeconds, IMPORT_ROWS / importSeconds);
+    }
+}
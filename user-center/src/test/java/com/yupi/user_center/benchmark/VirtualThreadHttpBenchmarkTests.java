@@ -0,0 +1,20 @@
+package com.yupi.user_center.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * HTTP 基准：虚拟线程模式（请求跑在虚拟线程上，数据库并发闸门开启）。
+ *
+ * @author Ethan
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.threads.virtual.enabled=true", "user-center.auth.mode=session"})
+@Tag("benchmark")
+public class VirtualThreadHttpBenchmarkTests extends AbstractHttpThroughputBenchmark {
+
+    @Override
+    String mode() {
+        return "virtual-threads";
+    }
+}
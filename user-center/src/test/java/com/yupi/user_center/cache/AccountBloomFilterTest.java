@@ -0,0 +1,45 @@
+package com.yupi.user_center.cache;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 账号布隆过滤器测试类（纯内存，不依赖数据库）。
+ *
+ * @author Ethan
+ */
+public class AccountBloomFilterTest {
+
+    /**
+     * 测试：放进去的账号一定判定为“可能存在”，没放进去的误判率接近目标值
+     */
+    @Test
+    void bits_shouldHaveNoFalseNegativesAndBoundedFpp() {
+        AccountBloomFilter.Bits bits = new AccountBloomFilter.Bits(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            bits.put("acc_" + i);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            Assertions.assertTrue(bits.mightContain("acc_" + i));
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (bits.mightContain("new_" + i)) {
+                falsePositives++;
+            }
+        }
+        Assertions.assertTrue(falsePositives < 2_000, "误判过多：" + falsePositives);
+    }
+
+    /**
+     * 测试：未构建完成时一律返回“可能存在”（回库校验，行为不变）
+     */
+    @Test
+    void mightContain_shouldBeConservativeBeforeBuild() {
+        AccountBloomFilter filter = new AccountBloomFilter(1000, 0.01);
+        filter.put("someone");
+        Assertions.assertTrue(filter.mightContain("anyone"));
+        Assertions.assertFalse(filter.stats().isReady());
+    }
+}
@@ -0,0 +1,85 @@
+package com.yupi.user_center.cache;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * long 主键 LRU 缓存测试类（纯内存，不依赖数据库）。
+ *
+ * @author Ethan
+ */
+public class LongKeyLruCacheTest {
+
+    /**
+     * 测试：容量满时淘汰最久未使用的条目
+     */
+    @Test
+    void put_shouldEvictLeastRecentlyUsed() {
+        LongKeyLruCache<String> cache = new LongKeyLruCache<>(2, 0);
+        cache.put(1L, "a");
+        cache.put(2L, "b");
+        Assertions.assertEquals("a", cache.get(1L));
+        cache.put(3L, "c");
+
+        Assertions.assertNull(cache.get(2L));
+        Assertions.assertEquals("a", cache.get(1L));
+        Assertions.assertEquals("c", cache.get(3L));
+        Assertions.assertEquals(1, cache.evictionCount());
+        Assertions.assertEquals(2, cache.size());
+    }
+
+    /**
+     * 测试：失效期间开始的加载结果不会写回缓存
+     */
+    @Test
+    void getOrLoad_shouldNotCacheValueLoadedBeforeInvalidation() {
+        LongKeyLruCache<String> cache = new LongKeyLruCache<>(4, 0);
+        String v = cache.getOrLoad(7L, k -> {
+            cache.invalidate(7L);
+            return "stale";
+        });
+        Assertions.assertEquals("stale", v);
+        Assertions.assertNull(cache.get(7L));
+        Assertions.assertEquals(cache.getOrLoad(7L, k -> "fresh"), cache.get(7L));
+    }
+
+    /**
+     * 测试：过期条目视为未命中
+     */
+    @Test
+    void get_shouldMissAfterTtl() throws InterruptedException {
+        LongKeyLruCache<String> cache = new LongKeyLruCache<>(4, 1);
+        cache.put(1L, "a");
+        Thread.sleep(5);
+        Assertions.assertNull(cache.get(1L));
+        Assertions.assertEquals(0, cache.size());
+    }
+
+    /**
+     * 测试：随机增删后与 HashMap 行为一致（容量足够时不淘汰）
+     */
+    @Test
+    void randomOperations_shouldMatchHashMap() {
+        LongKeyLruCache<Long> cache = new LongKeyLruCache<>(512, 0);
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            long key = random.nextInt(400);
+            if (random.nextInt(3) == 0) {
+                cache.invalidate(key);
+                expected.remove(key);
+            } else {
+                cache.put(key, (long) i);
+                expected.put(key, (long) i);
+            }
+        }
+        for (long key = 0; key < 400; key++) {
+            Assertions.assertEquals(expected.get(key), cache.get(key));
+        }
+        Assertions.assertEquals(expected.size(), cache.size());
+    }
+}
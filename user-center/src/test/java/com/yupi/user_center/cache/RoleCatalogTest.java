@@ -0,0 +1,68 @@
+package com.yupi.user_center.cache;
+
+import com.yupi.user_center.model.Role;
+import com.yupi.user_center.service.RoleService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 角色字典缓存测试类（不依赖数据库；查库用假 RoleService）。
+ *
+ * @author Ethan
+ */
+public class RoleCatalogTest {
+
+    /**
+     * 测试：刷新查库期间本进程新建了角色，旧的查询结果不能把新角色覆盖掉；下次刷新查到后正常替换
+     */
+    @Test
+    void refresh_shouldKeepRolePutWhileLoading() {
+        RoleCatalog catalog = new RoleCatalog();
+        List<Role> table = new ArrayList<>(List.of(role(1, "ADMIN")));
+        Role created = role(2, "DRIVER");
+        // 第二次查库（第一次刷新）返回前，模拟 createRole 落库并写入快照
+        int[] calls = {0};
+        ReflectionTestUtils.setField(catalog, "roleService", fakeRoleService(() -> {
+            List<Role> result = new ArrayList<>(table);
+            if (++calls[0] == 2) {
+                table.add(created);
+                catalog.put(created);
+            }
+            return result;
+        }));
+
+        Assertions.assertEquals(1, catalog.listAll().size());
+        catalog.refresh();
+        Assertions.assertSame(created, catalog.getById(2L));
+
+        long version = catalog.current().getVersion();
+        catalog.refresh();
+        Assertions.assertNotNull(catalog.getByKey("DRIVER"));
+        Assertions.assertEquals(version, catalog.current().getVersion());
+    }
+
+    private static RoleService fakeRoleService(Supplier<List<Role>> list) {
+        return (RoleService) Proxy.newProxyInstance(RoleService.class.getClassLoader(), new Class<?>[]{RoleService.class},
+                (proxy, method, args) -> {
+                    if ("list".equals(method.getName())) {
+                        return list.get();
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static Role role(long id, String key) {
+        Role r = new Role();
+        r.setId(id);
+        r.setRoleKey(key);
+        r.setStatus(0);
+        r.setIsDelete(0);
+        return r;
+    }
+}
@@ -0,0 +1,59 @@
+package com.yupi.user_center.cache;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+/**
+ * 用户搜索三元组索引测试类（只测内存结构，不依赖数据库）。
+ *
+ * @author Ethan
+ */
+public class UserSearchIndexTest {
+
+    /**
+     * 测试：子串命中用户名或账号，忽略大小写，且不会跨字段拼接误命中
+     */
+    @Test
+    void search_shouldMatchSubstringOfEitherField() {
+        UserSearchIndex.Segment segment = new UserSearchIndex.Segment(4);
+        segment.upsert(1L, "ethan\u0001ethan_001");
+        segment.upsert(2L, "alice\u0001driver_02");
+        segment.upsert(3L, "bob\u0001ethan_bob");
+
+        Assertions.assertArrayEquals(new long[]{1L, 3L}, segment.search("than", 10));
+        Assertions.assertArrayEquals(new long[]{2L}, segment.search("ver_0", 10));
+        // "ce" + 分隔符 + "dr" 不能算命中
+        Assertions.assertEquals(0, segment.search("cedr", 10).length);
+        Assertions.assertEquals(0, segment.search("zzz", 10).length);
+        Assertions.assertEquals(1, segment.search("than", 1).length);
+    }
+
+    /**
+     * 测试：修改与删除后旧文本不再命中，压缩后结果不变
+     */
+    @Test
+    void upsertAndRemove_shouldHideOldText() {
+        UserSearchIndex.Segment segment = new UserSearchIndex.Segment(2);
+        for (long id = 1; id <= 100; id++) {
+            segment.upsert(id, "user" + id + "\u0001acc_" + id);
+        }
+        segment.upsert(5L, "renamed\u0001acc_5");
+        segment.remove(7L);
+
+        Assertions.assertEquals(0, segment.search("user5\u0001", 10).length);
+        Assertions.assertArrayEquals(new long[]{5L}, segment.search("renamed", 10));
+        Assertions.assertTrue(Arrays.stream(segment.search("acc_7", 100)).noneMatch(id -> id == 7L));
+        Assertions.assertEquals("renamed\u0001acc_5", segment.textOf(5L));
+
+        UserSearchIndex.Segment compacted = segment.compact();
+        Assertions.assertEquals(99, compacted.liveCount());
+        Assertions.assertEquals(0.0, compacted.deadRatio());
+        long[] before = segment.search("user1", 100);
+        long[] after = compacted.search("user1", 100);
+        Arrays.sort(before);
+        Arrays.sort(after);
+        Assertions.assertArrayEquals(before, after);
+    }
+}
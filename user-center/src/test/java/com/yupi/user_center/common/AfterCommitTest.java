@@ -0,0 +1,59 @@
+package com.yupi.user_center.common;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 事务提交后执行工具测试类（手动开关事务同步，模拟提交和回滚）。
+ *
+ * @author Ethan
+ */
+public class AfterCommitTest {
+
+    @AfterEach
+    void clear() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    /**
+     * 测试：没有事务时立即执行
+     */
+    @Test
+    void run_shouldExecuteImmediatelyWithoutTransaction() {
+        AtomicInteger calls = new AtomicInteger();
+        AfterCommit.run(calls::incrementAndGet);
+        Assertions.assertEquals(1, calls.get());
+    }
+
+    /**
+     * 测试：事务内登记的动作提交后才执行，回滚时不执行
+     */
+    @Test
+    void run_shouldExecuteOnlyAfterCommit() {
+        AtomicInteger calls = new AtomicInteger();
+
+        TransactionSynchronizationManager.initSynchronization();
+        AfterCommit.run(calls::incrementAndGet);
+        Assertions.assertEquals(0, calls.get());
+        for (TransactionSynchronization s : TransactionSynchronizationManager.getSynchronizations()) {
+            s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+        Assertions.assertEquals(0, calls.get());
+        TransactionSynchronizationManager.clearSynchronization();
+
+        TransactionSynchronizationManager.initSynchronization();
+        AfterCommit.run(calls::incrementAndGet);
+        for (TransactionSynchronization s : TransactionSynchronizationManager.getSynchronizations()) {
+            s.afterCommit();
+            s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+        Assertions.assertEquals(1, calls.get());
+    }
+}
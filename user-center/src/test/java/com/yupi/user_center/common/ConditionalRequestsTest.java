@@ -0,0 +1,46 @@
+package com.yupi.user_center.common;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * 条件 GET 工具测试类（纯内存，不依赖数据库）。
+ *
+ * @author Ethan
+ */
+public class ConditionalRequestsTest {
+
+    /**
+     * 测试：客户端带着当前版本的 ETag 来时回 304，版本变了回 200 并带新 ETag
+     */
+    @Test
+    void checkNotModified_shouldReturn304OnlyForCurrentVersion() {
+        String v1 = ConditionalRequests.etag("roles", 1L);
+        String v2 = ConditionalRequests.etag("roles", 2L);
+        Assertions.assertNotEquals(v1, v2);
+        Assertions.assertEquals("\"roles-1\"", v1);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/admin/role/list");
+        request.addHeader("If-None-Match", v1);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        Assertions.assertTrue(ConditionalRequests.checkNotModified(request, response, v1));
+        Assertions.assertEquals(304, response.getStatus());
+        Assertions.assertEquals(v1, response.getHeader("ETag"));
+        Assertions.assertEquals("private, no-cache", response.getHeader("Cache-Control"));
+
+        MockHttpServletResponse changed = new MockHttpServletResponse();
+        Assertions.assertFalse(ConditionalRequests.checkNotModified(request, changed, v2));
+        Assertions.assertEquals(200, changed.getStatus());
+        Assertions.assertEquals(v2, changed.getHeader("ETag"));
+    }
+
+    /**
+     * 测试：不同用户的版本号即使相同 ETag 也不同（同一浏览器换账号不会误命中）
+     */
+    @Test
+    void etag_shouldIncludeNamespace() {
+        Assertions.assertNotEquals(ConditionalRequests.etag("user-1", 5L), ConditionalRequests.etag("user-2", 5L));
+    }
+}
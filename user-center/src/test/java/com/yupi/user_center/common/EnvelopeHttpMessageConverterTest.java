@@ -0,0 +1,107 @@
+package com.yupi.user_center.common;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.yupi.user_center.controller.UserController;
+import com.yupi.user_center.model.vo.UserVO;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * 流式信封转换器测试类（纯内存，不依赖数据库）。
+ *
+ * @author Ethan
+ */
+public class EnvelopeHttpMessageConverterTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private final EnvelopeHttpMessageConverter converter =
+            new EnvelopeHttpMessageConverter(objectMapper, GlobalResponseAdvice.CONTROLLER_PACKAGE);
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    /**
+     * 测试：流式写出的信封和旧的 ApiResponse 整体序列化结果一致（时间戳除外）
+     */
+    @Test
+    void write_shouldMatchApiResponseSerialization() throws Exception {
+        UserVO vo = new UserVO();
+        vo.setId(7L);
+        vo.setUserAccount("alice");
+        vo.setName("爱丽丝");
+        List<UserVO> body = List.of(vo);
+        Type type = new TypeReference<List<UserVO>>() { }.getType();
+
+        MockHttpOutputMessage out = new MockHttpOutputMessage();
+        converter.write(body, type, MediaType.APPLICATION_JSON, out);
+        JsonNode streamed = objectMapper.readTree(out.getBodyAsBytes());
+        JsonNode legacy = objectMapper.readTree(objectMapper.writeValueAsBytes(ApiResponse.success(body)));
+
+        Assertions.assertTrue(streamed.get("timestamp").asLong() > 0);
+        ((ObjectNode) streamed).remove("timestamp");
+        ((ObjectNode) legacy).remove("timestamp");
+        Assertions.assertEquals(legacy, streamed);
+    }
+
+    /**
+     * 测试：String 返回值只编码一次，data 就是原字符串
+     */
+    @Test
+    void write_shouldEncodeStringOnce() throws Exception {
+        MockHttpOutputMessage out = new MockHttpOutputMessage();
+        converter.write("ok", String.class, MediaType.APPLICATION_JSON, out);
+        JsonNode streamed = objectMapper.readTree(out.getBodyAsBytes());
+        Assertions.assertEquals(0, streamed.get("code").asInt());
+        Assertions.assertEquals("ok", streamed.get("data").asText());
+    }
+
+    /**
+     * 测试：预序列化的 JSON 原样写进 data，和直接序列化对象结果一致
+     */
+    @Test
+    void write_shouldCopyPrecomputedJsonIntoData() throws Exception {
+        List<String> roles = List.of("ADMIN", "USER");
+        MockHttpOutputMessage out = new MockHttpOutputMessage();
+        converter.write(PrecomputedJson.of(objectMapper, roles), PrecomputedJson.class, MediaType.APPLICATION_JSON, out);
+        JsonNode streamed = objectMapper.readTree(out.getBodyAsBytes());
+        Assertions.assertEquals(objectMapper.valueToTree(roles), streamed.get("data"));
+    }
+
+    /**
+     * 测试：只接管 controller 包下接口的响应，已经是 ApiResponse 的交给默认转换器
+     */
+    @Test
+    void canWrite_shouldOnlyApplyToControllerHandlers() throws Exception {
+        Assertions.assertFalse(converter.canWrite(UserVO.class, MediaType.APPLICATION_JSON));
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE,
+                new HandlerMethod(new UserController(), UserController.class.getMethod("getSessionTtl", HttpServletRequest.class)));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        Assertions.assertTrue(converter.canWrite(UserVO.class, MediaType.APPLICATION_JSON));
+        Assertions.assertTrue(converter.canWrite(String.class, MediaType.APPLICATION_JSON));
+        Assertions.assertFalse(converter.canWrite(ApiResponse.class, MediaType.APPLICATION_JSON));
+        Assertions.assertFalse(converter.canWrite(UserVO.class, MediaType.TEXT_PLAIN));
+        Assertions.assertFalse(converter.canRead(UserVO.class, MediaType.APPLICATION_JSON));
+    }
+}
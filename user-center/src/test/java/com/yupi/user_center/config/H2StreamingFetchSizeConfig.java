@@ -0,0 +1,91 @@
+package com.yupi.user_center.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * h2 测试 profile 专用：H2 不接受 MySQL 流式读取用的 fetchSize = Integer.MIN_VALUE，
+ * 这里把负数 fetchSize 改成 0（H2 自己会分批读取），生产用的 Mapper XML 保持不变。
+ *
+ * <p>放在测试源码里、随 profile 生效：激活 h2 profile 的测试（以及压测）都会被组件扫描到，不需要各自 {@code @Import}。</p>
+ *
+ * @author Ethan
+ */
+@Configuration(proxyBeanMethods = false)
+@Profile("h2")
+public class H2StreamingFetchSizeConfig {
+
+    @Bean
+    static BeanPostProcessor h2FetchSizeDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource ds && !(bean instanceof FetchSizeClampingDataSource)) {
+                    return new FetchSizeClampingDataSource(ds);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * 包在最外层（数据库并发闸门之外），只改写 Statement 的 setFetchSize。
+     */
+    static class FetchSizeClampingDataSource extends DelegatingDataSource {
+
+        FetchSizeClampingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return wrap(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return wrap(super.getConnection(username, password));
+        }
+    }
+
+    private static Connection wrap(Connection target) {
+        return proxy(Connection.class, target, (p, method, args) -> {
+            Object result = invoke(method, target, args);
+            if (result instanceof Statement stmt) {
+                Class<?> type = method.getReturnType();
+                return proxy(type, stmt, (sp, m, a) -> {
+                    if ("setFetchSize".equals(m.getName()) && a != null && (Integer) a[0] < 0) {
+                        a = new Object[]{0};
+                    }
+                    return invoke(m, stmt, a);
+                });
+            }
+            return result;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Object target, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(H2StreamingFetchSizeConfig.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.yupi.user_center.controller;
+
+import com.yupi.user_center.cache.RoleCatalog;
+import com.yupi.user_center.security.DbLoginStateStore;
+import jakarta.annotation.Resource;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 批量分配角色接口测试类（内嵌 H2 + 共享 Session 模式）。
+ *
+ * @author Ethan
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.name=admin_user_bulk_assign",
+        "user-center.auth.mode=db"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+public class AdminUserBulkAssignTests {
+
+    @Resource
+    private MockMvc mockMvc;
+
+    @Resource
+    private RoleCatalog roleCatalog;
+
+    /**
+     * 接口测试：缺 userId、roleId 为负数的条目只在自己的结果里记失败，其余用户照常分配
+     */
+    @Test
+    void assignBulk_shouldReportInvalidItemsPerUser() throws Exception {
+        Cookie admin = mockMvc.perform(post("/user/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userAccount\":\"lt_admin\",\"userPassword\":\"12345678\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getCookie(DbLoginStateStore.COOKIE_NAME);
+        Assertions.assertNotNull(admin);
+        long driverId = roleCatalog.getByKey("DRIVER").getId();
+
+        mockMvc.perform(post("/admin/user/roles/assign-bulk")
+                        .cookie(admin)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"assignments\":[{\"userId\":51,\"roleId\":" + driverId + "},"
+                                + "{\"roleId\":" + driverId + "},"
+                                + "{\"userId\":52,\"roleId\":-1},"
+                                + "{\"userId\":53,\"roleId\":" + driverId + "}]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.total").value(4))
+                .andExpect(jsonPath("$.data.succeeded").value(2))
+                .andExpect(jsonPath("$.data.results[0].success").value(true))
+                .andExpect(jsonPath("$.data.results[1].message").value("userId / roleId 不合法"))
+                .andExpect(jsonPath("$.data.results[2].message").value("userId / roleId 不合法"))
+                .andExpect(jsonPath("$.data.results[3].success").value(true));
+
+        mockMvc.perform(post("/admin/user/roles/assign-bulk")
+                        .cookie(admin)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"assignments\":[]}"))
+                .andExpect(status().isBadRequest());
+    }
+}
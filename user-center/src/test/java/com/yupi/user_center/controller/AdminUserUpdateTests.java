@@ -0,0 +1,124 @@
+package com.yupi.user_center.controller;
+
+import com.yupi.user_center.mapper.UserMapper;
+import com.yupi.user_center.security.DbLoginStateStore;
+import jakarta.annotation.Resource;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 管理员更新用户接口测试类（内嵌 H2 + 共享 Session 模式，作废登录态能直接从 401 看出来）。
+ *
+ * @author Ethan
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.name=admin_user_update",
+        "user-center.auth.mode=db"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+public class AdminUserUpdateTests {
+
+    @Resource
+    private MockMvc mockMvc;
+
+    @Resource
+    private UserMapper userMapper;
+
+    /**
+     * 接口测试：带过期的 version 更新返回 400，数据不变；带当前 version 更新成功且版本号 + 1
+     */
+    @Test
+    void update_shouldRejectStaleVersion() throws Exception {
+        Cookie admin = login("lt_admin");
+        long id = 11;
+        int version = versionOf(id);
+
+        update(admin, "{\"id\":" + id + ",\"name\":\"改名一次\",\"version\":" + version + "}")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data").value(true));
+        Assertions.assertEquals(version + 1, versionOf(id));
+
+        update(admin, "{\"id\":" + id + ",\"name\":\"过期的改名\",\"version\":" + version + "}")
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("用户不存在或已被他人修改，请刷新后重试"));
+        Assertions.assertEquals("改名一次", userMapper.selectById(id).getName());
+        Assertions.assertEquals(version + 1, versionOf(id));
+    }
+
+    /**
+     * 接口测试：改成别人已经在用的账号返回 400“账号已存在”，原账号不变
+     */
+    @Test
+    void update_shouldMapDuplicateAccount() throws Exception {
+        Cookie admin = login("lt_admin");
+        long id = 12;
+
+        update(admin, "{\"id\":" + id + ",\"userAccount\":\"seed_5\",\"version\":" + versionOf(id) + "}")
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("账号已存在"));
+        Assertions.assertEquals("seed_11", userMapper.selectById(id).getUserAccount());
+    }
+
+    /**
+     * 接口测试：只改普通字段、或传了没变的状态时不踢人；改角色、封禁后该用户已有的登录态立即作废
+     */
+    @Test
+    void update_shouldRevokeSessionsOnlyWhenStatusOrRoleChanges() throws Exception {
+        Cookie admin = login("lt_admin");
+        long roleTarget = 21;
+        long banTarget = 22;
+        Cookie roleUser = login("seed_20");
+        Cookie banUser = login("seed_21");
+
+        update(admin, "{\"id\":" + roleTarget + ",\"name\":\"只改名字\",\"userStatus\":0,\"version\":" + versionOf(roleTarget) + "}")
+                .andExpect(status().isOk());
+        current(roleUser).andExpect(status().isOk());
+
+        update(admin, "{\"id\":" + roleTarget + ",\"userRole\":1,\"version\":" + versionOf(roleTarget) + "}")
+                .andExpect(status().isOk());
+        current(roleUser).andExpect(status().isUnauthorized());
+
+        update(admin, "{\"id\":" + banTarget + ",\"userStatus\":1,\"version\":" + versionOf(banTarget) + "}")
+                .andExpect(status().isOk());
+        current(banUser).andExpect(status().isUnauthorized());
+        current(admin).andExpect(status().isOk());
+    }
+
+    private Cookie login(String account) throws Exception {
+        Cookie cookie = mockMvc.perform(post("/user/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userAccount\":\"" + account + "\",\"userPassword\":\"12345678\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getCookie(DbLoginStateStore.COOKIE_NAME);
+        Assertions.assertNotNull(cookie);
+        return cookie;
+    }
+
+    private ResultActions update(Cookie admin, String body) throws Exception {
+        return mockMvc.perform(post("/admin/user/update")
+                .cookie(admin)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body));
+    }
+
+    private ResultActions current(Cookie session) throws Exception {
+        return mockMvc.perform(get("/user/current").cookie(session));
+    }
+
+    private int versionOf(long id) {
+        return userMapper.selectById(id).getVersion();
+    }
+}
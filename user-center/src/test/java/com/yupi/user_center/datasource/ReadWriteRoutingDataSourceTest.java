@@ -0,0 +1,180 @@
+package com.yupi.user_center.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.List;
+
+/**
+ * 读写分离路由数据源测试类（用假数据源，只看连接从哪来）。
+ *
+ * @author Ethan
+ */
+public class ReadWriteRoutingDataSourceTest {
+
+    private final StubDataSource primary = new StubDataSource("primary");
+    private final StubDataSource ds0 = new StubDataSource("r0");
+    private final StubDataSource ds1 = new StubDataSource("r1");
+    private final ReadWriteRoutingDataSource.Replica r0 = new ReadWriteRoutingDataSource.Replica("r0", ds0);
+    private final ReadWriteRoutingDataSource.Replica r1 = new ReadWriteRoutingDataSource.Replica("r1", ds1);
+    private final ReadWriteRoutingDataSource routing =
+            new ReadWriteRoutingDataSource(primary, List.of(r0, r1), "", 1000, 1);
+
+    @AfterEach
+    void clear() {
+        ReadRouting.set(ReadRouting.Route.DEFAULT);
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    /**
+     * 测试：第一次探测前从库不可用；事务外默认走主库，REPLICA 意图轮询走从库，PRIMARY 意图强制主库
+     */
+    @Test
+    void getConnection_shouldRouteByIntent() throws SQLException {
+        ReadRouting.set(ReadRouting.Route.REPLICA);
+        Assertions.assertEquals("primary", open());
+        Assertions.assertEquals(1, routing.getFallbackCount());
+
+        routing.probe();
+        String first = open();
+        String second = open();
+        Assertions.assertTrue(first.startsWith("r") && second.startsWith("r") && !first.equals(second));
+        Assertions.assertEquals(first, open());
+
+        ReadRouting.set(ReadRouting.Route.DEFAULT);
+        Assertions.assertEquals("primary", open());
+        Assertions.assertEquals(second, ReadRouting.call(ReadRouting.Route.REPLICA, this::openUnchecked));
+        Assertions.assertEquals("primary", ReadRouting.call(ReadRouting.Route.PRIMARY, this::openUnchecked));
+        Assertions.assertEquals(ReadRouting.Route.DEFAULT, ReadRouting.current());
+        Assertions.assertEquals(4, r0.getRoutedCount() + r1.getRoutedCount());
+    }
+
+    /**
+     * 测试：事务内按只读标记路由（只读事务走从库，读写事务即使在 REPLICA 意图下也走主库）
+     */
+    @Test
+    void getConnection_shouldFollowTransactionReadOnlyFlag() throws SQLException {
+        routing.probe();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        Assertions.assertNotEquals("primary", open());
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        ReadRouting.set(ReadRouting.Route.REPLICA);
+        Assertions.assertEquals("primary", open());
+    }
+
+    /**
+     * 测试：优先挑进行中连接最少的从库，连接关闭（重复关闭只算一次）后计数归还
+     */
+    @Test
+    void select_shouldPreferLeastPending() throws SQLException {
+        routing.probe();
+        ReadRouting.set(ReadRouting.Route.REPLICA);
+        Connection held = routing.getConnection();
+        String other = "r0".equals(held.toString()) ? "r1" : "r0";
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertEquals(other, open());
+        }
+        held.close();
+        held.close();
+        Assertions.assertEquals(0, r0.getPending());
+        Assertions.assertEquals(0, r1.getPending());
+    }
+
+    /**
+     * 测试：延迟超过上限或探测失败的从库被摘掉，恢复后重新接流量；取连接失败立即摘掉并回落主库
+     */
+    @Test
+    void replicas_shouldBeExcludedWhenLaggingOrDown() throws SQLException {
+        routing.probe();
+        ReadRouting.set(ReadRouting.Route.REPLICA);
+
+        r0.update(5000, 1000);
+        Assertions.assertFalse(r0.isAvailable());
+        Assertions.assertEquals(5000, r0.getLagMillis());
+        Assertions.assertEquals("r1", open());
+        Assertions.assertEquals("r1", open());
+
+        ds1.valid = false;
+        routing.probe();
+        Assertions.assertFalse(r1.isAvailable());
+        Assertions.assertEquals(1, r1.getProbeFailureCount());
+        r0.update(800, 1000);
+        Assertions.assertEquals("r0", open());
+
+        ds0.fail = true;
+        Assertions.assertEquals("primary", open());
+        Assertions.assertFalse(r0.isAvailable());
+        Assertions.assertEquals(0, r0.getPending());
+        Assertions.assertEquals(1, routing.getFallbackCount());
+    }
+
+    /**
+     * 测试：读己之写窗口内走主库，过期后恢复从库
+     */
+    @Test
+    void readYourWrites_shouldStickToPrimaryWithinWindow() throws InterruptedException {
+        ReadYourWrites rw = new ReadYourWrites(50, 16);
+        Assertions.assertEquals(ReadRouting.Route.REPLICA, rw.routeFor(1));
+        rw.markWritten(1);
+        Assertions.assertEquals(ReadRouting.Route.PRIMARY, rw.routeFor(1));
+        Assertions.assertEquals(ReadRouting.Route.REPLICA, rw.routeFor(2));
+        Thread.sleep(80);
+        Assertions.assertEquals(ReadRouting.Route.REPLICA, rw.routeFor(1));
+    }
+
+    private String open() throws SQLException {
+        try (Connection connection = routing.getConnection()) {
+            return connection.toString();
+        }
+    }
+
+    private String openUnchecked() {
+        try {
+            return open();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 假数据源：连接的 toString 是数据源名字，isValid 返回 valid，fail 时取连接抛异常。
+     */
+    private static class StubDataSource extends AbstractDataSource {
+
+        private final String name;
+        private volatile boolean valid = true;
+        private volatile boolean fail;
+
+        StubDataSource(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (fail) {
+                throw new SQLTransientConnectionException(name + " down");
+            }
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "toString" -> name;
+                        case "isValid" -> valid;
+                        default -> null;
+                    });
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return getConnection();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.yupi.user_center.datasource;
+
+import com.yupi.user_center.security.DbLoginStateStore;
+import jakarta.annotation.Resource;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 读写分离 + 共享 Session 测试类：两个内嵌 H2 分别当主库和从库，从库有用户数据但没有任何 Session（模拟复制延迟），
+ * {@code @ReplicaRead} 接口里的登录态校验必须仍然读主库。
+ *
+ * @author Ethan
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.name=replica_session_primary",
+        "user-center.auth.mode=db",
+        "user-center.auth.db-session.near-cache-ttl-ms=1",
+        "user-center.datasource.replicas[0].name=h2-replica",
+        "user-center.datasource.replicas[0].url=" + ReplicaSessionRoutingTests.REPLICA_URL,
+        "user-center.datasource.lag-query=",
+        "user-center.datasource.read-your-writes-ms=1"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+public class ReplicaSessionRoutingTests {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:replica_session_replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;"
+            + "CASE_INSENSITIVE_IDENTIFIERS=TRUE;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1";
+
+    @Resource
+    private MockMvc mockMvc;
+
+    @Resource
+    private DataSource dataSource;
+
+    /**
+     * 从库在应用启动前建好：同样的表和种子用户，user_session 为空。
+     */
+    @BeforeAll
+    static void createReplica() throws Exception {
+        try (Connection connection = DriverManager.getConnection(REPLICA_URL, "sa", "")) {
+            for (String script : new String[]{"schema_user.sql", "schema_role.sql", "schema_session.sql", "h2/data.sql"}) {
+                ScriptUtils.executeSqlScript(connection, new ClassPathResource(script));
+            }
+        }
+    }
+
+    /**
+     * 测试：刚登录（Session 只在主库）就访问 /user/current 能识别；资料仍从从库读；退出后（从库上也没有）为 401
+     */
+    @Test
+    void currentUser_shouldResolveSessionOnPrimaryWhileReadingReplica() throws Exception {
+        ReadWriteRoutingDataSource routing = dataSource.unwrap(ReadWriteRoutingDataSource.class);
+        Assertions.assertTrue(routing.getReplicas().get(0).isAvailable());
+
+        Cookie session = mockMvc.perform(post("/user/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userAccount\":\"seed_30\",\"userPassword\":\"12345678\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getCookie(DbLoginStateStore.COOKIE_NAME);
+        Assertions.assertNotNull(session);
+        // 等近缓存和写后窗口（都是 1ms）过去：Session 要回库查，资料加载才会走从库
+        Thread.sleep(20);
+
+        long routedBefore = routing.getReplicas().get(0).getRoutedCount();
+        mockMvc.perform(get("/user/current").cookie(session)).andExpect(status().isOk());
+        Assertions.assertTrue(routing.getReplicas().get(0).getRoutedCount() > routedBefore);
+        Assertions.assertEquals(ReadRouting.Route.DEFAULT, ReadRouting.current());
+
+        mockMvc.perform(post("/user/logout").cookie(session)).andExpect(status().isOk());
+        mockMvc.perform(get("/user/current").cookie(session)).andExpect(status().isUnauthorized());
+    }
+}
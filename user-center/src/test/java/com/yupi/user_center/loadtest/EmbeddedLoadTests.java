@@ -0,0 +1,42 @@
+package com.yupi.user_center.loadtest;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * 单机端到端压测：在内嵌 H2（MySQL 模式）上启动整个应用，再用 {@link LoadDriver} 按比例混合压五个接口。
+ *
+ * <p>运行：{@code mvn test -Ploadtest [-Dloadtest.concurrency=128 -Dloadtest.rate=800 -Dloadtest.duration-seconds=60]}，
+ * 其余应用配置（如 -Dspring.threads.virtual.enabled=true、-Duser-center.auth.mode=token）照常用系统属性覆盖，
+ * 改容量参数前后各跑一次对比报告即可。</p>
+ * 小白理解：不用连真实数据库，一台机器就能把“改了配置后扛不扛得住”先量一遍。
+ *
+ * @author Ethan
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles({"h2", "loadtest"})
+@Tag("loadtest")
+public class EmbeddedLoadTests {
+
+    private static final double MAX_ERROR_RATE = Double.parseDouble(System.getProperty("loadtest.max-error-rate", "0.01"));
+
+    @LocalServerPort
+    private int port;
+
+    /**
+     * 压测：按配置跑完后打印报告，错误率超过阈值则失败
+     */
+    @Test
+    void mixedWorkload() throws Exception {
+        LoadDriver.Config config = LoadDriver.Config.fromSystemProperties("http://localhost:" + port);
+        LoadDriver.Report report = new LoadDriver(config).run();
+        report.print(System.out);
+        Assertions.assertTrue(report.totalRequests() > 0, "没有完成任何请求");
+        Assertions.assertTrue(report.totalErrorRate() <= MAX_ERROR_RATE,
+                String.format("错误率 %.2f%% 超过阈值 %.2f%%", report.totalErrorRate() * 100, MAX_ERROR_RATE * 100));
+    }
+}
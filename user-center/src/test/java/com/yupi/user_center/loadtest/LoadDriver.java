@@ -0,0 +1,545 @@
+package com.yupi.user_center.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 端到端压测驱动：按配置的比例混合调用注册、登录、当前用户、管理端搜索、分配角色五个接口，
+ * 按接口输出吞吐、延迟分位数和错误率（按 HTTP 状态码细分）。
+ *
+ * <p>两种负载模型：rate = 0 时是闭环（每个虚拟用户收到响应后立刻发下一个请求）；rate &gt; 0 时是开环，
+ * 全局按固定间隔排请求，延迟从“计划发出时间”算起，服务端变慢时排队时间也会计入（避免协调遗漏）。</p>
+ *
+ * <p>可以由 {@link EmbeddedLoadTests} 在内嵌 H2 上启动应用后调用，也可以直接运行 {@link #main(String[])}
+ * 压任意已部署的实例，参数都用系统属性传入，见 {@link Config#fromSystemProperties(String)}。</p>
+ *
+ * @author Ethan
+ */
+public class LoadDriver {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    /**
+     * 压测的接口。
+     */
+    public enum Op {
+        REGISTER("POST /user/register"),
+        LOGIN("POST /user/login"),
+        CURRENT("GET /user/current"),
+        SEARCH("GET /admin/user/search"),
+        ASSIGN("POST /admin/user/roles/assign");
+
+        private final String label;
+
+        Op(String label) {
+            this.label = label;
+        }
+    }
+
+    /**
+     * 压测配置。
+     */
+    public static final class Config {
+        String baseUrl;
+        int concurrency = 64;
+        int ratePerSecond;
+        int warmupSeconds = 5;
+        int durationSeconds = 30;
+        Map<Op, Integer> mix = new EnumMap<>(Op.class);
+        String adminAccount = "lt_admin";
+        String adminPassword = "12345678";
+        String userPassword = "12345678";
+        String[] searchKeywords = {"seed_12", "种子用户3", "se", "example"};
+        String assignTargetKeyword = "seed_";
+
+        /**
+         * 从系统属性读取配置（前缀 loadtest.）。
+         *
+         * <ul>
+         *     <li>loadtest.base-url：被压地址（默认 defaultBaseUrl）</li>
+         *     <li>loadtest.concurrency：虚拟用户数（默认 64）</li>
+         *     <li>loadtest.rate：全局每秒请求数，0 表示闭环（默认 0）</li>
+         *     <li>loadtest.warmup-seconds / loadtest.duration-seconds：预热与统计时长（默认 5 / 30）</li>
+         *     <li>loadtest.mix：接口权重，如 register=5,login=10,current=60,search=20,assign=5</li>
+         *     <li>loadtest.admin-account / loadtest.admin-password：管理员账号（默认为种子数据里的 lt_admin）</li>
+         * </ul>
+         *
+         * @param defaultBaseUrl 未指定 loadtest.base-url 时使用的地址
+         * @return 配置
+         */
+        public static Config fromSystemProperties(String defaultBaseUrl) {
+            Config c = new Config();
+            c.baseUrl = System.getProperty("loadtest.base-url", defaultBaseUrl);
+            c.concurrency = Integer.getInteger("loadtest.concurrency", c.concurrency);
+            c.ratePerSecond = Integer.getInteger("loadtest.rate", c.ratePerSecond);
+            c.warmupSeconds = Integer.getInteger("loadtest.warmup-seconds", c.warmupSeconds);
+            c.durationSeconds = Integer.getInteger("loadtest.duration-seconds", c.durationSeconds);
+            c.adminAccount = System.getProperty("loadtest.admin-account", c.adminAccount);
+            c.adminPassword = System.getProperty("loadtest.admin-password", c.adminPassword);
+            String mix = System.getProperty("loadtest.mix", "register=5,login=10,current=60,search=20,assign=5");
+            for (String part : mix.split(",")) {
+                String[] kv = part.trim().split("=");
+                if (kv.length != 2) {
+                    throw new IllegalArgumentException("loadtest.mix 格式错误：" + part);
+                }
+                c.mix.put(Op.valueOf(kv[0].trim().toUpperCase()), Integer.parseInt(kv[1].trim()));
+            }
+            return c;
+        }
+    }
+
+    /**
+     * 单个接口的统计结果。
+     */
+    public static final class EndpointStats {
+        private final long[] latenciesNanos;
+        private final Map<Integer, Long> errorsByStatus;
+        private final long errors;
+
+        EndpointStats(long[] latenciesNanos, Map<Integer, Long> errorsByStatus) {
+            this.latenciesNanos = latenciesNanos;
+            this.errorsByStatus = errorsByStatus;
+            this.errors = errorsByStatus.values().stream().mapToLong(Long::longValue).sum();
+        }
+
+        /**
+         * 请求总数（含失败）。
+         *
+         * @return 请求数
+         */
+        public long total() {
+            return latenciesNanos.length;
+        }
+
+        /**
+         * 错误率（0~1）。
+         *
+         * @return 错误率
+         */
+        public double errorRate() {
+            return latenciesNanos.length == 0 ? 0 : errors / (double) latenciesNanos.length;
+        }
+
+        /**
+         * 延迟分位数（毫秒）。
+         *
+         * @param q 分位（0~1）
+         * @return 毫秒
+         */
+        public double percentileMillis(double q) {
+            if (latenciesNanos.length == 0) {
+                return 0;
+            }
+            int idx = Math.min(latenciesNanos.length - 1, (int) Math.ceil(q * latenciesNanos.length) - 1);
+            return latenciesNanos[Math.max(0, idx)] / 1e6;
+        }
+    }
+
+    /**
+     * 压测报告。
+     */
+    public static final class Report {
+        private final Map<Op, EndpointStats> stats;
+        private final int seconds;
+
+        Report(Map<Op, EndpointStats> stats, int seconds) {
+            this.stats = stats;
+            this.seconds = seconds;
+        }
+
+        /**
+         * 某个接口的统计。
+         *
+         * @param op 接口
+         * @return 统计（没有请求时为空统计）
+         */
+        public EndpointStats get(Op op) {
+            return stats.getOrDefault(op, new EndpointStats(new long[0], Map.of()));
+        }
+
+        /**
+         * 全部接口合计的错误率。
+         *
+         * @return 错误率
+         */
+        public double totalErrorRate() {
+            long total = 0;
+            long errors = 0;
+            for (EndpointStats s : stats.values()) {
+                total += s.total();
+                errors += s.errors;
+            }
+            return total == 0 ? 0 : errors / (double) total;
+        }
+
+        /**
+         * 全部接口合计的请求数。
+         *
+         * @return 请求数
+         */
+        public long totalRequests() {
+            return stats.values().stream().mapToLong(EndpointStats::total).sum();
+        }
+
+        /**
+         * 打印表格。
+         *
+         * @param out 输出
+         */
+        public void print(PrintStream out) {
+            out.printf("%n[loadtest] %d s, %d requests, error rate %.2f%%%n", seconds, totalRequests(), totalErrorRate() * 100);
+            out.printf("%-30s %9s %9s %9s %9s %9s %9s  %s%n", "endpoint", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms", "err %", "errors by status");
+            for (Op op : Op.values()) {
+                EndpointStats s = get(op);
+                if (s.total() == 0) {
+                    continue;
+                }
+                out.printf("%-30s %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f  %s%n", op.label, s.total() / (double) seconds,
+                        s.percentileMillis(0.50), s.percentileMillis(0.90), s.percentileMillis(0.99),
+                        s.percentileMillis(1.0), s.errorRate() * 100, s.errorsByStatus.isEmpty() ? "-" : s.errorsByStatus);
+            }
+        }
+    }
+
+    private final Config config;
+
+    private final HttpClient client;
+
+    private final String runId = Long.toString(System.currentTimeMillis() % 1_000_000_000L, 36);
+
+    private final AtomicLong accountSeq = new AtomicLong();
+
+    private Credentials admin;
+
+    private long[] assignableRoleIds;
+
+    private long[] assignTargetUserIds;
+
+    /**
+     * 构造驱动。
+     *
+     * @param config 压测配置
+     */
+    public LoadDriver(Config config) {
+        this.config = config;
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    /**
+     * 准备数据（管理员登录、每个虚拟用户注册并登录）后执行压测。
+     *
+     * @return 报告
+     * @throws Exception 准备阶段失败时抛出
+     */
+    public Report run() throws Exception {
+        admin = login(config.adminAccount, config.adminPassword);
+        assignableRoleIds = loadAssignableRoleIds();
+        assignTargetUserIds = loadAssignTargets();
+
+        List<Credentials> users = new ArrayList<>(config.concurrency);
+        try (ExecutorService setup = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Credentials>> futures = new ArrayList<>();
+            for (int i = 0; i < config.concurrency; i++) {
+                futures.add(setup.submit(() -> {
+                    String account = nextAccount();
+                    retryOnBusy(() -> register(account));
+                    return login(account, config.userPassword);
+                }));
+            }
+            for (Future<Credentials> f : futures) {
+                users.add(f.get());
+            }
+        }
+
+        Op[] wheel = buildWheel();
+        long start = System.nanoTime();
+        long measureFrom = start + config.warmupSeconds * 1_000_000_000L;
+        long deadline = measureFrom + config.durationSeconds * 1_000_000_000L;
+        long intervalNanos = config.ratePerSecond > 0 ? 1_000_000_000L / config.ratePerSecond : 0;
+        AtomicLong nextSlot = new AtomicLong(start);
+
+        List<Future<Recorder>> futures = new ArrayList<>(config.concurrency);
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Credentials user : users) {
+                futures.add(workers.submit(() -> {
+                    Recorder recorder = new Recorder();
+                    ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                    Credentials self = user;
+                    while (true) {
+                        long scheduled;
+                        if (intervalNanos > 0) {
+                            scheduled = nextSlot.getAndAdd(intervalNanos);
+                            long wait = scheduled - System.nanoTime();
+                            if (wait > 0) {
+                                LockSupport.parkNanos(wait);
+                            }
+                        } else {
+                            scheduled = System.nanoTime();
+                        }
+                        if (scheduled >= deadline) {
+                            break;
+                        }
+                        Op op = wheel[rnd.nextInt(wheel.length)];
+                        int status;
+                        try {
+                            Result r = execute(op, self, rnd);
+                            status = r.status;
+                            if (r.credentials != null) {
+                                self = r.credentials;
+                            }
+                        } catch (Exception e) {
+                            status = -1;
+                        }
+                        if (scheduled >= measureFrom) {
+                            recorder.record(op, System.nanoTime() - scheduled, status);
+                        }
+                    }
+                    return recorder;
+                }));
+            }
+        }
+
+        Recorder merged = new Recorder();
+        for (Future<Recorder> f : futures) {
+            merged.merge(f.get());
+        }
+        return merged.toReport(config.durationSeconds);
+    }
+
+    /**
+     * 命令行入口：压已部署的实例。
+     *
+     * <p>例：{@code java -cp ... com.yupi.user_center.loadtest.LoadDriver -Dloadtest.base-url=http://10.0.0.5:8090 -Dloadtest.rate=500}
+     * （系统属性写在类名前面）。</p>
+     *
+     * @param args 未使用
+     * @throws Exception 压测失败时抛出
+     */
+    public static void main(String[] args) throws Exception {
+        Config config = Config.fromSystemProperties("http://localhost:8090");
+        new LoadDriver(config).run().print(System.out);
+    }
+
+    private Result execute(Op op, Credentials self, ThreadLocalRandom rnd) throws Exception {
+        return switch (op) {
+            case REGISTER -> new Result(register(nextAccount()), null);
+            case LOGIN -> {
+                HttpResponse<String> resp = sendLogin(self.account, config.userPassword);
+                yield new Result(resp.statusCode(), resp.statusCode() == 200 ? credentials(self.account, resp) : null);
+            }
+            case CURRENT -> new Result(send(get("/user/current", self)), null);
+            case SEARCH -> {
+                String keyword = config.searchKeywords[rnd.nextInt(config.searchKeywords.length)];
+                yield new Result(send(get("/admin/user/search?pageSize=20&username="
+                        + URLEncoder.encode(keyword, StandardCharsets.UTF_8), admin)), null);
+            }
+            case ASSIGN -> {
+                if (assignTargetUserIds.length == 0 || assignableRoleIds.length == 0) {
+                    yield new Result(-2, null);
+                }
+                long userId = assignTargetUserIds[rnd.nextInt(assignTargetUserIds.length)];
+                long roleId = assignableRoleIds[rnd.nextInt(assignableRoleIds.length)];
+                String body = "{\"userId\":" + userId + ",\"roleIds\":[" + roleId + "]}";
+                yield new Result(send(post("/admin/user/roles/assign", body, admin)), null);
+            }
+        };
+    }
+
+    private int register(String account) throws Exception {
+        String body = "{\"userAccount\":\"" + account + "\",\"userPassword\":\"" + config.userPassword
+                + "\",\"checkPassword\":\"" + config.userPassword + "\"}";
+        return send(post("/user/register", body, null));
+    }
+
+    private Credentials login(String account, String password) throws Exception {
+        HttpResponse<String>[] holder = new HttpResponse[1];
+        retryOnBusy(() -> {
+            holder[0] = sendLogin(account, password);
+            return holder[0].statusCode();
+        });
+        if (holder[0].statusCode() != 200) {
+            throw new IllegalStateException("登录失败 " + account + "：" + holder[0].statusCode() + " " + holder[0].body());
+        }
+        return credentials(account, holder[0]);
+    }
+
+    private HttpResponse<String> sendLogin(String account, String password) throws Exception {
+        String body = "{\"userAccount\":\"" + account + "\",\"userPassword\":\"" + password + "\"}";
+        return client.send(post("/user/login", body, null), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private long[] loadAssignableRoleIds() throws Exception {
+        JsonNode data = getData("/admin/role/list");
+        List<Long> ids = new ArrayList<>();
+        for (JsonNode role : data) {
+            if (!"ADMIN".equals(role.path("roleKey").asText()) && role.path("status").asInt() == 0) {
+                ids.add(role.path("id").asLong());
+            }
+        }
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private long[] loadAssignTargets() throws Exception {
+        JsonNode data = getData("/admin/user/search?pageSize=100&username="
+                + URLEncoder.encode(config.assignTargetKeyword, StandardCharsets.UTF_8));
+        List<Long> ids = new ArrayList<>();
+        for (JsonNode user : data.path("records")) {
+            ids.add(user.path("id").asLong());
+        }
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private JsonNode getData(String path) throws Exception {
+        HttpResponse<String> resp = client.send(get(path, admin), HttpResponse.BodyHandlers.ofString());
+        if (resp.statusCode() != 200) {
+            throw new IllegalStateException(path + " 返回 " + resp.statusCode() + "：" + resp.body());
+        }
+        return JSON.readTree(resp.body()).path("data");
+    }
+
+    private Op[] buildWheel() {
+        List<Op> wheel = new ArrayList<>();
+        config.mix.forEach((op, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                wheel.add(op);
+            }
+        });
+        if (wheel.isEmpty()) {
+            throw new IllegalArgumentException("loadtest.mix 至少要有一个权重大于 0 的接口");
+        }
+        return wheel.toArray(new Op[0]);
+    }
+
+    private String nextAccount() {
+        return "lt_" + runId + "_" + accountSeq.incrementAndGet();
+    }
+
+    private int send(HttpRequest request) throws Exception {
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private HttpRequest get(String path, Credentials who) {
+        return authorize(HttpRequest.newBuilder(URI.create(config.baseUrl + path)), who).GET().build();
+    }
+
+    private HttpRequest post(String path, String json, Credentials who) {
+        return authorize(HttpRequest.newBuilder(URI.create(config.baseUrl + path)), who)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private static HttpRequest.Builder authorize(HttpRequest.Builder builder, Credentials who) {
+        builder.timeout(Duration.ofSeconds(30));
+        if (who != null) {
+            if (who.cookie != null) {
+                builder.header("Cookie", who.cookie);
+            }
+            if (who.token != null) {
+                builder.header("X-Auth-Token", who.token);
+            }
+        }
+        return builder;
+    }
+
+    private static Credentials credentials(String account, HttpResponse<?> resp) {
+        String cookie = resp.headers().allValues("Set-Cookie").stream()
+                .map(c -> c.split(";", 2)[0])
+                .reduce((a, b) -> a + "; " + b)
+                .orElse(null);
+        String token = resp.headers().firstValue("X-Auth-Token").orElse(null);
+        return new Credentials(account, cookie, token);
+    }
+
+    /**
+     * 准备阶段遇到 429（密码哈希线程池满）时退避重试。
+     */
+    private static void retryOnBusy(StatusCall call) throws Exception {
+        for (int attempt = 0; ; attempt++) {
+            int status = call.call();
+            if (status != 429 || attempt >= 20) {
+                return;
+            }
+            Thread.sleep(50L * (attempt + 1));
+        }
+    }
+
+    @FunctionalInterface
+    private interface StatusCall {
+        int call() throws Exception;
+    }
+
+    private record Credentials(String account, String cookie, String token) {
+    }
+
+    private record Result(int status, Credentials credentials) {
+    }
+
+    /**
+     * 单个虚拟用户的记录器（不共享，结束后合并）。
+     */
+    private static final class Recorder {
+        private final Map<Op, long[]> latencies = new EnumMap<>(Op.class);
+        private final Map<Op, Integer> sizes = new EnumMap<>(Op.class);
+        private final Map<Op, Map<Integer, Long>> errors = new EnumMap<>(Op.class);
+
+        void record(Op op, long nanos, int status) {
+            long[] arr = latencies.computeIfAbsent(op, k -> new long[256]);
+            int n = sizes.getOrDefault(op, 0);
+            if (n == arr.length) {
+                arr = Arrays.copyOf(arr, n * 2);
+                latencies.put(op, arr);
+            }
+            arr[n] = nanos;
+            sizes.put(op, n + 1);
+            if (status != 200) {
+                errors.computeIfAbsent(op, k -> new TreeMap<>()).merge(status, 1L, Long::sum);
+            }
+        }
+
+        void merge(Recorder other) {
+            other.sizes.forEach((op, n) -> {
+                long[] src = other.latencies.get(op);
+                for (int i = 0; i < n; i++) {
+                    record(op, src[i], 200);
+                }
+            });
+            other.errors.forEach((op, byStatus) ->
+                    byStatus.forEach((status, count) -> errors.computeIfAbsent(op, k -> new TreeMap<>()).merge(status, count, Long::sum)));
+        }
+
+        Report toReport(int seconds) {
+            Map<Op, EndpointStats> stats = new EnumMap<>(Op.class);
+            sizes.forEach((op, n) -> {
+                long[] sorted = Arrays.copyOf(latencies.get(op), n);
+                Arrays.sort(sorted);
+                stats.put(op, new EndpointStats(sorted, errors.getOrDefault(op, Map.of())));
+            });
+            return new Report(stats, seconds);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.yupi.user_center.monitor;
+
+import com.yupi.user_center.model.vo.SlowQueryVO;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 慢查询记录测试类（纯内存，不依赖数据库）。
+ *
+ * @author Ethan
+ */
+public class SlowQueryLogTest {
+
+    private final Configuration configuration = new Configuration();
+
+    /**
+     * 测试：低于阈值不记录；写满后覆盖最旧的，读取按从新到旧
+     */
+    @Test
+    void record_shouldKeepNewestEntriesWhenRingWraps() {
+        SlowQueryLog log = new SlowQueryLog(true, 100, 3);
+        Assertions.assertFalse(log.isSlow(99_000_000L));
+        Assertions.assertTrue(log.isSlow(100_000_000L));
+
+        BoundSql sql = boundSql("SELECT * FROM user WHERE id = ?", Map.of("id", 1L), "id");
+        for (int i = 1; i <= 5; i++) {
+            log.record(configuration, "stmt" + i, Map.of("id", 1L), sql, i * 1_000_000L);
+        }
+        List<SlowQueryVO> recent = log.recent(10);
+        Assertions.assertEquals(5, log.getTotalRecorded());
+        Assertions.assertEquals(List.of("stmt5", "stmt4", "stmt3"), recent.stream().map(SlowQueryVO::getStatementId).toList());
+        Assertions.assertEquals(List.of("stmt5"), log.recent(1).stream().map(SlowQueryVO::getStatementId).toList());
+    }
+
+    /**
+     * 测试：按属性名或紧挨着的列名识别密码参数并打码，其余参数原样保留
+     */
+    @Test
+    void maskedParams_shouldMaskPasswordColumns() {
+        Map<String, Object> param = Map.of("account", "alice", "pwd", "secret-hash", "userPassword", "other-hash");
+        BoundSql where = boundSql("SELECT id FROM user WHERE userAccount = ? AND `userPassword`=? AND isDelete = 0",
+                param, "account", "pwd");
+        Assertions.assertEquals(List.of("alice", "******"), SlowQueryLog.maskedParams(configuration, param, where));
+
+        BoundSql insert = boundSql("INSERT INTO user (userAccount, userPassword, name) VALUES (?, ?, ?)",
+                Map.of("a", "bob", "p", "hash", "n", "Bob"), "a", "p", "n");
+        Assertions.assertEquals(List.of("bob", "******", "Bob"),
+                SlowQueryLog.maskedParams(configuration, Map.of("a", "bob", "p", "hash", "n", "Bob"), insert));
+
+        BoundSql byProperty = boundSql("UPDATE user SET x = ? WHERE id = ?", param, "userPassword", "account");
+        Assertions.assertEquals(List.of("******", "alice"), SlowQueryLog.maskedParams(configuration, param, byProperty));
+    }
+
+    /**
+     * 测试：Session id、令牌类的列和属性同样打码，下划线和驼峰写法都能识别
+     */
+    @Test
+    void maskedParams_shouldMaskSessionIdsAndTokens() {
+        Map<String, Object> param = Map.of("id", "abc", "uid", 7L, "refreshToken", "t0k3n");
+        BoundSql bySessionColumn = boundSql("SELECT * FROM user_session WHERE session_id = ? AND user_id = ?", param, "id", "uid");
+        Assertions.assertEquals(List.of("******", "7"), SlowQueryLog.maskedParams(configuration, param, bySessionColumn));
+
+        BoundSql byProperty = boundSql("UPDATE t SET a = ?, b = ? WHERE c = ?", param, "refreshToken", "uid", "__frch_s_0.sessionId");
+        Assertions.assertEquals(List.of("******", "7", "******"), SlowQueryLog.maskedParams(configuration, param, byProperty));
+    }
+
+    /**
+     * 测试：CASE 里的占位符对应到正确的列（touchBatch：WHEN 是 session_id，THEN / ELSE 是被赋值的列）
+     */
+    @Test
+    void placeholderColumns_shouldResolveCaseBranches() {
+        String touchBatch = "UPDATE user_session SET last_access_at = GREATEST(last_access_at, CASE session_id "
+                + "WHEN ? THEN ? WHEN ? THEN ? ELSE last_access_at END) WHERE session_id IN (?, ?)";
+        Assertions.assertEquals(List.of("session_id", "last_access_at", "session_id", "last_access_at", "session_id", "session_id"),
+                SlowQueryLog.placeholderColumns(touchBatch, 6));
+
+        String searched = "UPDATE user SET userRole = CASE WHEN id = ? THEN ? ELSE ? END WHERE id IN (?)";
+        Assertions.assertEquals(List.of("id", "userRole", "userRole", "id"), SlowQueryLog.placeholderColumns(searched, 4));
+
+        Map<String, Object> param = Map.of("s", "sid-1", "t", 1L);
+        BoundSql masked = boundSql(touchBatch, param, "s", "t", "s", "t", "s", "s");
+        Assertions.assertEquals(List.of("******", "1", "******", "1", "******", "******"),
+                SlowQueryLog.maskedParams(configuration, param, masked));
+    }
+
+    /**
+     * 测试：字符串常量里的问号不算占位符
+     */
+    @Test
+    void placeholderColumns_shouldIgnoreQuotedQuestionMarks() {
+        List<String> columns = SlowQueryLog.placeholderColumns("SELECT '?' AS q FROM user WHERE name LIKE ? AND id IN (?, ?)", 3);
+        Assertions.assertEquals(List.of("name", "id", "id"), columns);
+    }
+
+    private BoundSql boundSql(String sql, Object parameter, String... properties) {
+        List<ParameterMapping> mappings = new ArrayList<>();
+        for (String property : properties) {
+            mappings.add(new ParameterMapping.Builder(configuration, property, Object.class).build());
+        }
+        return new BoundSql(configuration, sql, mappings, parameter);
+    }
+}
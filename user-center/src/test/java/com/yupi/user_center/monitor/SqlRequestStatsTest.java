@@ -0,0 +1,71 @@
+package com.yupi.user_center.monitor;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+/**
+ * 请求级 SQL 统计测试类（纯内存，不依赖数据库）。
+ *
+ * @author Ethan
+ */
+public class SqlRequestStatsTest {
+
+    private static final String BY_ID = "com.yupi.user_center.mapper.UserMapper.selectById";
+
+    /**
+     * 测试：同一语句换参数执行达到阈值时判为疑似 N+1，且只记一次
+     */
+    @Test
+    void record_shouldFlagRepeatedStatementWithDistinctParams() {
+        SqlRequestStats stats = new SqlRequestStats(3);
+        for (int userId = 1; userId <= 6; userId++) {
+            stats.record(BY_ID, 1_000, Integer.hashCode(userId));
+        }
+        Assertions.assertEquals(6, stats.getStatementCount());
+        Assertions.assertEquals(6_000, stats.getElapsedNanos());
+        Assertions.assertEquals(6, stats.getExecutions(BY_ID));
+        Assertions.assertEquals(List.of(BY_ID), stats.getRepeatedStatements());
+    }
+
+    /**
+     * 测试：同样参数重复执行不算 N+1（那是重复查询，不是按行回查）
+     */
+    @Test
+    void record_shouldIgnoreSameParams() {
+        SqlRequestStats stats = new SqlRequestStats(3);
+        for (int i = 0; i < 10; i++) {
+            stats.record(BY_ID, 1_000, 42);
+        }
+        stats.record("other", 1_000, 1);
+        Assertions.assertEquals(11, stats.getStatementCount());
+        Assertions.assertTrue(stats.getRepeatedStatements().isEmpty());
+    }
+
+    /**
+     * 测试：阈值小于等于 1 时关闭检测，只计数
+     */
+    @Test
+    void record_shouldOnlyCountWhenDetectionDisabled() {
+        SqlRequestStats stats = new SqlRequestStats(0);
+        for (int userId = 1; userId <= 10; userId++) {
+            stats.record(BY_ID, 1_000, userId);
+        }
+        Assertions.assertFalse(stats.detectsRepeats());
+        Assertions.assertEquals(10, stats.getStatementCount());
+        Assertions.assertEquals(0, stats.getExecutions(BY_ID));
+        Assertions.assertTrue(stats.getRepeatedStatements().isEmpty());
+    }
+
+    /**
+     * 测试：请求结束后当前线程上不再有统计对象
+     */
+    @Test
+    void beginEnd_shouldBindToCurrentThread() {
+        SqlRequestStats stats = SqlRequestStats.begin(5);
+        Assertions.assertSame(stats, SqlRequestStats.current());
+        SqlRequestStats.end();
+        Assertions.assertNull(SqlRequestStats.current());
+    }
+}
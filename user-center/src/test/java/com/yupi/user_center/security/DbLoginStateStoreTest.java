@@ -0,0 +1,185 @@
+package com.yupi.user_center.security;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.yupi.user_center.mapper.UserSessionMapper;
+import com.yupi.user_center.model.UserSession;
+import jakarta.annotation.Resource;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+/**
+ * 数据库共享 Session 测试类（内嵌 H2，h2 profile 的建表脚本和种子用户）。
+ *
+ * <p>近缓存容量设成 2、信任时间设得很长，才能分清“走了近缓存”还是“回了库”；定时任务间隔拉长，由测试自己调用。</p>
+ *
+ * @author Ethan
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.name=db_login_state_store",
+        "user-center.auth.mode=db",
+        "user-center.auth.db-session.near-cache-capacity=2",
+        "user-center.auth.db-session.near-cache-ttl-ms=600000",
+        "user-center.auth.db-session.touch-interval-ms=0",
+        "user-center.auth.db-session.flush-interval-ms=3600000",
+        "user-center.auth.db-session.sweep-interval-ms=3600000"
+})
+@ActiveProfiles("h2")
+public class DbLoginStateStoreTest {
+
+    private static final long TIMEOUT_MILLIS = 30 * 60 * 1000L;
+
+    @Resource
+    private DbLoginStateStore store;
+
+    @Resource
+    private UserSessionMapper userSessionMapper;
+
+    @BeforeEach
+    void clearSessions() {
+        userSessionMapper.delete(new QueryWrapper<UserSession>().isNotNull("session_id"));
+    }
+
+    /**
+     * 测试：登录写库并下发 Cookie，带 Cookie 的请求能识别出用户
+     */
+    @Test
+    void login_shouldPersistSessionAndResolveCookie() {
+        String sessionId = login(2);
+
+        Assertions.assertEquals(2L, userSessionMapper.selectById(sessionId).getUserId());
+        Assertions.assertEquals(2L, store.current(requestWith(sessionId)).userId());
+        Assertions.assertNull(store.current(requestWith("x".repeat(43))));
+        Assertions.assertNull(store.current(new MockHttpServletRequest()));
+    }
+
+    /**
+     * 测试：近缓存满了按 LRU 淘汰最久没用的条目，新登录的 Session 照样进缓存
+     */
+    @Test
+    void nearCache_shouldEvictLeastRecentlyUsed() {
+        String a = login(2);
+        String b = login(3);
+        store.current(requestWith(a));
+        String c = login(4);
+        // 库里的记录全删掉：还在近缓存里的能识别，被淘汰的回库后失效
+        clearSessions();
+
+        Assertions.assertNotNull(store.current(requestWith(a)));
+        Assertions.assertNotNull(store.current(requestWith(c)));
+        Assertions.assertNull(store.current(requestWith(b)));
+    }
+
+    /**
+     * 测试：续期先合并在内存里，flush 时一条 UPDATE 写库；CASE 按 Session 各写各的，GREATEST 不会把时间改回去
+     */
+    @Test
+    void touchBatch_shouldOnlyMoveLastAccessForward() {
+        long now = System.currentTimeMillis();
+        insert("a".repeat(43), 2, now - 5000);
+        insert("b".repeat(43), 3, now - 5000);
+
+        Assertions.assertEquals(2L, store.current(requestWith("a".repeat(43))).userId());
+        store.flushTouches();
+        Assertions.assertTrue(lastAccessOf("a".repeat(43)) >= now);
+        Assertions.assertEquals(now - 5000, lastAccessOf("b".repeat(43)));
+
+        userSessionMapper.touchBatch(List.of(session("a".repeat(43), now - 60000), session("b".repeat(43), now - 1000)));
+        Assertions.assertTrue(lastAccessOf("a".repeat(43)) >= now);
+        Assertions.assertEquals(now - 1000, lastAccessOf("b".repeat(43)));
+    }
+
+    /**
+     * 测试：超时没访问的 Session 识别不出来；清理任务分批删掉过期记录，没过期的保留
+     */
+    @Test
+    void expiredSessions_shouldBeRejectedAndSwept() {
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 5; i++) {
+            insert("old" + i + "x".repeat(39), 2, now - TIMEOUT_MILLIS - 1000);
+        }
+        insert("y".repeat(43), 3, now);
+
+        Assertions.assertNull(store.current(requestWith("old0" + "x".repeat(39))));
+        Assertions.assertEquals(2, userSessionMapper.deleteExpired(now - TIMEOUT_MILLIS, 2));
+        store.sweepExpired();
+
+        Assertions.assertEquals(1L, userSessionMapper.selectCount(null));
+        Assertions.assertNotNull(userSessionMapper.selectById("y".repeat(43)));
+    }
+
+    /**
+     * 测试：作废用户后，即使 Session 还在本节点近缓存里也立即失效，其他用户不受影响
+     */
+    @Test
+    void revokeUser_shouldDropSessionsEvenWhenCached() {
+        String first = login(2);
+        String other = login(3);
+        Assertions.assertNotNull(store.current(requestWith(first)));
+
+        store.revokeUser(2);
+
+        Assertions.assertNull(store.current(requestWith(first)));
+        Assertions.assertNull(userSessionMapper.selectById(first));
+        Assertions.assertEquals(3L, store.current(requestWith(other)).userId());
+        String again = login(2);
+        Assertions.assertEquals(2L, store.current(requestWith(again)).userId());
+    }
+
+    /**
+     * 测试：退出删除库里的 Session，并下发 Max-Age=0 的同名 Cookie
+     */
+    @Test
+    void logout_shouldDeleteSessionAndExpireCookie() {
+        String sessionId = login(2);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        store.logout(requestWith(sessionId), response);
+
+        String setCookie = response.getHeader(HttpHeaders.SET_COOKIE);
+        Assertions.assertNotNull(setCookie);
+        Assertions.assertTrue(setCookie.startsWith(DbLoginStateStore.COOKIE_NAME + "=;"));
+        Assertions.assertTrue(setCookie.contains("Max-Age=0"));
+        Assertions.assertNull(userSessionMapper.selectById(sessionId));
+        Assertions.assertNull(store.current(requestWith(sessionId)));
+    }
+
+    private String login(long userId) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        Assertions.assertEquals(userId, store.login(new MockHttpServletRequest(), response, userId).userId());
+        Cookie cookie = response.getCookie(DbLoginStateStore.COOKIE_NAME);
+        Assertions.assertNotNull(cookie);
+        return cookie.getValue();
+    }
+
+    private void insert(String sessionId, long userId, long lastAccessAt) {
+        UserSession s = session(sessionId, lastAccessAt);
+        s.setUserId(userId);
+        userSessionMapper.insert(s);
+    }
+
+    private long lastAccessOf(String sessionId) {
+        return userSessionMapper.selectById(sessionId).getLastAccessAt();
+    }
+
+    private static UserSession session(String sessionId, long lastAccessAt) {
+        UserSession s = new UserSession();
+        s.setSessionId(sessionId);
+        s.setLastAccessAt(lastAccessAt);
+        return s;
+    }
+
+    private static MockHttpServletRequest requestWith(String sessionId) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setCookies(new Cookie(DbLoginStateStore.COOKIE_NAME, sessionId));
+        return request;
+    }
+}
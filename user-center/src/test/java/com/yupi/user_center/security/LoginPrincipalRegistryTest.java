@@ -0,0 +1,58 @@
+package com.yupi.user_center.security;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.yupi.user_center.cache.RoleCatalog;
+import com.yupi.user_center.mapper.UserRoleMapper;
+import com.yupi.user_center.model.UserRole;
+import jakarta.annotation.Resource;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * 登录主体登记处测试类（内嵌 H2，h2 profile 的建表脚本、种子用户和内置角色）。
+ *
+ * <p>直接改库、不调用 invalidate，模拟“在别的节点上改了角色”：本节点只能靠登录主体过期看到变化。</p>
+ *
+ * @author Ethan
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.name=login_principal_registry",
+        "user-center.login-principal.principal-ttl-ms=100"
+})
+@ActiveProfiles("h2")
+public class LoginPrincipalRegistryTest {
+
+    @Resource
+    private LoginPrincipalRegistry registry;
+
+    @Resource
+    private UserRoleMapper userRoleMapper;
+
+    @Resource
+    private RoleCatalog roleCatalog;
+
+    /**
+     * 测试：其他节点授予、撤销 ADMIN 角色后，本节点的登录主体最多过期时间之后就带上新的 roleId
+     */
+    @Test
+    void getPrincipal_shouldPickUpRoleChangesAfterTtl() throws InterruptedException {
+        long userId = 41;
+        long adminRoleId = roleCatalog.getByKey("ADMIN").getId();
+        Assertions.assertEquals(0L, registry.getPrincipal(userId).roleId());
+
+        UserRole ur = new UserRole();
+        ur.setUserId(userId);
+        ur.setRoleId(adminRoleId);
+        userRoleMapper.insert(ur);
+        Assertions.assertEquals(0L, registry.getPrincipal(userId).roleId());
+        Thread.sleep(150);
+        Assertions.assertEquals(adminRoleId, registry.getPrincipal(userId).roleId());
+
+        userRoleMapper.delete(new QueryWrapper<UserRole>().eq("user_id", userId));
+        Thread.sleep(150);
+        Assertions.assertEquals(0L, registry.getPrincipal(userId).roleId());
+        Assertions.assertNull(registry.getPrincipal(999_999));
+    }
+}
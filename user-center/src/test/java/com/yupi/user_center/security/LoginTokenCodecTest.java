@@ -0,0 +1,62 @@
+package com.yupi.user_center.security;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 登录令牌编解码测试类（纯内存，不依赖数据库）。
+ *
+ * @author Ethan
+ */
+public class LoginTokenCodecTest {
+
+    private static final byte[] KEY_1 = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] KEY_2 = "fedcba9876543210fedcba9876543210".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * 测试：签发的令牌能原样解析，篡改或过期后解析失败
+     */
+    @Test
+    void decode_shouldRoundTripAndRejectTamperedOrExpired() {
+        LoginTokenCodec codec = new LoginTokenCodec(Map.of("k1", KEY_1), "k1");
+        LoginPrincipal principal = new LoginPrincipal(42L, 1, 7L, 0, 99L);
+        String token = codec.encode(new LoginTokenCodec.Claims(principal, 1000L, 2000L, 12345L));
+
+        LoginTokenCodec.Claims claims = codec.decode(token, 1500L);
+        Assertions.assertNotNull(claims);
+        Assertions.assertEquals(principal, claims.principal());
+        Assertions.assertEquals(12345L, claims.jti());
+
+        Assertions.assertNull(codec.decode(token, 2000L));
+        char last = token.charAt(token.length() - 1);
+        String tampered = token.substring(0, token.length() - 1) + (last == 'A' ? 'B' : 'A');
+        Assertions.assertNull(codec.decode(tampered, 1500L));
+        Assertions.assertNull(codec.decode("garbage", 1500L));
+    }
+
+    /**
+     * 测试：密钥轮换——新节点用 k2 签发，仍然认可 k1 签发的旧令牌；删掉 k1 后旧令牌失效
+     */
+    @Test
+    void decode_shouldAcceptOldKidDuringRotation() {
+        LoginTokenCodec oldCodec = new LoginTokenCodec(Map.of("k1", KEY_1), "k1");
+        Map<String, byte[]> both = new LinkedHashMap<>();
+        both.put("k1", KEY_1);
+        both.put("k2", KEY_2);
+        LoginTokenCodec rotated = new LoginTokenCodec(both, "k2");
+        LoginTokenCodec.Claims claims = new LoginTokenCodec.Claims(new LoginPrincipal(1L, 0, 0L, 0, 1L), 0L, 10_000L, 1L);
+
+        String oldToken = oldCodec.encode(claims);
+        String newToken = rotated.encode(claims);
+        Assertions.assertTrue(newToken.startsWith("k2."));
+        Assertions.assertNotNull(rotated.decode(oldToken, 1L));
+        Assertions.assertNotNull(rotated.decode(newToken, 1L));
+
+        LoginTokenCodec onlyNew = new LoginTokenCodec(Map.of("k2", KEY_2), "k2");
+        Assertions.assertNull(onlyNew.decode(oldToken, 1L));
+    }
+}
@@ -0,0 +1,62 @@
+package com.yupi.user_center.security;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * PBKDF2 密码哈希测试类（纯内存，不依赖数据库）。
+ *
+ * @author Ethan
+ */
+public class Pbkdf2PasswordHasherTest {
+
+    /**
+     * 测试：同一密码两次哈希盐不同，但都能校验通过
+     */
+    @Test
+    void hash_shouldUseRandomSaltAndMatch() {
+        Pbkdf2PasswordHasher hasher = new Pbkdf2PasswordHasher(1000);
+        String a = hasher.hash("12345678");
+        String b = hasher.hash("12345678");
+
+        Assertions.assertNotEquals(a, b);
+        Assertions.assertTrue(hasher.matches("12345678", a));
+        Assertions.assertTrue(hasher.matches("12345678", b));
+        Assertions.assertFalse(hasher.matches("12345679", a));
+        Assertions.assertFalse(hasher.needsRehash(a));
+    }
+
+    /**
+     * 测试：旧的加盐 MD5 密码仍能登录，并且需要升级；迭代次数调大后旧 PBKDF2 也需要升级
+     */
+    @Test
+    void matches_shouldAcceptLegacyMd5AndFlagRehash() {
+        String legacy = new Md5PasswordHasher().hash("12345678");
+        Pbkdf2PasswordHasher hasher = new Pbkdf2PasswordHasher(1000);
+
+        Assertions.assertTrue(hasher.matches("12345678", legacy));
+        Assertions.assertFalse(hasher.matches("wrong", legacy));
+        Assertions.assertTrue(hasher.needsRehash(legacy));
+
+        String weak = hasher.hash("12345678");
+        Pbkdf2PasswordHasher stronger = new Pbkdf2PasswordHasher(2000);
+        Assertions.assertTrue(stronger.matches("12345678", weak));
+        Assertions.assertTrue(stronger.needsRehash(weak));
+        Assertions.assertFalse(stronger.matches("12345678", "pbkdf2$bad"));
+    }
+
+    /**
+     * 测试：回滚到 md5 后，已升级成 PBKDF2 的密码仍能校验，且不会被要求“降级”重哈希
+     */
+    @Test
+    void md5Hasher_shouldStillVerifyUpgradedPbkdf2() {
+        String upgraded = new Pbkdf2PasswordHasher(1000).hash("12345678");
+        Md5PasswordHasher md5 = new Md5PasswordHasher();
+
+        Assertions.assertTrue(md5.matches("12345678", upgraded));
+        Assertions.assertFalse(md5.matches("wrong", upgraded));
+        Assertions.assertFalse(md5.matches("12345678", "pbkdf2$bad"));
+        Assertions.assertFalse(md5.needsRehash(upgraded));
+        Assertions.assertTrue(md5.matches("12345678", md5.hash("12345678")));
+    }
+}
@@ -0,0 +1,89 @@
+package com.yupi.user_center.security;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 令牌桶限流器测试类（指定时间推进，不依赖真实时钟）。
+ *
+ * @author Ethan
+ */
+public class TokenBucketLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * 测试：先放行 capacity 次突发，之后拒绝并给出等待时间；按速率补充后再次放行；不同 key 互不影响
+     */
+    @Test
+    void tryAcquire_shouldAllowBurstThenRefillAtRate() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter("test", 3, 1, 100, 4);
+        long t = 1_000 * SECOND;
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertEquals(0, limiter.tryAcquire("1.2.3.4", t));
+        }
+        long wait = limiter.tryAcquire("1.2.3.4", t);
+        Assertions.assertTrue(wait > 0 && wait <= SECOND, "wait=" + wait);
+        Assertions.assertEquals(0, limiter.tryAcquire("5.6.7.8", t));
+
+        Assertions.assertTrue(limiter.tryAcquire("1.2.3.4", t + SECOND / 2) > 0);
+        Assertions.assertEquals(0, limiter.tryAcquire("1.2.3.4", t + SECOND));
+        Assertions.assertTrue(limiter.tryAcquire("1.2.3.4", t + SECOND) > 0);
+
+        // 空闲很久也只补到 capacity
+        long later = t + 100 * SECOND;
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertEquals(0, limiter.tryAcquire("1.2.3.4", later));
+        }
+        Assertions.assertTrue(limiter.tryAcquire("1.2.3.4", later) > 0);
+        Assertions.assertEquals(8, limiter.getAllowedCount());
+        Assertions.assertEquals(4, limiter.getRejectedCount());
+    }
+
+    /**
+     * 测试：key 数有上限（淘汰最久没访问的）；已补满的桶会被清理，未补满的保留
+     */
+    @Test
+    void keys_shouldBeBoundedAndIdleBucketsEvicted() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter("test", 2, 1, 4, 1);
+        long t = 1_000 * SECOND;
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire("k" + i, t);
+        }
+        Assertions.assertEquals(4, limiter.size());
+        Assertions.assertEquals(6, limiter.getEvictedCount());
+
+        // k9 用完令牌，其余 3 个各只用了 1 个；2 秒后 k6~k8 已补满，k9 还没有
+        limiter.tryAcquire("k9", t + SECOND);
+        limiter.tryAcquire("k9", t + SECOND);
+        Assertions.assertEquals(3, limiter.evictIdle(t + 2 * SECOND));
+        Assertions.assertEquals(1, limiter.size());
+        Assertions.assertTrue(limiter.tryAcquire("k9", t + SECOND) > 0);
+    }
+
+    /**
+     * 测试：退还的令牌可以再用，但不会超过 capacity；不存在的 key 退还无效果
+     */
+    @Test
+    void refund_shouldReturnTokenUpToCapacity() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter("test", 2, 1, 100, 4);
+        long t = 1_000 * SECOND;
+        Assertions.assertEquals(0, limiter.tryAcquire("alice", t));
+        Assertions.assertEquals(0, limiter.tryAcquire("alice", t));
+        limiter.refund("alice");
+        Assertions.assertEquals(0, limiter.tryAcquire("alice", t));
+        Assertions.assertTrue(limiter.tryAcquire("alice", t) > 0);
+
+        limiter.refund("alice");
+        limiter.refund("alice");
+        limiter.refund("alice");
+        Assertions.assertEquals(0, limiter.tryAcquire("alice", t));
+        Assertions.assertEquals(0, limiter.tryAcquire("alice", t));
+        Assertions.assertTrue(limiter.tryAcquire("alice", t) > 0);
+
+        limiter.refund("bob");
+        Assertions.assertEquals(1, limiter.size());
+    }
+}
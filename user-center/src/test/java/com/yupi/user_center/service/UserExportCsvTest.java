@@ -0,0 +1,24 @@
+package com.yupi.user_center.service;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+
+/**
+ * 用户导出 CSV 写出测试类（纯内存，不依赖数据库）。
+ *
+ * @author Ethan
+ */
+public class UserExportCsvTest {
+
+    /**
+     * 测试：以 = + - @ 开头的文本字段加单引号前缀（防 CSV 公式注入），数字不受影响；需要时照常加引号转义
+     */
+    @Test
+    void writeCsvLine_shouldNeutralizeFormulas() throws Exception {
+        StringWriter w = new StringWriter();
+        UserExportServiceImpl.writeCsvLine(w, 1L, "=HYPERLINK(\"http://x\",\"y\")", "+1", "-2", "@SUM(A1)", "alice", -3, null);
+        Assertions.assertEquals("1,\"'=HYPERLINK(\"\"http://x\"\",\"\"y\"\")\",'+1,'-2,'@SUM(A1),alice,-3,\n", w.toString());
+    }
+}
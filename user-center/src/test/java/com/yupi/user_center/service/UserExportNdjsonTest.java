@@ -0,0 +1,85 @@
+package com.yupi.user_center.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yupi.user_center.cache.RoleCatalog;
+import com.yupi.user_center.mapper.UserMapper;
+import com.yupi.user_center.model.vo.UserVO;
+import org.apache.ibatis.executor.result.DefaultResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * 用户导出 NDJSON 写出测试类（纯内存，不依赖数据库；Mapper 和角色表用假实现）。
+ *
+ * @author Ethan
+ */
+public class UserExportNdjsonTest {
+
+    /**
+     * 测试：每行一个 JSON，逐行写出时不逐行 flush 输出流（只在结束时 flush）
+     */
+    @Test
+    void exportNdjson_shouldNotFlushPerRow() throws Exception {
+        int rows = 1000;
+        UserExportServiceImpl service = new UserExportServiceImpl();
+        ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper().findAndRegisterModules());
+        ReflectionTestUtils.setField(service, "userMapper", fakeUserMapper(rows));
+        RoleCatalog roleCatalog = new RoleCatalog();
+        ReflectionTestUtils.setField(roleCatalog, "roleService", proxy(RoleService.class, "list", List.of()));
+        ReflectionTestUtils.setField(service, "roleCatalog", roleCatalog);
+        service.init();
+
+        int[] flushes = {0};
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void flush() {
+                flushes[0]++;
+            }
+        };
+
+        Assertions.assertEquals(rows, service.exportUsers(UserExportService.FORMAT_NDJSON, out));
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        Assertions.assertEquals(rows, lines.length);
+        Assertions.assertTrue(lines[rows - 1].startsWith("{\"id\":" + rows + ","));
+        // 结束时 gen.flush() 和关闭生成器各一次，与行数无关
+        Assertions.assertTrue(flushes[0] <= 2, "flush 次数：" + flushes[0]);
+    }
+
+    private static UserMapper fakeUserMapper(int rows) {
+        return (UserMapper) Proxy.newProxyInstance(UserMapper.class.getClassLoader(), new Class<?>[]{UserMapper.class},
+                (p, method, args) -> {
+                    if (!"streamExportRows".equals(method.getName())) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    @SuppressWarnings("unchecked")
+                    ResultHandler<UserVO> handler = (ResultHandler<UserVO>) args[0];
+                    DefaultResultContext<UserVO> ctx = new DefaultResultContext<>();
+                    for (long id = 1; id <= rows && !ctx.isStopped(); id++) {
+                        UserVO vo = new UserVO();
+                        vo.setId(id);
+                        vo.setUserAccount("seed_" + id);
+                        ctx.nextResultObject(vo);
+                        handler.handleResult(ctx);
+                    }
+                    return null;
+                });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, String methodName, Object result) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (p, method, args) -> {
+                    if (methodName.equals(method.getName())) {
+                        return result;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,35 @@
+package com.yupi.user_center.service;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.List;
+
+/**
+ * 批量导入 CSV 解析测试类（纯内存，不依赖数据库）。
+ *
+ * @author Ethan
+ */
+public class UserImportCsvTest {
+
+    /**
+     * 测试：引号包裹的逗号、"" 转义和引号内换行都按一个字段解析，行号按物理行累计
+     */
+    @Test
+    void readCsvRecord_shouldHandleQuotedFields() throws Exception {
+        BufferedReader reader = new BufferedReader(new StringReader(
+                "userAccount,userPassword,name\n"
+                        + "driver_1,12345678,\"Smith, \"\"J\"\"\"\n"
+                        + "driver_2,12345678,\"two\nlines\"\n"
+                        + "driver_3, 12345678 ,\n"));
+        long[] lineNo = {0};
+        Assertions.assertEquals(List.of("userAccount", "userPassword", "name"), UserImportServiceImpl.readCsvRecord(reader, lineNo));
+        Assertions.assertEquals(List.of("driver_1", "12345678", "Smith, \"J\""), UserImportServiceImpl.readCsvRecord(reader, lineNo));
+        Assertions.assertEquals(List.of("driver_2", "12345678", "two\nlines"), UserImportServiceImpl.readCsvRecord(reader, lineNo));
+        Assertions.assertEquals(4, lineNo[0]);
+        Assertions.assertEquals(List.of("driver_3", "12345678", ""), UserImportServiceImpl.readCsvRecord(reader, lineNo));
+        Assertions.assertNull(UserImportServiceImpl.readCsvRecord(reader, lineNo));
+    }
+}
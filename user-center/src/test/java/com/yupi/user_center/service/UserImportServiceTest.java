@@ -0,0 +1,179 @@
+package com.yupi.user_center.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.yupi.user_center.cache.AccountBloomFilter;
+import com.yupi.user_center.cache.RoleCatalog;
+import com.yupi.user_center.cache.UserSearchIndex;
+import com.yupi.user_center.mapper.UserMapper;
+import com.yupi.user_center.mapper.UserRoleMapper;
+import com.yupi.user_center.model.User;
+import com.yupi.user_center.model.UserRole;
+import com.yupi.user_center.model.vo.UserImportResultVO;
+import jakarta.annotation.Resource;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * 用户批量导入测试类（内嵌 H2，h2 profile 的建表脚本、种子用户和内置角色）。
+ *
+ * <p>每批 2 行、最多 6 行，几行数据就能覆盖分批、截断和整批回退逐行的路径。</p>
+ *
+ * @author Ethan
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.name=user_import_service",
+        "user-center.user-import.chunk-size=2",
+        "user-center.user-import.max-rows=6"
+})
+@ActiveProfiles("h2")
+public class UserImportServiceTest {
+
+    @Resource
+    private UserImportService userImportService;
+
+    @Resource
+    private UserMapper userMapper;
+
+    @Resource
+    private UserRoleMapper userRoleMapper;
+
+    @Resource
+    private RoleCatalog roleCatalog;
+
+    @Resource
+    private AccountBloomFilter accountBloomFilter;
+
+    @Resource
+    private UserSearchIndex userSearchIndex;
+
+    @BeforeEach
+    void waitForCaches() throws InterruptedException {
+        accountBloomFilter.rebuild();
+        for (int i = 0; i < 200 && !userSearchIndex.isReady(); i++) {
+            Thread.sleep(50);
+        }
+        Assertions.assertTrue(userSearchIndex.isReady());
+    }
+
+    /**
+     * 测试：库里已有的账号、文件内重复的账号判失败，其余行入库
+     */
+    @Test
+    void importUsers_shouldRejectExistingAndInFileDuplicates() throws Exception {
+        UserImportResultVO result = importNdjson(
+                "{\"userAccount\":\"seed_1\",\"userPassword\":\"12345678\"}",
+                "{\"userAccount\":\"imp_dup_a\",\"userPassword\":\"12345678\"}",
+                "",
+                "{\"userAccount\":\"imp_dup_a\",\"userPassword\":\"12345678\"}",
+                "not json",
+                "{\"userAccount\":\"imp_dup_b\",\"userPassword\":\"short\"}");
+
+        Assertions.assertEquals(5, result.getTotal());
+        Assertions.assertEquals(1, result.getSucceeded());
+        Assertions.assertEquals(List.of("账号已存在", "", "账号在导入文件中重复", "JSON 格式不正确", "密码长度必须在 8~64 位"),
+                result.getResults().stream().map(i -> i.isSuccess() ? "" : i.getMessage()).toList());
+        Assertions.assertEquals(List.of(1L, 2L, 4L, 5L, 6L), result.getResults().stream().map(UserImportResultVO.Item::getLine).toList());
+        Assertions.assertEquals(1L, userMapper.selectCount(new QueryWrapper<User>().eq("userAccount", "imp_dup_a")));
+    }
+
+    /**
+     * 测试：按 roleKey / roleId 解析角色并写入 user_role，不存在的角色判失败
+     */
+    @Test
+    void importUsers_shouldResolveRoles() throws Exception {
+        long driverId = roleCatalog.getByKey("DRIVER").getId();
+        long auditorId = roleCatalog.getByKey("AUDITOR").getId();
+        UserImportResultVO result = importCsv(
+                "userAccount,userPassword,roleKey,roleId",
+                "imp_role_key,12345678,DRIVER,",
+                "imp_role_id,12345678,," + auditorId,
+                "imp_role_bad,12345678,NO_SUCH_ROLE,",
+                "imp_role_none,12345678,,");
+
+        Assertions.assertEquals(3, result.getSucceeded());
+        Assertions.assertEquals(driverId, result.getResults().get(0).getRoleId());
+        Assertions.assertEquals(auditorId, result.getResults().get(1).getRoleId());
+        Assertions.assertEquals("角色不存在或已禁用", result.getResults().get(2).getMessage());
+        Assertions.assertEquals(List.of(driverId), roleIdsOf(result.getResults().get(0).getUserId()));
+        Assertions.assertEquals(List.of(auditorId), roleIdsOf(result.getResults().get(1).getUserId()));
+        Assertions.assertEquals(List.of(), roleIdsOf(result.getResults().get(3).getUserId()));
+    }
+
+    /**
+     * 测试：超过 max-rows 的行不处理，结果标记截断
+     */
+    @Test
+    void importUsers_shouldTruncateAtMaxRows() throws Exception {
+        String[] lines = new String[8];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = "{\"userAccount\":\"imp_trunc_" + i + "\",\"userPassword\":\"12345678\"}";
+        }
+        UserImportResultVO result = importNdjson(lines);
+
+        Assertions.assertTrue(result.isTruncated());
+        Assertions.assertEquals(6, result.getTotal());
+        Assertions.assertEquals(6, result.getSucceeded());
+        Assertions.assertEquals(0L, userMapper.selectCount(new QueryWrapper<User>().eq("userAccount", "imp_trunc_6")));
+    }
+
+    /**
+     * 测试：导入成功的账号进布隆过滤器和搜索索引，注册查重、子串搜索立刻能看到
+     */
+    @Test
+    void importUsers_shouldUpdateBloomFilterAndSearchIndex() throws Exception {
+        Assertions.assertFalse(accountBloomFilter.mightContain("imp_visible_zq"));
+        UserImportResultVO result = importNdjson(
+                "{\"userAccount\":\"imp_visible_zq\",\"userPassword\":\"12345678\",\"name\":\"导入可见\"}");
+
+        long userId = result.getResults().get(0).getUserId();
+        Assertions.assertTrue(accountBloomFilter.mightContain("imp_visible_zq"));
+        long[] hits = userSearchIndex.search("visible_zq", 10);
+        Assertions.assertNotNull(hits);
+        Assertions.assertArrayEquals(new long[]{userId}, hits);
+    }
+
+    /**
+     * 测试：某一行写库出错（用户名超出列长度）只记在这一行上，同批和后面批次的行照常导入
+     */
+    @Test
+    void importUsers_shouldRecordWriteFailuresPerRow() throws Exception {
+        UserImportResultVO result = importNdjson(
+                "{\"userAccount\":\"imp_write_ok1\",\"userPassword\":\"12345678\"}",
+                "{\"userAccount\":\"imp_write_bad\",\"userPassword\":\"12345678\",\"name\":\"" + "x".repeat(300) + "\"}",
+                "{\"userAccount\":\"imp_write_ok2\",\"userPassword\":\"12345678\"}");
+
+        Assertions.assertEquals(2, result.getSucceeded());
+        Assertions.assertTrue(result.getResults().get(0).isSuccess());
+        Assertions.assertFalse(result.getResults().get(1).isSuccess());
+        Assertions.assertEquals("写入数据库失败", result.getResults().get(1).getMessage());
+        Assertions.assertNull(result.getResults().get(1).getUserId());
+        Assertions.assertTrue(result.getResults().get(2).isSuccess());
+        Assertions.assertEquals(0L, userMapper.selectCount(new QueryWrapper<User>().eq("userAccount", "imp_write_bad")));
+        Assertions.assertFalse(accountBloomFilter.mightContain("imp_write_bad"));
+    }
+
+    private UserImportResultVO importNdjson(String... lines) throws Exception {
+        return run(UserImportService.FORMAT_NDJSON, lines);
+    }
+
+    private UserImportResultVO importCsv(String... lines) throws Exception {
+        return run(UserImportService.FORMAT_CSV, lines);
+    }
+
+    private UserImportResultVO run(String format, String... lines) throws Exception {
+        byte[] body = (String.join("\n", lines) + "\n").getBytes(StandardCharsets.UTF_8);
+        return userImportService.importUsers(format, new ByteArrayInputStream(body));
+    }
+
+    private List<Long> roleIdsOf(Long userId) {
+        return userRoleMapper.selectList(new QueryWrapper<UserRole>().eq("user_id", userId))
+                .stream().map(UserRole::getRoleId).toList();
+    }
+}
@@ -0,0 +1,11 @@
+-- 测试种子数据（H2 MySQL 模式，h2 profile 的数据库行为测试和压测共用）
+-- 管理员：lt_admin / 12345678（旧 MD5 哈希，首次登录时自动升级为 PBKDF2）
+INSERT INTO `user` (`username`, `userAccount`, `userPassword`, `userRole`)
+VALUES ('压测管理员', 'lt_admin', '10670d38ec32fa8102be6a37f8cb52bf', 1);
+
+-- 10000 个普通用户：seed_1 ~ seed_10000，密码同上；createTime 错开，游标分页才有意义
+INSERT INTO `user` (`username`, `userAccount`, `userPassword`, `email`, `phone`, `gender`, `createTime`)
+SELECT CONCAT('种子用户', X), CONCAT('seed_', X), '10670d38ec32fa8102be6a37f8cb52bf',
+       CONCAT('seed_', X, '@example.com'), CONCAT('138', LPAD(CAST(X AS VARCHAR), 8, '0')), MOD(X, 2),
+       DATEADD('SECOND', -X, CURRENT_TIMESTAMP)
+FROM SYSTEM_RANGE(1, 10000);